@@ -46,12 +46,15 @@ import org.hisp.dhis.android.core.analytics.linelist.LineListItem
 import org.hisp.dhis.android.core.category.internal.CategoryComboStore
 import org.hisp.dhis.android.core.category.internal.CategoryOptionComboStoreImpl
 import org.hisp.dhis.android.core.common.BaseIdentifiableObject
+import org.hisp.dhis.android.core.common.DateFilterPeriodHelper
 import org.hisp.dhis.android.core.dataelement.internal.DataElementStore
 import org.hisp.dhis.android.core.enrollment.internal.EnrollmentStoreImpl
 import org.hisp.dhis.android.core.event.Event
 import org.hisp.dhis.android.core.event.internal.EventStoreImpl
 import org.hisp.dhis.android.core.organisationunit.internal.OrganisationUnitStore
 import org.hisp.dhis.android.core.period.PeriodType
+import org.hisp.dhis.android.core.period.internal.CalendarProviderFactory
+import org.hisp.dhis.android.core.period.internal.ParentPeriodGeneratorImpl
 import org.hisp.dhis.android.core.program.ProgramIndicator
 import org.hisp.dhis.android.core.program.internal.ProgramIndicatorStore
 import org.hisp.dhis.android.core.program.internal.ProgramStageStore
@@ -70,6 +73,9 @@ import org.junit.runner.RunWith
 @RunWith(D2JunitRunner::class)
 class EventLineListIntegrationShould : BaseMockIntegrationTestEmptyDispatcher() {
 
+    private val calendarProvider = CalendarProviderFactory.calendarProvider
+    private val parentPeriodGenerator = ParentPeriodGeneratorImpl.create(calendarProvider)
+
     private val eventLineListService: EventLineListService = EventLineListServiceImpl(
         eventRepository = d2.eventModule().events(),
         dataValueRepository = d2.trackedEntityModule().trackedEntityDataValues(),
@@ -78,7 +84,8 @@ class EventLineListIntegrationShould : BaseMockIntegrationTestEmptyDispatcher()
         organisationUnitRepository = d2.organisationUnitModule().organisationUnits(),
         programStageRepository = d2.programModule().programStages(),
         programIndicatorEngine = d2.programModule().programIndicatorEngine(),
-        periodHelper = d2.periodModule().periodHelper()
+        parentPeriodGenerator = parentPeriodGenerator,
+        dateFilterPeriodHelper = DateFilterPeriodHelper(calendarProvider, parentPeriodGenerator)
     )
 
     // Stores
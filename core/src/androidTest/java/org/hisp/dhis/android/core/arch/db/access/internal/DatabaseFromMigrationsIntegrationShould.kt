@@ -41,7 +41,9 @@ class DatabaseFromMigrationsIntegrationShould {
     companion object {
         private const val DB_NAME_1 = "database-from-migrations-integration-should-1.db"
         private const val DB_NAME_2 = "database-from-migrations-integration-should-2.db"
+        private const val DB_NAME_3 = "database-from-migrations-integration-should-3.db"
         private lateinit var databaseAdapterFactory: DatabaseAdapterFactory
+        private lateinit var templateDatabaseAdapterFactory: DatabaseAdapterFactory
 
         private val context = InstrumentationRegistry.getInstrumentation().context
 
@@ -49,18 +51,21 @@ class DatabaseFromMigrationsIntegrationShould {
         @JvmStatic
         fun setUpClass() {
             deleteDatabases()
-            databaseAdapterFactory = DatabaseAdapterFactory.create(context, InMemorySecureStore())
+            databaseAdapterFactory = DatabaseAdapterFactory.create(context, InMemorySecureStore(), 0, false)
+            templateDatabaseAdapterFactory = DatabaseAdapterFactory.create(context, InMemorySecureStore())
         }
 
         @AfterClass
         @JvmStatic
         fun tearDownClass() {
+            DatabaseMigrationExecutor.USE_SNAPSHOT = true
             deleteDatabases()
         }
 
         private fun deleteDatabases() {
             context.deleteDatabase(DB_NAME_1)
             context.deleteDatabase(DB_NAME_2)
+            context.deleteDatabase(DB_NAME_3)
         }
     }
 
@@ -76,6 +81,26 @@ class DatabaseFromMigrationsIntegrationShould {
         createDb(databaseAdapter, DB_NAME_2)
         val schema2 = getSchema(databaseAdapter)
 
+        databaseAdapter.close()
+        DatabaseMigrationExecutor.USE_SNAPSHOT = true
+
+        val diff1 = schema1 - schema2
+        val diff2 = schema2 - schema1
+
+        assertThat(diff1).isEmpty()
+        assertThat(diff2).isEmpty()
+    }
+
+    @Test
+    fun ensure_db_from_template_and_from_snapshots_have_the_same_schema() {
+        val databaseAdapter = databaseAdapterFactory.newParentDatabaseAdapter()
+
+        createDb(databaseAdapter, DB_NAME_1)
+        val schema1 = getSchema(databaseAdapter)
+
+        templateDatabaseAdapterFactory.createOrOpenDatabase(databaseAdapter, DB_NAME_3, false)
+        val schema2 = getSchema(databaseAdapter)
+
         databaseAdapter.close()
 
         val diff1 = schema1 - schema2
@@ -0,0 +1,134 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.db.access.internal;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
+import org.hisp.dhis.android.core.arch.db.access.Transaction;
+import org.hisp.dhis.android.core.arch.storage.internal.InMemorySecureStore;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class DatabaseReadConnectionsIntegrationShould {
+
+    private static final String UNENCRYPTED_DB_NAME = "database-read-connections-unencrypted.db";
+    private static final String ENCRYPTED_DB_NAME = "database-read-connections-encrypted.db";
+    private static final String TABLE = "ReadConnectionsImport";
+    private static final int ROWS = 50000;
+
+    private static DatabaseAdapterFactory databaseAdapterFactory;
+
+    @BeforeClass
+    public static void setUpClass() {
+        Context context = InstrumentationRegistry.getInstrumentation().getContext();
+        databaseAdapterFactory = DatabaseAdapterFactory.create(context, new InMemorySecureStore(), 2);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        Context context = InstrumentationRegistry.getInstrumentation().getContext();
+        context.deleteDatabase(UNENCRYPTED_DB_NAME);
+        context.deleteDatabase(ENCRYPTED_DB_NAME);
+    }
+
+    @Test
+    public void read_committed_rows_during_an_import_in_unencrypted_database() throws Exception {
+        readDuringImport(UNENCRYPTED_DB_NAME, false);
+    }
+
+    @Test
+    public void read_committed_rows_during_an_import_in_encrypted_database() throws Exception {
+        readDuringImport(ENCRYPTED_DB_NAME, true);
+    }
+
+    private void readDuringImport(String databaseName, boolean encrypt) throws Exception {
+        DatabaseAdapter databaseAdapter = databaseAdapterFactory.newParentDatabaseAdapter();
+        databaseAdapterFactory.createOrOpenDatabase(databaseAdapter, databaseName, encrypt);
+        databaseAdapter.execSQL("DROP TABLE IF EXISTS " + TABLE);
+        databaseAdapter.execSQL("CREATE TABLE " + TABLE + " (value INTEGER)");
+
+        CountDownLatch imported = new CountDownLatch(1);
+        CountDownLatch read = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<?> writer = executor.submit(() -> {
+                Transaction transaction = databaseAdapter.beginNewTransaction();
+                try {
+                    ContentValues values = new ContentValues();
+                    for (int i = 0; i < ROWS; i++) {
+                        values.put("value", i);
+                        databaseAdapter.insert(TABLE, null, values);
+                    }
+                    imported.countDown();
+                    read.await(30, TimeUnit.SECONDS);
+                    transaction.setSuccessful();
+                } finally {
+                    transaction.end();
+                }
+                return null;
+            });
+
+            assertThat(imported.await(60, TimeUnit.SECONDS)).isTrue();
+
+            Future<Integer> reader = executor.submit(() -> count(databaseAdapter));
+            int countDuringImport = reader.get(10, TimeUnit.SECONDS);
+            read.countDown();
+
+            assertThat(countDuringImport).isEqualTo(0);
+
+            writer.get(60, TimeUnit.SECONDS);
+            assertThat(count(databaseAdapter)).isEqualTo(ROWS);
+        } finally {
+            read.countDown();
+            executor.shutdownNow();
+            databaseAdapter.close();
+        }
+    }
+
+    private static int count(DatabaseAdapter databaseAdapter) {
+        try (Cursor cursor = databaseAdapter.rawQuery("SELECT COUNT(*) FROM " + TABLE)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.hisp.dhis.android.core.arch.db.access.internal
+
+import android.database.sqlite.SQLiteDatabase
+import androidx.test.platform.app.InstrumentationRegistry
+import com.google.common.truth.Truth.assertThat
+import java.io.File
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter
+import org.hisp.dhis.android.core.arch.db.access.DatabaseSnapshotFilter
+import org.hisp.dhis.android.core.arch.storage.internal.InMemorySecureStore
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+class DatabaseSnapshotIntegrationShould {
+
+    companion object {
+        private const val DB_NAME = "database-snapshot-integration-should.db"
+        private val context = InstrumentationRegistry.getInstrumentation().context
+    }
+
+    private val databaseSnapshot = DatabaseSnapshot()
+    private lateinit var databaseAdapter: DatabaseAdapter
+    private lateinit var snapshotFile: File
+
+    @Before
+    fun setUp() {
+        context.deleteDatabase(DB_NAME)
+        val databaseAdapterFactory = DatabaseAdapterFactory.create(context, InMemorySecureStore())
+        databaseAdapter = databaseAdapterFactory.newParentDatabaseAdapter()
+        databaseAdapterFactory.createOrOpenDatabase(databaseAdapter, DB_NAME, false)
+        snapshotFile = File(context.cacheDir, "database-snapshot-integration-should.snapshot")
+
+        databaseAdapter.execSQL("INSERT INTO Constant (uid, name, value) VALUES ('constant', 'Constant', '1.5')")
+        databaseAdapter.execSQL("INSERT INTO OrganisationUnit (uid, name, level) VALUES ('ou', 'Org unit', 1)")
+        databaseAdapter.execSQL("INSERT INTO TrackedEntityType (uid, name) VALUES ('tet', 'Person')")
+        databaseAdapter.execSQL(
+            "INSERT INTO TrackedEntityInstance (uid, organisationUnit, trackedEntityType, state) VALUES " +
+                "('tei1', 'ou', 'tet', 'TO_POST'), ('tei2', 'ou', 'tet', 'SYNCED')"
+        )
+    }
+
+    @After
+    fun tearDown() {
+        databaseAdapter.close()
+        context.deleteDatabase(DB_NAME)
+        snapshotFile.delete()
+    }
+
+    @Test
+    fun export_and_load_all_tables() {
+        databaseSnapshot.write(databaseAdapter, DatabaseSnapshotFilter.ALL_TABLES, snapshotFile)
+
+        val loadedAdapter = UnencryptedDatabaseAdapter(SQLiteDatabase.create(null))
+        databaseSnapshot.load(snapshotFile, loadedAdapter)
+
+        assertThat(databaseSnapshot.readVersion(snapshotFile)).isEqualTo(BaseDatabaseOpenHelper.VERSION)
+        assertThat(count(loadedAdapter, "Constant")).isEqualTo(1)
+        assertThat(count(loadedAdapter, "OrganisationUnit")).isEqualTo(1)
+        assertThat(count(loadedAdapter, "TrackedEntityInstance")).isEqualTo(2)
+        assertThat(schema(loadedAdapter)).isEqualTo(schema(databaseAdapter))
+        loadedAdapter.close()
+    }
+
+    @Test
+    fun export_only_unsynced_rows_of_data_tables() {
+        databaseSnapshot.write(databaseAdapter, DatabaseSnapshotFilter.UNSYNCED_DATA, snapshotFile)
+
+        val loadedAdapter = UnencryptedDatabaseAdapter(SQLiteDatabase.create(null))
+        databaseSnapshot.load(snapshotFile, loadedAdapter)
+
+        assertThat(count(loadedAdapter, "Constant")).isEqualTo(0)
+        assertThat(count(loadedAdapter, "TrackedEntityInstance")).isEqualTo(1)
+        loadedAdapter.close()
+    }
+
+    @Test
+    fun export_the_rows_referenced_and_owned_by_filtered_rows() {
+        databaseAdapter.execSQL("INSERT INTO OrganisationUnit (uid, name, level) VALUES ('ou2', 'Org unit 2', 1)")
+        databaseAdapter.execSQL("INSERT INTO TrackedEntityAttribute (uid, name) VALUES ('tea', 'Name')")
+        databaseAdapter.execSQL(
+            "INSERT INTO TrackedEntityAttributeValue (trackedEntityAttribute, trackedEntityInstance, value) " +
+                "VALUES ('tea', 'tei1', 'value1'), ('tea', 'tei2', 'value2')"
+        )
+
+        databaseSnapshot.write(databaseAdapter, DatabaseSnapshotFilter.UNSYNCED_DATA, snapshotFile)
+
+        val loadedAdapter = UnencryptedDatabaseAdapter(SQLiteDatabase.create(null))
+        databaseSnapshot.load(snapshotFile, loadedAdapter)
+
+        assertThat(count(loadedAdapter, "OrganisationUnit")).isEqualTo(1)
+        assertThat(count(loadedAdapter, "TrackedEntityType")).isEqualTo(1)
+        assertThat(count(loadedAdapter, "TrackedEntityAttributeValue")).isEqualTo(1)
+        loadedAdapter.close()
+    }
+
+    @Test
+    fun export_and_load_blob_values() {
+        databaseAdapter.execSQL("INSERT INTO Constant (uid, name, value) VALUES ('blob', 'Blob', X'00FF10')")
+
+        databaseSnapshot.write(databaseAdapter, DatabaseSnapshotFilter.ALL_TABLES, snapshotFile)
+
+        val loadedAdapter = UnencryptedDatabaseAdapter(SQLiteDatabase.create(null))
+        databaseSnapshot.load(snapshotFile, loadedAdapter)
+
+        val blob = loadedAdapter.rawQuery("SELECT value FROM Constant WHERE uid = 'blob'").use { cursor ->
+            cursor.moveToFirst()
+            cursor.getBlob(0)
+        }
+        assertThat(blob).isEqualTo(byteArrayOf(0x00, 0xFF.toByte(), 0x10))
+        loadedAdapter.close()
+    }
+
+    @Test
+    fun export_the_committed_rows_without_waiting_for_open_transactions() {
+        val transactionOpen = CountDownLatch(1)
+        val exported = CountDownLatch(1)
+        val writer = Thread {
+            val transaction = databaseAdapter.beginNewTransaction()
+            try {
+                databaseAdapter.execSQL("INSERT INTO Constant (uid, name, value) VALUES ('new', 'New', '2')")
+                transactionOpen.countDown()
+                exported.await(5, TimeUnit.SECONDS)
+                transaction.setSuccessful()
+            } finally {
+                transaction.end()
+            }
+        }
+        writer.start()
+        assertThat(transactionOpen.await(5, TimeUnit.SECONDS)).isTrue()
+
+        databaseSnapshot.write(databaseAdapter, DatabaseSnapshotFilter.ALL_TABLES, snapshotFile)
+        exported.countDown()
+        writer.join()
+
+        val loadedAdapter = UnencryptedDatabaseAdapter(SQLiteDatabase.create(null))
+        databaseSnapshot.load(snapshotFile, loadedAdapter)
+
+        assertThat(count(loadedAdapter, "Constant")).isEqualTo(1)
+        assertThat(count(databaseAdapter, "Constant")).isEqualTo(2)
+        loadedAdapter.close()
+    }
+
+    private fun count(adapter: DatabaseAdapter, table: String): Int {
+        return adapter.rawQuery("SELECT COUNT(*) FROM $table").use { cursor ->
+            cursor.moveToFirst()
+            cursor.getInt(0)
+        }
+    }
+
+    private fun schema(adapter: DatabaseAdapter): List<String> {
+        val query = "SELECT sql FROM sqlite_master WHERE sql IS NOT NULL AND name NOT LIKE 'sqlite_%' " +
+            "AND name <> 'android_metadata' ORDER BY name"
+        return adapter.rawQuery(query).use { cursor ->
+            val sqls = mutableListOf<String>()
+            while (cursor.moveToNext()) {
+                sqls.add(cursor.getString(0))
+            }
+            sqls
+        }
+    }
+}
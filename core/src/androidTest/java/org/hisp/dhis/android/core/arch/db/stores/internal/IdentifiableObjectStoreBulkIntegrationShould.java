@@ -0,0 +1,112 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.db.stores.internal;
+
+import org.hisp.dhis.android.core.arch.handlers.internal.HandleAction;
+import org.hisp.dhis.android.core.constant.Constant;
+import org.hisp.dhis.android.core.constant.internal.ConstantStore;
+import org.hisp.dhis.android.core.data.constant.ConstantSamples;
+import org.hisp.dhis.android.core.utils.integration.mock.TestDatabaseAdapterFactory;
+import org.hisp.dhis.android.core.utils.runner.D2JunitRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(D2JunitRunner.class)
+public class IdentifiableObjectStoreBulkIntegrationShould {
+
+    // Several full statements and a partial one for any column count
+    private static final int OBJECT_COUNT = 1234;
+
+    private final IdentifiableObjectStore<Constant> store = ConstantStore.create(TestDatabaseAdapterFactory.get());
+
+    @Before
+    public void setUp() {
+        store.delete();
+    }
+
+    @Test
+    public void insert_many_objects() {
+        store.insert(constants(0, OBJECT_COUNT, 1.0));
+
+        assertThat(store.count()).isEqualTo(OBJECT_COUNT);
+        assertThat(store.selectByUid(uid(OBJECT_COUNT - 1)).value()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void update_or_insert_many_objects() {
+        int existing = OBJECT_COUNT / 2;
+        store.insert(constants(0, existing, 1.0));
+
+        List<HandleAction> actions = store.updateOrInsert(constants(0, OBJECT_COUNT, 2.0));
+
+        assertThat(actions).hasSize(OBJECT_COUNT);
+        assertThat(actions.subList(0, existing)).containsNoneOf(HandleAction.Insert, HandleAction.Delete);
+        assertThat(actions.subList(existing, OBJECT_COUNT)).containsNoneOf(HandleAction.Update, HandleAction.Delete);
+        assertThat(store.count()).isEqualTo(OBJECT_COUNT);
+        assertThat(store.selectByUid(uid(0)).value()).isEqualTo(2.0);
+        assertThat(store.selectByUid(uid(OBJECT_COUNT - 1)).value()).isEqualTo(2.0);
+    }
+
+    @Test
+    public void report_repeated_objects_as_updated() {
+        List<Constant> constants = constants(0, 2, 1.0);
+        constants.add(constant(0, 3.0));
+
+        List<HandleAction> actions = store.updateOrInsert(constants);
+
+        assertThat(actions).containsExactly(HandleAction.Insert, HandleAction.Insert, HandleAction.Update).inOrder();
+        assertThat(store.count()).isEqualTo(2);
+        assertThat(store.selectByUid(uid(0)).value()).isEqualTo(3.0);
+    }
+
+    private List<Constant> constants(int from, int to, double value) {
+        List<Constant> constants = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            constants.add(constant(i, value));
+        }
+        return constants;
+    }
+
+    private Constant constant(int index, double value) {
+        return ConstantSamples.getConstant().toBuilder()
+                .id(null)
+                .uid(uid(index))
+                .value(value)
+                .build();
+    }
+
+    private static String uid(int index) {
+        return "constant" + index;
+    }
+}
@@ -75,7 +75,8 @@ public class DataStatePropagatorIntegrationShould extends BaseMockIntegrationTes
         this.propagator = new DataStatePropagatorImpl(
                 trackedEntityInstanceStore,
                 enrollmentStore,
-                eventStore);
+                eventStore,
+                d2.databaseAdapter());
     }
 
     @Test
@@ -220,6 +221,28 @@ public class DataStatePropagatorIntegrationShould extends BaseMockIntegrationTes
         trackedEntityInstanceStore.delete(teiUid);
     }
 
+    @Test
+    public void propagate_data_value_updates_in_batch() throws D2Error {
+        String teiUid = createTEIWithState(State.SYNCED);
+        String enrollmentUid = createEnrollmentWithState(State.SYNCED, teiUid);
+        String eventUid1 = createEventWithState(State.SYNCED, enrollmentUid);
+        String eventUid2 = createEventWithState(State.TO_POST, enrollmentUid);
+
+        propagator.propagateInBatch(() -> {
+            propagator.propagateTrackedEntityDataValueUpdate(TrackedEntityDataValue.builder().event(eventUid1).build());
+            propagator.propagateTrackedEntityDataValueUpdate(TrackedEntityDataValue.builder().event(eventUid2).build());
+
+            assertThat(eventStore.selectByUid(eventUid1).state()).isEqualTo(State.SYNCED);
+        });
+
+        assertThat(trackedEntityInstanceStore.selectByUid(teiUid).state()).isEqualTo(State.TO_UPDATE);
+        assertThat(enrollmentStore.selectByUid(enrollmentUid).state()).isEqualTo(State.TO_UPDATE);
+        assertThat(eventStore.selectByUid(eventUid1).state()).isEqualTo(State.TO_UPDATE);
+        assertThat(eventStore.selectByUid(eventUid2).state()).isEqualTo(State.TO_POST);
+
+        trackedEntityInstanceStore.delete(teiUid);
+    }
+
     private void assertThatSetTeiToUpdateWhenEnrollmentPropagation(State state) throws D2Error {
         String teiUid = createTEIWithState(state);
 
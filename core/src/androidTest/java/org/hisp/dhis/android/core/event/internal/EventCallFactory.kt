@@ -29,6 +29,7 @@ package org.hisp.dhis.android.core.event.internal
 
 import java.util.concurrent.Callable
 import org.hisp.dhis.android.core.arch.api.executors.internal.APICallExecutorImpl
+import org.hisp.dhis.android.core.arch.api.payload.internal.StreamingPayload
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter
 import org.hisp.dhis.android.core.event.Event
 import retrofit2.Retrofit
@@ -50,9 +51,19 @@ object EventCallFactory {
             .uids(uids)
             .build()
 
-        return EventEndpointCallFactory(
+        val endpointCallFactory = EventEndpointCallFactory(
             retrofit.create(EventService::class.java),
             APICallExecutorImpl.create(databaseAdapter)
-        ).getCall(eventQuery)
+        )
+
+        return Callable {
+            val events = mutableListOf<Event>()
+            endpointCallFactory.getStreamingCall(
+                eventQuery,
+                pageSize,
+                StreamingPayload.BatchConsumer { batch -> events.addAll(batch) }
+            ).call()
+            events
+        }
     }
 }
@@ -51,6 +51,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.Arrays;
+
 import static com.google.common.truth.Truth.assertThat;
 
 @RunWith(AndroidJUnit4.class)
@@ -132,6 +134,29 @@ public class ForeignKeyCleanerShould extends BaseMockIntegrationTestEmptyDispatc
 
     }
 
+    @Test
+    public void delete_all_violations_of_a_table_at_once() throws Exception {
+        final D2CallExecutor executor = D2CallExecutor.create(d2.databaseAdapter());
+
+        executor.executeD2CallTransactionally(() -> {
+            ProgramRuleStore.create(d2.databaseAdapter()).insert(Arrays.asList(
+                    ProgramRule.builder().uid("program_rule_uid_1").name("Rule 1")
+                            .program(ObjectWithUid.create("nonexisent-program-1")).build(),
+                    ProgramRule.builder().uid("program_rule_uid_2").name("Rule 2")
+                            .program(ObjectWithUid.create("nonexisent-program-2")).build()));
+
+            assertThat(d2.programModule().programRules().blockingCount()).isEqualTo(2);
+
+            Integer rowsAffected = ForeignKeyCleanerImpl.create(d2.databaseAdapter()).cleanForeignKeyErrors();
+
+            assertThat(rowsAffected).isEqualTo(2);
+            assertThat(d2.programModule().programRules().blockingCount()).isEqualTo(0);
+            assertThat(d2.maintenanceModule().foreignKeyViolations().blockingCount()).isEqualTo(2);
+
+            return null;
+        });
+    }
+
     private void addUserCredentialsForeignKeyViolation() throws D2Error {
         final D2CallExecutor executor = D2CallExecutor.create(d2.databaseAdapter());
 
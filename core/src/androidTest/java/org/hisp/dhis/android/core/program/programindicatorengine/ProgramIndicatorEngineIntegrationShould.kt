@@ -296,6 +296,46 @@ class ProgramIndicatorEngineIntegrationShould : BaseMockIntegrationTestEmptyDisp
         assertThat(result).isEqualTo("7")
     }
 
+    @Test
+    fun evaluate_several_events_in_batch() {
+        createEnrollment()
+        createTrackerEvent(event1, programStage1)
+        createTrackerEvent(event2, programStage2)
+        insertTrackedEntityDataValue(event1, dataElement1, "5")
+        insertTrackedEntityDataValue(event2, dataElement2, "1.5")
+        insertTrackedEntityAttributeValue(attribute1, "2")
+        setProgramIndicatorExpression(
+            "(${de(programStage1, dataElement1)} + ${de(programStage2, dataElement2)})" +
+                " / ${att(attribute1)}"
+        )
+        val result = programIndicatorEngine!!.getEventProgramIndicatorValues(
+            listOf(event1, event2, "non_existing_event"),
+            listOf(programIndicatorUid)
+        )
+        assertThat(result.keys).containsExactly(event1, event2)
+        assertThat(result[event1]!![programIndicatorUid]).isEqualTo("2.5")
+        assertThat(result[event2]!![programIndicatorUid]).isEqualTo("0.75")
+    }
+
+    @Test
+    fun evaluate_enrollments_in_batch() {
+        createEnrollment()
+        createTrackerEvent(event1, programStage1)
+        createTrackerEvent(event2, programStage2)
+        insertTrackedEntityDataValue(event1, dataElement1, "5")
+        insertTrackedEntityDataValue(event2, dataElement2, "1.5")
+        insertTrackedEntityAttributeValue(attribute1, "2")
+        setProgramIndicatorExpression(
+            "(${de(programStage1, dataElement1)} + ${de(programStage2, dataElement2)})" +
+                " / ${att(attribute1)}"
+        )
+        val result = programIndicatorEngine!!.getEnrollmentProgramIndicatorValues(
+            listOf(enrollmentUid),
+            listOf(programIndicatorUid, "non_existing_indicator")
+        )
+        assertThat(result[enrollmentUid]).containsExactly(programIndicatorUid, "3.25")
+    }
+
     private fun createEnrollment(enrollmentDate: Date? = null, incidentDate: Date? = null) {
         val enrollment = Enrollment.builder().uid(enrollmentUid).organisationUnit(orgunitUid).program(programUid)
             .enrollmentDate(enrollmentDate).incidentDate(incidentDate).trackedEntityInstance(teiUid).build()
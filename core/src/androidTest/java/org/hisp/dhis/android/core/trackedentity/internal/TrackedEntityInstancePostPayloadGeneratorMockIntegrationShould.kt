@@ -226,6 +226,29 @@ class TrackedEntityInstancePostPayloadGeneratorMockIntegrationShould : BaseMockI
         assertThat(getUidsList(partitions[0]).containsAll(Lists.newArrayList(tei1, tei2, tei3))).isTrue()
     }
 
+    @Test
+    fun recreate_teis_with_cyclic_relationships() {
+        val tei1 = "tei1"
+        val tei2 = "tei2"
+        val tei3 = "tei3"
+
+        storeSimpleTrackedEntityInstance(tei1, State.TO_POST)
+        storeSimpleTrackedEntityInstance(tei2, State.TO_POST)
+        storeSimpleTrackedEntityInstance(tei3, State.TO_POST)
+
+        storeRelationship("relationship1", tei1, tei2)
+        storeRelationship("relationship2", tei2, tei3)
+        storeRelationship("relationship3", tei3, tei1)
+
+        val partitions = payloadGenerator.getTrackedEntityInstancesPartitions(
+            d2.trackedEntityModule().trackedEntityInstances().byUid().eq(tei1)
+                .byState().`in`(*State.uploadableStates()).blockingGet()
+        )
+
+        assertThat(partitions.size).isEqualTo(1)
+        assertThat(getUidsList(partitions[0])).containsExactly(tei1, tei2, tei3)
+    }
+
     @Test
     fun mark_payload_as_uploading() {
         storeTrackedEntityInstance()
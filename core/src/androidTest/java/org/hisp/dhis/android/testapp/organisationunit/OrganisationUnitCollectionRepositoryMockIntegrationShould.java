@@ -65,6 +65,24 @@ public class OrganisationUnitCollectionRepositoryMockIntegrationShould extends B
         assertThat(organisationUnits.size()).isEqualTo(1);
     }
 
+    @Test
+    public void filter_by_descendant_of() {
+        List<OrganisationUnit> descendants = d2.organisationUnitModule().organisationUnits()
+                .byDescendantOf("O6uvpzGd5pu").blockingGet();
+        assertThat(descendants.size()).isEqualTo(1);
+
+        List<OrganisationUnit> itself = d2.organisationUnitModule().organisationUnits()
+                .byDescendantOf("DiszpKrYNg8").blockingGet();
+        assertThat(itself.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void filter_by_ancestor_of() {
+        List<OrganisationUnit> organisationUnits = d2.organisationUnitModule().organisationUnits()
+                .byAncestorOf("DiszpKrYNg8").blockingGet();
+        assertThat(organisationUnits.size()).isEqualTo(0);
+    }
+
     @Test
     public void filter_by_opening_date() throws ParseException {
         List<OrganisationUnit> organisationUnits = d2.organisationUnitModule().organisationUnits()
@@ -29,6 +29,8 @@
 package org.hisp.dhis.android.testapp.trackedentity;
 
 import org.hisp.dhis.android.core.common.BaseIdentifiableObject;
+import org.hisp.dhis.android.core.common.State;
+import org.hisp.dhis.android.core.maintenance.D2Error;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityAttributeValue;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityAttributeValueObjectRepository;
 import org.hisp.dhis.android.core.utils.integration.mock.BaseMockIntegrationTestFullDispatcher;
@@ -38,7 +40,9 @@ import org.junit.runner.RunWith;
 
 import java.text.ParseException;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.google.common.truth.Truth.assertThat;
 
@@ -107,4 +111,20 @@ public class TrackedEntityAttributeValueCollectionRepositoryMockIntegrationShoul
         assertThat(objectRepository.blockingExists()).isEqualTo(Boolean.TRUE);
         assertThat(objectRepository.blockingGet().value()).isEqualTo("4081507");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void set_several_values_of_a_tracked_entity_instance() throws D2Error {
+        Map<String, String> values = new HashMap<>();
+        values.put("aejWyOfXge6", "value1");
+
+        d2.trackedEntityModule().trackedEntityAttributeValues().blockingSet("nWrB0TfWlvh", values);
+
+        TrackedEntityAttributeValueObjectRepository value = d2.trackedEntityModule().trackedEntityAttributeValues()
+                .value("aejWyOfXge6", "nWrB0TfWlvh");
+        assertThat(value.blockingGet().value()).isEqualTo("value1");
+        assertThat(d2.trackedEntityModule().trackedEntityInstances().uid("nWrB0TfWlvh").blockingGet().state())
+                .isEqualTo(State.TO_UPDATE);
+
+        value.blockingDelete();
+    }
+}
@@ -29,6 +29,8 @@
 package org.hisp.dhis.android.testapp.trackedentity;
 
 import org.hisp.dhis.android.core.common.BaseIdentifiableObject;
+import org.hisp.dhis.android.core.common.State;
+import org.hisp.dhis.android.core.maintenance.D2Error;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityDataValue;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityDataValueObjectRepository;
 import org.hisp.dhis.android.core.utils.integration.mock.BaseMockIntegrationTestFullDispatcher;
@@ -38,7 +40,9 @@ import org.junit.runner.RunWith;
 
 import java.text.ParseException;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.google.common.truth.Truth.assertThat;
 
@@ -116,4 +120,24 @@ public class TrackedEntityDataValueCollectionRepositoryMockIntegrationShould ext
         assertThat(objectRepository.blockingExists()).isEqualTo(Boolean.TRUE);
         assertThat(objectRepository.blockingGet().value()).isEqualTo("1");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void set_several_values_of_an_event() throws D2Error {
+        Map<String, String> values = new HashMap<>();
+        values.put("bx6fsa0t90x", "value1");
+        values.put("jDx8LZlznYu", "value2");
+
+        d2.trackedEntityModule().trackedEntityDataValues().blockingSet("event1", values);
+
+        TrackedEntityDataValueObjectRepository value1 = d2.trackedEntityModule().trackedEntityDataValues()
+                .value("event1", "bx6fsa0t90x");
+        TrackedEntityDataValueObjectRepository value2 = d2.trackedEntityModule().trackedEntityDataValues()
+                .value("event1", "jDx8LZlznYu");
+        assertThat(value1.blockingGet().value()).isEqualTo("value1");
+        assertThat(value2.blockingGet().value()).isEqualTo("value2");
+        assertThat(d2.eventModule().events().uid("event1").blockingGet().state()).isEqualTo(State.TO_UPDATE);
+
+        value1.blockingDelete();
+        value2.blockingDelete();
+    }
+}
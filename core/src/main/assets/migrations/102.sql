@@ -0,0 +1,4 @@
+# Organisation unit ancestor closure table, backfilled from the path of the stored organisation units. Paths are split in fixed 12 character segments (separator and 11 character uid) up to 20 levels, as SQLite 3.7 has no recursive CTE nor instr(). Units with other paths are filled in the next organisation unit download.
+CREATE TABLE OrganisationUnitAncestor (_id INTEGER PRIMARY KEY AUTOINCREMENT, ancestor TEXT NOT NULL, descendant TEXT NOT NULL, FOREIGN KEY (descendant) REFERENCES OrganisationUnit (uid) ON DELETE CASCADE DEFERRABLE INITIALLY DEFERRED, UNIQUE (ancestor, descendant));
+CREATE INDEX organisation_unit_ancestor_descendant ON OrganisationUnitAncestor(descendant, ancestor);
+INSERT OR IGNORE INTO OrganisationUnitAncestor (ancestor, descendant) SELECT substr(ou.path, 12 * (levels.n - 1) + 2, 11), ou.uid FROM OrganisationUnit ou, (SELECT 1 AS n UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9 UNION ALL SELECT 10 UNION ALL SELECT 11 UNION ALL SELECT 12 UNION ALL SELECT 13 UNION ALL SELECT 14 UNION ALL SELECT 15 UNION ALL SELECT 16 UNION ALL SELECT 17 UNION ALL SELECT 18 UNION ALL SELECT 19 UNION ALL SELECT 20) levels WHERE ou.path IS NOT NULL AND length(ou.path) % 12 = 0 AND length(ou.path) >= 12 * levels.n AND substr(ou.path, 12 * (levels.n - 1) + 1, 1) = '/' AND substr(ou.path, 12 * (levels.n - 1) + 2, 11) <> ou.uid;
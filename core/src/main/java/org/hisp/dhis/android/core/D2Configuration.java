@@ -63,6 +63,24 @@ public abstract class D2Configuration {
     @NonNull
     public abstract List<Interceptor> networkInterceptors();
 
+    @NonNull
+    public abstract Integer trackerDownloadPagesInFlight();
+
+    @NonNull
+    public abstract Integer dataValueUploadChunkSize();
+
+    @NonNull
+    public abstract Integer aggregatedDataBundlesInFlight();
+
+    @NonNull
+    public abstract Boolean databaseMetricsEnabled();
+
+    @NonNull
+    public abstract Integer slowQueryThresholdInMillis();
+
+    @NonNull
+    public abstract Integer databaseReadConnections();
+
     @NonNull
     public abstract Context context();
 
@@ -74,7 +92,13 @@ public abstract class D2Configuration {
                 .connectTimeoutInSeconds(30)
                 .writeTimeoutInSeconds(30)
                 .networkInterceptors(Collections.emptyList())
-                .interceptors(Collections.emptyList());
+                .interceptors(Collections.emptyList())
+                .trackerDownloadPagesInFlight(2)
+                .dataValueUploadChunkSize(500)
+                .aggregatedDataBundlesInFlight(2)
+                .databaseMetricsEnabled(false)
+                .slowQueryThresholdInMillis(100)
+                .databaseReadConnections(0);
     }
 
     @AutoValue.Builder
@@ -96,6 +120,46 @@ public abstract class D2Configuration {
 
         public abstract Builder networkInterceptors(List<Interceptor> networkInterceptors);
 
+        /**
+         * Number of tracker pages requested to the server while the previous ones are being persisted.
+         */
+        public abstract Builder trackerDownloadPagesInFlight(Integer trackerDownloadPagesInFlight);
+
+        /**
+         * Maximum number of data values sent to the server in a single request. Each chunk is committed locally
+         * before the next one is sent, so an interrupted upload resumes from the first pending chunk.
+         */
+        public abstract Builder dataValueUploadChunkSize(Integer dataValueUploadChunkSize);
+
+        /**
+         * Number of aggregated data bundles requested to the server at the same time. Every bundle is persisted and
+         * committed in its own transaction as soon as its requests finish.
+         */
+        public abstract Builder aggregatedDataBundlesInFlight(Integer aggregatedDataBundlesInFlight);
+
+        /**
+         * Records the cost of every database operation, available through
+         * {@code d2.maintenanceModule().databaseMetrics()}. Disabled by default, it adds a small overhead to every
+         * query and is meant for diagnosing performance issues.
+         * <p>
+         * To record the number of rows, every query is counted as soon as it runs, which steps through the whole
+         * result. Results larger than a cursor window are then stepped again when they are read, so queries returning
+         * large results take noticeably longer while metrics are enabled.
+         */
+        public abstract Builder databaseMetricsEnabled(Boolean databaseMetricsEnabled);
+
+        /**
+         * Queries slower than this threshold get their query plan captured when database metrics are enabled.
+         */
+        public abstract Builder slowQueryThresholdInMillis(Integer slowQueryThresholdInMillis);
+
+        /**
+         * Number of read-only connections opened for encrypted databases, so queries run outside a transaction are
+         * not blocked by a long transaction of another thread. Plain databases always use the read connection pool
+         * of the Android framework. Every connection keeps its own page cache.
+         */
+        public abstract Builder databaseReadConnections(Integer databaseReadConnections);
+
         public abstract D2Configuration build();
     }
 }
\ No newline at end of file
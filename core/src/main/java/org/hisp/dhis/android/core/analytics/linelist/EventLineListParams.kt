@@ -28,6 +28,8 @@
 package org.hisp.dhis.android.core.analytics.linelist
 
 import org.hisp.dhis.android.core.arch.repositories.scope.BaseScope
+import org.hisp.dhis.android.core.arch.repositories.scope.internal.RepositoryScopeFilterItem
+import org.hisp.dhis.android.core.common.DateFilterPeriod
 
 internal data class EventLineListParams(
     val programStage: String? = null,
@@ -36,9 +38,8 @@ internal data class EventLineListParams(
 
     val trackedEntityInstance: String? = null,
 
-    val period: Any? = null,
-    val startDate: String? = null,
-    val endDate: String? = null,
+    val eventDate: DateFilterPeriod? = null,
+    val dataFilters: List<RepositoryScopeFilterItem> = listOf(),
 
     val organisationUnits: List<String> = listOf()
 ) : BaseScope
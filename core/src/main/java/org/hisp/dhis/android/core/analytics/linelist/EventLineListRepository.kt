@@ -30,6 +30,8 @@ package org.hisp.dhis.android.core.analytics.linelist
 import io.reactivex.Single
 import org.hisp.dhis.android.core.arch.repositories.collection.BaseRepository
 import org.hisp.dhis.android.core.arch.repositories.filters.internal.EqFilterConnector
+import org.hisp.dhis.android.core.arch.repositories.filters.internal.EqLikeItemFilterConnector
+import org.hisp.dhis.android.core.arch.repositories.filters.internal.PeriodFilterConnector
 
 interface EventLineListRepository : BaseRepository {
 
@@ -43,6 +45,17 @@ interface EventLineListRepository : BaseRepository {
      */
     fun byProgramStage(): EqFilterConnector<EventLineListRepository, String>
 
+    /**
+     * Restrict the events to those whose event date is within the given period.
+     */
+    fun byEventDate(): PeriodFilterConnector<EventLineListRepository>
+
+    /**
+     * Restrict the events to those whose value for the given data element matches the filter. Several data value
+     * filters can be combined; all of them must match.
+     */
+    fun byDataValue(dataElementUid: String): EqLikeItemFilterConnector<EventLineListRepository>
+
     /**
      * Include the given data element in the response. This method does not replace the list of
      * data elements but appends a new one to the response.
@@ -31,7 +31,10 @@ import dagger.Reusable
 import io.reactivex.Single
 import javax.inject.Inject
 import org.hisp.dhis.android.core.arch.repositories.filters.internal.EqFilterConnector
+import org.hisp.dhis.android.core.arch.repositories.filters.internal.EqLikeItemFilterConnector
+import org.hisp.dhis.android.core.arch.repositories.filters.internal.PeriodFilterConnector
 import org.hisp.dhis.android.core.arch.repositories.filters.internal.ScopedFilterConnectorFactory
+import org.hisp.dhis.android.core.common.DateFilterPeriodHelper
 
 @Reusable
 internal class EventLineListRepositoryImpl @Inject constructor(
@@ -56,6 +59,19 @@ internal class EventLineListRepositoryImpl @Inject constructor(
         }
     }
 
+    override fun byEventDate(): PeriodFilterConnector<EventLineListRepository> {
+        return connectorFactory.periodConnector { filter ->
+            val mergedFilter = DateFilterPeriodHelper.mergeDateFilterPeriods(eventLineListParams.eventDate, filter)
+            eventLineListParams.copy(eventDate = mergedFilter)
+        }
+    }
+
+    override fun byDataValue(dataElementUid: String): EqLikeItemFilterConnector<EventLineListRepository> {
+        return connectorFactory.eqLikeItemC(dataElementUid) { filterItem ->
+            eventLineListParams.copy(dataFilters = eventLineListParams.dataFilters + filterItem)
+        }
+    }
+
     override fun withDataElement(dataElementUid: String): EventLineListRepository {
         val updatedDataElements = eventLineListParams.dataElements + LineListItem(dataElementUid)
         return EventLineListRepositoryImpl(
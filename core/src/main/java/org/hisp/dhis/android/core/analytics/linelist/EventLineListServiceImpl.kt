@@ -27,16 +27,24 @@
  */
 package org.hisp.dhis.android.core.analytics.linelist
 
+import java.util.Calendar
+import java.util.Date
 import javax.inject.Inject
 import org.hisp.dhis.android.core.arch.repositories.scope.RepositoryScope
+import org.hisp.dhis.android.core.arch.repositories.scope.internal.FilterItemOperator
+import org.hisp.dhis.android.core.arch.repositories.scope.internal.RepositoryScopeFilterItem
+import org.hisp.dhis.android.core.common.DateFilterPeriodHelper
 import org.hisp.dhis.android.core.dataelement.DataElementCollectionRepository
+import org.hisp.dhis.android.core.event.Event
 import org.hisp.dhis.android.core.event.EventCollectionRepository
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitCollectionRepository
+import org.hisp.dhis.android.core.period.Period
 import org.hisp.dhis.android.core.period.PeriodType
-import org.hisp.dhis.android.core.period.internal.PeriodHelper
+import org.hisp.dhis.android.core.period.internal.ParentPeriodGenerator
 import org.hisp.dhis.android.core.program.ProgramIndicatorCollectionRepository
 import org.hisp.dhis.android.core.program.ProgramStageCollectionRepository
 import org.hisp.dhis.android.core.program.programindicatorengine.ProgramIndicatorEngine
+import org.hisp.dhis.android.core.trackedentity.TrackedEntityDataValue
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityDataValueCollectionRepository
 
 internal class EventLineListServiceImpl @Inject constructor(
@@ -47,14 +55,80 @@ internal class EventLineListServiceImpl @Inject constructor(
     private val organisationUnitRepository: OrganisationUnitCollectionRepository,
     private val programStageRepository: ProgramStageCollectionRepository,
     private val programIndicatorEngine: ProgramIndicatorEngine,
-    private val periodHelper: PeriodHelper
+    private val parentPeriodGenerator: ParentPeriodGenerator,
+    private val dateFilterPeriodHelper: DateFilterPeriodHelper
 ) : EventLineListService {
 
+    /**
+     * The repository API returns the whole line list at once, so the evaluated pages are collected into a single
+     * list: paging bounds the size of each query and of its intermediate indexes, not the size of the response.
+     */
     override fun evaluate(params: EventLineListParams): List<LineListResponse> {
-        return evaluateEvents(params)
+        val responses = mutableListOf<LineListResponse>()
+        evaluateEvents(params).forEach { responses.addAll(it) }
+        return responses
     }
 
-    private fun evaluateEvents(params: EventLineListParams): List<LineListResponse> {
+    /**
+     * Evaluates the events lazily in pages of [PAGE_SIZE], so data values and program indicators are loaded with a
+     * bounded number of set-based queries per page instead of one query per event.
+     */
+    private fun evaluateEvents(params: EventLineListParams): Sequence<List<LineListResponse>> {
+        val programStage = programStageRepository.uid(params.programStage).blockingGet()
+        val periodType = programStage.periodType() ?: PeriodType.Daily
+
+        val eventUids = getEventRepository(params).blockingGetUids()
+
+        val itemNameMap = getItemNameMap(params.dataElements, params.programIndicators)
+        val organisationUnitNameMap = mutableMapOf<String, String>()
+        val periodCache = PeriodCache(periodType)
+
+        return eventUids.chunked(PAGE_SIZE).asSequence().map { pageUids ->
+            val events = getEvents(pageUids)
+            val dataValueIndex = getDataValueIndex(pageUids, params.dataElements)
+            val programIndicatorValues = getProgramIndicatorValues(pageUids, params.programIndicators)
+
+            val missingOrgunits = events.mapNotNull { it.organisationUnit() }.toSet() - organisationUnitNameMap.keys
+            organisationUnitNameMap.putAll(getOrganisationUnitNameMap(missingOrgunits))
+
+            events.mapNotNull { event ->
+                val referenceDate = event.eventDate() ?: event.dueDate()
+                val eventPeriod = referenceDate?.let { periodCache.getPeriod(it) }
+
+                if (referenceDate == null || eventPeriod == null) {
+                    null
+                } else {
+                    val eventDataValues = params.dataElements.map { de ->
+                        LineListResponseValue(
+                            uid = de.uid,
+                            displayName = itemNameMap[de.uid] ?: de.uid,
+                            value = dataValueIndex[event.uid()]?.get(de.uid)?.value()
+                        )
+                    }
+
+                    val eventProgramIndicatorValues = params.programIndicators.map { pi ->
+                        LineListResponseValue(
+                            uid = pi.uid,
+                            displayName = itemNameMap[pi.uid] ?: pi.uid,
+                            value = programIndicatorValues[event.uid()]?.get(pi.uid)
+                        )
+                    }
+
+                    val organisationUnit = event.organisationUnit()!!
+                    LineListResponse(
+                        uid = event.uid(),
+                        date = referenceDate,
+                        period = eventPeriod,
+                        organisationUnit = organisationUnit,
+                        organisationUnitName = organisationUnitNameMap[organisationUnit] ?: organisationUnit,
+                        values = eventDataValues + eventProgramIndicatorValues
+                    )
+                }
+            }
+        }
+    }
+
+    private fun getEventRepository(params: EventLineListParams): EventCollectionRepository {
         var repoBuilder = eventRepository
             .byProgramStageUid().eq(params.programStage)
             .orderByTimeline(RepositoryScope.OrderByDirection.ASC)
@@ -68,67 +142,94 @@ internal class EventLineListServiceImpl @Inject constructor(
             repoBuilder = repoBuilder.byTrackedEntityInstanceUids(listOf(params.trackedEntityInstance))
         }
 
-        val programStage = programStageRepository.uid(params.programStage).blockingGet()
+        params.eventDate?.let { eventDate ->
+            dateFilterPeriodHelper.getStartDate(eventDate)?.let {
+                repoBuilder = repoBuilder.byEventDate().afterOrEqual(it)
+            }
+            dateFilterPeriodHelper.getEndDate(eventDate)?.let {
+                repoBuilder = repoBuilder.byEventDate().beforeOrEqual(it)
+            }
+        }
 
-        // TODO Apply filters
+        params.dataFilters.forEach { filter ->
+            repoBuilder = applyDataFilter(repoBuilder, filter)
+        }
 
-        // TODO Filter by dates
+        return repoBuilder
+    }
 
-        val events = repoBuilder.blockingGet()
+    private fun applyDataFilter(
+        repoBuilder: EventCollectionRepository,
+        filter: RepositoryScopeFilterItem
+    ): EventCollectionRepository {
+        val connector = repoBuilder.byDataValue(filter.key())
+        return when (filter.operator()) {
+            FilterItemOperator.EQ -> connector.eq(filter.value())
+            FilterItemOperator.LIKE -> connector.like(filter.value())
+            else -> throw IllegalArgumentException("Unsupported data value filter operator: ${filter.operator()}")
+        }
+    }
 
-        val metadataMap = getMetadataMap(
-            params.dataElements, params.programIndicators,
-            events.map { it.organisationUnit()!! }.toHashSet()
-        )
+    private fun getEvents(eventUids: List<String>): List<Event> {
+        val eventsByUid = eventRepository
+            .byUid().`in`(eventUids)
+            .blockingGet()
+            .associateBy { it.uid() }
+
+        return eventUids.mapNotNull { eventsByUid[it] }
+    }
 
-        val dataElementValues = if (params.dataElements.isNotEmpty()) {
+    /**
+     * Indexes the data values of the page by event and data element, so each cell is resolved in constant time.
+     */
+    private fun getDataValueIndex(
+        eventUids: List<String>,
+        dataElements: List<LineListItem>
+    ): Map<String, Map<String, TrackedEntityDataValue>> {
+        return if (dataElements.isNotEmpty()) {
             dataValueRepository
-                .byEvent().`in`(events.map { it.uid() })
-                .byDataElement().`in`(params.dataElements.map { it.uid })
+                .byEvent().`in`(eventUids)
+                .byDataElement().`in`(dataElements.map { it.uid })
                 .blockingGet()
+                .groupBy { it.event()!! }
+                .mapValues { entry -> entry.value.associateBy { it.dataElement()!! } }
         } else {
-            listOf()
+            mapOf()
         }
+    }
 
-        return events.mapNotNull {
-            (it.eventDate() ?: it.dueDate())?.let { referenceDate ->
-                val periodType = programStage.periodType() ?: PeriodType.Daily
-                val eventPeriod = periodHelper.blockingGetPeriodForPeriodTypeAndDate(periodType, referenceDate)
-
-                val eventDataValues = params.dataElements.map { de ->
-                    val dv = dataElementValues.find { dv -> dv.event() == it.uid() && dv.dataElement() == de.uid }
-                    LineListResponseValue(
-                        uid = de.uid,
-                        displayName = metadataMap[de.uid] ?: de.uid,
-                        value = dv?.value()
-                    )
-                }
+    private fun getProgramIndicatorValues(
+        eventUids: List<String>,
+        programIndicators: List<LineListItem>
+    ): Map<String, Map<String, String?>> {
+        return if (programIndicators.isNotEmpty()) {
+            programIndicatorEngine.getEventProgramIndicatorValues(eventUids, programIndicators.map { it.uid })
+        } else {
+            mapOf()
+        }
+    }
 
-                val programIndicatorValues = params.programIndicators.map { pi ->
-                    val value = programIndicatorEngine.getEventProgramIndicatorValue(it.uid(), pi.uid)
-                    LineListResponseValue(
-                        uid = pi.uid,
-                        displayName = metadataMap[pi.uid] ?: pi.uid,
-                        value = value
-                    )
-                }
+    /**
+     * Line list periods are only used for display, so they are generated in memory and cached by day rather than
+     * looked up (and eventually inserted) in the database for every event. The day key is computed with a calendar
+     * owned by the cache, which lives for a single evaluation.
+     */
+    private inner class PeriodCache(private val periodType: PeriodType) {
+        private val calendar = Calendar.getInstance()
+        private val periods = mutableMapOf<Int, Period?>()
 
-                LineListResponse(
-                    uid = it.uid(),
-                    date = referenceDate,
-                    period = eventPeriod,
-                    organisationUnit = it.organisationUnit()!!,
-                    organisationUnitName = metadataMap[it.organisationUnit()!!] ?: it.organisationUnit()!!,
-                    values = eventDataValues + programIndicatorValues
-                )
+        fun getPeriod(date: Date): Period? {
+            calendar.time = date
+            val day = calendar.get(Calendar.YEAR) * DAYS_PER_YEAR_KEY + calendar.get(Calendar.DAY_OF_YEAR)
+            return periods.getOrPut(day) {
+                parentPeriodGenerator.generatePeriod(periodType, date, 0)
             }
         }
     }
 
-    private fun getMetadataMap(
+    private fun getItemNameMap(
         dataElements: List<LineListItem>,
-        programIndicators: List<LineListItem>,
-        organisationUnitUids: HashSet<String>
+        programIndicators: List<LineListItem>
     ): Map<String, String> {
         val dataElementNameMap = if (dataElements.isNotEmpty()) {
             dataElementRepository
@@ -148,11 +249,22 @@ internal class EventLineListServiceImpl @Inject constructor(
             mapOf()
         }
 
-        val organisationUnitNameMap = organisationUnitRepository
-            .byUid().`in`(organisationUnitUids)
-            .blockingGet()
-            .map { it.uid()!! to it.displayName()!! }.toMap()
+        return dataElementNameMap + programIndicatorNameMap
+    }
+
+    private fun getOrganisationUnitNameMap(organisationUnitUids: Set<String>): Map<String, String> {
+        return if (organisationUnitUids.isNotEmpty()) {
+            organisationUnitRepository
+                .byUid().`in`(organisationUnitUids)
+                .blockingGet()
+                .map { it.uid()!! to it.displayName()!! }.toMap()
+        } else {
+            mapOf()
+        }
+    }
 
-        return dataElementNameMap + programIndicatorNameMap + organisationUnitNameMap
+    companion object {
+        private const val PAGE_SIZE = 500
+        private const val DAYS_PER_YEAR_KEY = 1000
     }
 }
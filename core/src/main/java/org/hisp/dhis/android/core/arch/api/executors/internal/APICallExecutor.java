@@ -29,6 +29,7 @@
 package org.hisp.dhis.android.core.arch.api.executors.internal;
 
 import org.hisp.dhis.android.core.arch.api.payload.internal.Payload;
+import org.hisp.dhis.android.core.arch.api.payload.internal.StreamingPayload;
 import org.hisp.dhis.android.core.common.Unit;
 import org.hisp.dhis.android.core.maintenance.D2Error;
 
@@ -40,6 +41,12 @@ public interface APICallExecutor {
 
     <P> List<P> executePayloadCall(Call<Payload<P>> call) throws D2Error;
 
+    /**
+     * @return the number of items in the payload.
+     */
+    <P> int executeStreamingPayloadCall(Call<StreamingPayload<P>> call, int batchSize,
+                                        StreamingPayload.BatchConsumer<P> consumer) throws D2Error;
+
     <P> P executeObjectCall(Call<P> call) throws D2Error;
 
     <P> P executeObjectCallWithAcceptedErrorCodes(Call<P> call,
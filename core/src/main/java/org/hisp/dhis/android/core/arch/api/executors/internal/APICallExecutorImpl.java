@@ -30,6 +30,7 @@ package org.hisp.dhis.android.core.arch.api.executors.internal;
 
 import org.hisp.dhis.android.core.arch.json.internal.ObjectMapperFactory;
 import org.hisp.dhis.android.core.arch.api.payload.internal.Payload;
+import org.hisp.dhis.android.core.arch.api.payload.internal.StreamingPayload;
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.ObjectStore;
 import org.hisp.dhis.android.core.common.Unit;
@@ -76,6 +77,22 @@ public final class APICallExecutorImpl implements APICallExecutor {
         }
     }
 
+    /**
+     * Errors thrown by the consumer are not mapped, so they reach the caller as they are.
+     */
+    @Override
+    public <P> int executeStreamingPayloadCall(Call<StreamingPayload<P>> call, int batchSize,
+                                               StreamingPayload.BatchConsumer<P> consumer) throws D2Error {
+        D2Error.Builder errorBuilder = errorMapper.getCollectionErrorBuilder(call);
+        StreamingPayload<P> payload = executeObjectCallInternal(call, new ArrayList<>(), null, null, false);
+
+        try {
+            return payload.stream(batchSize, consumer);
+        } catch (IOException e) {
+            throw storeAndReturn(errorMapper.mapRetrofitException(e, errorBuilder));
+        }
+    }
+
     @Override
     public <P> P executeObjectCall(Call<P> call) throws D2Error {
         return executeObjectCallInternal(call, new ArrayList<>(), null, null, false);
@@ -27,6 +27,7 @@
  */
 package org.hisp.dhis.android.core.arch.api.executors.internal
 
+import io.reactivex.Completable
 import io.reactivex.Single
 import io.reactivex.functions.Consumer
 import org.hisp.dhis.android.core.arch.api.payload.internal.Payload
@@ -43,6 +44,12 @@ internal interface APIDownloader {
         pageDownloader: (Set<String>) -> Single<Payload<P>>
     ): Single<List<P>>
 
+    /**
+     * Collects the items of all the partitions and hands them to the handler as a single collection. The whole
+     * collection is held in memory: the handlers of these calls delete the objects missing from the handled
+     * collection, and the callers use the returned list, so the items cannot be handled in partial batches. Use
+     * [downloadPartitionedStreaming] when cleanup is scoped to the partition and the result is not needed.
+     */
     fun <P> downloadPartitioned(
         uids: Set<String>,
         pageSize: Int,
@@ -58,6 +65,18 @@ internal interface APIDownloader {
         transform: ((P) -> P)?
     ): Single<List<P>>
 
+    /**
+     * Downloads the partitions one after the other and hands each of them to the handler as soon as it arrives,
+     * so the whole collection is never held in memory. Only valid for handlers whose cleanup is scoped to the
+     * parents of the partition (e.g. options by option set), as each partition is handled as a separate collection.
+     */
+    fun <P> downloadPartitionedStreaming(
+        uids: Set<String>,
+        pageSize: Int,
+        handler: Handler<P>,
+        pageDownloader: (Set<String>) -> Single<Payload<P>>
+    ): Completable
+
     fun <P, O : CoreObject> downloadLink(
         masterUid: String,
         handler: LinkHandler<P, O>,
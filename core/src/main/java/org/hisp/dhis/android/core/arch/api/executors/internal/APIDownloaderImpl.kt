@@ -29,6 +29,7 @@ package org.hisp.dhis.android.core.arch.api.executors.internal
 
 import androidx.annotation.VisibleForTesting
 import dagger.Reusable
+import io.reactivex.Completable
 import io.reactivex.Observable
 import io.reactivex.Single
 import io.reactivex.functions.Consumer
@@ -62,22 +63,11 @@ internal class APIDownloaderImpl @Inject constructor(private val resourceHandler
         transform: ((P) -> P)?
     ): Single<List<P>> {
         val partitions = CollectionsHelper.setPartition(uids, pageSize)
-        return Observable.fromIterable(partitions)
+        val items = Observable.fromIterable(partitions)
             .flatMapSingle(pageDownloader)
-            .map { obj: Payload<P> -> obj.items() }
-            .reduce(
-                listOf(),
-                { items: List<P>, items2: List<P> ->
-                    items + items2
-                }
-            )
-            .map { items: List<P> ->
-                if (transform == null) {
-                    items
-                } else {
-                    items.map { transform(it) }
-                }
-            }
+            .flatMapIterable { obj: Payload<P> -> obj.items() }
+        return (if (transform == null) items else items.map(transform))
+            .toList(uids.size.coerceAtLeast(1))
             .doOnSuccess(customHandling)
     }
 
@@ -106,6 +96,21 @@ internal class APIDownloaderImpl @Inject constructor(private val resourceHandler
         )
     }
 
+    override fun <P> downloadPartitionedStreaming(
+        uids: Set<String>,
+        pageSize: Int,
+        handler: Handler<P>,
+        pageDownloader: (Set<String>) -> Single<Payload<P>>
+    ): Completable {
+        val partitions = CollectionsHelper.setPartition(uids, pageSize)
+        return Observable.fromIterable(partitions)
+            .concatMapCompletable { partition: Set<String> ->
+                pageDownloader(partition)
+                    .doOnSuccess { payload: Payload<P> -> handler.handleMany(payload.items()) }
+                    .ignoreElement()
+            }
+    }
+
     override fun <P, O : CoreObject> downloadLink(
         masterUid: String,
         handler: LinkHandler<P, O>,
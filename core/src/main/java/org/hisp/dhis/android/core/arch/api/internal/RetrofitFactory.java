@@ -30,6 +30,7 @@ package org.hisp.dhis.android.core.arch.api.internal;
 
 import org.hisp.dhis.android.core.arch.api.fields.internal.FieldsConverterFactory;
 import org.hisp.dhis.android.core.arch.api.filters.internal.FilterConverterFactory;
+import org.hisp.dhis.android.core.arch.api.payload.internal.StreamingPayloadConverterFactory;
 import org.hisp.dhis.android.core.arch.json.internal.ObjectMapperFactory;
 import org.hisp.dhis.android.core.configuration.internal.ServerUrlParser;
 import org.hisp.dhis.android.core.maintenance.D2Error;
@@ -48,6 +49,8 @@ final class RetrofitFactory {
                 .baseUrl(ServerUrlParser.parse("https://temporary-dhis-url.org/"))
 
                 .client(okHttpClient)
+                // Must go before Jackson, which accepts any type
+                .addConverterFactory(StreamingPayloadConverterFactory.create(ObjectMapperFactory.objectMapper()))
                 .addConverterFactory(JacksonConverterFactory.create(ObjectMapperFactory.objectMapper()))
                 .addConverterFactory(FilterConverterFactory.create())
                 .addConverterFactory(FieldsConverterFactory.create())
@@ -29,6 +29,7 @@
 package org.hisp.dhis.android.core.arch.api.paging.internal;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public final class ApiPagingEngine {
@@ -56,6 +57,21 @@ public final class ApiPagingEngine {
         return pagingList;
     }
 
+    /**
+     * Trims a batch of the items returned for the page to the ones requested by the paging, which only differ for
+     * the last page.
+     *
+     * @param offset position in the page of the first item of the batch.
+     */
+    public static <T> List<T> getBatchItemsToKeep(Paging paging, int offset, List<T> batch) {
+        if (!paging.isLastPage()) {
+            return batch;
+        }
+        int fromIndex = Math.max(paging.previousItemsToSkipCount() - offset, 0);
+        int toIndex = Math.min(batch.size(), paging.pageSize() - paging.posteriorItemsToSkipCount() - offset);
+        return fromIndex < toIndex ? batch.subList(fromIndex, toIndex) : Collections.<T>emptyList();
+    }
+
     static Paging calculateLastPagination(int currentPageSize, int itemsCount, int numberOfCalls)
             throws IllegalStateException {
 
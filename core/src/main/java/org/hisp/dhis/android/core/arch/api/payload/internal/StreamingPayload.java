@@ -0,0 +1,213 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.api.payload.internal;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.ResponseBody;
+
+/**
+ * Paged payload read lazily from the response body. Unlike {@link Payload}, the items are not materialised at once:
+ * {@link #stream(int, BatchConsumer)} reads the token stream and hands the items to the consumer in batches, and
+ * {@link #batches(int)} reads them on demand, so the peak heap depends on the batch size instead of the page size.
+ * <p>
+ * The body stays open until the payload is streamed or closed.
+ */
+public final class StreamingPayload<T> implements Closeable {
+
+    private static final String PAGER = "pager";
+
+    private final ObjectMapper objectMapper;
+    private final JavaType itemType;
+    private final ResponseBody body;
+
+    private Pager pager;
+
+    StreamingPayload(ObjectMapper objectMapper, JavaType itemType, ResponseBody body) {
+        this.objectMapper = objectMapper;
+        this.itemType = itemType;
+        this.body = body;
+    }
+
+    public interface BatchConsumer<T> {
+        void accept(List<T> batch);
+    }
+
+    /**
+     * Pull counterpart of {@link #stream(int, BatchConsumer)}, for callers that read the batches on demand.
+     */
+    public interface BatchReader<T> extends Closeable {
+
+        /**
+         * @return the next non-empty batch, or null once the payload has been read and the body closed.
+         */
+        List<T> next() throws IOException;
+
+        /**
+         * @return the number of array elements read so far, null ones included, so it can be compared to the page
+         * size.
+         */
+        int count();
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Reads the items of the first array field of the payload, as {@link Payload} does, and closes the body.
+     *
+     * @return the number of elements in the array, null ones included, so it can be compared to the page size.
+     */
+    public int stream(int batchSize, BatchConsumer<T> consumer) throws IOException {
+        try (BatchReader<T> reader = batches(batchSize)) {
+            List<T> batch = reader.next();
+            while (batch != null) {
+                consumer.accept(batch);
+                batch = reader.next();
+            }
+            return reader.count();
+        }
+    }
+
+    /**
+     * Returns a reader that parses the body lazily, one batch per call. The body stays open until the reader is
+     * exhausted or closed.
+     */
+    public BatchReader<T> batches(int batchSize) {
+        return new ParserBatchReader(batchSize);
+    }
+
+    private final class ParserBatchReader implements BatchReader<T> {
+
+        private final int batchSize;
+        private JsonParser parser;
+        private boolean inArray;
+        private boolean finished;
+        private int count;
+
+        ParserBatchReader(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public List<T> next() throws IOException {
+            if (finished) {
+                return null;
+            }
+            if (parser == null) {
+                parser = objectMapper.getFactory().createParser(body.byteStream());
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new JsonParseException(parser, "Payload is not a JSON object");
+                }
+            }
+
+            List<T> batch = new ArrayList<>(batchSize);
+            while (batch.size() < batchSize) {
+                if (inArray) {
+                    if (parser.nextToken() == JsonToken.END_ARRAY) {
+                        inArray = false;
+                        if (!batch.isEmpty()) {
+                            return batch;
+                        }
+                    } else {
+                        T item = objectMapper.readValue(parser, itemType);
+                        count++;
+                        if (item != null) {
+                            batch.add(item);
+                        }
+                    }
+                } else if (!nextArray()) {
+                    close();
+                    return batch.isEmpty() ? null : batch;
+                }
+            }
+            return batch;
+        }
+
+        /**
+         * Moves the parser to the start of the next array field, reading the pager and skipping any other field.
+         *
+         * @return false if the payload has no more fields.
+         */
+        private boolean nextArray() throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (PAGER.equals(field)) {
+                    pager = objectMapper.readValue(parser, Pager.class);
+                } else if (value == JsonToken.START_ARRAY) {
+                    inArray = true;
+                    return true;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int count() {
+            return count;
+        }
+
+        @Override
+        @SuppressWarnings("PMD.EmptyCatchBlock")
+        public void close() {
+            finished = true;
+            if (parser != null) {
+                try {
+                    parser.close();
+                } catch (IOException ignored) {
+                    // The body is closed below anyway
+                }
+            }
+            body.close();
+        }
+    }
+
+    /**
+     * Available once the payload has been streamed.
+     */
+    public Pager pager() {
+        return pager;
+    }
+
+    @Override
+    public void close() {
+        body.close();
+    }
+}
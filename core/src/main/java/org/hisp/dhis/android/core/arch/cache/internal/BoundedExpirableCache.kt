@@ -0,0 +1,135 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.cache.internal
+
+import java.util.concurrent.TimeUnit
+
+/**
+ * Thread-safe [D2Cache] bounded by weight, with least-recently-used eviction and a time-to-live per entry.
+ *
+ * Entries are kept in access order and the eldest ones are evicted once [maxWeight] is exceeded. Entries heavier
+ * than [maxWeight] are not cached at all.
+ */
+internal class BoundedExpirableCache<K, V> @JvmOverloads constructor(
+    private val maxWeight: Long = DEFAULT_MAX_WEIGHT,
+    private val expireAfterWrite: Long = DEFAULT_EXPIRE_AFTER_WRITE,
+    private val weigher: (K, V) -> Int = { _, _ -> 1 },
+    private val ticker: () -> Long = { System.nanoTime() }
+) : D2Cache<K, V> {
+
+    private val entries = LinkedHashMap<K, Entry<V>>(INITIAL_CAPACITY, LOAD_FACTOR, true)
+    private var weight = 0L
+
+    private var hits = 0L
+    private var misses = 0L
+    private var evictions = 0L
+    private var expirations = 0L
+
+    init {
+        require(maxWeight > 0) { "maxWeight must be positive" }
+    }
+
+    @Synchronized
+    override fun set(key: K, value: V) {
+        val entryWeight = weigher(key, value)
+        removeEntry(key)
+        if (entryWeight <= maxWeight) {
+            val expiresAt = ticker() + TimeUnit.MILLISECONDS.toNanos(expireAfterWrite)
+            entries[key] = Entry(value, entryWeight, expiresAt)
+            weight += entryWeight
+            evictExcess()
+        }
+    }
+
+    @Synchronized
+    override fun get(key: K): V? {
+        val entry = entries[key]
+        return when {
+            entry == null -> {
+                misses++
+                null
+            }
+            entry.expiresAt - ticker() <= 0 -> {
+                removeEntry(key)
+                expirations++
+                misses++
+                null
+            }
+            else -> {
+                hits++
+                entry.value
+            }
+        }
+    }
+
+    @Synchronized
+    override fun remove(key: K): V? {
+        return removeEntry(key)?.takeIf { it.expiresAt - ticker() > 0 }?.value
+    }
+
+    @Synchronized
+    override fun clear() {
+        entries.clear()
+        weight = 0
+    }
+
+    @Synchronized
+    override fun stats(): D2CacheStats {
+        return D2CacheStats(
+            hits = hits,
+            misses = misses,
+            evictions = evictions,
+            expirations = expirations,
+            size = entries.size,
+            weight = weight
+        )
+    }
+
+    private fun removeEntry(key: K): Entry<V>? {
+        return entries.remove(key)?.also { weight -= it.weight }
+    }
+
+    private fun evictExcess() {
+        val iterator = entries.values.iterator()
+        while (weight > maxWeight && iterator.hasNext()) {
+            weight -= iterator.next().weight
+            iterator.remove()
+            evictions++
+        }
+    }
+
+    private class Entry<V>(val value: V, val weight: Int, val expiresAt: Long)
+
+    companion object {
+        const val DEFAULT_MAX_WEIGHT = 1000L
+        val DEFAULT_EXPIRE_AFTER_WRITE = TimeUnit.MINUTES.toMillis(2)
+
+        private const val INITIAL_CAPACITY = 16
+        private const val LOAD_FACTOR = 0.75f
+    }
+}
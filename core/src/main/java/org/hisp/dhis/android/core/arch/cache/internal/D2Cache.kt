@@ -36,4 +36,6 @@ internal interface D2Cache<K, V> {
     fun remove(key: K): V?
 
     fun clear()
+
+    fun stats(): D2CacheStats
 }
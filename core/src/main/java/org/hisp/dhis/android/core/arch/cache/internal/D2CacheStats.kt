@@ -27,38 +27,11 @@
  */
 package org.hisp.dhis.android.core.arch.cache.internal
 
-import java.util.concurrent.TimeUnit
-
-internal class ExpirableCache<K, V>(
-    private val flushInterval: Long = TimeUnit.MINUTES.toMillis(2)
-) : D2Cache<K, V> {
-
-    private val cache = HashMap<K, V>()
-
-    private var lastFlushTime = System.nanoTime()
-
-    override fun set(key: K, value: V) {
-        this.cache[key] = value
-    }
-
-    override fun get(key: K): V? {
-        removeIfExpired()
-        return this.cache[key]
-    }
-
-    override fun remove(key: K): V? {
-        removeIfExpired()
-        return this.cache.remove(key)
-    }
-
-    override fun clear() = this.cache.clear()
-
-    private fun removeIfExpired() {
-        val now = System.nanoTime()
-        val shouldRemove = now - lastFlushTime >= TimeUnit.MILLISECONDS.toNanos(flushInterval)
-        if (shouldRemove) {
-            clear()
-            lastFlushTime = now
-        }
-    }
-}
+internal data class D2CacheStats(
+    val hits: Long,
+    val misses: Long,
+    val evictions: Long,
+    val expirations: Long,
+    val size: Int,
+    val weight: Long
+)
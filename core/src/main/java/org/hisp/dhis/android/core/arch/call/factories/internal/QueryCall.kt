@@ -32,4 +32,12 @@ import org.hisp.dhis.android.core.arch.call.queries.internal.BaseQuery
 
 interface QueryCall<P, Q : BaseQuery> {
     fun download(query: Q): Single<List<P>>
+
+    /**
+     * Requests the objects of the query without persisting them. Together with [persist], it lets the caller run
+     * the request and the database writes on different threads.
+     */
+    fun fetch(query: Q): Single<List<P>>
+
+    fun persist(objects: List<P>, query: Q)
 }
@@ -31,6 +31,9 @@ package org.hisp.dhis.android.core.arch.db.access;
 import android.content.ContentValues;
 import android.database.Cursor;
 
+import androidx.annotation.Nullable;
+
+import org.hisp.dhis.android.core.arch.db.access.internal.TableInvalidationTracker;
 import org.hisp.dhis.android.core.arch.db.stores.binders.internal.StatementWrapper;
 
 @SuppressWarnings("PMD.UseVarargs")
@@ -148,6 +151,30 @@ public interface DatabaseAdapter {
 
     void enableWriteAheadLogging();
 
+    /**
+     * Sets the size of the prepared statement cache kept by every database connection. Statements are cached by
+     * their SQL text in a LRU fashion, so queries that bind their values with ?s are prepared only once.
+     *
+     * @param cacheSize the number of statements to keep, at most {@code SQLiteDatabase.MAX_SQL_CACHE_SIZE}
+     */
+    void setMaxSqlCacheSize(int cacheSize);
+
+    /**
+     * Tracker notified of the tables changed through this adapter, used to re-run queries when their data changes.
+     * Only the adapter shared by the SDK tracks changes; the adapters it wraps return a tracker that never emits.
+     */
+    TableInvalidationTracker invalidationTracker();
+
+    /**
+     * Opens a connection of its own that reads the last committed state of the database within a deferred
+     * transaction, so writes through this adapter are not blocked meanwhile. Temporary tables can be created on it.
+     * Closing the returned adapter rolls its transaction back.
+     *
+     * @return the snapshot reader, or null if the database is not in WAL mode, as a reader would then block writers
+     */
+    @Nullable
+    DatabaseAdapter openSnapshotReader();
+
     boolean isReady();
 
     void close();
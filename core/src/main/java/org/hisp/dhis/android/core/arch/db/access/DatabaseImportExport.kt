@@ -32,4 +32,15 @@ import java.io.File
 interface DatabaseImportExport {
     fun importDatabase(file: File)
     fun exportLoggedUserDatabase(): File
+
+    /**
+     * Streams the database of the logged user into a compressed snapshot file. The database stays open while it is
+     * exported, and encrypted databases are supported.
+     */
+    fun exportLoggedUserSnapshot(filter: DatabaseSnapshotFilter): File
+
+    /**
+     * Loads a snapshot created by [exportLoggedUserSnapshot] into a new database in a single transaction.
+     */
+    fun importSnapshot(file: File)
 }
@@ -0,0 +1,66 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.db.access
+
+/**
+ * Cost of the database operations run since the SDK was instantiated or [reset] was called. Metrics are only
+ * recorded when enabled in the D2Configuration; otherwise every list is empty.
+ */
+interface DatabaseMetrics {
+    fun isEnabled(): Boolean
+
+    /**
+     * Statistics grouped by SQL shape, that is, the statement with its literals replaced by ?s. Sorted by total
+     * time, most expensive first.
+     */
+    fun queries(): List<QueryMetrics>
+
+    /**
+     * Shapes that took longer than the slow query threshold at least once, together with their query plan.
+     */
+    fun slowQueries(): List<QueryMetrics>
+
+    /**
+     * Statistics grouped by the main table of every statement. Sorted by total time, most expensive first.
+     */
+    fun tables(): List<TableMetrics>
+
+    fun transactions(): TransactionMetrics
+
+    /**
+     * Time spent executing statements while creating or upgrading the database schema.
+     */
+    fun migrationTimeInMillis(): Long
+
+    /**
+     * Time spent creating the database from the prebuilt template, or 0 if it was not created from it.
+     */
+    fun templateCreationTimeInMillis(): Long
+
+    fun reset()
+}
@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.db.access
+
+data class QueryMetrics(
+    val sql: String,
+    val table: String?,
+    val executions: Long,
+    val totalTimeInMillis: Double,
+    val maxTimeInMillis: Double,
+    val rows: Long,
+    /**
+     * Number of executions per latency bucket. Keys are the upper bound of every bucket in milliseconds, and
+     * [Long.MAX_VALUE] for the last one.
+     */
+    val latencyHistogram: Map<Long, Long>,
+    /**
+     * Output of EXPLAIN QUERY PLAN for the first execution above the slow query threshold, one step per line.
+     */
+    val queryPlan: String?
+)
+
+data class TableMetrics(
+    val table: String,
+    val executions: Long,
+    val totalTimeInMillis: Double,
+    val rows: Long
+)
+
+data class TransactionMetrics(
+    val transactions: Long,
+    val totalTimeInMillis: Double,
+    val maxTimeInMillis: Double
+)
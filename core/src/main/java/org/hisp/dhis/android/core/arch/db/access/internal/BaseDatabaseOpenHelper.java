@@ -36,14 +36,22 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 
 class BaseDatabaseOpenHelper {
 
-    static final int VERSION = 101;
+    static final int VERSION = 102;
+
+    /**
+     * Maximum size allowed by the framework. The default of 25 statements is not enough to keep the lookups of
+     * the most used stores prepared during a sync.
+     */
+    private static final int SQL_CACHE_SIZE = 100;
 
     private final AssetManager assetManager;
     private final int targetVersion;
+    private final DatabaseMetricsCollector metrics;
 
-    BaseDatabaseOpenHelper(Context context, int targetVersion) {
+    BaseDatabaseOpenHelper(Context context, int targetVersion, DatabaseMetricsCollector metrics) {
         this.assetManager = context.getAssets();
         this.targetVersion = targetVersion;
+        this.metrics = metrics;
     }
 
     void onOpen(DatabaseAdapter databaseAdapter) {
@@ -53,6 +61,7 @@ class BaseDatabaseOpenHelper {
         }
 
         databaseAdapter.enableWriteAheadLogging();
+        databaseAdapter.setMaxSqlCacheSize(SQL_CACHE_SIZE);
     }
 
     void onCreate(DatabaseAdapter databaseAdapter) {
@@ -64,6 +73,7 @@ class BaseDatabaseOpenHelper {
     }
 
     private DatabaseMigrationExecutor executor(DatabaseAdapter databaseAdapter) {
-        return new DatabaseMigrationExecutor(databaseAdapter, assetManager);
+        DatabaseAdapter adapter = metrics == null ? databaseAdapter : metrics.instrumentMigration(databaseAdapter);
+        return new DatabaseMigrationExecutor(adapter, assetManager);
     }
 }
\ No newline at end of file
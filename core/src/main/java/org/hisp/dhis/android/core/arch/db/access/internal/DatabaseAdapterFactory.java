@@ -30,6 +30,11 @@ package org.hisp.dhis.android.core.arch.db.access.internal;
 
 import android.content.Context;
 
+import androidx.annotation.VisibleForTesting;
+
+import net.sqlcipher.database.SQLiteDatabase;
+
+import org.hisp.dhis.android.core.D2Configuration;
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.storage.internal.SecureStore;
 import org.hisp.dhis.android.core.configuration.internal.DatabaseEncryptionPasswordManager;
@@ -53,16 +58,45 @@ public class DatabaseAdapterFactory {
 
     private final Context context;
     private final DatabaseEncryptionPasswordManager passwordManager;
+    private final DatabaseTemplate databaseTemplate;
+    private final DatabaseMetricsCollector metrics;
+    private final int readConnections;
 
     @Inject
     DatabaseAdapterFactory(Context context,
-                           DatabaseEncryptionPasswordManager passwordManager) {
+                           DatabaseEncryptionPasswordManager passwordManager,
+                           DatabaseTemplate databaseTemplate,
+                           DatabaseMetricsCollector metrics,
+                           D2Configuration d2Configuration) {
+        this(context, passwordManager, databaseTemplate, metrics, d2Configuration.databaseReadConnections());
+    }
+
+    private DatabaseAdapterFactory(Context context,
+                                   DatabaseEncryptionPasswordManager passwordManager,
+                                   DatabaseTemplate databaseTemplate,
+                                   DatabaseMetricsCollector metrics,
+                                   int readConnections) {
         this.context = context;
         this.passwordManager = passwordManager;
+        this.databaseTemplate = databaseTemplate;
+        this.metrics = metrics;
+        this.readConnections = readConnections;
     }
 
     public static DatabaseAdapterFactory create(Context context, SecureStore secureStore) {
-        return new DatabaseAdapterFactory(context, DatabaseEncryptionPasswordManager.create(secureStore));
+        return create(context, secureStore, 0);
+    }
+
+    public static DatabaseAdapterFactory create(Context context, SecureStore secureStore, int readConnections) {
+        return create(context, secureStore, readConnections, true);
+    }
+
+    @VisibleForTesting
+    static DatabaseAdapterFactory create(Context context, SecureStore secureStore, int readConnections,
+                                         boolean useTemplate) {
+        DatabaseMetricsCollector metrics = new DatabaseMetricsCollector(false, 0);
+        return new DatabaseAdapterFactory(context, DatabaseEncryptionPasswordManager.create(secureStore),
+                new DatabaseTemplate(context, metrics, useTemplate), metrics, readConnections);
     }
 
     public DatabaseAdapter newParentDatabaseAdapter() {
@@ -75,7 +109,7 @@ public class DatabaseAdapterFactory {
             ParentDatabaseAdapter parentDatabaseAdapter = (ParentDatabaseAdapter) adapter;
             DatabaseAdapter internalAdapter = newInternalAdapter(databaseName, context, encrypt, version);
             adaptersToPreventNotClosedError.add(internalAdapter);
-            parentDatabaseAdapter.setAdapter(internalAdapter);
+            parentDatabaseAdapter.setAdapter(metrics.instrument(internalAdapter));
         } catch (ClassCastException cce) {
             // This ensures tests that mock DatabaseAdapter pass
         }
@@ -104,12 +138,16 @@ public class DatabaseAdapterFactory {
                                                       boolean encrypt, int version) {
         if (encrypt) {
             EncryptedDatabaseOpenHelper openHelper = instantiateOpenHelper(databaseName, encryptedOpenHelpers,
-                    v -> new EncryptedDatabaseOpenHelper(context, databaseName, version));
+                    v -> new EncryptedDatabaseOpenHelper(context, databaseName, version, metrics));
             String password = passwordManager.getPassword(databaseName);
-            return new EncryptedDatabaseAdapter(openHelper.getWritableDatabase(password));
+            databaseTemplate.createIfRequired(databaseName, version, password);
+            SQLiteDatabase database = openHelper.getWritableDatabase(password);
+            return new EncryptedDatabaseAdapter(database, password,
+                    EncryptedReadConnectionPool.open(database, password, readConnections));
         } else {
             UnencryptedDatabaseOpenHelper openHelper = instantiateOpenHelper(databaseName, unencryptedOpenHelpers,
-                    v -> new UnencryptedDatabaseOpenHelper(context, databaseName, version));
+                    v -> new UnencryptedDatabaseOpenHelper(context, databaseName, version, metrics));
+            databaseTemplate.createIfRequired(databaseName, version, null);
             return new UnencryptedDatabaseAdapter(openHelper.getWritableDatabase());
         }
     }
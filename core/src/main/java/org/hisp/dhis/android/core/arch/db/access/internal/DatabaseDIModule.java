@@ -28,8 +28,10 @@
 
 package org.hisp.dhis.android.core.arch.db.access.internal;
 
+import org.hisp.dhis.android.core.D2Configuration;
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.access.DatabaseImportExport;
+import org.hisp.dhis.android.core.arch.db.access.DatabaseMetrics;
 
 import javax.inject.Singleton;
 
@@ -45,6 +47,18 @@ public class DatabaseDIModule {
         return adapterFactory.newParentDatabaseAdapter();
     }
 
+    @Provides
+    @Singleton
+    DatabaseMetricsCollector databaseMetricsCollector(D2Configuration d2Configuration) {
+        return new DatabaseMetricsCollector(d2Configuration.databaseMetricsEnabled(),
+                d2Configuration.slowQueryThresholdInMillis());
+    }
+
+    @Provides
+    DatabaseMetrics databaseMetrics(DatabaseMetricsCollector collector) {
+        return collector;
+    }
+
     @Provides
     DatabaseImportExport databaseImportExport(DatabaseImportExportImpl impl) {
         return impl;
@@ -82,27 +82,39 @@ public class DatabaseExport {
             File oldDatabaseFile = context.getDatabasePath(oldConfiguration.databaseName());
             File newDatabaseFile = context.getDatabasePath(newConfiguration.databaseName());
 
-
             SQLiteDatabase.loadLibs(context);
             SQLiteDatabase oldDatabase = SQLiteDatabase.openOrCreateDatabase(oldDatabaseFile, oldPassword, null,
                     oldHook);
-            oldDatabase.rawExecSQL(String.format(
-                    "ATTACH DATABASE '%s' as alias KEY '%s';", newDatabaseFile.getAbsolutePath(), newPassword));
-            if (newHook != null) {
-                oldDatabase.rawExecSQL("PRAGMA alias.cipher_page_size = 16384;");
-                oldDatabase.rawExecSQL("PRAGMA alias.cipher_memory_security = OFF;");
+            try {
+                exportDatabase(oldDatabase, newDatabaseFile, newPassword, newHook);
+            } finally {
+                oldDatabase.close();
             }
-            oldDatabase.rawExecSQL("SELECT sqlcipher_export('alias');");
-            oldDatabase.rawExecSQL("DETACH DATABASE alias;");
+        }, tag);
+    }
 
-            int version = oldDatabase.getVersion();
-            SQLiteDatabase newDatabase = SQLiteDatabase.openOrCreateDatabase(newDatabaseFile, newPassword, null,
-                    newHook);
-            newDatabase.setVersion(version);
+    /**
+     * Copies the source database into the target file with sqlcipher_export and gives it the same version. The
+     * target is encrypted with the password, or plain if it is empty, and is opened with the target hook.
+     */
+    static void exportDatabase(SQLiteDatabase sourceDatabase, File targetFile, String targetPassword,
+                               SQLiteDatabaseHook targetHook) {
+        sourceDatabase.rawExecSQL(String.format(
+                "ATTACH DATABASE '%s' as alias KEY '%s';", targetFile.getAbsolutePath(), targetPassword));
+        if (targetHook != null) {
+            sourceDatabase.rawExecSQL("PRAGMA alias.cipher_page_size = 16384;");
+            sourceDatabase.rawExecSQL("PRAGMA alias.cipher_memory_security = OFF;");
+        }
+        sourceDatabase.rawExecSQL("SELECT sqlcipher_export('alias');");
+        sourceDatabase.rawExecSQL("DETACH DATABASE alias;");
 
-            newDatabase.close();
-            oldDatabase.close();
-        }, tag);
+        SQLiteDatabase targetDatabase = SQLiteDatabase.openOrCreateDatabase(targetFile, targetPassword, null,
+                targetHook);
+        try {
+            targetDatabase.setVersion(sourceDatabase.getVersion());
+        } finally {
+            targetDatabase.close();
+        }
     }
 
     @SuppressWarnings({"PMD.PrematureDeclaration", "PMD.PreserveStackTrace"})
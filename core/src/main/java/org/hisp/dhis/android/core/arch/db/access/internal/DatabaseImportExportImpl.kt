@@ -28,11 +28,13 @@
 package org.hisp.dhis.android.core.arch.db.access.internal
 
 import android.content.Context
+import android.database.sqlite.SQLiteDatabase
 import dagger.Reusable
 import java.io.File
 import javax.inject.Inject
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter
 import org.hisp.dhis.android.core.arch.db.access.DatabaseImportExport
+import org.hisp.dhis.android.core.arch.db.access.DatabaseSnapshotFilter
 import org.hisp.dhis.android.core.arch.storage.internal.Credentials
 import org.hisp.dhis.android.core.arch.storage.internal.ObjectKeyValueStore
 import org.hisp.dhis.android.core.configuration.internal.*
@@ -52,41 +54,85 @@ internal class DatabaseImportExportImpl @Inject constructor(
     private val credentialsStore: ObjectKeyValueStore<Credentials>,
     private val databaseConfigurationSecureStore: ObjectKeyValueStore<DatabasesConfiguration>,
     private val databaseRenamer: DatabaseRenamer,
-    private val databaseAdapter: DatabaseAdapter
+    private val databaseAdapter: DatabaseAdapter,
+    private val databaseSnapshot: DatabaseSnapshot
 ) : DatabaseImportExport {
 
     companion object {
         const val TmpDatabase = "tmp-database.db"
         const val ExportDatabase = "export-database.db"
+        const val ExportSnapshot = "export-database.snapshot"
     }
 
     private val d2ErrorBuilder = D2Error.builder()
         .errorComponent(D2ErrorComponent.SDK)
 
     override fun importDatabase(file: File) {
+        checkLoggedOut()
+
+        try {
+            context.deleteDatabase(TmpDatabase)
+            val tmpDatabase = context.getDatabasePath(TmpDatabase)
+            file.copyTo(tmpDatabase)
+
+            registerTmpDatabase { databaseName -> file.copyTo(context.getDatabasePath(databaseName)) }
+        } finally {
+            context.deleteDatabase(TmpDatabase)
+        }
+    }
+
+    override fun importSnapshot(file: File) {
+        checkLoggedOut()
+
+        try {
+            context.deleteDatabase(TmpDatabase)
+            checkVersion(databaseSnapshot.readVersion(file))
+
+            val tmpDatabase = context.getDatabasePath(TmpDatabase)
+            tmpDatabase.parentFile?.mkdirs()
+            val snapshotAdapter = UnencryptedDatabaseAdapter(SQLiteDatabase.openOrCreateDatabase(tmpDatabase, null))
+            try {
+                databaseSnapshot.load(file, snapshotAdapter)
+            } finally {
+                snapshotAdapter.close()
+            }
+
+            registerTmpDatabase { databaseName -> databaseRenamer.renameDatabase(TmpDatabase, databaseName) }
+        } finally {
+            context.deleteDatabase(TmpDatabase)
+        }
+    }
+
+    private fun checkLoggedOut() {
         if (userModule.blockingIsLogged()) {
             throw d2ErrorBuilder
                 .errorDescription("Please log out to import database")
                 .errorCode(D2ErrorCode.DATABASE_IMPORT_LOGOUT_FIRST)
                 .build()
         }
+    }
+
+    private fun checkVersion(version: Int) {
+        if (version > BaseDatabaseOpenHelper.VERSION) {
+            throw d2ErrorBuilder
+                .errorDescription("Import database version higher than supported")
+                .errorCode(D2ErrorCode.DATABASE_IMPORT_VERSION_HIGHER_THAN_SUPPORTED)
+                .build()
+        }
+    }
 
+    /**
+     * Opens the temporary database (migrating it to the current version), resolves the user and server it belongs
+     * to and stores it under the corresponding database name through [storeAs].
+     */
+    private fun registerTmpDatabase(storeAs: (String) -> Unit) {
         var databaseAdapter: DatabaseAdapter? = null
         try {
-            context.deleteDatabase(TmpDatabase)
-            val tmpDatabase = context.getDatabasePath(TmpDatabase)
-            file.copyTo(tmpDatabase)
-
             val openHelper = UnencryptedDatabaseOpenHelper(context, TmpDatabase, BaseDatabaseOpenHelper.VERSION)
             val database = openHelper.readableDatabase
             databaseAdapter = UnencryptedDatabaseAdapter(database)
 
-            if (database.version > BaseDatabaseOpenHelper.VERSION) {
-                throw d2ErrorBuilder
-                    .errorDescription("Import database version higher than supported")
-                    .errorCode(D2ErrorCode.DATABASE_IMPORT_VERSION_HIGHER_THAN_SUPPORTED)
-                    .build()
-            }
+            checkVersion(database.version)
 
             val userCredentialsStore = UserCredentialsStoreImpl.create(databaseAdapter)
             val username = userCredentialsStore.selectFirst()!!.username()
@@ -98,8 +144,9 @@ internal class DatabaseImportExportImpl @Inject constructor(
             val databaseName = nameGenerator.getDatabaseName(serverUrl, username, false)
 
             if (!context.databaseList().contains(databaseName)) {
-                val destDatabase = context.getDatabasePath(databaseName)
-                file.copyTo(destDatabase)
+                databaseAdapter.close()
+                databaseAdapter = null
+                storeAs(databaseName)
 
                 multiUserDatabaseManager.createNew(serverUrl, username, false)
             } else {
@@ -110,7 +157,6 @@ internal class DatabaseImportExportImpl @Inject constructor(
             }
         } finally {
             databaseAdapter?.close()
-            context.deleteDatabase(TmpDatabase)
         }
     }
 
@@ -143,4 +189,18 @@ internal class DatabaseImportExportImpl @Inject constructor(
         val databaseName = userConfiguration.databaseName()
         return databaseRenamer.copyDatabase(databaseName, ExportDatabase)
     }
+
+    override fun exportLoggedUserSnapshot(filter: DatabaseSnapshotFilter): File {
+        if (!userModule.blockingIsLogged()) {
+            throw d2ErrorBuilder
+                .errorDescription("Please log in to export database")
+                .errorCode(D2ErrorCode.DATABASE_EXPORT_LOGIN_FIRST)
+                .build()
+        }
+
+        val snapshotFile = context.getDatabasePath(ExportSnapshot)
+        snapshotFile.delete()
+        databaseSnapshot.write(databaseAdapter, filter, snapshotFile)
+        return snapshotFile
+    }
 }
@@ -0,0 +1,219 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.db.access.internal
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter
+import org.hisp.dhis.android.core.arch.db.access.DatabaseMetrics
+import org.hisp.dhis.android.core.arch.db.access.QueryMetrics
+import org.hisp.dhis.android.core.arch.db.access.TableMetrics
+import org.hisp.dhis.android.core.arch.db.access.TransactionMetrics
+
+@Suppress("TooManyFunctions")
+internal class DatabaseMetricsCollector(
+    private val enabled: Boolean,
+    slowQueryThresholdInMillis: Int
+) : DatabaseMetrics {
+
+    private val slowQueryThresholdInNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdInMillis.toLong())
+    private val shapes = ConcurrentHashMap<String, ShapeStats>()
+    private val transactionStats = ShapeStats(null)
+    private val migrationNanos = AtomicLong()
+    private val templateCreationNanos = AtomicLong()
+
+    fun instrument(databaseAdapter: DatabaseAdapter): DatabaseAdapter {
+        return if (enabled) InstrumentedDatabaseAdapter(databaseAdapter, this, false) else databaseAdapter
+    }
+
+    fun instrumentMigration(databaseAdapter: DatabaseAdapter): DatabaseAdapter {
+        return if (enabled) InstrumentedDatabaseAdapter(databaseAdapter, this, true) else databaseAdapter
+    }
+
+    /**
+     * @return the shape of the statement if its query plan has to be captured, null otherwise.
+     */
+    fun recordStatement(sql: String, nanos: Long, rows: Long): String? {
+        val shape = shapeOf(sql)
+        val stats = shapes.getOrPut(shape) { ShapeStats(tableOf(shape)) }
+        stats.record(nanos, rows)
+        return if (nanos >= slowQueryThresholdInNanos && stats.claimQueryPlan()) shape else null
+    }
+
+    fun recordQueryPlan(shape: String, queryPlan: String) {
+        shapes[shape]?.queryPlan = queryPlan
+    }
+
+    fun recordTransaction(nanos: Long) {
+        transactionStats.record(nanos, 0)
+    }
+
+    fun recordMigration(nanos: Long) {
+        migrationNanos.addAndGet(nanos)
+    }
+
+    fun recordTemplateCreation(nanos: Long) {
+        if (enabled) {
+            templateCreationNanos.addAndGet(nanos)
+        }
+    }
+
+    override fun isEnabled(): Boolean {
+        return enabled
+    }
+
+    override fun queries(): List<QueryMetrics> {
+        return shapes.map { (shape, stats) -> stats.toQueryMetrics(shape) }
+            .sortedByDescending { it.totalTimeInMillis }
+    }
+
+    override fun slowQueries(): List<QueryMetrics> {
+        return queries().filter { it.maxTimeInMillis >= toMillis(slowQueryThresholdInNanos) }
+    }
+
+    override fun tables(): List<TableMetrics> {
+        return queries().filter { it.table != null }
+            .groupBy { it.table!! }
+            .map { (table, metrics) ->
+                TableMetrics(
+                    table = table,
+                    executions = metrics.map { it.executions }.sum(),
+                    totalTimeInMillis = metrics.sumByDouble { it.totalTimeInMillis },
+                    rows = metrics.map { it.rows }.sum()
+                )
+            }
+            .sortedByDescending { it.totalTimeInMillis }
+    }
+
+    override fun transactions(): TransactionMetrics {
+        val metrics = transactionStats.toQueryMetrics("")
+        return TransactionMetrics(metrics.executions, metrics.totalTimeInMillis, metrics.maxTimeInMillis)
+    }
+
+    override fun migrationTimeInMillis(): Long {
+        return TimeUnit.NANOSECONDS.toMillis(migrationNanos.get())
+    }
+
+    override fun templateCreationTimeInMillis(): Long {
+        return TimeUnit.NANOSECONDS.toMillis(templateCreationNanos.get())
+    }
+
+    override fun reset() {
+        shapes.clear()
+        transactionStats.reset()
+        migrationNanos.set(0)
+        templateCreationNanos.set(0)
+    }
+
+    private class ShapeStats(val table: String?) {
+        private var executions = 0L
+        private var totalNanos = 0L
+        private var maxNanos = 0L
+        private var rows = 0L
+        private val histogram = LongArray(HISTOGRAM_BOUNDS.size)
+        private var queryPlanClaimed = false
+
+        @Volatile
+        var queryPlan: String? = null
+
+        @Synchronized
+        fun record(nanos: Long, rowCount: Long) {
+            executions++
+            totalNanos += nanos
+            maxNanos = maxOf(maxNanos, nanos)
+            rows += rowCount
+            val millis = TimeUnit.NANOSECONDS.toMillis(nanos)
+            histogram[HISTOGRAM_BOUNDS.indexOfFirst { millis < it }]++
+        }
+
+        @Synchronized
+        fun claimQueryPlan(): Boolean {
+            return if (queryPlanClaimed) {
+                false
+            } else {
+                queryPlanClaimed = true
+                true
+            }
+        }
+
+        @Synchronized
+        fun reset() {
+            executions = 0
+            totalNanos = 0
+            maxNanos = 0
+            rows = 0
+            histogram.fill(0)
+        }
+
+        @Synchronized
+        fun toQueryMetrics(shape: String): QueryMetrics {
+            return QueryMetrics(
+                sql = shape,
+                table = table,
+                executions = executions,
+                totalTimeInMillis = toMillis(totalNanos),
+                maxTimeInMillis = toMillis(maxNanos),
+                rows = rows,
+                latencyHistogram = HISTOGRAM_BOUNDS.zip(histogram.toList()).toMap(),
+                queryPlan = queryPlan
+            )
+        }
+    }
+
+    companion object {
+        private const val NANOS_PER_MILLI = 1_000_000.0
+        private val HISTOGRAM_BOUNDS = longArrayOf(1, 5, 20, 100, 500, Long.MAX_VALUE)
+
+        private val STRING_LITERAL = Regex("'(?:[^']|'')*'")
+        private val NUMBER_LITERAL = Regex("\\b\\d+(?:\\.\\d+)?\\b")
+        private val PARAMETER_LIST = Regex("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)")
+        private val WHITESPACE = Regex("\\s+")
+        private val TABLE = Regex("\\b(?:FROM|INTO|UPDATE|TABLE)\\s+[\"`]?(\\w+)", RegexOption.IGNORE_CASE)
+
+        /**
+         * Replaces the literals of a statement by ?s, so statements that only differ in their values are grouped.
+         */
+        fun shapeOf(sql: String): String {
+            return sql
+                .replace(STRING_LITERAL, "?")
+                .replace(NUMBER_LITERAL, "?")
+                .replace(PARAMETER_LIST, "(?, ...)")
+                .replace(WHITESPACE, " ")
+                .trim()
+        }
+
+        fun tableOf(shape: String): String? {
+            return TABLE.find(shape)?.groupValues?.get(1)
+        }
+
+        private fun toMillis(nanos: Long): Double {
+            return nanos / NANOS_PER_MILLI
+        }
+    }
+}
@@ -31,9 +31,17 @@ import android.content.res.AssetManager
 import java.io.IOException
 import java.util.ArrayList
 import java.util.Scanner
+import java.util.concurrent.ConcurrentHashMap
 
 internal class DatabaseMigrationParser(private val assetManager: AssetManager) {
 
+    companion object {
+        /**
+         * Parsed asset files, shared by all parsers so every file is read at most once per process.
+         */
+        private val parsedFiles = ConcurrentHashMap<String, List<String>>()
+    }
+
     @Throws(IOException::class)
     fun parseMigrations(oldVersion: Int, newVersion: Int): List<DatabaseMigration> {
         val startVersion = oldVersion + 1
@@ -55,6 +63,11 @@ internal class DatabaseMigrationParser(private val assetManager: AssetManager) {
     @Throws(IOException::class)
     private fun parseFile(directory: String, newVersion: Int): List<String> {
         val fileName = "$directory/$newVersion.sql"
+        return parsedFiles[fileName] ?: readFile(fileName).also { parsedFiles[fileName] = it }
+    }
+
+    @Throws(IOException::class)
+    private fun readFile(fileName: String): List<String> {
         val inputStream = assetManager.open(fileName)
         val sc = Scanner(inputStream, "UTF-8")
         val lines: MutableList<String> = ArrayList()
@@ -0,0 +1,318 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.hisp.dhis.android.core.arch.db.access.internal
+
+import android.database.Cursor
+import dagger.Reusable
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
+import java.io.IOException
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+import javax.inject.Inject
+import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter
+import org.hisp.dhis.android.core.arch.db.access.DatabaseSnapshotFilter
+import org.hisp.dhis.android.core.arch.db.stores.binders.internal.StatementWrapper
+
+/**
+ * Writes and reads gzipped database snapshots. A snapshot holds the database version, the schema and the rows of
+ * every table, read through cursors in chunks of [ROWS_PER_CHUNK] rows by rowid, so neither the export nor the
+ * import keeps more than one chunk in memory. The rows of filtered snapshots are selected by
+ * [DatabaseSnapshotSelection].
+ */
+@Reusable
+@Suppress("TooManyFunctions")
+internal class DatabaseSnapshot @Inject constructor() {
+
+    companion object {
+        private const val MAGIC = 0x44325353
+        private const val FORMAT_VERSION = 1
+        private const val ROWS_PER_CHUNK = 500
+
+        private const val END = 0
+        private const val TABLE = 1
+        private const val CHUNK = 2
+        private const val END_TABLE = 3
+        private const val SCHEMA = 4
+
+        private const val NULL_VALUE = 0
+        private const val INTEGER_VALUE = 1
+        private const val FLOAT_VALUE = 2
+        private const val STRING_VALUE = 3
+        private const val BLOB_VALUE = 4
+    }
+
+    private data class SchemaItem(val type: String, val name: String, val sql: String)
+
+    /**
+     * Writes the snapshot within a single transaction, so it reflects one consistent state of the database even if
+     * other threads keep writing to it. The snapshot is read and its selection kept on a reader of its own when the
+     * database supports it, so those writes are not blocked meanwhile.
+     */
+    fun write(databaseAdapter: DatabaseAdapter, filter: DatabaseSnapshotFilter, file: File) {
+        val snapshotReader = databaseAdapter.openSnapshotReader()
+        if (snapshotReader != null) {
+            try {
+                writeContent(snapshotReader, filter, file)
+            } finally {
+                snapshotReader.close()
+            }
+        } else {
+            val transaction = databaseAdapter.beginNewTransaction()
+            try {
+                writeContent(databaseAdapter, filter, file)
+                transaction.setSuccessful()
+            } finally {
+                transaction.end()
+            }
+        }
+    }
+
+    private fun writeContent(databaseAdapter: DatabaseAdapter, filter: DatabaseSnapshotFilter, file: File) {
+        val (tables, otherItems) = schema(databaseAdapter).partition { it.type == "table" }
+        val tableColumns = tables.associate { it.name to tableColumns(databaseAdapter, it.name) }
+        val selection = DatabaseSnapshotSelection(databaseAdapter, tableColumns, filter)
+        try {
+            selection.select()
+            DataOutputStream(BufferedOutputStream(GZIPOutputStream(FileOutputStream(file)))).use { output ->
+                output.writeInt(MAGIC)
+                output.writeInt(FORMAT_VERSION)
+                output.writeInt(databaseVersion(databaseAdapter))
+
+                tables.forEach {
+                    writeTable(databaseAdapter, it, tableColumns.getValue(it.name), selection, output)
+                }
+                otherItems.forEach {
+                    output.writeByte(SCHEMA)
+                    writeString(output, it.sql)
+                }
+                output.writeByte(END)
+            }
+        } finally {
+            selection.clear()
+        }
+    }
+
+    fun readVersion(file: File): Int {
+        return openSnapshot(file).use { readHeader(it) }
+    }
+
+    /**
+     * Creates the snapshot schema in the (empty) database and loads its rows in a single transaction. Indexes and
+     * triggers are created after the rows are loaded.
+     */
+    fun load(file: File, databaseAdapter: DatabaseAdapter) {
+        openSnapshot(file).use { input ->
+            val version = readHeader(input)
+            val transaction = databaseAdapter.beginNewTransaction()
+            try {
+                loadContent(input, databaseAdapter)
+                databaseAdapter.execSQL("PRAGMA user_version = $version")
+                transaction.setSuccessful()
+            } finally {
+                transaction.end()
+            }
+        }
+    }
+
+    private fun databaseVersion(databaseAdapter: DatabaseAdapter): Int {
+        return databaseAdapter.rawQuery("PRAGMA user_version").use { cursor ->
+            cursor.moveToFirst()
+            cursor.getInt(0)
+        }
+    }
+
+    private fun schema(databaseAdapter: DatabaseAdapter): List<SchemaItem> {
+        val query = "SELECT type, name, sql FROM sqlite_master " +
+            "WHERE sql IS NOT NULL AND name NOT LIKE 'sqlite_%' AND name <> 'android_metadata' ORDER BY rowid"
+        return databaseAdapter.rawQuery(query).use { cursor ->
+            val items = ArrayList<SchemaItem>(cursor.count)
+            while (cursor.moveToNext()) {
+                items.add(SchemaItem(cursor.getString(0), cursor.getString(1), cursor.getString(2)))
+            }
+            items
+        }
+    }
+
+    private fun tableColumns(databaseAdapter: DatabaseAdapter, table: String): List<String> {
+        return databaseAdapter.rawQuery("PRAGMA table_info(${quote(table)})").use { cursor ->
+            val nameIndex = cursor.getColumnIndex("name")
+            val columns = ArrayList<String>(cursor.count)
+            while (cursor.moveToNext()) {
+                columns.add(cursor.getString(nameIndex))
+            }
+            columns
+        }
+    }
+
+    private fun writeTable(
+        databaseAdapter: DatabaseAdapter,
+        table: SchemaItem,
+        columns: List<String>,
+        selection: DatabaseSnapshotSelection,
+        output: DataOutputStream
+    ) {
+        output.writeByte(TABLE)
+        output.writeUTF(table.name)
+        writeString(output, table.sql)
+        output.writeInt(columns.size)
+        columns.forEach { output.writeUTF(it) }
+
+        val rowFilter = selection.rowFilter(table.name)
+        if (rowFilter != null) {
+            val select = "SELECT _rowid_, ${columns.joinToString(", ") { quote(it) }} FROM ${quote(table.name)}"
+            var lastRowId = Long.MIN_VALUE
+            do {
+                val query = "$select WHERE _rowid_ > $lastRowId AND ($rowFilter) ORDER BY _rowid_ " +
+                    "LIMIT $ROWS_PER_CHUNK"
+                val rowCount = databaseAdapter.rawQuery(query).use { cursor ->
+                    if (cursor.count > 0) {
+                        output.writeByte(CHUNK)
+                        output.writeInt(cursor.count)
+                        while (cursor.moveToNext()) {
+                            lastRowId = cursor.getLong(0)
+                            for (index in 1..columns.size) {
+                                writeValue(output, cursor, index)
+                            }
+                        }
+                    }
+                    cursor.count
+                }
+            } while (rowCount == ROWS_PER_CHUNK)
+        }
+        output.writeByte(END_TABLE)
+    }
+
+    private fun writeValue(output: DataOutputStream, cursor: Cursor, index: Int) {
+        when (cursor.getType(index)) {
+            Cursor.FIELD_TYPE_NULL -> output.writeByte(NULL_VALUE)
+            Cursor.FIELD_TYPE_INTEGER -> {
+                output.writeByte(INTEGER_VALUE)
+                output.writeLong(cursor.getLong(index))
+            }
+            Cursor.FIELD_TYPE_FLOAT -> {
+                output.writeByte(FLOAT_VALUE)
+                output.writeDouble(cursor.getDouble(index))
+            }
+            Cursor.FIELD_TYPE_STRING -> {
+                output.writeByte(STRING_VALUE)
+                writeString(output, cursor.getString(index))
+            }
+            Cursor.FIELD_TYPE_BLOB -> {
+                output.writeByte(BLOB_VALUE)
+                writeBytes(output, cursor.getBlob(index))
+            }
+            else -> throw IOException("Unsupported column type in column ${cursor.getColumnName(index)}")
+        }
+    }
+
+    private fun loadContent(input: DataInputStream, databaseAdapter: DatabaseAdapter) {
+        while (true) {
+            when (input.readByte().toInt()) {
+                TABLE -> loadTable(input, databaseAdapter)
+                SCHEMA -> databaseAdapter.execSQL(readString(input))
+                END -> return
+                else -> throw IOException("Corrupted database snapshot")
+            }
+        }
+    }
+
+    private fun loadTable(input: DataInputStream, databaseAdapter: DatabaseAdapter) {
+        val table = input.readUTF()
+        databaseAdapter.execSQL(readString(input))
+        val columns = List(input.readInt()) { input.readUTF() }
+
+        val insert = "INSERT INTO ${quote(table)} (${columns.joinToString(", ") { quote(it) }}) " +
+            "VALUES (${columns.joinToString(", ") { "?" }})"
+        val statement = databaseAdapter.compileStatement(insert)
+        try {
+            while (input.readByte().toInt() == CHUNK) {
+                repeat(input.readInt()) {
+                    for (index in 1..columns.size) {
+                        bindValue(input, statement, index)
+                    }
+                    databaseAdapter.executeInsert(statement)
+                    statement.clearBindings()
+                }
+            }
+        } finally {
+            statement.close()
+        }
+    }
+
+    private fun bindValue(input: DataInputStream, statement: StatementWrapper, index: Int) {
+        when (input.readByte().toInt()) {
+            NULL_VALUE -> statement.bind(index, null as String?)
+            INTEGER_VALUE -> statement.bind(index, input.readLong())
+            FLOAT_VALUE -> statement.bind(index, input.readDouble())
+            STRING_VALUE -> statement.bind(index, readString(input))
+            BLOB_VALUE -> statement.bind(index, readBytes(input))
+            else -> throw IOException("Corrupted database snapshot")
+        }
+    }
+
+    private fun openSnapshot(file: File): DataInputStream {
+        return DataInputStream(BufferedInputStream(GZIPInputStream(FileInputStream(file))))
+    }
+
+    private fun readHeader(input: DataInputStream): Int {
+        if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+            throw IOException("Unsupported database snapshot")
+        }
+        return input.readInt()
+    }
+
+    private fun writeString(output: DataOutputStream, value: String) {
+        writeBytes(output, value.toByteArray(Charsets.UTF_8))
+    }
+
+    private fun readString(input: DataInputStream): String {
+        return String(readBytes(input), Charsets.UTF_8)
+    }
+
+    private fun writeBytes(output: DataOutputStream, bytes: ByteArray) {
+        output.writeInt(bytes.size)
+        output.write(bytes)
+    }
+
+    private fun readBytes(input: DataInputStream): ByteArray {
+        val bytes = ByteArray(input.readInt())
+        input.readFully(bytes)
+        return bytes
+    }
+
+    private fun quote(identifier: String): String {
+        return "\"$identifier\""
+    }
+}
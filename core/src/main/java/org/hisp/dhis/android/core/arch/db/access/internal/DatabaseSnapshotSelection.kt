@@ -0,0 +1,205 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.hisp.dhis.android.core.arch.db.access.internal
+
+import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter
+import org.hisp.dhis.android.core.arch.db.access.DatabaseSnapshotFilter
+import org.hisp.dhis.android.core.common.DataColumns
+import org.hisp.dhis.android.core.common.State
+import org.hisp.dhis.android.core.systeminfo.SystemInfoTableInfo
+import org.hisp.dhis.android.core.user.UserCredentialsTableInfo
+
+/**
+ * Selects the rows written to a database snapshot, keeping its foreign key integrity. Starting from the rows
+ * accepted by the filter, it keeps adding the rows referenced by selected rows and, for tables without a sync state,
+ * the rows owned (ON DELETE CASCADE) by selected rows, until no row is added. This way a filtered snapshot has no
+ * orphan rows and it keeps the values of the selected data. The rowids of the selected rows are stored in temporary
+ * tables, which are dropped by [clear].
+ */
+internal class DatabaseSnapshotSelection(
+    private val databaseAdapter: DatabaseAdapter,
+    private val tableColumns: Map<String, List<String>>,
+    private val filter: DatabaseSnapshotFilter
+) {
+
+    companion object {
+        private const val SELECTION_TABLE_PREFIX = "snapshot_selection_"
+        private const val CASCADE = "CASCADE"
+        private const val ROWID = "_rowid_"
+
+        private val REQUIRED_TABLES = setOf(
+            UserCredentialsTableInfo.TABLE_INFO.name(),
+            SystemInfoTableInfo.TABLE_INFO.name()
+        )
+    }
+
+    private data class ForeignKey(
+        val child: String,
+        val childColumn: String,
+        val parent: String,
+        val parentColumn: String,
+        val cascade: Boolean
+    )
+
+    private val selectionTables = tableColumns.keys.withIndex().associate { (index, table) ->
+        table to "$SELECTION_TABLE_PREFIX$index"
+    }
+    private val selectedCounts = HashMap<String, Int>()
+
+    fun select() {
+        if (filter == DatabaseSnapshotFilter.ALL_TABLES) {
+            return
+        }
+
+        selectionTables.values.forEach { databaseAdapter.execSQL("CREATE TEMP TABLE $it (id INTEGER PRIMARY KEY)") }
+        tableColumns.keys.forEach { table ->
+            initialFilter(table)?.let { addRows(table, "SELECT $ROWID FROM ${quote(table)} WHERE $it") }
+        }
+
+        val foreignKeys = tableColumns.keys.flatMap { foreignKeys(it) }
+        do {
+            var added = false
+            foreignKeys.forEach { foreignKey ->
+                added = addReferencedRows(foreignKey) || added
+                if (foreignKey.cascade && !hasSyncState(foreignKey.child)) {
+                    added = addOwnedRows(foreignKey) || added
+                }
+            }
+        } while (added)
+    }
+
+    /**
+     * Returns the where clause of the selected rows of the table, or null if none is selected.
+     */
+    fun rowFilter(table: String): String? {
+        return when {
+            filter == DatabaseSnapshotFilter.ALL_TABLES -> "1"
+            (selectedCounts[table] ?: 0) == 0 -> null
+            else -> "$ROWID IN (SELECT id FROM ${selectionTables.getValue(table)})"
+        }
+    }
+
+    fun clear() {
+        if (filter != DatabaseSnapshotFilter.ALL_TABLES) {
+            selectionTables.values.forEach { databaseAdapter.execSQL("DROP TABLE IF EXISTS $it") }
+        }
+    }
+
+    private fun initialFilter(table: String): String? {
+        return when {
+            REQUIRED_TABLES.contains(table) -> "1"
+            !hasSyncState(table) -> null
+            filter == DatabaseSnapshotFilter.DATA_TABLES -> "1"
+            else -> State.uploadableStatesIncludingError().joinToString(
+                prefix = "${DataColumns.STATE} IN (", postfix = ")"
+            ) { "'${it.name}'" }
+        }
+    }
+
+    private fun hasSyncState(table: String): Boolean {
+        return tableColumns[table]?.contains(DataColumns.STATE) ?: false
+    }
+
+    private fun addReferencedRows(foreignKey: ForeignKey): Boolean {
+        return addRows(
+            foreignKey.parent,
+            "SELECT $ROWID FROM ${quote(foreignKey.parent)} WHERE ${column(foreignKey.parentColumn)} IN " +
+                "(SELECT ${column(foreignKey.childColumn)} FROM ${quote(foreignKey.child)} " +
+                "WHERE $ROWID IN (SELECT id FROM ${selectionTables.getValue(foreignKey.child)}))"
+        )
+    }
+
+    private fun addOwnedRows(foreignKey: ForeignKey): Boolean {
+        return addRows(
+            foreignKey.child,
+            "SELECT $ROWID FROM ${quote(foreignKey.child)} WHERE ${column(foreignKey.childColumn)} IN " +
+                "(SELECT ${column(foreignKey.parentColumn)} FROM ${quote(foreignKey.parent)} " +
+                "WHERE $ROWID IN (SELECT id FROM ${selectionTables.getValue(foreignKey.parent)}))"
+        )
+    }
+
+    private fun addRows(table: String, select: String): Boolean {
+        val selectionTable = selectionTables.getValue(table)
+        databaseAdapter.execSQL("INSERT OR IGNORE INTO $selectionTable (id) $select")
+        val count = databaseAdapter.rawQuery("SELECT COUNT(*) FROM $selectionTable").use { cursor ->
+            cursor.moveToFirst()
+            cursor.getInt(0)
+        }
+        val added = count > (selectedCounts[table] ?: 0)
+        selectedCounts[table] = count
+        return added
+    }
+
+    private fun foreignKeys(child: String): List<ForeignKey> {
+        return databaseAdapter.rawQuery("PRAGMA foreign_key_list(${quote(child)})").use { cursor ->
+            val tableIndex = cursor.getColumnIndex("table")
+            val fromIndex = cursor.getColumnIndex("from")
+            val toIndex = cursor.getColumnIndex("to")
+            val onDeleteIndex = cursor.getColumnIndex("on_delete")
+            val foreignKeys = ArrayList<ForeignKey>(cursor.count)
+            while (cursor.moveToNext()) {
+                val parent = cursor.getString(tableIndex)
+                if (selectionTables.containsKey(parent)) {
+                    foreignKeys.add(
+                        ForeignKey(
+                            child = child,
+                            childColumn = cursor.getString(fromIndex),
+                            parent = parent,
+                            parentColumn = cursor.getString(toIndex) ?: primaryKey(parent),
+                            cascade = CASCADE.equals(cursor.getString(onDeleteIndex), ignoreCase = true)
+                        )
+                    )
+                }
+            }
+            foreignKeys
+        }
+    }
+
+    private fun primaryKey(table: String): String {
+        return databaseAdapter.rawQuery("PRAGMA table_info(${quote(table)})").use { cursor ->
+            val nameIndex = cursor.getColumnIndex("name")
+            val pkIndex = cursor.getColumnIndex("pk")
+            var primaryKey = ROWID
+            while (cursor.moveToNext()) {
+                if (cursor.getInt(pkIndex) == 1) {
+                    primaryKey = cursor.getString(nameIndex)
+                }
+            }
+            primaryKey
+        }
+    }
+
+    private fun column(name: String): String {
+        return if (name == ROWID) name else quote(name)
+    }
+
+    private fun quote(identifier: String): String {
+        return "\"$identifier\""
+    }
+}
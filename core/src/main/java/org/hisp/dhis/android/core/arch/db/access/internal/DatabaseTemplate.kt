@@ -0,0 +1,117 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.hisp.dhis.android.core.arch.db.access.internal
+
+import android.content.Context
+import android.util.Log
+import dagger.Reusable
+import java.io.File
+import javax.inject.Inject
+import net.sqlcipher.database.SQLiteDatabase
+
+/**
+ * Creates new databases by copying a prebuilt template database shipped in the assets instead of replaying the
+ * snapshot DDL. The template is at version [TEMPLATE_VERSION]; migrations after it are applied by the open helper
+ * as a regular upgrade. Encrypted databases are created by exporting the template into a keyed database.
+ *
+ * A disabled template never creates a database, so the open helper always replays the snapshot DDL.
+ */
+@Reusable
+internal class DatabaseTemplate(
+    private val context: Context,
+    private val metrics: DatabaseMetricsCollector,
+    private val enabled: Boolean
+) {
+
+    @Inject
+    constructor(context: Context, metrics: DatabaseMetricsCollector) : this(context, metrics, true)
+
+    companion object {
+        const val TEMPLATE_VERSION = 102
+        private const val TEMPLATE_ASSET = "templates/$TEMPLATE_VERSION.db"
+        private const val TAG = "DatabaseTemplate"
+    }
+
+    /**
+     * Copies the template into the database [databaseName] if it does not exist yet. If the copy fails, the partial
+     * file is removed so the open helper creates the database from the snapshot DDL.
+     *
+     * @return true if the database was created from the template.
+     */
+    @Suppress("TooGenericExceptionCaught")
+    fun createIfRequired(databaseName: String?, targetVersion: Int, password: String?): Boolean {
+        if (!enabled || databaseName == null || targetVersion < TEMPLATE_VERSION) {
+            return false
+        }
+        val databaseFile = context.getDatabasePath(databaseName)
+        if (databaseFile.exists()) {
+            return false
+        }
+
+        val startTime = System.nanoTime()
+        return try {
+            databaseFile.parentFile?.mkdirs()
+            if (password == null) {
+                copyTemplate(databaseFile)
+            } else {
+                copyEncryptedTemplate(databaseFile, password)
+            }
+            metrics.recordTemplateCreation(System.nanoTime() - startTime)
+            true
+        } catch (e: Exception) {
+            Log.e(TAG, "Database template could not be copied: ${e.message}")
+            context.deleteDatabase(databaseName)
+            false
+        }
+    }
+
+    private fun copyTemplate(databaseFile: File) {
+        context.assets.open(TEMPLATE_ASSET).use { input ->
+            databaseFile.outputStream().use { output -> input.copyTo(output) }
+        }
+    }
+
+    private fun copyEncryptedTemplate(databaseFile: File, password: String) {
+        val plainFile = File(databaseFile.parentFile, "${databaseFile.name}-template")
+        try {
+            copyTemplate(plainFile)
+
+            SQLiteDatabase.loadLibs(context)
+            val plainDatabase = SQLiteDatabase.openOrCreateDatabase(plainFile, "", null, null)
+            try {
+                DatabaseExport.exportDatabase(plainDatabase, databaseFile, password, EncryptedDatabaseOpenHelper.hook)
+            } finally {
+                plainDatabase.close()
+            }
+        } finally {
+            plainFile.delete()
+            File(plainFile.path + "-journal").delete()
+        }
+    }
+}
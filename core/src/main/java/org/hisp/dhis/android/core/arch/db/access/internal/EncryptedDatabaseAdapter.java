@@ -32,6 +32,7 @@ import android.content.ContentValues;
 import android.database.Cursor;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import net.sqlcipher.database.SQLiteDatabase;
 
@@ -42,12 +43,29 @@ import org.hisp.dhis.android.core.arch.db.stores.binders.internal.StatementWrapp
 class EncryptedDatabaseAdapter implements DatabaseAdapter {
 
     private final SQLiteDatabase database;
+    private final String password;
+    private final EncryptedReadConnectionPool readers;
 
     EncryptedDatabaseAdapter(@NonNull SQLiteDatabase database) {
+        this(database, null, null);
+    }
+
+    EncryptedDatabaseAdapter(@NonNull SQLiteDatabase database, @Nullable String password,
+                             @Nullable EncryptedReadConnectionPool readers) {
         if (database == null) {
             throw new IllegalArgumentException("database == null");
         }
         this.database = database;
+        this.password = password;
+        this.readers = readers;
+    }
+
+    /**
+     * Queries run by a thread with an open transaction stay on the writer connection, so they see the changes of
+     * the transaction. The rest go to a read connection if there is any.
+     */
+    private SQLiteDatabase readDatabase() {
+        return readers == null || database.inTransaction() ? database : readers.next();
     }
 
     @Override
@@ -78,17 +96,17 @@ class EncryptedDatabaseAdapter implements DatabaseAdapter {
 
     @Override
     public Cursor rawQuery(String sql, String... selectionArgs) {
-        return database.rawQuery(sql, selectionArgs);
+        return readDatabase().rawQuery(sql, selectionArgs);
     }
 
     @Override
     public Cursor query(String sql, String[] columns) {
-        return database.query(sql, columns, null, null, null, null, null);
+        return readDatabase().query(sql, columns, null, null, null, null, null);
     }
 
     @Override
     public Cursor query(String table, String[] columns, String selection, String[] selectionArgs) {
-        return database.query(table, columns, selection, selectionArgs, null, null, null);
+        return readDatabase().query(table, columns, selection, selectionArgs, null, null, null);
     }
 
     @Override
@@ -131,6 +149,36 @@ class EncryptedDatabaseAdapter implements DatabaseAdapter {
         database.enableWriteAheadLogging();
     }
 
+    @Override
+    public void setMaxSqlCacheSize(int cacheSize) {
+        database.setMaxSqlCacheSize(cacheSize);
+    }
+
+    @Override
+    public TableInvalidationTracker invalidationTracker() {
+        return TableInvalidationTracker.UNTRACKED;
+    }
+
+    /**
+     * Only available for adapters opened with the database password.
+     */
+    @Override
+    @Nullable
+    public DatabaseAdapter openSnapshotReader() {
+        if (password == null || !EncryptedReadConnectionPool.isWal(database)) {
+            return null;
+        }
+        SQLiteDatabase reader = SQLiteDatabase.openDatabase(database.getPath(), password, null,
+                SQLiteDatabase.OPEN_READWRITE, EncryptedDatabaseOpenHelper.hook);
+        try {
+            reader.rawExecSQL("BEGIN DEFERRED;");
+        } catch (RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+        return new EncryptedDatabaseAdapter(reader);
+    }
+
     @Override
     public boolean isReady() {
         return true;
@@ -138,6 +186,9 @@ class EncryptedDatabaseAdapter implements DatabaseAdapter {
 
     @Override
     public void close() {
+        if (readers != null) {
+            readers.close();
+        }
         database.close();
     }
 }
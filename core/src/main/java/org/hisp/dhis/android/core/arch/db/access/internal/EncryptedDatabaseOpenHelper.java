@@ -50,9 +50,14 @@ class EncryptedDatabaseOpenHelper extends SQLiteOpenHelper {
     };
 
     EncryptedDatabaseOpenHelper(Context context, String databaseName, int targetVersion) {
+        this(context, databaseName, targetVersion, null);
+    }
+
+    EncryptedDatabaseOpenHelper(Context context, String databaseName, int targetVersion,
+                                DatabaseMetricsCollector metrics) {
         super(context, databaseName, null, targetVersion, hook);
         SQLiteDatabase.loadLibs(context);
-        this.baseHelper = new BaseDatabaseOpenHelper(context, targetVersion);
+        this.baseHelper = new BaseDatabaseOpenHelper(context, targetVersion, metrics);
     }
 
     @Override
@@ -0,0 +1,89 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.db.access.internal;
+
+import android.database.Cursor;
+
+import net.sqlcipher.database.SQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read connections for an encrypted database in WAL mode. SQLCipher serializes every operation of a connection,
+ * including the ones of other threads, while a transaction is open. These extra connections let other threads
+ * keep reading the last committed state meanwhile.
+ * <p>
+ * Plain SQLite does not need this: the framework already keeps a pool of read connections in WAL mode.
+ */
+final class EncryptedReadConnectionPool {
+
+    private static final String WAL = "wal";
+
+    private final List<SQLiteDatabase> readers;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private EncryptedReadConnectionPool(List<SQLiteDatabase> readers) {
+        this.readers = readers;
+    }
+
+    /**
+     * @return the pool, or null if the database is not in WAL mode, since readers would then block the writer.
+     */
+    static EncryptedReadConnectionPool open(SQLiteDatabase writer, String password, int size) {
+        if (size <= 0 || !isWal(writer)) {
+            return null;
+        }
+
+        List<SQLiteDatabase> readers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            SQLiteDatabase reader = SQLiteDatabase.openDatabase(writer.getPath(), password, null,
+                    SQLiteDatabase.OPEN_READWRITE, EncryptedDatabaseOpenHelper.hook);
+            reader.rawExecSQL("PRAGMA query_only = ON;");
+            readers.add(reader);
+        }
+        return new EncryptedReadConnectionPool(readers);
+    }
+
+    static boolean isWal(SQLiteDatabase writer) {
+        try (Cursor cursor = writer.rawQuery("PRAGMA journal_mode", new String[0])) {
+            return cursor.moveToFirst() && WAL.equalsIgnoreCase(cursor.getString(0));
+        }
+    }
+
+    SQLiteDatabase next() {
+        return readers.get(Math.abs(next.getAndIncrement() % readers.size()));
+    }
+
+    void close() {
+        for (SQLiteDatabase reader : readers) {
+            reader.close();
+        }
+    }
+}
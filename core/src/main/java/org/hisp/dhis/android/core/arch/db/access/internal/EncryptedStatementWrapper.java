@@ -106,6 +106,15 @@ public class EncryptedStatementWrapper implements StatementWrapper {
         }
     }
 
+    @Override
+    public void bind(int index, byte[] arg) {
+        if (arg == null) {
+            s.bindNull(index);
+        } else {
+            s.bindBlob(index, arg);
+        }
+    }
+
     @Override
     public void clearBindings() {
         s.clearBindings();
@@ -0,0 +1,243 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.db.access.internal;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.SQLException;
+
+import androidx.annotation.NonNull;
+
+import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
+import org.hisp.dhis.android.core.arch.db.access.Transaction;
+import org.hisp.dhis.android.core.arch.db.stores.binders.internal.StatementWrapper;
+
+/**
+ * Decorator that measures every operation of the wrapped adapter and reports it to a
+ * {@link DatabaseMetricsCollector}. Cursors are counted before being returned, so the time of a query includes
+ * filling its first window, which is where SQLite actually runs it.
+ */
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.ExcessivePublicCount"})
+class InstrumentedDatabaseAdapter implements DatabaseAdapter {
+
+    private static final String EXPLAIN_QUERY_PLAN = "EXPLAIN QUERY PLAN ";
+    private static final String DETAIL_COLUMN = "detail";
+
+    private final DatabaseAdapter adapter;
+    private final DatabaseMetricsCollector metrics;
+    private final boolean migration;
+
+    /**
+     * Nesting level and start time of the outermost transaction of every thread.
+     */
+    private final ThreadLocal<long[]> transactionState = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[2];
+        }
+    };
+
+    InstrumentedDatabaseAdapter(@NonNull DatabaseAdapter adapter,
+                                @NonNull DatabaseMetricsCollector metrics,
+                                boolean migration) {
+        this.adapter = adapter;
+        this.metrics = metrics;
+        this.migration = migration;
+    }
+
+    @Override
+    public Transaction beginNewTransaction() {
+        adapter.beginNewTransaction();
+        long[] state = transactionState.get();
+        if (state[0]++ == 0) {
+            state[1] = System.nanoTime();
+        }
+        return new TransactionImpl(this);
+    }
+
+    @Override
+    public void setTransactionSuccessful() {
+        adapter.setTransactionSuccessful();
+    }
+
+    @Override
+    public void endTransaction() {
+        try {
+            adapter.endTransaction();
+        } finally {
+            long[] state = transactionState.get();
+            if (state[0] > 0 && --state[0] == 0) {
+                metrics.recordTransaction(System.nanoTime() - state[1]);
+            }
+        }
+    }
+
+    @Override
+    public void execSQL(String sql) {
+        long startTime = System.nanoTime();
+        adapter.execSQL(sql);
+        record(sql, System.nanoTime() - startTime, 0);
+    }
+
+    @Override
+    public StatementWrapper compileStatement(String sql) {
+        return new InstrumentedStatementWrapper(adapter.compileStatement(sql), sql, this);
+    }
+
+    @Override
+    public Cursor rawQuery(String sql, String... selectionArgs) {
+        long startTime = System.nanoTime();
+        Cursor cursor = adapter.rawQuery(sql, selectionArgs);
+        // Counting steps through the whole result: results larger than a window are stepped again when read
+        int rows = cursor.getCount();
+        String shapeToExplain = record(sql, System.nanoTime() - startTime, rows);
+        if (shapeToExplain != null) {
+            metrics.recordQueryPlan(shapeToExplain, explainQueryPlan(sql, selectionArgs));
+        }
+        return cursor;
+    }
+
+    @Override
+    public Cursor query(String sql, String... columns) {
+        long startTime = System.nanoTime();
+        Cursor cursor = adapter.query(sql, columns);
+        record("SELECT FROM " + sql, System.nanoTime() - startTime, cursor.getCount());
+        return cursor;
+    }
+
+    @Override
+    public Cursor query(String table, String[] columns, String selection, String[] selectionArgs) {
+        long startTime = System.nanoTime();
+        Cursor cursor = adapter.query(table, columns, selection, selectionArgs);
+        record("SELECT FROM " + table + " WHERE " + selection, System.nanoTime() - startTime, cursor.getCount());
+        return cursor;
+    }
+
+    @Override
+    public long executeInsert(StatementWrapper sqLiteStatement) {
+        return adapter.executeInsert(sqLiteStatement);
+    }
+
+    @Override
+    public int executeUpdateDelete(StatementWrapper sqLiteStatement) {
+        return adapter.executeUpdateDelete(sqLiteStatement);
+    }
+
+    @Override
+    public int delete(String table, String whereClause, String[] whereArgs) {
+        long startTime = System.nanoTime();
+        int rows = adapter.delete(table, whereClause, whereArgs);
+        record("DELETE FROM " + table + " WHERE " + whereClause, System.nanoTime() - startTime, rows);
+        return rows;
+    }
+
+    @Override
+    public int delete(String table) {
+        return delete(table, "1", null);
+    }
+
+    @Override
+    public long insert(String table, String nullColumnHack, ContentValues values) {
+        long startTime = System.nanoTime();
+        long rowId = adapter.insert(table, nullColumnHack, values);
+        record("INSERT INTO " + table, System.nanoTime() - startTime, rowId == -1 ? 0 : 1);
+        return rowId;
+    }
+
+    @Override
+    public int update(String table, ContentValues values, String whereClause, String[] whereArgs) {
+        long startTime = System.nanoTime();
+        int rows = adapter.update(table, values, whereClause, whereArgs);
+        record("UPDATE " + table + " WHERE " + whereClause, System.nanoTime() - startTime, rows);
+        return rows;
+    }
+
+    @Override
+    public void setForeignKeyConstraintsEnabled(boolean enable) {
+        adapter.setForeignKeyConstraintsEnabled(enable);
+    }
+
+    @Override
+    public void enableWriteAheadLogging() {
+        adapter.enableWriteAheadLogging();
+    }
+
+    @Override
+    public void setMaxSqlCacheSize(int cacheSize) {
+        adapter.setMaxSqlCacheSize(cacheSize);
+    }
+
+    @Override
+    public TableInvalidationTracker invalidationTracker() {
+        return adapter.invalidationTracker();
+    }
+
+    @Override
+    public DatabaseAdapter openSnapshotReader() {
+        DatabaseAdapter reader = adapter.openSnapshotReader();
+        return reader == null ? null : new InstrumentedDatabaseAdapter(reader, metrics, migration);
+    }
+
+    @Override
+    public boolean isReady() {
+        return adapter.isReady();
+    }
+
+    @Override
+    public void close() {
+        adapter.close();
+    }
+
+    /**
+     * @return the shape of the statement if its query plan has to be captured, null otherwise.
+     */
+    String record(String sql, long nanos, long rows) {
+        if (migration) {
+            metrics.recordMigration(nanos);
+            return null;
+        } else {
+            return metrics.recordStatement(sql, nanos, rows);
+        }
+    }
+
+    private String explainQueryPlan(String sql, String... selectionArgs) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = adapter.rawQuery(EXPLAIN_QUERY_PLAN + sql, selectionArgs)) {
+            int detailIndex = cursor.getColumnIndex(DETAIL_COLUMN);
+            while (detailIndex != -1 && cursor.moveToNext()) {
+                if (plan.length() > 0) {
+                    plan.append('\n');
+                }
+                plan.append(cursor.getString(detailIndex));
+            }
+        } catch (SQLException e) {
+            plan.append(e.getMessage());
+        }
+        return plan.toString();
+    }
+}
@@ -38,6 +38,7 @@ import org.hisp.dhis.android.core.arch.db.stores.binders.internal.StatementWrapp
 class ParentDatabaseAdapter implements DatabaseAdapter {
 
     private DatabaseAdapter adapter;
+    private final TableInvalidationTracker invalidationTracker = new TableInvalidationTracker();
 
     private DatabaseAdapter getAdapter() {
         if (adapter == null) {
@@ -49,49 +50,71 @@ class ParentDatabaseAdapter implements DatabaseAdapter {
 
     void setAdapter(DatabaseAdapter adapter) {
         this.adapter = adapter;
+        invalidationTracker.setForeignKeyActionsReader(() -> TableInvalidationTracker.readForeignKeyActions(adapter));
     }
 
     void removeAdapter() {
         this.adapter = null;
+        invalidationTracker.setForeignKeyActionsReader(null);
     }
 
     @Override
     public Transaction beginNewTransaction() {
-        return getAdapter().beginNewTransaction();
+        getAdapter().beginNewTransaction();
+        invalidationTracker.onTransactionBegin();
+        return new TransactionImpl(this);
     }
 
     @Override
     public void setTransactionSuccessful() {
         getAdapter().setTransactionSuccessful();
+        invalidationTracker.onTransactionSuccessful();
     }
 
     @Override
     public void endTransaction() {
-        getAdapter().endTransaction();
+        boolean ended = false;
+        try {
+            getAdapter().endTransaction();
+            ended = true;
+        } finally {
+            if (ended) {
+                invalidationTracker.onTransactionEnd();
+            } else {
+                invalidationTracker.onTransactionFailed();
+            }
+        }
     }
 
     @Override
     public void execSQL(String sql) {
         getAdapter().execSQL(sql);
+        invalidationTracker.onSqlExecuted(sql);
     }
 
     @Override
     public StatementWrapper compileStatement(String sql) {
-        return getAdapter().compileStatement(sql);
+        StatementWrapper statement = getAdapter().compileStatement(sql);
+        String table = invalidationTracker.tableWrittenBy(sql);
+        return table == null ? statement : new TrackedStatementWrapper(statement, table,
+                invalidationTracker.triggersForeignKeyActions(sql), invalidationTracker);
     }
 
     @Override
     public Cursor rawQuery(String sql, String... selectionArgs) {
+        invalidationTracker.onQuery(sql);
         return getAdapter().rawQuery(sql, selectionArgs);
     }
 
     @Override
     public Cursor query(String sql, String[] columns) {
+        invalidationTracker.onTableRead(sql);
         return getAdapter().query(sql, columns);
     }
 
     @Override
     public Cursor query(String table, String[] columns, String selection, String[] selectionArgs) {
+        invalidationTracker.onTableRead(table);
         return getAdapter().query(table, columns, selection, selectionArgs);
     }
 
@@ -107,7 +130,11 @@ class ParentDatabaseAdapter implements DatabaseAdapter {
 
     @Override
     public int delete(String table, String whereClause, String[] whereArgs) {
-        return getAdapter().delete(table, whereClause, whereArgs);
+        int rows = getAdapter().delete(table, whereClause, whereArgs);
+        if (rows > 0) {
+            invalidationTracker.onTableChanged(table);
+        }
+        return rows;
     }
 
     @Override
@@ -117,12 +144,20 @@ class ParentDatabaseAdapter implements DatabaseAdapter {
 
     @Override
     public long insert(String table, String nullColumnHack, ContentValues values) {
-        return getAdapter().insert(table, nullColumnHack, values);
+        long rowId = getAdapter().insert(table, nullColumnHack, values);
+        if (rowId != -1) {
+            invalidationTracker.onTableInserted(table);
+        }
+        return rowId;
     }
 
     @Override
     public int update(String table, ContentValues values, String whereClause, String[] whereArgs) {
-        return getAdapter().update(table, values, whereClause, whereArgs);
+        int rows = getAdapter().update(table, values, whereClause, whereArgs);
+        if (rows > 0) {
+            invalidationTracker.onTableChanged(table);
+        }
+        return rows;
     }
 
     @Override
@@ -135,6 +170,21 @@ class ParentDatabaseAdapter implements DatabaseAdapter {
         getAdapter().enableWriteAheadLogging();
     }
 
+    @Override
+    public void setMaxSqlCacheSize(int cacheSize) {
+        getAdapter().setMaxSqlCacheSize(cacheSize);
+    }
+
+    @Override
+    public TableInvalidationTracker invalidationTracker() {
+        return invalidationTracker;
+    }
+
+    @Override
+    public DatabaseAdapter openSnapshotReader() {
+        return getAdapter().openSnapshotReader();
+    }
+
     @Override
     public void close() {
         if (adapter != null) {
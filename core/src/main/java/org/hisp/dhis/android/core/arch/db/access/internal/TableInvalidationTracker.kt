@@ -0,0 +1,288 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.db.access.internal
+
+import android.database.Cursor
+import io.reactivex.Flowable
+import io.reactivex.processors.FlowableProcessor
+import io.reactivex.processors.PublishProcessor
+import io.reactivex.schedulers.Schedulers
+import java.util.ArrayDeque
+import java.util.concurrent.Callable
+import java.util.concurrent.atomic.AtomicReference
+import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter
+
+/**
+ * Keeps track of the tables written through the database adapter and notifies them once the changes are visible.
+ * Changes made inside a transaction are grouped and published when the outermost transaction is committed, and
+ * discarded if it is rolled back.
+ *
+ * Updates and deletes also notify the tables changed by the ON DELETE / ON UPDATE actions of the foreign keys that
+ * reference the written table, transitively, as those rows change without any statement naming their table.
+ */
+class TableInvalidationTracker {
+
+    private val changes: FlowableProcessor<Set<String>> = PublishProcessor.create<Set<String>>().toSerialized()
+    private val transactions = ThreadLocal<TransactionChanges>()
+    private val reads = ThreadLocal<MutableSet<String>>()
+
+    @Volatile
+    private var foreignKeyActionsReader: Callable<Map<String, Set<String>>>? = null
+
+    @Volatile
+    private var foreignKeyActions: Map<String, Set<String>>? = null
+
+    fun tableWrittenBy(sql: String): String? {
+        return WRITE_STATEMENT.find(sql)?.groupValues?.get(1)
+    }
+
+    /**
+     * Whether the statement can delete or update existing rows, so the foreign key actions of its table may run.
+     */
+    fun triggersForeignKeyActions(sql: String): Boolean {
+        return !PLAIN_INSERT_STATEMENT.containsMatchIn(sql)
+    }
+
+    /**
+     * Sets how to read the tables that reference every table through a foreign key with an ON DELETE or ON UPDATE
+     * action. They are read once, the first time a delete or update is published.
+     */
+    fun setForeignKeyActionsReader(reader: Callable<Map<String, Set<String>>>?) {
+        foreignKeyActionsReader = reader
+        foreignKeyActions = null
+    }
+
+    fun onTableChanged(table: String) {
+        onTableChanged(table, true)
+    }
+
+    fun onTableInserted(table: String) {
+        onTableChanged(table, false)
+    }
+
+    private fun onTableChanged(table: String, triggersForeignKeyActions: Boolean) {
+        val transaction = transactions.get()
+        if (transaction == null) {
+            publish(setOf(table), if (triggersForeignKeyActions) setOf(table) else emptySet())
+        } else {
+            transaction.tables.add(table)
+            if (triggersForeignKeyActions) {
+                transaction.foreignKeyActionTables.add(table)
+            }
+        }
+    }
+
+    fun onSqlExecuted(sql: String) {
+        tableWrittenBy(sql)?.let { onTableChanged(it, triggersForeignKeyActions(sql)) }
+    }
+
+    fun onQuery(sql: String) {
+        reads.get()?.let { tables ->
+            TABLE_READ.findAll(sql).forEach { tables.add(it.groupValues[1]) }
+        }
+    }
+
+    fun onTableRead(table: String) {
+        reads.get()?.add(table)
+    }
+
+    fun onTransactionBegin() {
+        val transaction = transactions.get() ?: TransactionChanges().also { transactions.set(it) }
+        transaction.successful.add(false)
+    }
+
+    fun onTransactionSuccessful() {
+        transactions.get()?.let { transaction ->
+            transaction.successful[transaction.successful.size - 1] = true
+        }
+    }
+
+    fun onTransactionEnd() {
+        val transaction = transactions.get() ?: return
+        if (!transaction.successful.removeAt(transaction.successful.size - 1)) {
+            transaction.rolledBack = true
+        }
+        if (transaction.successful.isEmpty()) {
+            transactions.remove()
+            if (!transaction.rolledBack && transaction.tables.isNotEmpty()) {
+                publish(transaction.tables, transaction.foreignKeyActionTables)
+            }
+        }
+    }
+
+    /**
+     * Ends a transaction whose end failed, such as a commit rejected by a deferred foreign key, as rolled back.
+     */
+    fun onTransactionFailed() {
+        transactions.get()?.let { transaction ->
+            transaction.successful[transaction.successful.size - 1] = false
+        }
+        onTransactionEnd()
+    }
+
+    private fun publish(tables: Set<String>, foreignKeyActionTables: Set<String>) {
+        if (foreignKeyActionTables.isEmpty()) {
+            changes.onNext(tables)
+        } else {
+            val actions = getForeignKeyActions()
+            val changed = HashSet(tables)
+            val visited = HashSet(foreignKeyActionTables)
+            val pending = ArrayDeque(foreignKeyActionTables)
+            while (pending.isNotEmpty()) {
+                actions[pending.removeFirst()]?.forEach { child ->
+                    changed.add(child)
+                    if (visited.add(child)) {
+                        pending.addLast(child)
+                    }
+                }
+            }
+            changes.onNext(changed)
+        }
+    }
+
+    private fun getForeignKeyActions(): Map<String, Set<String>> {
+        return foreignKeyActions ?: synchronized(this) {
+            foreignKeyActions ?: (foreignKeyActionsReader?.call() ?: emptyMap()).also { foreignKeyActions = it }
+        }
+    }
+
+    /**
+     * Sets of tables changed by every committed transaction or statement executed outside a transaction.
+     */
+    fun changes(): Flowable<Set<String>> {
+        return changes
+    }
+
+    /**
+     * Runs the query and returns its result together with the tables it read, including the ones read by any
+     * nested query run in the same thread.
+     */
+    fun <T> recordReads(query: Callable<T>): Pair<T, Set<String>> {
+        val outerReads = reads.get()
+        val tables = HashSet<String>()
+        reads.set(tables)
+        try {
+            return Pair(query.call(), tables)
+        } finally {
+            if (outerReads == null) {
+                reads.remove()
+            } else {
+                outerReads.addAll(tables)
+                reads.set(outerReads)
+            }
+        }
+    }
+
+    /**
+     * Emits the result of the query and runs it again, in the io scheduler, every time one of the tables it read
+     * changes. Changes notified while a query is running are conflated into a single new run.
+     */
+    fun <T : Any> observe(query: Callable<T>): Flowable<T> {
+        return Flowable.defer {
+            val dependencies = AtomicReference<Set<String>>()
+            changes
+                .filter { changed ->
+                    val tables = dependencies.get()
+                    tables == null || changed.any { tables.contains(it) }
+                }
+                .map { Unit }
+                .startWith(Unit)
+                .onBackpressureLatest()
+                .observeOn(Schedulers.io(), false, 1)
+                .map {
+                    val (result, tables) = recordReads(query)
+                    dependencies.set(tables)
+                    result
+                }
+                .distinctUntilChanged()
+        }
+    }
+
+    private class TransactionChanges {
+        val tables: MutableSet<String> = HashSet()
+        val foreignKeyActionTables: MutableSet<String> = HashSet()
+        val successful: MutableList<Boolean> = ArrayList()
+        var rolledBack = false
+    }
+
+    companion object {
+        private val WRITE_STATEMENT = Regex(
+            "^\\s*(?:INSERT(?:\\s+OR\\s+\\w+)?\\s+INTO|REPLACE\\s+INTO|UPDATE(?:\\s+OR\\s+\\w+)?|DELETE\\s+FROM)" +
+                "\\s+[\"`]?(\\w+)",
+            RegexOption.IGNORE_CASE
+        )
+        private val PLAIN_INSERT_STATEMENT = Regex(
+            "^\\s*INSERT(?:\\s+OR\\s+(?:IGNORE|ABORT|FAIL|ROLLBACK))?\\s+INTO",
+            RegexOption.IGNORE_CASE
+        )
+        private val TABLE_READ = Regex("\\b(?:FROM|JOIN)\\s+[\"`]?(\\w+)", RegexOption.IGNORE_CASE)
+        private val FOREIGN_KEY_ACTIONS = setOf("CASCADE", "SET NULL", "SET DEFAULT")
+
+        /**
+         * Tracker of the adapters wrapped by the one shared by the SDK. Nothing is written through it, so it never
+         * emits.
+         */
+        @JvmField
+        val UNTRACKED = TableInvalidationTracker()
+
+        /**
+         * Reads, for every table, the tables that reference it through a foreign key with an ON DELETE or ON UPDATE
+         * action.
+         */
+        @JvmStatic
+        fun readForeignKeyActions(databaseAdapter: DatabaseAdapter): Map<String, Set<String>> {
+            val actions = HashMap<String, MutableSet<String>>()
+            val tables = databaseAdapter.rawQuery("SELECT name FROM sqlite_master WHERE type = 'table'").use {
+                readStrings(it)
+            }
+            tables.forEach { child ->
+                databaseAdapter.rawQuery("PRAGMA foreign_key_list(`$child`)").use { cursor ->
+                    val tableIndex = cursor.getColumnIndex("table")
+                    val onUpdateIndex = cursor.getColumnIndex("on_update")
+                    val onDeleteIndex = cursor.getColumnIndex("on_delete")
+                    while (cursor.moveToNext()) {
+                        if (FOREIGN_KEY_ACTIONS.contains(cursor.getString(onDeleteIndex)?.toUpperCase()) ||
+                            FOREIGN_KEY_ACTIONS.contains(cursor.getString(onUpdateIndex)?.toUpperCase())
+                        ) {
+                            actions.getOrPut(cursor.getString(tableIndex)) { HashSet() }.add(child)
+                        }
+                    }
+                }
+            }
+            return actions
+        }
+
+        private fun readStrings(cursor: Cursor): List<String> {
+            val values = ArrayList<String>(cursor.count)
+            while (cursor.moveToNext()) {
+                values.add(cursor.getString(0))
+            }
+            return values
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.db.access.internal;
+
+import org.hisp.dhis.android.core.arch.db.stores.binders.internal.StatementWrapper;
+
+import java.util.Date;
+
+class TrackedStatementWrapper implements StatementWrapper {
+
+    private final StatementWrapper s;
+    private final String table;
+    private final boolean triggersForeignKeyActions;
+    private final TableInvalidationTracker tracker;
+
+    TrackedStatementWrapper(StatementWrapper s, String table, boolean triggersForeignKeyActions,
+                            TableInvalidationTracker tracker) {
+        this.s = s;
+        this.table = table;
+        this.triggersForeignKeyActions = triggersForeignKeyActions;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public void bind(int index, String arg) {
+        s.bind(index, arg);
+    }
+
+    @Override
+    public void bind(int index, Boolean arg) {
+        s.bind(index, arg);
+    }
+
+    @Override
+    public void bind(int index, Integer arg) {
+        s.bind(index, arg);
+    }
+
+    @Override
+    public void bind(int index, Date arg) {
+        s.bind(index, arg);
+    }
+
+    @Override
+    public void bind(int index, Enum arg) {
+        s.bind(index, arg);
+    }
+
+    @Override
+    public void bind(int index, Double arg) {
+        s.bind(index, arg);
+    }
+
+    @Override
+    public void bind(int index, Long arg) {
+        s.bind(index, arg);
+    }
+
+    @Override
+    public void bind(int index, byte[] arg) {
+        s.bind(index, arg);
+    }
+
+    @Override
+    public void clearBindings() {
+        s.clearBindings();
+    }
+
+    @Override
+    public long executeInsert() {
+        long rowId = s.executeInsert();
+        if (rowId == -1) {
+            return rowId;
+        }
+        if (triggersForeignKeyActions) {
+            tracker.onTableChanged(table);
+        } else {
+            tracker.onTableInserted(table);
+        }
+        return rowId;
+    }
+
+    @Override
+    public int executeUpdateDelete() {
+        int rows = s.executeUpdateDelete();
+        if (rows > 0) {
+            tracker.onTableChanged(table);
+        }
+        return rows;
+    }
+
+    @Override
+    public void close() {
+        s.close();
+    }
+}
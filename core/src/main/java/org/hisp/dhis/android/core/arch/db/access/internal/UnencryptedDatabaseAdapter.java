@@ -33,6 +33,7 @@ import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.access.Transaction;
@@ -130,6 +131,42 @@ class UnencryptedDatabaseAdapter implements DatabaseAdapter {
         database.enableWriteAheadLogging();
     }
 
+    @Override
+    public void setMaxSqlCacheSize(int cacheSize) {
+        database.setMaxSqlCacheSize(cacheSize);
+    }
+
+    @Override
+    public TableInvalidationTracker invalidationTracker() {
+        return TableInvalidationTracker.UNTRACKED;
+    }
+
+    /**
+     * The transaction is begun with a SAVEPOINT, as the framework runs every BEGIN statement as EXCLUSIVE. The reader
+     * keeps the journal mode of the database, which cannot leave WAL mode while this connection is open.
+     */
+    @Override
+    @Nullable
+    public DatabaseAdapter openSnapshotReader() {
+        if (!isWal()) {
+            return null;
+        }
+        SQLiteDatabase reader = SQLiteDatabase.openDatabase(database.getPath(), null, SQLiteDatabase.OPEN_READWRITE);
+        try {
+            reader.execSQL("SAVEPOINT snapshot");
+        } catch (RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+        return new UnencryptedDatabaseAdapter(reader);
+    }
+
+    private boolean isWal() {
+        try (Cursor cursor = database.rawQuery("PRAGMA journal_mode", null)) {
+            return cursor.moveToFirst() && "wal".equalsIgnoreCase(cursor.getString(0));
+        }
+    }
+
     @Override
     public boolean isReady() {
         return true;
@@ -37,8 +37,13 @@ class UnencryptedDatabaseOpenHelper extends SQLiteOpenHelper {
     private final BaseDatabaseOpenHelper baseHelper;
 
     UnencryptedDatabaseOpenHelper(Context context, String databaseName, int targetVersion) {
+        this(context, databaseName, targetVersion, null);
+    }
+
+    UnencryptedDatabaseOpenHelper(Context context, String databaseName, int targetVersion,
+                                  DatabaseMetricsCollector metrics) {
         super(context, databaseName, null, targetVersion);
-        this.baseHelper = new BaseDatabaseOpenHelper(context, targetVersion);
+        this.baseHelper = new BaseDatabaseOpenHelper(context, targetVersion, metrics);
     }
 
     @Override
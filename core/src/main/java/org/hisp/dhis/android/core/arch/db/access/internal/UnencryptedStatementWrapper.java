@@ -107,6 +107,15 @@ class UnencryptedStatementWrapper implements StatementWrapper {
         }
     }
 
+    @Override
+    public void bind(int index, byte[] arg) {
+        if (arg == null) {
+            s.bindNull(index);
+        } else {
+            s.bindBlob(index, arg);
+        }
+    }
+
     @Override
     public void clearBindings() {
         s.clearBindings();
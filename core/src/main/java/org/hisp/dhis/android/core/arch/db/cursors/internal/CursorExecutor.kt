@@ -32,4 +32,5 @@ import android.database.Cursor
 interface CursorExecutor<M> {
     fun addObjectsToCollection(cursor: Cursor, collection: MutableCollection<M>)
     fun getObjects(cursor: Cursor): List<M>
+    fun addObjectsToMapByColumn(cursor: Cursor, keyColumn: String, map: MutableMap<String, MutableList<M>>)
 }
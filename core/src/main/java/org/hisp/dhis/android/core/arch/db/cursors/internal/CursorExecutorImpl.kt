@@ -47,4 +47,20 @@ class CursorExecutorImpl<M>(private val objectFactory: (Cursor) -> M) : CursorEx
         addObjectsToCollection(cursor, list)
         return list
     }
+
+    override fun addObjectsToMapByColumn(
+        cursor: Cursor,
+        keyColumn: String,
+        map: MutableMap<String, MutableList<M>>
+    ) {
+        cursor.use { c ->
+            if (c.count > 0) {
+                val keyColumnIndex = c.getColumnIndex(keyColumn)
+                c.moveToFirst()
+                do {
+                    map.getOrPut(c.getString(keyColumnIndex)) { ArrayList() }.add(objectFactory(c))
+                } while (c.moveToNext())
+            }
+        }
+    }
 }
@@ -30,6 +30,8 @@ package org.hisp.dhis.android.core.arch.db.querybuilders.internal;
 
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection;
 
+import java.util.Collection;
+
 public interface SQLStatementBuilder extends ReadOnlySQLStatementBuilder {
 
     String getTableName();
@@ -46,12 +48,18 @@ public interface SQLStatementBuilder extends ReadOnlySQLStatementBuilder {
 
     String selectChildrenWithLinkTable(LinkTableChildProjection projection, String parentUid, String whereClause);
 
+    String selectChildrenWithLinkTableForParents(LinkTableChildProjection projection, Collection<String> parentUids);
+
     String selectByUid();
 
     String selectDistinct(String column);
 
     String insert();
 
+    String insertMany(int rowCount);
+
+    String upsertMany(int rowCount);
+
     String update();
 
     String updateWhere();
@@ -33,8 +33,14 @@ import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableC
 import org.hisp.dhis.android.core.arch.db.tableinfos.TableInfo;
 import org.hisp.dhis.android.core.common.CoreColumns;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import static org.hisp.dhis.android.core.arch.db.tableinfos.TableInfo.SORT_ORDER;
 import static org.hisp.dhis.android.core.arch.helpers.CollectionsHelper.commaAndSpaceSeparatedArrayValues;
+import static org.hisp.dhis.android.core.arch.helpers.CollectionsHelper.commaAndSpaceSeparatedCollectionValues;
+import static org.hisp.dhis.android.core.arch.helpers.CollectionsHelper.withSingleQuotationMarksArray;
 import static org.hisp.dhis.android.core.common.IdentifiableColumns.UID;
 
 public class SQLStatementBuilderImpl implements SQLStatementBuilder {
@@ -51,6 +57,8 @@ public class SQLStatementBuilderImpl implements SQLStatementBuilder {
     private final static String AND = " AND ";
     private final static String ORDER_BY = " ORDER BY ";
 
+    public final static String PARENT_UID_ALIAS = "parentUidAlias";
+
     @SuppressWarnings("PMD.UseVarargs")
     SQLStatementBuilderImpl(String tableName, String[] columns, String[] updateWhereColumns, boolean hasSortOrder) {
         this.tableName = tableName;
@@ -114,6 +122,33 @@ public class SQLStatementBuilderImpl implements SQLStatementBuilder {
                 "VALUES (" + commaSeparatedInterrogationMarks() + ");";
     }
 
+    @Override
+    public String insertMany(int rowCount) {
+        return insertManyWithoutTerminator(rowCount) + ";";
+    }
+
+    @Override
+    public String upsertMany(int rowCount) {
+        List<String> updatedColumns = new ArrayList<>(columns.length);
+        for (String column : columns) {
+            if (!UID.equals(column)) {
+                updatedColumns.add(column + "=excluded." + column);
+            }
+        }
+        return insertManyWithoutTerminator(rowCount) + " ON CONFLICT (" + UID + ") DO UPDATE SET " +
+                commaAndSpaceSeparatedCollectionValues(updatedColumns) + ";";
+    }
+
+    private String insertManyWithoutTerminator(int rowCount) {
+        String rowValues = "(" + commaSeparatedInterrogationMarks() + ")";
+        String[] rows = new String[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            rows[i] = rowValues;
+        }
+        return "INSERT INTO " + tableName + " (" + commaSeparatedColumns() + ") " +
+                "VALUES " + commaAndSpaceSeparatedArrayValues(rows);
+    }
+
     @Override
     public String deleteById() {
         return "DELETE" + FROM + tableName + WHERE + UID + "=?;";
@@ -159,6 +194,18 @@ public class SQLStatementBuilderImpl implements SQLStatementBuilder {
                 orderBySortOrderClause() + ";";
     }
 
+    public String selectChildrenWithLinkTableForParents(LinkTableChildProjection projection,
+                                                        Collection<String> parentUids) {
+        String parentUidsStr = commaAndSpaceSeparatedArrayValues(withSingleQuotationMarksArray(parentUids));
+
+        return SELECT + "c.*, l." + projection.parentColumn + " AS " + PARENT_UID_ALIAS +
+                FROM + tableName + " AS l, " +
+                projection.childTableInfo.name() + " AS c" +
+                WHERE + "l." + projection.childColumn + "=" + "c." + UID +
+                AND + "l." + projection.parentColumn + " IN (" + parentUidsStr + ")" +
+                (hasSortOrder ? ORDER_BY + "l." + SORT_ORDER : "") + ";";
+    }
+
     private String orderBySortOrderClause() {
         return hasSortOrder ? ORDER_BY + SORT_ORDER : "";
     }
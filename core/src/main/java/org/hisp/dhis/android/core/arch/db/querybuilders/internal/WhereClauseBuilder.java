@@ -31,24 +31,39 @@ import org.hisp.dhis.android.core.arch.helpers.CollectionsHelper;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Builds a where clause in two forms at the same time: {@link #build()} returns the clause with every value
+ * inlined as a literal, while {@link #buildSelection()} and {@link #buildSelectionArgs()} return the same clause
+ * with string values replaced by ? placeholders and the values to bind. The parameterised form keeps the SQL
+ * text stable across calls, so SQLite can reuse the prepared statement.
+ * <p>
+ * Numbers, operators and sub-queries are inlined in both forms.
+ */
+@SuppressWarnings("PMD.GodClass")
 public class WhereClauseBuilder {
 
-    private static final String GREATER_OR_EQ_STR = " >= '";
-    private static final String LESS_THAN_OR_EQ_STR = " <= '";
-    private static final String LESS_THAN_STR = " < '";
-    private static final String EQ_STR = " = '";
-    private static final String NOT_EQ_STR = " != '";
-    private static final String LIKE_STR = " LIKE '";
-    private static final String END_STR = "'";
+    /**
+     * SQLite versions older than 3.32 allow at most 999 host parameters per statement. Bigger IN clauses are
+     * inlined instead.
+     */
+    private static final int MAX_SELECTION_ARGS = 999;
+
+    private static final String GREATER_OR_EQ = " >= ";
+    private static final String LESS_THAN_OR_EQ = " <= ";
+    private static final String LESS_THAN = " < ";
+    private static final String EQ = " = ";
+    private static final String NOT_EQ = " != ";
+    private static final String LIKE = " LIKE ";
+    private static final String QUOTE = "'";
+    private static final String PARAMETER = "?";
     private static final String PARENTHESES_START = "(";
     private static final String PARENTHESES_END = ")";
 
     private static final String EXISTS = " EXISTS ";
 
-    private static final String EQ_NUMBER = " = ";
-
     private static final String AND = " AND ";
     private static final String OR = " OR ";
     private static final String IN = " IN (";
@@ -59,46 +74,49 @@ public class WhereClauseBuilder {
 
     @SuppressWarnings("PMD.AvoidStringBufferField")
     private final StringBuilder whereClause = new StringBuilder();
+    @SuppressWarnings("PMD.AvoidStringBufferField")
+    private final StringBuilder selection = new StringBuilder();
+    private final List<String> selectionArgs = new ArrayList<>();
     private boolean addOperator;
 
     public WhereClauseBuilder appendKeyStringValue(String column, Object value) {
-        return appendKeyValue(column, value, AND, EQ_STR, END_STR);
+        return appendKeyStringValue(column, value, AND, EQ);
     }
 
     public WhereClauseBuilder appendNotKeyStringValue(String column, Object value) {
-        return appendKeyValue(column, value, AND, NOT_EQ_STR, END_STR);
+        return appendKeyStringValue(column, value, AND, NOT_EQ);
     }
 
     public WhereClauseBuilder appendKeyGreaterOrEqStringValue(String column, Object value) {
-        return appendKeyValue(column, value, AND, GREATER_OR_EQ_STR, END_STR);
+        return appendKeyStringValue(column, value, AND, GREATER_OR_EQ);
     }
 
     public WhereClauseBuilder appendKeyLessThanOrEqStringValue(String column, Object value) {
-        return appendKeyValue(column, value, AND, LESS_THAN_OR_EQ_STR, END_STR);
+        return appendKeyStringValue(column, value, AND, LESS_THAN_OR_EQ);
     }
 
     public WhereClauseBuilder appendKeyLessThanStringValue(String column, Object value) {
-        return appendKeyValue(column, value, AND, LESS_THAN_STR, END_STR);
+        return appendKeyStringValue(column, value, AND, LESS_THAN);
     }
 
     public WhereClauseBuilder appendOrKeyStringValue(String column, Object value) {
-        return appendKeyValue(column, value, OR, EQ_STR, END_STR);
+        return appendKeyStringValue(column, value, OR, EQ);
     }
 
     public WhereClauseBuilder appendKeyLikeStringValue(String column, Object value) {
-        return appendKeyValue(column, value, AND, LIKE_STR, END_STR);
+        return appendKeyStringValue(column, value, AND, LIKE);
     }
 
     public WhereClauseBuilder appendOrKeyLikeStringValue(String column, Object value) {
-        return appendKeyValue(column, value, OR, LIKE_STR, END_STR);
+        return appendKeyStringValue(column, value, OR, LIKE);
     }
 
     public WhereClauseBuilder appendKeyNumberValue(String column, double value) {
-        return appendKeyValue(column, value, AND, EQ_NUMBER, "");
+        return appendKeyValue(column, value, AND, EQ, "");
     }
 
     public WhereClauseBuilder appendKeyNumberValue(String column, int value) {
-        return appendKeyValue(column, value, AND, EQ_NUMBER, "");
+        return appendKeyValue(column, value, AND, EQ, "");
     }
 
     public WhereClauseBuilder appendKeyOperatorValue(String column, String operator, String value) {
@@ -106,15 +124,11 @@ public class WhereClauseBuilder {
     }
 
     public WhereClauseBuilder appendNotInKeyStringValues(String column, List<String> values) {
-        String valuesArray = CollectionsHelper.commaAndSpaceSeparatedArrayValues(
-                CollectionsHelper.withSingleQuotationMarksArray(values));
-        return appendKeyValue(column, valuesArray, AND, NOT_IN, PARENTHESES_END);
+        return appendInKeyStringValues(column, values, NOT_IN);
     }
 
     public WhereClauseBuilder appendInKeyStringValues(String column, Collection<String> values) {
-        String valuesArray = CollectionsHelper.commaAndSpaceSeparatedArrayValues(
-                CollectionsHelper.withSingleQuotationMarksArray(values));
-        return appendKeyValue(column, valuesArray, AND, IN, PARENTHESES_END);
+        return appendInKeyStringValues(column, values, IN);
     }
 
     public <E extends Enum> WhereClauseBuilder appendInKeyEnumValues(String column, List<E> values) {
@@ -138,18 +152,54 @@ public class WhereClauseBuilder {
     }
 
     public WhereClauseBuilder appendIsNullOrValue(String column, String value) {
-        String innerClause = new WhereClauseBuilder()
+        WhereClauseBuilder innerClause = new WhereClauseBuilder()
                 .appendIsNullValue(column)
-                .appendOrKeyStringValue(column, value)
-                .build();
+                .appendOrKeyStringValue(column, value);
+
+        String andOpt = addOperator ? AND : "";
+        addOperator = true;
+        whereClause.append(andOpt).append(PARENTHESES_START).append(innerClause.build()).append(PARENTHESES_END);
+        selection.append(andOpt).append(PARENTHESES_START).append(innerClause.buildSelection())
+                .append(PARENTHESES_END);
+        Collections.addAll(selectionArgs, innerClause.buildSelectionArgs());
+        return this;
+    }
+
+    private WhereClauseBuilder appendKeyStringValue(String column, Object value, String logicGate, String operator) {
+        String andOpt = addOperator ? logicGate : "";
+        addOperator = true;
+        whereClause.append(andOpt).append(column).append(operator).append(QUOTE).append(value).append(QUOTE);
+        selection.append(andOpt).append(column).append(operator).append(PARAMETER);
+        selectionArgs.add(String.valueOf(value));
+        return this;
+    }
 
-        return appendComplexQuery(innerClause);
+    private WhereClauseBuilder appendInKeyStringValues(String column, Collection<String> values, String operator) {
+        String valuesArray = CollectionsHelper.commaAndSpaceSeparatedArrayValues(
+                CollectionsHelper.withSingleQuotationMarksArray(values));
+
+        if (selectionArgs.size() + values.size() > MAX_SELECTION_ARGS) {
+            return appendKeyValue(column, valuesArray, AND, operator, PARENTHESES_END);
+        }
+
+        String andOpt = addOperator ? AND : "";
+        addOperator = true;
+        whereClause.append(andOpt).append(column).append(operator).append(valuesArray).append(PARENTHESES_END);
+        selection.append(andOpt).append(column).append(operator)
+                .append(CollectionsHelper.commaAndSpaceSeparatedCollectionValues(
+                        Collections.nCopies(values.size(), PARAMETER)))
+                .append(PARENTHESES_END);
+        for (String value : values) {
+            selectionArgs.add(String.valueOf(value));
+        }
+        return this;
     }
 
     private WhereClauseBuilder appendKeyValue(String column, Object value, String logicGate, String eq, String end) {
         String andOpt = addOperator ? logicGate : "";
         addOperator = true;
         whereClause.append(andOpt).append(column).append(eq).append(value).append(end);
+        selection.append(andOpt).append(column).append(eq).append(value).append(end);
         return this;
     }
 
@@ -165,6 +215,7 @@ public class WhereClauseBuilder {
         String andOpt = addOperator ? operator : "";
         addOperator = true;
         whereClause.append(andOpt).append(PARENTHESES_START).append(complexQuery).append(PARENTHESES_END);
+        selection.append(andOpt).append(PARENTHESES_START).append(complexQuery).append(PARENTHESES_END);
         return this;
     }
 
@@ -172,11 +223,13 @@ public class WhereClauseBuilder {
         String andOpt = addOperator ? AND : "";
         addOperator = true;
         whereClause.append(andOpt).append(EXISTS).append(PARENTHESES_START).append(subQuery).append(PARENTHESES_END);
+        selection.append(andOpt).append(EXISTS).append(PARENTHESES_START).append(subQuery).append(PARENTHESES_END);
         return this;
     }
 
     public WhereClauseBuilder appendOperator(String operator) {
         whereClause.append(operator);
+        selection.append(operator);
         addOperator = false;
         return this;
     }
@@ -192,4 +245,23 @@ public class WhereClauseBuilder {
             return whereClause.toString();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * @return the where clause with ? placeholders instead of string values, to be used together with
+     * {@link #buildSelectionArgs()}.
+     */
+    public String buildSelection() {
+        if (isEmpty()) {
+            throw new RuntimeException("No columns added");
+        } else {
+            return selection.toString();
+        }
+    }
+
+    /**
+     * @return the values to bind to the placeholders of {@link #buildSelection()}, in order.
+     */
+    public String[] buildSelectionArgs() {
+        return selectionArgs.toArray(new String[0]);
+    }
+}
@@ -88,6 +88,14 @@ public interface StatementWrapper {
      */
     void bind(int index, Long arg);
 
+    /**
+     * Handle if byte array argument is null and bind it using .bindNull() if so.
+     * A helper function to abstract/clean up boilerplate if/else bloat..
+     * @param index
+     * @param arg
+     */
+    void bind(int index, byte[] arg);
+
     /**
      * Clear statement bindings
      */
@@ -42,6 +42,13 @@ internal interface IdentifiableObjectStore<O : ObjectWithUidInterface> : ObjectS
     @Throws(RuntimeException::class)
     fun updateOrInsert(o: O): HandleAction
 
+    /**
+     * Persists the objects with bulk statements and returns the action applied to each of them, in the same order.
+     * When a uid is repeated, the last object wins and the following occurrences are reported as updates.
+     */
+    @Throws(RuntimeException::class)
+    fun updateOrInsert(objects: Collection<O>): List<HandleAction>
+
     @Throws(RuntimeException::class)
     fun selectUids(): List<String>
 
@@ -30,11 +30,13 @@ package org.hisp.dhis.android.core.arch.db.stores.internal
 import android.database.Cursor
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter
 import org.hisp.dhis.android.core.arch.db.querybuilders.internal.SQLStatementBuilder
+import org.hisp.dhis.android.core.arch.db.querybuilders.internal.WhereClauseBuilder
 import org.hisp.dhis.android.core.arch.db.stores.binders.internal.StatementBinder
 import org.hisp.dhis.android.core.arch.db.stores.binders.internal.StatementWrapper
 import org.hisp.dhis.android.core.arch.handlers.internal.HandleAction
 import org.hisp.dhis.android.core.arch.helpers.CollectionsHelper
 import org.hisp.dhis.android.core.common.CoreObject
+import org.hisp.dhis.android.core.common.IdentifiableColumns
 import org.hisp.dhis.android.core.common.ObjectWithUidInterface
 
 @Suppress("TooManyFunctions")
@@ -49,6 +51,7 @@ internal open class IdentifiableObjectStoreImpl<O>(
     private var updateStatement: StatementWrapper? = null
     private var deleteStatement: StatementWrapper? = null
     private var adapterHashCode: Int? = null
+    private var upsertSupported: Boolean? = null
 
     @Throws(RuntimeException::class)
     override fun insert(o: O): Long {
@@ -81,10 +84,11 @@ internal open class IdentifiableObjectStoreImpl<O>(
 
     private fun resetStatementsIfDbChanged() {
         if (hasAdapterChanged()) {
-            updateStatement!!.close()
-            deleteStatement!!.close()
+            updateStatement?.close()
+            deleteStatement?.close()
             updateStatement = null
             deleteStatement = null
+            upsertSupported = null
         }
     }
 
@@ -121,6 +125,77 @@ internal open class IdentifiableObjectStoreImpl<O>(
         }
     }
 
+    @Throws(RuntimeException::class)
+    override fun updateOrInsert(objects: Collection<O>): List<HandleAction> {
+        val existingUids = selectExistingUids(objects)
+        val actions: MutableList<HandleAction> = ArrayList(objects.size)
+        val objectsByUid: MutableMap<String, O> = LinkedHashMap()
+        for (o in objects) {
+            val uid = o.uid()
+            CollectionsHelper.isNull(uid)
+            val exists = existingUids.contains(uid) || objectsByUid.containsKey(uid)
+            actions.add(if (exists) HandleAction.Update else HandleAction.Insert)
+            objectsByUid[uid] = o
+        }
+
+        if (isUpsertSupported()) {
+            executeMultiRow(objectsByUid.values, builder::upsertMany) { statement ->
+                databaseAdapter.executeInsert(statement)
+            }
+        } else {
+            val (toUpdate, toInsert) = objectsByUid.values.partition { existingUids.contains(it.uid()) }
+            toUpdate.forEach { update(it) }
+            insert(toInsert)
+        }
+        return actions
+    }
+
+    private fun selectExistingUids(objects: Collection<O>): Set<String> {
+        val existingUids: MutableSet<String> = HashSet()
+        objects.map { it.uid() }.toSet().chunked(StoreUtils.IN_CLAUSE_CHUNK_SIZE).forEach { uids ->
+            val whereClause = WhereClauseBuilder().appendInKeyStringValues(IdentifiableColumns.UID, uids).build()
+            existingUids.addAll(selectUidsWhere(whereClause))
+        }
+        return existingUids
+    }
+
+    /**
+     * UPSERT needs SQLite 3.24 and a unique index on the uid column, which not every identifiable table declares.
+     */
+    private fun isUpsertSupported(): Boolean {
+        resetStatementsIfDbChanged()
+        return upsertSupported ?: (isSQLiteVersionWithUpsert() && hasUniqueUidIndex()).also { upsertSupported = it }
+    }
+
+    private fun isSQLiteVersionWithUpsert(): Boolean {
+        val version = databaseAdapter.rawQuery("SELECT sqlite_version()").use { cursor ->
+            if (cursor.moveToFirst()) cursor.getString(0) else null
+        }
+        val parts = version?.split(".")?.map { it.toIntOrNull() ?: 0 } ?: return false
+        val major = parts.getOrElse(0) { 0 }
+        val minor = parts.getOrElse(1) { 0 }
+        return major > UPSERT_MIN_MAJOR_VERSION ||
+            (major == UPSERT_MIN_MAJOR_VERSION && minor >= UPSERT_MIN_MINOR_VERSION)
+    }
+
+    private fun hasUniqueUidIndex(): Boolean {
+        val uniqueIndexes = databaseAdapter.rawQuery("PRAGMA index_list(${builder.tableName})").use { cursor ->
+            val indexes: MutableList<String> = ArrayList()
+            while (cursor.moveToNext()) {
+                if (cursor.getInt(cursor.getColumnIndex("unique")) == 1) {
+                    indexes.add(cursor.getString(cursor.getColumnIndex("name")))
+                }
+            }
+            indexes
+        }
+        return uniqueIndexes.any { index ->
+            databaseAdapter.rawQuery("PRAGMA index_info($index)").use { cursor ->
+                cursor.count == 1 && cursor.moveToFirst() &&
+                    cursor.getString(cursor.getColumnIndex("name")) == IdentifiableColumns.UID
+            }
+        }
+    }
+
     @Throws(RuntimeException::class)
     override fun selectUids(): List<String> {
         val cursor = databaseAdapter.rawQuery(builder.selectUids())
@@ -154,4 +229,9 @@ internal open class IdentifiableObjectStoreImpl<O>(
         }
         return null
     }
+
+    companion object {
+        private const val UPSERT_MIN_MAJOR_VERSION = 3
+        private const val UPSERT_MIN_MINOR_VERSION = 24
+    }
 }
@@ -29,7 +29,6 @@ package org.hisp.dhis.android.core.arch.db.stores.internal
 
 import org.hisp.dhis.android.core.common.ObjectWithUidInterface
 
-internal interface LinkChildStore<P : ObjectWithUidInterface, C : ObjectWithUidInterface> {
-    fun getChildren(p: P): List<C>
+internal interface LinkChildStore<P : ObjectWithUidInterface, C : ObjectWithUidInterface> : ChildrenStore<P, C> {
     fun getChildrenWhere(p: P, whereClause: String?): List<C>
 }
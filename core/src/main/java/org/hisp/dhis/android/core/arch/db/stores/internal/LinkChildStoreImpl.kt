@@ -30,6 +30,7 @@ package org.hisp.dhis.android.core.arch.db.stores.internal
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter
 import org.hisp.dhis.android.core.arch.db.cursors.internal.CursorExecutor
 import org.hisp.dhis.android.core.arch.db.querybuilders.internal.SQLStatementBuilder
+import org.hisp.dhis.android.core.arch.db.querybuilders.internal.SQLStatementBuilderImpl
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection
 import org.hisp.dhis.android.core.common.ObjectWithUidInterface
 
@@ -50,4 +51,19 @@ internal class LinkChildStoreImpl<P : ObjectWithUidInterface, C : ObjectWithUidI
         )
         return cursorExecutor.getObjects(databaseAdapter.rawQuery(selectStatement))
     }
+
+    override fun getChildrenByParentUids(parentUids: Collection<String>): Map<String, List<C>> {
+        val childrenByParent = parentUids.associateWithTo(HashMap<String, MutableList<C>>()) { ArrayList<C>() }
+        parentUids.toSet().chunked(StoreUtils.IN_CLAUSE_CHUNK_SIZE).forEach { chunk ->
+            val selectStatement = statementBuilder.selectChildrenWithLinkTableForParents(
+                linkTableChildProjection, chunk
+            )
+            cursorExecutor.addObjectsToMapByColumn(
+                databaseAdapter.rawQuery(selectStatement),
+                SQLStatementBuilderImpl.PARENT_UID_ALIAS,
+                childrenByParent
+            )
+        }
+        return childrenByParent
+    }
 }
@@ -32,6 +32,9 @@ import org.hisp.dhis.android.core.common.CoreObject
 internal interface LinkStore<O : CoreObject> : ObjectStore<O> {
     @Throws(RuntimeException::class)
     fun deleteLinksForMasterUid(masterUid: String)
+
+    @Throws(RuntimeException::class)
+    fun deleteLinksForMasterUids(masterUids: Collection<String>)
     fun deleteAllLinks(): Int
     fun selectDistinctSlaves(slaveColumn: String): List<String>
 }
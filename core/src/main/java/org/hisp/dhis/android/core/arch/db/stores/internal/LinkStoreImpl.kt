@@ -30,6 +30,7 @@ package org.hisp.dhis.android.core.arch.db.stores.internal
 import android.database.Cursor
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter
 import org.hisp.dhis.android.core.arch.db.querybuilders.internal.SQLStatementBuilder
+import org.hisp.dhis.android.core.arch.db.querybuilders.internal.WhereClauseBuilder
 import org.hisp.dhis.android.core.arch.db.stores.binders.internal.StatementBinder
 import org.hisp.dhis.android.core.common.CoreObject
 
@@ -45,6 +46,13 @@ internal open class LinkStoreImpl<O : CoreObject>(
         deleteWhere("$masterColumn='$masterUid';")
     }
 
+    @Throws(RuntimeException::class)
+    override fun deleteLinksForMasterUids(masterUids: Collection<String>) {
+        masterUids.toSet().chunked(StoreUtils.IN_CLAUSE_CHUNK_SIZE).forEach { chunk ->
+            deleteWhere(WhereClauseBuilder().appendInKeyStringValues(masterColumn, chunk).build())
+        }
+    }
+
     override fun deleteAllLinks(): Int {
         return delete()
     }
@@ -30,6 +30,7 @@ package org.hisp.dhis.android.core.arch.db.stores.internal
 import android.database.Cursor
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter
 import org.hisp.dhis.android.core.arch.db.querybuilders.internal.SQLStatementBuilder
+import org.hisp.dhis.android.core.arch.db.stores.binders.internal.OffsetStatementWrapper
 import org.hisp.dhis.android.core.arch.db.stores.binders.internal.StatementBinder
 import org.hisp.dhis.android.core.arch.db.stores.binders.internal.StatementWrapper
 import org.hisp.dhis.android.core.arch.helpers.CollectionsHelper
@@ -45,6 +46,7 @@ internal open class ObjectStoreImpl<O : CoreObject> internal constructor(
 ) : ReadableStoreImpl<O>(databaseAdapter, builder, objectFactory), ObjectStore<O> {
 
     private var insertStatement: StatementWrapper? = null
+    private val multiRowStatements: MutableMap<String, StatementWrapper> = HashMap()
     private var adapterHashCode: Int? = null
 
     @Throws(RuntimeException::class)
@@ -62,9 +64,54 @@ internal open class ObjectStoreImpl<O : CoreObject> internal constructor(
     }
 
     @Throws(RuntimeException::class)
+    @Suppress("TooGenericExceptionThrown")
     override fun insert(objects: Collection<O>) {
-        for (m in objects) {
-            insert(m)
+        if (objects.size > 1) {
+            executeMultiRow(objects, builder::insertMany) { statement ->
+                if (databaseAdapter.executeInsert(statement) == -1L) {
+                    throw RuntimeException("Nothing was inserted.")
+                }
+            }
+        } else {
+            for (m in objects) {
+                insert(m)
+            }
+        }
+    }
+
+    /**
+     * Writes the objects through multi-row statements, filling each of them with as many rows as the SQLite bind
+     * and compound select limits allow. The statement for full chunks is compiled once and reused.
+     */
+    protected fun executeMultiRow(
+        objects: Collection<O>,
+        sqlForRowCount: (Int) -> String,
+        execute: (StatementWrapper) -> Unit
+    ) {
+        resetStatementsIfDbChanged()
+        val columnCount = builder.columns.size
+        val rowsPerStatement = (StoreUtils.SQLITE_MAX_BIND_ARGUMENTS / columnCount)
+            .coerceIn(1, StoreUtils.SQLITE_MAX_VALUES_ROWS)
+        for (chunk in objects.chunked(rowsPerStatement)) {
+            val isFullChunk = chunk.size == rowsPerStatement
+            val sql = sqlForRowCount(chunk.size)
+            val statement =
+                if (isFullChunk) {
+                    multiRowStatements.getOrPut(sql) { databaseAdapter.compileStatement(sql) }
+                } else {
+                    databaseAdapter.compileStatement(sql)
+                }
+            try {
+                chunk.forEachIndexed { row, o ->
+                    binder.bindToStatement(o, OffsetStatementWrapper(statement, row * columnCount))
+                }
+                execute(statement)
+            } finally {
+                statement.clearBindings()
+                if (!isFullChunk) {
+                    statement.close()
+                }
+            }
         }
     }
 
@@ -77,8 +124,10 @@ internal open class ObjectStoreImpl<O : CoreObject> internal constructor(
 
     private fun resetStatementsIfDbChanged() {
         if (hasAdapterChanged()) {
-            insertStatement!!.close()
+            insertStatement?.close()
             insertStatement = null
+            multiRowStatements.values.forEach { it.close() }
+            multiRowStatements.clear()
         }
     }
 
@@ -30,6 +30,4 @@ package org.hisp.dhis.android.core.arch.db.stores.internal
 import org.hisp.dhis.android.core.common.ObjectWithUid
 import org.hisp.dhis.android.core.common.ObjectWithUidInterface
 
-internal interface ObjectWithUidChildStore<P : ObjectWithUidInterface> {
-    fun getChildren(p: P): List<ObjectWithUid>
-}
+internal interface ObjectWithUidChildStore<P : ObjectWithUidInterface> : ChildrenStore<P, ObjectWithUid>
@@ -42,15 +42,32 @@ internal class ObjectWithUidChildStoreImpl<P : ObjectWithUidInterface>(
     private val statementBuilder: SQLStatementBuilder
 ) : ObjectWithUidChildStore<P> {
 
+    private val cursorExecutor = CursorExecutorImpl { cursor: Cursor ->
+        val idColumnIndex = cursor.getColumnIndex(linkTableChildProjection.childColumn)
+        ObjectWithUid.create(cursor.getString(idColumnIndex))
+    }
+
     override fun getChildren(p: P): List<ObjectWithUid> {
         val whereClause = WhereClauseBuilder()
             .appendKeyStringValue(linkTableChildProjection.parentColumn, p.uid())
-            .build()
-        val selectStatement = statementBuilder.selectWhere(whereClause)
-        val cursorExecutor = CursorExecutorImpl { cursor: Cursor ->
-            val idColumnIndex = cursor.getColumnIndex(linkTableChildProjection.childColumn)
-            ObjectWithUid.create(cursor.getString(idColumnIndex))
+        val selectStatement = statementBuilder.selectWhere(whereClause.buildSelection())
+        return cursorExecutor.getObjects(databaseAdapter.rawQuery(selectStatement, *whereClause.buildSelectionArgs()))
+    }
+
+    override fun getChildrenByParentUids(parentUids: Collection<String>): Map<String, List<ObjectWithUid>> {
+        val childrenByParent = parentUids.associateWithTo(HashMap<String, MutableList<ObjectWithUid>>()) {
+            ArrayList<ObjectWithUid>()
+        }
+        parentUids.toSet().chunked(StoreUtils.IN_CLAUSE_CHUNK_SIZE).forEach { chunk ->
+            val whereClause = WhereClauseBuilder()
+                .appendInKeyStringValues(linkTableChildProjection.parentColumn, chunk)
+            val selectStatement = statementBuilder.selectWhere(whereClause.buildSelection())
+            cursorExecutor.addObjectsToMapByColumn(
+                databaseAdapter.rawQuery(selectStatement, *whereClause.buildSelectionArgs()),
+                linkTableChildProjection.parentColumn,
+                childrenByParent
+            )
         }
-        return cursorExecutor.getObjects(databaseAdapter.rawQuery(selectStatement))
+        return childrenByParent
     }
 }
@@ -27,19 +27,25 @@
  */
 package org.hisp.dhis.android.core.arch.db.stores.internal
 
+import org.hisp.dhis.android.core.arch.db.access.internal.TableInvalidationTracker
 import org.hisp.dhis.android.core.arch.db.sqlorder.internal.SQLOrderType
 
 @Suppress("TooManyFunctions")
 internal interface ReadableStore<O> {
     fun selectAll(): List<O>
     fun selectWhere(whereClause: String): List<O>
+    fun selectWhere(whereClause: String, selectionArgs: Array<String>): List<O>
     fun selectWhere(filterWhereClause: String, orderByClause: String): List<O>
     fun selectWhere(filterWhereClause: String, orderByClause: String, limit: Int): List<O>
     fun selectOneOrderedBy(orderingColumName: String, orderingType: SQLOrderType): O?
     fun selectRawQuery(sqlRawQuery: String): List<O>
+    fun selectRawQuery(sqlRawQuery: String, selectionArgs: Array<String>): List<O>
     fun selectOneWhere(whereClause: String): O?
+    fun selectOneWhere(whereClause: String, selectionArgs: Array<String>): O?
     fun selectFirst(): O?
     fun count(): Int
     fun countWhere(whereClause: String): Int
+    fun countWhere(whereClause: String, selectionArgs: Array<String>): Int
     fun groupAndGetCountBy(column: String): Map<String, Int>
+    fun invalidationTracker(): TableInvalidationTracker
 }
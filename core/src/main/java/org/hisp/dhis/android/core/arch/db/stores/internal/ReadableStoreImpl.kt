@@ -31,6 +31,7 @@ import android.database.Cursor
 import java.util.ArrayList
 import java.util.HashMap
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter
+import org.hisp.dhis.android.core.arch.db.access.internal.TableInvalidationTracker
 import org.hisp.dhis.android.core.arch.db.querybuilders.internal.ReadOnlySQLStatementBuilder
 import org.hisp.dhis.android.core.arch.db.sqlorder.internal.SQLOrderType
 import org.hisp.dhis.android.core.common.CoreObject
@@ -52,6 +53,11 @@ internal open class ReadableStoreImpl<O : CoreObject>(
         return selectRawQuery(query)
     }
 
+    override fun selectWhere(whereClause: String, selectionArgs: Array<String>): List<O> {
+        val query = builder.selectWhere(whereClause)
+        return selectRawQuery(query, selectionArgs)
+    }
+
     override fun selectWhere(filterWhereClause: String, orderByClause: String): List<O> {
         val query = builder.selectWhere(filterWhereClause, orderByClause)
         return selectRawQuery(query)
@@ -74,11 +80,23 @@ internal open class ReadableStoreImpl<O : CoreObject>(
         return list
     }
 
+    override fun selectRawQuery(sqlRawQuery: String, selectionArgs: Array<String>): List<O> {
+        val cursor = databaseAdapter.rawQuery(sqlRawQuery, *selectionArgs)
+        val list: MutableList<O> = ArrayList()
+        addObjectsToCollection(cursor, list)
+        return list
+    }
+
     override fun selectOneWhere(whereClause: String): O? {
         val cursor = databaseAdapter.rawQuery(builder.selectWhere(whereClause, 1))
         return getFirstFromCursor(cursor)
     }
 
+    override fun selectOneWhere(whereClause: String, selectionArgs: Array<String>): O? {
+        val cursor = databaseAdapter.rawQuery(builder.selectWhere(whereClause, 1), *selectionArgs)
+        return getFirstFromCursor(cursor)
+    }
+
     override fun selectFirst(): O? {
         val cursor = databaseAdapter.rawQuery(builder.selectAll())
         return getFirstFromCursor(cursor)
@@ -103,6 +121,10 @@ internal open class ReadableStoreImpl<O : CoreObject>(
         return processCount(databaseAdapter.rawQuery(builder.countWhere(whereClause)))
     }
 
+    override fun countWhere(whereClause: String, selectionArgs: Array<String>): Int {
+        return processCount(databaseAdapter.rawQuery(builder.countWhere(whereClause), *selectionArgs))
+    }
+
     override fun groupAndGetCountBy(column: String): Map<String, Int> {
         val result: MutableMap<String, Int> = HashMap()
         databaseAdapter.rawQuery(builder.countAndGroupBy(column)).use { cursor ->
@@ -118,6 +140,10 @@ internal open class ReadableStoreImpl<O : CoreObject>(
         return result
     }
 
+    override fun invalidationTracker(): TableInvalidationTracker {
+        return databaseAdapter.invalidationTracker()
+    }
+
     protected fun processCount(cursor: Cursor): Int {
         return cursor.use { c ->
             c.moveToFirst()
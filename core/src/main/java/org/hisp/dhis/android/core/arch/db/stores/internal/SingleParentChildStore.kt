@@ -29,6 +29,4 @@ package org.hisp.dhis.android.core.arch.db.stores.internal
 
 import org.hisp.dhis.android.core.common.ObjectWithUidInterface
 
-internal interface SingleParentChildStore<P : ObjectWithUidInterface, C> {
-    fun getChildren(p: P): List<C>
-}
+internal interface SingleParentChildStore<P : ObjectWithUidInterface, C> : ChildrenStore<P, C>
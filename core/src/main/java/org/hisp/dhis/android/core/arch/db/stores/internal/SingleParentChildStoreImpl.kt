@@ -44,8 +44,22 @@ internal class SingleParentChildStoreImpl<P : ObjectWithUidInterface, C>(
     override fun getChildren(p: P): List<C> {
         val whereClause = WhereClauseBuilder()
             .appendKeyStringValue(childProjection.parentColumn, p.uid())
-            .build()
-        val selectStatement = statementBuilder.selectWhere(whereClause)
-        return cursorExecutor.getObjects(databaseAdapter.rawQuery(selectStatement))
+        val selectStatement = statementBuilder.selectWhere(whereClause.buildSelection())
+        return cursorExecutor.getObjects(databaseAdapter.rawQuery(selectStatement, *whereClause.buildSelectionArgs()))
+    }
+
+    override fun getChildrenByParentUids(parentUids: Collection<String>): Map<String, List<C>> {
+        val childrenByParent = parentUids.associateWithTo(HashMap<String, MutableList<C>>()) { ArrayList<C>() }
+        parentUids.toSet().chunked(StoreUtils.IN_CLAUSE_CHUNK_SIZE).forEach { chunk ->
+            val whereClause = WhereClauseBuilder()
+                .appendInKeyStringValues(childProjection.parentColumn, chunk)
+            val selectStatement = statementBuilder.selectWhere(whereClause.buildSelection())
+            cursorExecutor.addObjectsToMapByColumn(
+                databaseAdapter.rawQuery(selectStatement, *whereClause.buildSelectionArgs()),
+                childProjection.parentColumn,
+                childrenByParent
+            )
+        }
+        return childrenByParent
     }
 }
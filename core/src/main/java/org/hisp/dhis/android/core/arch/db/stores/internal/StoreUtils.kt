@@ -34,6 +34,23 @@ import org.hisp.dhis.android.core.imports.ImportStatus
  * Provides helper functions to handle null checks and type conversions.
  */
 internal object StoreUtils {
+
+    /**
+     * Maximum number of values included in a single IN (...) clause when querying by a collection of keys.
+     */
+    const val IN_CLAUSE_CHUNK_SIZE = 500
+
+    /**
+     * Maximum number of arguments bound to a single statement (SQLITE_MAX_VARIABLE_NUMBER in SQLite < 3.32).
+     */
+    const val SQLITE_MAX_BIND_ARGUMENTS = 999
+
+    /**
+     * Maximum number of rows in a multi-row VALUES clause. SQLite < 3.8.8 builds it as a compound SELECT, which is
+     * limited by SQLITE_MAX_COMPOUND_SELECT.
+     */
+    const val SQLITE_MAX_VALUES_ROWS = 500
+
     /**
      * Takes the import status and converts it to the state which indicates if it was imported, had errors or warning.
      *
@@ -0,0 +1,68 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.handlers.internal
+
+import org.hisp.dhis.android.core.arch.db.stores.internal.IdentifiableObjectStore
+import org.hisp.dhis.android.core.common.ObjectWithUidInterface
+
+internal object BulkPersistenceHelper {
+
+    /**
+     * Deletes the objects matching the delete condition one by one and persists the rest with a single bulk
+     * update-or-insert. Returns the action applied to each object, in the same order as the input, as reported by
+     * the store.
+     */
+    fun <O : ObjectWithUidInterface> deleteOrPersistMany(
+        store: IdentifiableObjectStore<O>,
+        oCollection: List<O>,
+        shouldDelete: (O) -> Boolean
+    ): List<HandleAction> {
+        val actions = arrayOfNulls<HandleAction>(oCollection.size)
+        val persistedIndexes: MutableList<Int> = ArrayList(oCollection.size)
+        val persisted: MutableList<O> = ArrayList(oCollection.size)
+        oCollection.forEachIndexed { index, o ->
+            if (shouldDelete(o) && o.uid() != null) {
+                store.deleteIfExists(o.uid())
+                actions[index] = HandleAction.Delete
+            } else {
+                persistedIndexes.add(index)
+                persisted.add(o)
+            }
+        }
+        if (persisted.isNotEmpty()) {
+            val persistedActions = store.updateOrInsert(persisted)
+            if (persistedActions.size != persisted.size) {
+                throw IllegalStateException(
+                    "Store reported ${persistedActions.size} actions for ${persisted.size} persisted objects"
+                )
+            }
+            persistedActions.forEachIndexed { i, action -> actions[persistedIndexes[i]] = action }
+        }
+        return actions.map { it!! }
+    }
+}
@@ -68,8 +68,12 @@ internal abstract class HandlerBaseImpl<O> : HandlerWithTransformer<O> {
     override fun handleMany(oCollection: Collection<O>?) {
         if (oCollection != null) {
             val preHandledCollection = beforeCollectionHandled(oCollection)
-            for (o in preHandledCollection) {
-                handle(o)
+            if (isBulkPersistenceSupported() && preHandledCollection.size > 1) {
+                handleInBulk(preHandledCollection) { it }
+            } else {
+                for (o in preHandledCollection) {
+                    handle(o)
+                }
             }
             afterCollectionHandled(preHandledCollection)
         }
@@ -79,16 +83,48 @@ internal abstract class HandlerBaseImpl<O> : HandlerWithTransformer<O> {
     override fun handleMany(oCollection: Collection<O>?, transformer: (O) -> O) {
         if (oCollection != null) {
             val preHandledCollection = beforeCollectionHandled(oCollection)
-            val oTransformedCollection: MutableList<O> = ArrayList(oCollection.size)
-            for (o in preHandledCollection) {
-                handle(o, transformer, oTransformedCollection)
-            }
+            val oTransformedCollection: MutableList<O> =
+                if (isBulkPersistenceSupported() && preHandledCollection.size > 1) {
+                    handleInBulk(preHandledCollection, transformer)
+                } else {
+                    val transformed: MutableList<O> = ArrayList(oCollection.size)
+                    for (o in preHandledCollection) {
+                        handle(o, transformer, transformed)
+                    }
+                    transformed
+                }
             afterCollectionHandled(oTransformedCollection)
         }
     }
 
+    private fun handleInBulk(oCollection: Collection<O>, transformer: (O) -> O): MutableList<O> {
+        val oTransformedCollection: MutableList<O> = ArrayList(oCollection.size)
+        for (o in oCollection) {
+            if (o != null) {
+                oTransformedCollection.add(transformer(beforeObjectHandled(o)))
+            }
+        }
+        val actions = deleteOrPersistMany(oTransformedCollection)
+        oTransformedCollection.forEachIndexed { index, o -> afterObjectHandled(o, actions[index]) }
+        return oTransformedCollection
+    }
+
     protected abstract fun deleteOrPersist(o: O): HandleAction
 
+    /**
+     * Handlers returning true persist collections through [deleteOrPersistMany] instead of object by object, so
+     * [beforeObjectHandled] runs for every object before any of them is written, and [afterObjectHandled] once all of
+     * them are. Handlers whose hooks read rows written while handling a previous object of the same collection must
+     * keep returning false.
+     */
+    protected open fun isBulkPersistenceSupported(): Boolean {
+        return false
+    }
+
+    protected open fun deleteOrPersistMany(oCollection: List<O>): List<HandleAction> {
+        return oCollection.map { deleteOrPersist(it) }
+    }
+
     protected open fun beforeObjectHandled(o: O): O {
         return o
     }
@@ -99,10 +99,16 @@ internal abstract class IdentifiableDataHandlerImpl<O>(
     override fun handleMany(oCollection: Collection<O>?, transformer: (O) -> O, overwrite: Boolean) {
         if (oCollection != null) {
             val preHandledCollection = beforeCollectionHandled(oCollection, overwrite, false)
-            val oTransformedCollection: MutableList<O> = ArrayList(oCollection.size)
-            for (o in preHandledCollection) {
-                handle(o, transformer, oTransformedCollection, overwrite)
-            }
+            val oTransformedCollection: MutableList<O> =
+                if (preHandledCollection.size > 1) {
+                    handleInBulk(preHandledCollection, transformer, overwrite, null, false)
+                } else {
+                    val transformed: MutableList<O> = ArrayList(oCollection.size)
+                    for (o in preHandledCollection) {
+                        handle(o, transformer, transformed, overwrite)
+                    }
+                    transformed
+                }
             afterCollectionHandled(oTransformedCollection, overwrite)
         }
     }
@@ -125,14 +131,46 @@ internal abstract class IdentifiableDataHandlerImpl<O>(
                 { o: O -> addSyncedState(o) }
             }
         val preHandledCollection = beforeCollectionHandled(oCollection, overwrite, asRelationship)
-        val transformedCollection: MutableList<O> = ArrayList(preHandledCollection.size)
-        for (o in preHandledCollection) {
-            handle(o, transformer, transformedCollection, overwrite, relatives)
+        val transformedCollection: MutableList<O>
+        if (preHandledCollection.size > 1) {
+            transformedCollection = handleInBulk(preHandledCollection, transformer, overwrite, relatives, isFullUpdate)
+        } else {
+            transformedCollection = ArrayList(preHandledCollection.size)
+            for (o in preHandledCollection) {
+                handle(o, transformer, transformedCollection, overwrite, relatives)
+                if (isFullUpdate) {
+                    deleteOrphans(o)
+                }
+            }
+        }
+        afterCollectionHandled(transformedCollection, overwrite)
+    }
+
+    /**
+     * Persists the whole collection with bulk statements. Objects are prepared and transformed first and the
+     * per-object post-processing runs once all of them are stored.
+     */
+    private fun handleInBulk(
+        oCollection: Collection<O>,
+        transformer: (O) -> O,
+        overwrite: Boolean,
+        relatives: RelationshipItemRelatives?,
+        isFullUpdate: Boolean
+    ): MutableList<O> {
+        val oTransformedCollection: MutableList<O> = ArrayList(oCollection.size)
+        for (o in oCollection) {
+            oTransformedCollection.add(transformer(beforeObjectHandled(o, overwrite)))
+        }
+        val actions = BulkPersistenceHelper.deleteOrPersistMany(store, oTransformedCollection) { o ->
+            CollectionsHelper.isDeleted(o) || deleteIfCondition(o)
+        }
+        oTransformedCollection.forEachIndexed { index, o ->
+            afterObjectHandled(o, actions[index], overwrite, relatives)
             if (isFullUpdate) {
                 deleteOrphans(o)
             }
         }
-        afterCollectionHandled(transformedCollection, overwrite)
+        return oTransformedCollection
     }
 
     private fun relationshipTransformer(): (O) -> O {
@@ -45,6 +45,16 @@ internal open class IdentifiableHandlerImpl<O>(protected val store: Identifiable
         }
     }
 
+    override fun isBulkPersistenceSupported(): Boolean {
+        return true
+    }
+
+    override fun deleteOrPersistMany(oCollection: List<O>): List<HandleAction> {
+        return BulkPersistenceHelper.deleteOrPersistMany(store, oCollection) { o ->
+            CollectionsHelper.isDeleted(o) || deleteIfCondition(o)
+        }
+    }
+
     protected open fun deleteIfCondition(o: O): Boolean {
         return false
     }
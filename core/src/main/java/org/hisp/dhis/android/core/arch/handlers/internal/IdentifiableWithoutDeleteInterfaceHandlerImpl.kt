@@ -38,4 +38,12 @@ internal class IdentifiableWithoutDeleteInterfaceHandlerImpl<O : ObjectWithUidIn
     override fun deleteOrPersist(o: O): HandleAction {
         return store.updateOrInsert(o)
     }
+
+    override fun isBulkPersistenceSupported(): Boolean {
+        return true
+    }
+
+    override fun deleteOrPersistMany(oCollection: List<O>): List<HandleAction> {
+        return store.updateOrInsert(oCollection)
+    }
 }
@@ -32,5 +32,18 @@ import org.hisp.dhis.android.core.common.CoreObject
 internal interface LinkHandler<S, O : CoreObject> {
     @JvmSuppressWildcards
     fun handleMany(masterUid: String, slaves: Collection<S>?, transformer: (S) -> O)
+
+    /**
+     * Replaces the links of every master in the map with a single chunked delete and a multi-row insert, so callers
+     * handling pages of masters don't need one round trip per master.
+     *
+     * Only the links of the masters present as keys are deleted, so masters outside of the current page keep their
+     * links and callers don't need to reset the link table first. Each entry must hold the whole set of links of its
+     * master, as the links are rewritten rather than diffed against the stored ones: like the single master variant,
+     * links have no state of their own, and a diff would need a select of the same size as the delete plus value
+     * comparisons.
+     */
+    @JvmSuppressWildcards
+    fun handleMany(slavesByMasterUid: Map<String, Collection<S>>, transformer: (String, S) -> O)
     fun resetAllLinks()
 }
@@ -35,17 +35,25 @@ internal open class LinkHandlerImpl<S, O : CoreObject>(private val store: LinkSt
     override fun handleMany(masterUid: String, slaves: Collection<S>?, transformer: Function1<S, O>) {
         store.deleteLinksForMasterUid(masterUid)
         if (slaves != null) {
-            for (slave in slaves) {
-                handleInternal(slave, transformer)
-            }
+            insertLinks(slaves.map { transformer.invoke(beforeObjectHandled(it)) })
         }
     }
 
-    private fun handleInternal(s: S, transformer: Function1<S, O>) {
-        val s2 = beforeObjectHandled(s)
-        val s3 = transformer.invoke(s2)
-        store.insert(s3)
-        afterObjectHandled(s3)
+    override fun handleMany(slavesByMasterUid: Map<String, Collection<S>>, transformer: Function2<String, S, O>) {
+        if (slavesByMasterUid.isEmpty()) {
+            return
+        }
+        store.deleteLinksForMasterUids(slavesByMasterUid.keys)
+        insertLinks(
+            slavesByMasterUid.flatMap { (masterUid, slaves) ->
+                slaves.map { transformer.invoke(masterUid, beforeObjectHandled(it)) }
+            }
+        )
+    }
+
+    private fun insertLinks(links: List<O>) {
+        store.insert(links)
+        links.forEach { afterObjectHandled(it) }
     }
 
     protected open fun beforeObjectHandled(s: S): S {
@@ -0,0 +1,73 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.repositories.children.internal;
+
+import org.hisp.dhis.android.core.arch.db.stores.internal.ChildrenStore;
+import org.hisp.dhis.android.core.arch.helpers.UidsHelper;
+import org.hisp.dhis.android.core.common.ObjectWithUidInterface;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Children appender that loads the children of the whole parent collection in a reduced number of queries when
+ * {@link #appendChildrenInCollection(List)} is called with more than one parent. The children are kept only for the
+ * duration of the call, so the appender can be shared by concurrent queries.
+ */
+public abstract class BatchedChildrenAppender<M extends ObjectWithUidInterface, C> extends ChildrenAppender<M> {
+
+    private final ChildrenStore<M, C> childStore;
+
+    protected BatchedChildrenAppender(ChildrenStore<M, C> childStore) {
+        this.childStore = childStore;
+    }
+
+    protected abstract M appendChildren(M m, List<C> children);
+
+    @Override
+    protected final M appendChildren(M m) {
+        return appendChildren(m, childStore.getChildren(m));
+    }
+
+    @Override
+    protected List<M> appendChildrenInCollection(List<M> list) {
+        if (list.size() <= 1) {
+            return super.appendChildrenInCollection(list);
+        }
+
+        Map<String, List<C>> childrenByParent = childStore.getChildrenByParentUids(UidsHelper.getUidsList(list));
+        List<M> listWithChildren = new ArrayList<>(list.size());
+        for (M m : list) {
+            List<C> children = childrenByParent.get(m.uid());
+            listWithChildren.add(appendChildren(m, children == null ? Collections.emptyList() : children));
+        }
+        return listWithChildren;
+    }
+}
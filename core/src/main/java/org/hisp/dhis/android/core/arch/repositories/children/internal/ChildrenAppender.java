@@ -27,7 +27,9 @@
  */
 package org.hisp.dhis.android.core.arch.repositories.children.internal;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 public abstract class ChildrenAppender<M> {
 
@@ -39,4 +41,13 @@ public abstract class ChildrenAppender<M> {
     }
 
     protected abstract M appendChildren(M m);
+
+    protected List<M> appendChildrenInCollection(List<M> list) {
+        prepareChildren(list);
+        List<M> listWithChildren = new ArrayList<>(list.size());
+        for (M m : list) {
+            listWithChildren.add(appendChildren(m));
+        }
+        return listWithChildren;
+    }
 }
\ No newline at end of file
@@ -58,23 +58,11 @@ public final class ChildrenAppenderExecutor {
     public static <M extends CoreObject> List<M> appendInObjectCollection(
             List<M> list, Map<String, ChildrenAppender<M>> childrenAppenders, ChildrenSelection childrenSelection) {
 
-
-        Collection<ChildrenAppender<M>> selectedAppenders
-                = getSelectedChildrenAppenders(childrenAppenders, childrenSelection);
-
-        for (ChildrenAppender<M> appender : selectedAppenders) {
-            appender.prepareChildren(list);
-        }
-
-        List<M> setWithChildren = new ArrayList<>(list.size());
-        for (M m : list) {
-            M mWithChildren = m;
-            for (ChildrenAppender<M> appender : selectedAppenders) {
-                mWithChildren = appender.appendChildren(mWithChildren);
-            }
-            setWithChildren.add(mWithChildren);
+        List<M> listWithChildren = list;
+        for (ChildrenAppender<M> appender : getSelectedChildrenAppenders(childrenAppenders, childrenSelection)) {
+            listWithChildren = appender.appendChildrenInCollection(listWithChildren);
         }
-        return setWithChildren;
+        return listWithChildren;
     }
 
     private static <M extends CoreObject> Collection<ChildrenAppender<M>> getSelectedChildrenAppenders(
@@ -34,6 +34,7 @@ import java.util.List;
 
 import androidx.lifecycle.LiveData;
 import androidx.paging.PagedList;
+import io.reactivex.Flowable;
 import io.reactivex.Single;
 
 public interface ReadOnlyCollectionRepository<M extends CoreObject> extends BaseRepository {
@@ -53,6 +54,14 @@ public interface ReadOnlyCollectionRepository<M extends CoreObject> extends Base
      */
     List<M> blockingGet();
 
+    /**
+     * Get the objects in scope and get them again every time the tables they are read from change, including the
+     * tables of the children. Changes made in a transaction are notified once it is committed.
+     *
+     * @return A {@code Flowable} emitting the list of objects every time it changes.
+     */
+    Flowable<List<M>> observe();
+
     /**
      * Handy method to use in conjunction with PagedListAdapter to build paged lists.
      *
@@ -75,6 +84,13 @@ public interface ReadOnlyCollectionRepository<M extends CoreObject> extends Base
      */
     int blockingCount();
 
+    /**
+     * Get the count of elements and get it again every time the tables it is read from change.
+     *
+     * @return A {@code Flowable} emitting the element count every time it changes.
+     */
+    Flowable<Integer> observeCount();
+
     /**
      * Check if selection of objects in current scope with applied filters is empty in an asynchronous way,
      * returning a {@code Single}.
@@ -49,6 +49,7 @@ import org.hisp.dhis.android.core.common.CoreObject;
 import java.util.List;
 import java.util.Map;
 
+import io.reactivex.Flowable;
 import io.reactivex.Single;
 
 public class ReadOnlyCollectionRepositoryImpl<M extends CoreObject, R extends ReadOnlyCollectionRepository<M>>
@@ -104,6 +105,17 @@ public class ReadOnlyCollectionRepositoryImpl<M extends CoreObject, R extends Re
         return Single.fromCallable(this::blockingGet);
     }
 
+    /**
+     * Get the objects in scope and get them again every time the tables they are read from change, including the
+     * tables of the children. Changes made in a transaction are notified once it is committed.
+     *
+     * @return A {@code Flowable} emitting the list of objects every time it changes.
+     */
+    @Override
+    public Flowable<List<M>> observe() {
+        return store.invalidationTracker().observe(this::blockingGet);
+    }
+
     /**
      * Handy method to use in conjunction with PagedListAdapter to build paged lists.
      *
@@ -146,6 +158,16 @@ public class ReadOnlyCollectionRepositoryImpl<M extends CoreObject, R extends Re
         return store.countWhere(getWhereClause());
     }
 
+    /**
+     * Get the count of elements and get it again every time the tables it is read from change.
+     *
+     * @return A {@code Flowable} emitting the element count every time it changes.
+     */
+    @Override
+    public Flowable<Integer> observeCount() {
+        return store.invalidationTracker().observe(this::blockingCount);
+    }
+
     /**
      * Check if selection of objects in current scope with applied filters is empty in an asynchronous way,
      * returning a {@code Single}.
@@ -30,6 +30,7 @@ package org.hisp.dhis.android.core.arch.repositories.paging.internal;
 import androidx.annotation.NonNull;
 import androidx.paging.ItemKeyedDataSource;
 
+import org.hisp.dhis.android.core.arch.db.access.internal.TableInvalidationTracker;
 import org.hisp.dhis.android.core.arch.db.querybuilders.internal.OrderByClauseBuilder;
 import org.hisp.dhis.android.core.arch.db.querybuilders.internal.WhereClauseBuilder;
 import org.hisp.dhis.android.core.arch.db.stores.internal.ReadableStore;
@@ -39,14 +40,21 @@ import org.hisp.dhis.android.core.arch.repositories.scope.RepositoryScope;
 import org.hisp.dhis.android.core.arch.repositories.scope.internal.WhereClauseFromScopeBuilder;
 import org.hisp.dhis.android.core.common.CoreObject;
 
+import java.lang.ref.WeakReference;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import io.reactivex.disposables.CompositeDisposable;
+import kotlin.Pair;
 
 public final class RepositoryDataSource<M extends CoreObject> extends ItemKeyedDataSource<M, M> {
 
     private final ReadableStore<M> store;
     private final RepositoryScope scope;
     private final Map<String, ChildrenAppender<M>> childrenAppenders;
+    private final CompositeDisposable invalidation = new CompositeDisposable();
 
     public RepositoryDataSource(ReadableStore<M> store,
                                 RepositoryScope scope,
@@ -54,14 +62,45 @@ public final class RepositoryDataSource<M extends CoreObject> extends ItemKeyedD
         this.store = store;
         this.scope = scope;
         this.childrenAppenders = childrenAppenders;
+        addInvalidatedCallback(invalidation::dispose);
     }
 
     @Override
     public void loadInitial(@NonNull LoadInitialParams<M> params, @NonNull LoadInitialCallback<M> callback) {
+        TableInvalidationTracker tracker = store.invalidationTracker();
+        if (tracker == null) {
+            callback.onResult(loadInitialPage(params));
+        } else {
+            Pair<List<M>, Set<String>> pageAndTables = tracker.recordReads(() -> loadInitialPage(params));
+            invalidateOnChanges(tracker, pageAndTables.getSecond());
+            callback.onResult(pageAndTables.getFirst());
+        }
+    }
+
+    private List<M> loadInitialPage(LoadInitialParams<M> params) {
         String whereClause = new WhereClauseFromScopeBuilder(new WhereClauseBuilder()).getWhereClause(scope);
         List<M> withoutChildren = store.selectWhere(whereClause,
                 OrderByClauseBuilder.orderByFromItems(scope.orderBy(), scope.pagingKey()), params.requestedLoadSize);
-        callback.onResult(appendChildren(withoutChildren));
+        return appendChildren(withoutChildren);
+    }
+
+    /**
+     * Subsequent pages read the same tables as the initial one, so they are the ones watched. The subscription only
+     * holds a weak reference to the data source: a data source dropped without being invalidated can be collected,
+     * and its subscription is disposed on the next change.
+     */
+    private void invalidateOnChanges(TableInvalidationTracker tracker, Set<String> tables) {
+        WeakReference<RepositoryDataSource<M>> dataSourceReference = new WeakReference<>(this);
+        invalidation.add(tracker.changes()
+                .takeWhile(changedTables -> dataSourceReference.get() != null)
+                .filter(changedTables -> !Collections.disjoint(changedTables, tables))
+                .firstElement()
+                .subscribe(changedTables -> {
+                    RepositoryDataSource<M> dataSource = dataSourceReference.get();
+                    if (dataSource != null) {
+                        dataSource.invalidate();
+                    }
+                }));
     }
 
     @Override
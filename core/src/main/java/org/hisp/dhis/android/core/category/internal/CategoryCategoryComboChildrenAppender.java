@@ -31,30 +31,30 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.LinkChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.category.Category;
 import org.hisp.dhis.android.core.category.CategoryCategoryComboLinkTableInfo;
 import org.hisp.dhis.android.core.category.CategoryCombo;
 import org.hisp.dhis.android.core.category.CategoryTableInfo;
 
-final class CategoryCategoryComboChildrenAppender extends ChildrenAppender<CategoryCombo> {
+import java.util.List;
 
+final class CategoryCategoryComboChildrenAppender extends BatchedChildrenAppender<CategoryCombo, Category> {
 
     private static final LinkTableChildProjection CHILD_PROJECTION = new LinkTableChildProjection(
             CategoryTableInfo.TABLE_INFO,
             CategoryCategoryComboLinkTableInfo.Columns.CATEGORY_COMBO,
             CategoryCategoryComboLinkTableInfo.Columns.CATEGORY);
 
-    private final LinkChildStore<CategoryCombo, Category> linkChildStore;
-
     private CategoryCategoryComboChildrenAppender(LinkChildStore<CategoryCombo, Category> linkChildStore) {
-        this.linkChildStore = linkChildStore;
+        super(linkChildStore);
     }
 
     @Override
-    protected CategoryCombo appendChildren(CategoryCombo categoryCombo) {
+    protected CategoryCombo appendChildren(CategoryCombo categoryCombo, List<Category> children) {
         CategoryCombo.Builder builder = categoryCombo.toBuilder();
-        builder.categories(linkChildStore.getChildren(categoryCombo));
+        builder.categories(children);
         return builder.build();
     }
 
@@ -31,30 +31,30 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.LinkChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.category.Category;
 import org.hisp.dhis.android.core.category.CategoryCategoryOptionLinkTableInfo;
 import org.hisp.dhis.android.core.category.CategoryOption;
 import org.hisp.dhis.android.core.category.CategoryOptionTableInfo;
 
-final class CategoryCategoryOptionChildrenAppender extends ChildrenAppender<Category> {
+import java.util.List;
 
+final class CategoryCategoryOptionChildrenAppender extends BatchedChildrenAppender<Category, CategoryOption> {
 
     private static final LinkTableChildProjection CHILD_PROJECTION = new LinkTableChildProjection(
             CategoryOptionTableInfo.TABLE_INFO,
             CategoryCategoryOptionLinkTableInfo.Columns.CATEGORY,
             CategoryCategoryOptionLinkTableInfo.Columns.CATEGORY_OPTION);
 
-    private final LinkChildStore<Category, CategoryOption> linkChildStore;
-
     private CategoryCategoryOptionChildrenAppender(LinkChildStore<Category, CategoryOption> linkChildStore) {
-        this.linkChildStore = linkChildStore;
+        super(linkChildStore);
     }
 
     @Override
-    protected Category appendChildren(Category category) {
+    protected Category appendChildren(Category category, List<CategoryOption> children) {
         Category.Builder builder = category.toBuilder();
-        builder.categoryOptions(linkChildStore.getChildren(category));
+        builder.categoryOptions(children);
         return builder.build();
     }
 
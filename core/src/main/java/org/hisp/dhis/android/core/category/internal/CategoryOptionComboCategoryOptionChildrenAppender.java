@@ -31,30 +31,32 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.LinkChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.category.CategoryOption;
 import org.hisp.dhis.android.core.category.CategoryOptionCombo;
 import org.hisp.dhis.android.core.category.CategoryOptionComboCategoryOptionLinkTableInfo;
 import org.hisp.dhis.android.core.category.CategoryOptionTableInfo;
 
-final class CategoryOptionComboCategoryOptionChildrenAppender extends ChildrenAppender<CategoryOptionCombo> {
+import java.util.List;
+
+final class CategoryOptionComboCategoryOptionChildrenAppender
+        extends BatchedChildrenAppender<CategoryOptionCombo, CategoryOption> {
 
     private static final LinkTableChildProjection CHILD_PROJECTION = new LinkTableChildProjection(
             CategoryOptionTableInfo.TABLE_INFO,
             CategoryOptionComboCategoryOptionLinkTableInfo.Columns.CATEGORY_OPTION_COMBO,
             CategoryOptionComboCategoryOptionLinkTableInfo.Columns.CATEGORY_OPTION);
 
-    private final LinkChildStore<CategoryOptionCombo, CategoryOption> linkChildStore;
-
     private CategoryOptionComboCategoryOptionChildrenAppender(
             LinkChildStore<CategoryOptionCombo, CategoryOption> linkChildStore) {
-        this.linkChildStore = linkChildStore;
+        super(linkChildStore);
     }
 
     @Override
-    protected CategoryOptionCombo appendChildren(CategoryOptionCombo optionCombo) {
+    protected CategoryOptionCombo appendChildren(CategoryOptionCombo optionCombo, List<CategoryOption> children) {
         CategoryOptionCombo.Builder builder = optionCombo.toBuilder();
-        builder.categoryOptions(linkChildStore.getChildren(optionCombo));
+        builder.categoryOptions(children);
         return builder.build();
     }
 
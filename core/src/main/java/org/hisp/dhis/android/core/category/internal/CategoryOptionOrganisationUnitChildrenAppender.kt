@@ -31,18 +31,20 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter
 import org.hisp.dhis.android.core.arch.db.stores.internal.ObjectWithUidChildStore
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender
 import org.hisp.dhis.android.core.category.CategoryOption
 import org.hisp.dhis.android.core.category.CategoryOptionOrganisationUnitLinkTableInfo
+import org.hisp.dhis.android.core.common.ObjectWithUid
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitTableInfo
 
 internal class CategoryOptionOrganisationUnitChildrenAppender
-private constructor(private val childStore: ObjectWithUidChildStore<CategoryOption>) :
-    ChildrenAppender<CategoryOption>() {
+private constructor(childStore: ObjectWithUidChildStore<CategoryOption>) :
+    BatchedChildrenAppender<CategoryOption, ObjectWithUid>(childStore) {
 
-    override fun appendChildren(categoryOption: CategoryOption): CategoryOption {
+    override fun appendChildren(categoryOption: CategoryOption, children: List<ObjectWithUid>): CategoryOption {
         val builder = categoryOption.toBuilder()
-        builder.organisationUnits(childStore.getChildren(categoryOption))
+        builder.organisationUnits(children)
         return builder.build()
     }
 
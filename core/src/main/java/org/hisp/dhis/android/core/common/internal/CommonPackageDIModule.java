@@ -35,6 +35,8 @@ import org.hisp.dhis.android.core.common.valuetype.rendering.internal.ValueTypeR
 import org.hisp.dhis.android.core.resource.internal.ResourceHandler;
 import org.hisp.dhis.android.core.systeminfo.DHISVersionManager;
 
+import javax.inject.Singleton;
+
 import dagger.Module;
 import dagger.Provides;
 import dagger.Reusable;
@@ -56,7 +58,7 @@ public class CommonPackageDIModule {
     }
 
     @Provides
-    @Reusable
+    @Singleton
     public DataStatePropagator dataStatePropagator(DataStatePropagatorImpl impl) {
         return impl;
     }
@@ -51,4 +51,19 @@ public interface DataStatePropagator {
     void resetUploadingEnrollmentAndEventStates(String trackedEntityInstanceUid);
 
     void resetUploadingEventStates(String enrollmentUid);
+
+    /**
+     * Runs the action in a transaction, collecting the propagations it triggers instead of applying them one by one.
+     * The affected events, enrollments and tracked entity instances are updated right before the transaction is
+     * committed, using a single statement per table. Nested calls join the outer batch. If the action throws, the
+     * transaction is rolled back and the exception is rethrown.
+     *
+     * @param action Action whose propagations are batched
+     * @param <E> Exception thrown by the action
+     */
+    <E extends Exception> void propagateInBatch(BatchAction<E> action) throws E;
+
+    interface BatchAction<E extends Exception> {
+        void run() throws E;
+    }
 }
\ No newline at end of file
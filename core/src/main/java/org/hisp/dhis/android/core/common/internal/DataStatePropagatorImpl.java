@@ -28,7 +28,15 @@
 
 package org.hisp.dhis.android.core.common.internal;
 
+import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
+import org.hisp.dhis.android.core.arch.db.access.Transaction;
 import org.hisp.dhis.android.core.arch.db.querybuilders.internal.WhereClauseBuilder;
+import org.hisp.dhis.android.core.arch.db.stores.internal.ObjectStore;
+import org.hisp.dhis.android.core.arch.db.stores.internal.StoreUtils;
+import org.hisp.dhis.android.core.arch.helpers.CollectionsHelper;
+import org.hisp.dhis.android.core.arch.helpers.DateUtils;
+import org.hisp.dhis.android.core.common.DataColumns;
+import org.hisp.dhis.android.core.common.IdentifiableColumns;
 import org.hisp.dhis.android.core.common.State;
 import org.hisp.dhis.android.core.enrollment.Enrollment;
 import org.hisp.dhis.android.core.enrollment.EnrollmentTableInfo;
@@ -41,65 +49,85 @@ import org.hisp.dhis.android.core.relationship.RelationshipItem;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityAttributeValue;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityDataValue;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityInstance;
+import org.hisp.dhis.android.core.trackedentity.TrackedEntityInstanceTableInfo;
 import org.hisp.dhis.android.core.trackedentity.internal.TrackedEntityInstanceStore;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 
-import dagger.Reusable;
-
-@Reusable
+@Singleton
+@SuppressWarnings({"PMD.ExcessiveImports", "PMD.GodClass"})
 public final class DataStatePropagatorImpl implements DataStatePropagator {
 
+    // Same column name in the event, enrollment and tracked entity instance tables
+    private static final String LAST_UPDATED_AT_CLIENT = EventTableInfo.Columns.LAST_UPDATED_AT_CLIENT;
+
     private final TrackedEntityInstanceStore trackedEntityInstanceStore;
     private final EnrollmentStore enrollmentStore;
     private final EventStore eventStore;
+    private final DatabaseAdapter databaseAdapter;
+
+    private final ThreadLocal<PendingPropagation> pendingPropagation = new ThreadLocal<>();
 
     @Inject
     DataStatePropagatorImpl(TrackedEntityInstanceStore trackedEntityInstanceStore,
                             EnrollmentStore enrollmentStore,
-                            EventStore eventStore) {
+                            EventStore eventStore,
+                            DatabaseAdapter databaseAdapter) {
         this.trackedEntityInstanceStore = trackedEntityInstanceStore;
         this.enrollmentStore = enrollmentStore;
         this.eventStore = eventStore;
+        this.databaseAdapter = databaseAdapter;
     }
 
     @Override
     public void propagateEnrollmentUpdate(Enrollment enrollment) {
         if (enrollment != null) {
-            setTeiStateForUpdate(enrollment.trackedEntityInstance());
+            PendingPropagation pending = pendingPropagation.get();
+            if (pending == null) {
+                setTeiStateForUpdate(enrollment.trackedEntityInstance());
+            } else {
+                pending.addTrackedEntityInstance(enrollment.trackedEntityInstance());
+            }
         }
     }
 
     @Override
     public void propagateEventUpdate(Event event) {
         if (event != null && event.enrollment() != null) {
-            Enrollment enrollment = setEnrollmentStateForUpdate(event.enrollment());
-            propagateEnrollmentUpdate(enrollment);
+            PendingPropagation pending = pendingPropagation.get();
+            if (pending == null) {
+                Enrollment enrollment = setEnrollmentStateForUpdate(event.enrollment());
+                propagateEnrollmentUpdate(enrollment);
+            } else {
+                pending.addEnrollment(event.enrollment());
+            }
         }
     }
 
     @Override
     public void propagateTrackedEntityDataValueUpdate(TrackedEntityDataValue dataValue) {
-        Event event = setEventStateForUpdate(dataValue.event());
-        propagateEventUpdate(event);
+        propagateEventChange(dataValue.event());
     }
 
     @Override
     public void propagateTrackedEntityAttributeUpdate(TrackedEntityAttributeValue trackedEntityAttributeValue) {
-        setTeiStateForUpdate(trackedEntityAttributeValue.trackedEntityInstance());
+        propagateTrackedEntityInstanceChange(trackedEntityAttributeValue.trackedEntityInstance());
     }
 
     @Override
     public void propagateNoteCreation(Note note) {
         if (note.noteType() == Note.NoteType.ENROLLMENT_NOTE) {
-            Enrollment enrollment = setEnrollmentStateForUpdate(note.enrollment());
-            propagateEnrollmentUpdate(enrollment);
+            propagateEnrollmentChange(note.enrollment());
         } else if (note.noteType() == Note.NoteType.EVENT_NOTE) {
-            Event event = setEventStateForUpdate(note.event());
-            propagateEventUpdate(event);
+            propagateEventChange(note.event());
         }
     }
 
@@ -107,17 +135,114 @@ public final class DataStatePropagatorImpl implements DataStatePropagator {
     public void propagateRelationshipUpdate(RelationshipItem item) {
         if (item != null) {
             if (item.hasTrackedEntityInstance()) {
-                setTeiStateForUpdate(item.trackedEntityInstance().trackedEntityInstance());
+                propagateTrackedEntityInstanceChange(item.trackedEntityInstance().trackedEntityInstance());
             } else if (item.hasEnrollment()) {
-                Enrollment enrollment = setEnrollmentStateForUpdate(item.enrollment().enrollment());
-                propagateEnrollmentUpdate(enrollment);
+                propagateEnrollmentChange(item.enrollment().enrollment());
             } else if (item.hasEvent()) {
-                Event event = setEventStateForUpdate(item.event().event());
-                propagateEventUpdate(event);
+                propagateEventChange(item.event().event());
             }
         }
     }
 
+    @Override
+    public <E extends Exception> void propagateInBatch(BatchAction<E> action) throws E {
+        if (pendingPropagation.get() != null) {
+            action.run();
+            return;
+        }
+
+        PendingPropagation pending = new PendingPropagation();
+        Transaction transaction = databaseAdapter.beginNewTransaction();
+        pendingPropagation.set(pending);
+        try {
+            action.run();
+            pendingPropagation.remove();
+            applyPendingPropagation(pending);
+            transaction.setSuccessful();
+        } finally {
+            pendingPropagation.remove();
+            transaction.end();
+        }
+    }
+
+    private void propagateTrackedEntityInstanceChange(String trackedEntityInstanceUid) {
+        PendingPropagation pending = pendingPropagation.get();
+        if (pending == null) {
+            setTeiStateForUpdate(trackedEntityInstanceUid);
+        } else {
+            pending.addTrackedEntityInstance(trackedEntityInstanceUid);
+        }
+    }
+
+    private void propagateEnrollmentChange(String enrollmentUid) {
+        PendingPropagation pending = pendingPropagation.get();
+        if (pending == null) {
+            Enrollment enrollment = setEnrollmentStateForUpdate(enrollmentUid);
+            propagateEnrollmentUpdate(enrollment);
+        } else {
+            pending.addEnrollment(enrollmentUid);
+        }
+    }
+
+    private void propagateEventChange(String eventUid) {
+        PendingPropagation pending = pendingPropagation.get();
+        if (pending == null) {
+            Event event = setEventStateForUpdate(eventUid);
+            propagateEventUpdate(event);
+        } else {
+            pending.addEvent(eventUid);
+        }
+    }
+
+    /**
+     * Applies the collected propagation top-down: events first, then their enrollments and finally the tracked
+     * entity instances of those enrollments. Parent uids are resolved with one query per chunk of children.
+     */
+    private void applyPendingPropagation(PendingPropagation pending) {
+        String now = DateUtils.DATE_FORMAT.format(new Date());
+
+        updateStatesInBatch(EventTableInfo.TABLE_INFO.name(), pending.events, now);
+
+        Set<String> enrollments = new HashSet<>(pending.enrollments);
+        enrollments.addAll(selectParentUids(eventStore, EventTableInfo.Columns.ENROLLMENT, pending.events));
+        updateStatesInBatch(EnrollmentTableInfo.TABLE_INFO.name(), enrollments, now);
+
+        Set<String> instances = new HashSet<>(pending.trackedEntityInstances);
+        instances.addAll(selectParentUids(enrollmentStore, EnrollmentTableInfo.Columns.TRACKED_ENTITY_INSTANCE,
+                enrollments));
+        updateStatesInBatch(TrackedEntityInstanceTableInfo.TABLE_INFO.name(), instances, now);
+    }
+
+    private List<String> selectParentUids(ObjectStore<?> store, String parentColumn, Collection<String> uids) {
+        List<String> parentUids = new ArrayList<>();
+        for (Set<String> chunk : CollectionsHelper.setPartition(uids, StoreUtils.IN_CLAUSE_CHUNK_SIZE)) {
+            String whereClause = new WhereClauseBuilder()
+                    .appendInKeyStringValues(IdentifiableColumns.UID, chunk)
+                    .appendIsNotNullValue(parentColumn)
+                    .build();
+            parentUids.addAll(store.selectStringColumnsWhereClause(parentColumn, whereClause));
+        }
+        return parentUids;
+    }
+
+    private void updateStatesInBatch(String tableName, Collection<String> uids, String now) {
+        for (Set<String> chunk : CollectionsHelper.setPartition(uids, StoreUtils.IN_CLAUSE_CHUNK_SIZE)) {
+            String whereClause = new WhereClauseBuilder()
+                    .appendInKeyStringValues(IdentifiableColumns.UID, chunk)
+                    .build();
+            databaseAdapter.execSQL("UPDATE " + tableName + " SET " +
+                    DataColumns.STATE + " = CASE WHEN " + DataColumns.STATE + " IN ('" + State.TO_POST + "', '" +
+                    State.RELATIONSHIP + "') THEN " + DataColumns.STATE + " ELSE '" + State.TO_UPDATE + "' END, " +
+                    maxDateAssignment(IdentifiableColumns.LAST_UPDATED, now) + ", " +
+                    maxDateAssignment(LAST_UPDATED_AT_CLIENT, now) +
+                    " WHERE " + whereClause + ";");
+        }
+    }
+
+    private String maxDateAssignment(String column, String now) {
+        return column + " = max(ifnull(" + column + ", '" + now + "'), '" + now + "')";
+    }
+
     private TrackedEntityInstance setTeiStateForUpdate(String trackedEntityInstanceUid) {
         TrackedEntityInstance instance = trackedEntityInstanceStore.selectByUid(trackedEntityInstanceUid);
         if (instance != null) {
@@ -215,4 +340,28 @@ public final class DataStatePropagatorImpl implements DataStatePropagator {
             return State.TO_UPDATE;
         }
     }
-}
\ No newline at end of file
+
+    private static final class PendingPropagation {
+        private final Set<String> events = new HashSet<>();
+        private final Set<String> enrollments = new HashSet<>();
+        private final Set<String> trackedEntityInstances = new HashSet<>();
+
+        void addEvent(String eventUid) {
+            if (eventUid != null) {
+                events.add(eventUid);
+            }
+        }
+
+        void addEnrollment(String enrollmentUid) {
+            if (enrollmentUid != null) {
+                enrollments.add(enrollmentUid);
+            }
+        }
+
+        void addTrackedEntityInstance(String trackedEntityInstanceUid) {
+            if (trackedEntityInstanceUid != null) {
+                trackedEntityInstances.add(trackedEntityInstanceUid);
+            }
+        }
+    }
+}
@@ -53,8 +53,16 @@ internal class DataApprovalCall @Inject constructor(
             ).length
     }
 
-    @Suppress("MagicNumber")
     override fun download(query: DataApprovalQuery): Single<List<DataApproval>> {
+        return apiDownloader.downloadList(handler, fetch(query))
+    }
+
+    override fun persist(objects: List<DataApproval>, query: DataApprovalQuery) {
+        handler.handleMany(objects)
+    }
+
+    @Suppress("MagicNumber")
+    override fun fetch(query: DataApprovalQuery): Single<List<DataApproval>> {
         val partitions = multiDimensionalPartitioner.partitionForSize(
             QUERY_WITHOUT_UIDS_LENGTH,
             query.workflowsUids(),
@@ -63,16 +71,13 @@ internal class DataApprovalCall @Inject constructor(
             query.attributeOptionCombosUids()
         )
         return Observable.fromIterable(partitions).flatMapSingle { part ->
-            apiDownloader.downloadList(
-                handler,
-                service.getDataApprovals(
-                    DataApprovalFields.allFields,
-                    query.lastUpdatedStr(),
-                    commaSeparatedCollectionValues(part[0]),
-                    commaSeparatedCollectionValues(part[1]),
-                    commaSeparatedCollectionValues(part[2]),
-                    commaSeparatedCollectionValues(part[3])
-                )
+            service.getDataApprovals(
+                DataApprovalFields.allFields,
+                query.lastUpdatedStr(),
+                commaSeparatedCollectionValues(part[0]),
+                commaSeparatedCollectionValues(part[1]),
+                commaSeparatedCollectionValues(part[2]),
+                commaSeparatedCollectionValues(part[3])
             )
         }.reduce(ArrayList(), { t1, t2 -> t1 + t2 })
     }
@@ -30,24 +30,25 @@ package org.hisp.dhis.android.core.dataelement.internal;
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.LinkChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.dataelement.DataElement;
 import org.hisp.dhis.android.core.legendset.DataElementLegendSetLinkTableInfo;
 import org.hisp.dhis.android.core.legendset.LegendSet;
 
-final class DataElementLegendSetChildrenAppender extends ChildrenAppender<DataElement> {
+import java.util.List;
 
-    private final LinkChildStore<DataElement, LegendSet> linkChildStore;
+final class DataElementLegendSetChildrenAppender extends BatchedChildrenAppender<DataElement, LegendSet> {
 
     private DataElementLegendSetChildrenAppender(
             LinkChildStore<DataElement, LegendSet> linkChildStore) {
-        this.linkChildStore = linkChildStore;
+        super(linkChildStore);
     }
 
     @Override
-    protected DataElement appendChildren(DataElement dataElement) {
+    protected DataElement appendChildren(DataElement dataElement, List<LegendSet> children) {
         DataElement.Builder builder = dataElement.toBuilder();
-        builder.legendSets(linkChildStore.getChildren(dataElement));
+        builder.legendSets(children);
         return builder.build();
     }
 
@@ -52,10 +52,14 @@ internal class DataSetCompleteRegistrationCall @Inject constructor(
     }
 
     override fun download(query: DataSetCompleteRegistrationQuery): Single<List<DataSetCompleteRegistration>> {
-        return downloadInternal(query).doOnSuccess { registrations -> processor.process(registrations, query) }
+        return fetch(query).doOnSuccess { registrations -> persist(registrations, query) }
     }
 
-    private fun downloadInternal(query: DataSetCompleteRegistrationQuery): Single<List<DataSetCompleteRegistration>> {
+    override fun persist(objects: List<DataSetCompleteRegistration>, query: DataSetCompleteRegistrationQuery) {
+        processor.process(objects, query)
+    }
+
+    override fun fetch(query: DataSetCompleteRegistrationQuery): Single<List<DataSetCompleteRegistration>> {
         val partitions = multiDimensionalPartitioner.partitionForSize(
             QUERY_WITHOUT_UIDS_LENGTH,
             query.dataSetUids(),
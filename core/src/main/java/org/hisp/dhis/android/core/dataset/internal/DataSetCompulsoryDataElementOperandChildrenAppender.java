@@ -31,30 +31,32 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.LinkChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.dataelement.DataElementOperand;
 import org.hisp.dhis.android.core.dataelement.DataElementOperandTableInfo;
 import org.hisp.dhis.android.core.dataset.DataSet;
 import org.hisp.dhis.android.core.dataset.DataSetCompulsoryDataElementOperandLinkTableInfo;
 
-final class DataSetCompulsoryDataElementOperandChildrenAppender extends ChildrenAppender<DataSet> {
+import java.util.List;
+
+final class DataSetCompulsoryDataElementOperandChildrenAppender
+        extends BatchedChildrenAppender<DataSet, DataElementOperand> {
 
     private static final LinkTableChildProjection CHILD_PROJECTION = new LinkTableChildProjection(
             DataElementOperandTableInfo.TABLE_INFO,
             DataSetCompulsoryDataElementOperandLinkTableInfo.Columns.DATA_SET,
             DataSetCompulsoryDataElementOperandLinkTableInfo.Columns.DATA_ELEMENT_OPERAND);
 
-    private final LinkChildStore<DataSet, DataElementOperand> linkChildStore;
-
     private DataSetCompulsoryDataElementOperandChildrenAppender(
             LinkChildStore<DataSet, DataElementOperand> linkChildStore) {
-        this.linkChildStore = linkChildStore;
+        super(linkChildStore);
     }
 
     @Override
-    protected DataSet appendChildren(DataSet dataSet) {
+    protected DataSet appendChildren(DataSet dataSet, List<DataElementOperand> children) {
         DataSet.Builder builder = dataSet.toBuilder();
-        builder.compulsoryDataElementOperands(linkChildStore.getChildren(dataSet));
+        builder.compulsoryDataElementOperands(children);
         return builder.build();
     }
 
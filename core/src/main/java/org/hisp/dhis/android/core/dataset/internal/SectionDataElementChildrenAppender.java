@@ -31,29 +31,30 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.LinkChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.dataelement.DataElement;
 import org.hisp.dhis.android.core.dataelement.DataElementTableInfo;
 import org.hisp.dhis.android.core.dataset.Section;
 import org.hisp.dhis.android.core.dataset.SectionDataElementLinkTableInfo;
 
-final class SectionDataElementChildrenAppender extends ChildrenAppender<Section> {
+import java.util.List;
+
+final class SectionDataElementChildrenAppender extends BatchedChildrenAppender<Section, DataElement> {
 
     private static final LinkTableChildProjection CHILD_PROJECTION = new LinkTableChildProjection(
             DataElementTableInfo.TABLE_INFO,
             SectionDataElementLinkTableInfo.Columns.SECTION,
             SectionDataElementLinkTableInfo.Columns.DATA_ELEMENT);
 
-    private final LinkChildStore<Section, DataElement> linkChildStore;
-
     private SectionDataElementChildrenAppender(LinkChildStore<Section, DataElement> linkChildStore) {
-        this.linkChildStore = linkChildStore;
+        super(linkChildStore);
     }
 
     @Override
-    protected Section appendChildren(Section section) {
+    protected Section appendChildren(Section section, List<DataElement> children) {
         Section.Builder builder = section.toBuilder();
-        builder.dataElements(linkChildStore.getChildren(section));
+        builder.dataElements(children);
         return builder.build();
     }
 
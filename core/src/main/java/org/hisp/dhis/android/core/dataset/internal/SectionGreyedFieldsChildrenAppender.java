@@ -31,29 +31,30 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.LinkChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.dataelement.DataElementOperand;
 import org.hisp.dhis.android.core.dataelement.DataElementOperandTableInfo;
 import org.hisp.dhis.android.core.dataset.Section;
 import org.hisp.dhis.android.core.dataset.SectionGreyedFieldsLinkTableInfo;
 
-final class SectionGreyedFieldsChildrenAppender extends ChildrenAppender<Section> {
+import java.util.List;
+
+final class SectionGreyedFieldsChildrenAppender extends BatchedChildrenAppender<Section, DataElementOperand> {
 
     private static final LinkTableChildProjection CHILD_PROJECTION = new LinkTableChildProjection(
             DataElementOperandTableInfo.TABLE_INFO,
             SectionGreyedFieldsLinkTableInfo.Columns.SECTION,
             SectionGreyedFieldsLinkTableInfo.Columns.DATA_ELEMENT_OPERAND);
 
-    private final LinkChildStore<Section, DataElementOperand> linkChildStore;
-
     private SectionGreyedFieldsChildrenAppender(LinkChildStore<Section, DataElementOperand> linkChildStore) {
-        this.linkChildStore = linkChildStore;
+        super(linkChildStore);
     }
 
     @Override
-    protected Section appendChildren(Section section) {
+    protected Section appendChildren(Section section, List<DataElementOperand> children) {
         Section.Builder builder = section.toBuilder();
-        builder.greyedFields(linkChildStore.getChildren(section));
+        builder.greyedFields(children);
         return builder.build();
     }
 
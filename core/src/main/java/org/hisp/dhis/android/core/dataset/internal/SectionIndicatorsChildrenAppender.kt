@@ -31,6 +31,7 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter
 import org.hisp.dhis.android.core.arch.db.stores.internal.LinkChildStore
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory.linkChildStore
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender
 import org.hisp.dhis.android.core.dataset.Section
 import org.hisp.dhis.android.core.dataset.SectionIndicatorLinkTableInfo
@@ -38,12 +39,12 @@ import org.hisp.dhis.android.core.indicator.Indicator
 import org.hisp.dhis.android.core.indicator.IndicatorTableInfo
 
 internal class SectionIndicatorsChildrenAppender private constructor(
-    private val linkChildStore: LinkChildStore<Section, Indicator>
-) : ChildrenAppender<Section>() {
+    linkChildStore: LinkChildStore<Section, Indicator>
+) : BatchedChildrenAppender<Section, Indicator>(linkChildStore) {
 
-    override fun appendChildren(section: Section): Section {
+    override fun appendChildren(section: Section, children: List<Indicator>): Section {
         val builder = section.toBuilder()
-        builder.indicators(linkChildStore.getChildren(section))
+        builder.indicators(children)
         return builder.build()
     }
 
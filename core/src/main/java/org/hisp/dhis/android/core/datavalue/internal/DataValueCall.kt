@@ -45,19 +45,24 @@ internal class DataValueCall @Inject constructor(
 ) : QueryCall<DataValue, DataValueQuery> {
 
     override fun download(query: DataValueQuery): Single<List<DataValue>> {
+        return apiDownloader.downloadList(handler, fetch(query))
+    }
+
+    override fun fetch(query: DataValueQuery): Single<List<DataValue>> {
         val b = query.bundle()
-        return apiDownloader.downloadList(
-            handler,
-            service.getDataValues(
-                DataValueFields.allFields,
-                b.key().lastUpdatedStr(),
-                commaSeparatedUids(b.dataSets()),
-                commaSeparatedCollectionValues(b.periodIds()),
-                commaSeparatedCollectionValues(b.rootOrganisationUnitUids()),
-                true,
-                false,
-                true
-            ).map { it.dataValues }
-        )
+        return service.getDataValues(
+            DataValueFields.allFields,
+            b.key().lastUpdatedStr(),
+            commaSeparatedUids(b.dataSets()),
+            commaSeparatedCollectionValues(b.periodIds()),
+            commaSeparatedCollectionValues(b.rootOrganisationUnitUids()),
+            true,
+            false,
+            true
+        ).map { it.dataValues }
+    }
+
+    override fun persist(objects: List<DataValue>, query: DataValueQuery) {
+        handler.handleMany(objects)
     }
 }
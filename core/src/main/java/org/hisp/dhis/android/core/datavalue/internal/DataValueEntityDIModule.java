@@ -51,8 +51,8 @@ public final class DataValueEntityDIModule {
 
     @Provides
     @Reusable
-    Handler<DataValue> handler(DataValueStore dataValueStore) {
-        return new DataValueHandler(dataValueStore);
+    Handler<DataValue> handler(DataValueStore dataValueStore, DataValuePendingSyncGuard pendingSyncGuard) {
+        return new DataValueHandler(dataValueStore, pendingSyncGuard);
     }
 
     @Provides
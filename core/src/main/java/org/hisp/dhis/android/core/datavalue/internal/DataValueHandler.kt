@@ -27,20 +27,16 @@
  */
 package org.hisp.dhis.android.core.datavalue.internal
 
-import java.util.ArrayList
-import java.util.Arrays
-import org.hisp.dhis.android.core.arch.db.querybuilders.internal.WhereClauseBuilder
 import org.hisp.dhis.android.core.arch.db.stores.internal.ObjectWithoutUidStore
 import org.hisp.dhis.android.core.arch.handlers.internal.HandleAction
 import org.hisp.dhis.android.core.arch.handlers.internal.ObjectWithoutUidHandlerImpl
 import org.hisp.dhis.android.core.arch.helpers.CollectionsHelper
-import org.hisp.dhis.android.core.common.State
 import org.hisp.dhis.android.core.datavalue.DataValue
-import org.hisp.dhis.android.core.datavalue.DataValueTableInfo
 
-internal class DataValueHandler(store: ObjectWithoutUidStore<DataValue>) : ObjectWithoutUidHandlerImpl<DataValue>(
-    store
-) {
+internal class DataValueHandler(
+    store: ObjectWithoutUidStore<DataValue>,
+    private val pendingSyncGuard: DataValuePendingSyncGuard
+) : ObjectWithoutUidHandlerImpl<DataValue>(store) {
     override fun deleteOrPersist(o: DataValue): HandleAction {
         return if (CollectionsHelper.isDeleted(o)) {
             store.deleteWhereIfExists(o)
@@ -51,44 +47,6 @@ internal class DataValueHandler(store: ObjectWithoutUidStore<DataValue>) : Objec
     }
 
     override fun beforeCollectionHandled(oCollection: Collection<DataValue>): Collection<DataValue> {
-        val dataValuesPendingToSync = dataValuesPendingToSync
-        val dataValuesToUpdate: MutableList<DataValue> = ArrayList()
-        for (dataValue in oCollection) {
-            if (!containsDataValue(dataValuesPendingToSync, dataValue)) {
-                dataValuesToUpdate.add(dataValue)
-            }
-        }
-        return dataValuesToUpdate
-    }
-
-    @Suppress("TooGenericExceptionCaught")
-    private fun containsDataValue(dataValues: Collection<DataValue>, target: DataValue): Boolean {
-        return try {
-            for (item in dataValues) {
-                @Suppress("ComplexCondition")
-                if (item.dataElement() == target.dataElement() &&
-                    item.organisationUnit() == target.organisationUnit() &&
-                    item.period() == target.period() &&
-                    item.attributeOptionCombo() == target.attributeOptionCombo() &&
-                    item.categoryOptionCombo() == target.categoryOptionCombo()
-                ) {
-                    return true
-                }
-            }
-            false
-        } catch (e: NullPointerException) {
-            false
-        }
+        return pendingSyncGuard.filterNotPendingToSync(oCollection)
     }
-
-    private val dataValuesPendingToSync: List<DataValue>
-        get() {
-            val whereClause = WhereClauseBuilder()
-                .appendNotInKeyStringValues(
-                    DataValueTableInfo.Columns.STATE,
-                    Arrays.asList(State.SYNCED.name, State.SYNCED_VIA_SMS.name)
-                )
-                .build()
-            return store.selectWhere(whereClause)
-        }
 }
@@ -0,0 +1,97 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.datavalue.internal
+
+import dagger.Reusable
+import javax.inject.Inject
+import org.hisp.dhis.android.core.arch.db.querybuilders.internal.WhereClauseBuilder
+import org.hisp.dhis.android.core.arch.db.stores.internal.StoreUtils
+import org.hisp.dhis.android.core.common.State
+import org.hisp.dhis.android.core.datavalue.DataValue
+import org.hisp.dhis.android.core.datavalue.DataValueTableInfo
+
+/**
+ * Discards downloaded data values that would overwrite local values still pending to be synced.
+ *
+ * Pending values are read for every handled collection, restricted to the organisation units (and periods) of that
+ * collection, so the check always sees the values committed so far and never loads unrelated pending values. They
+ * are indexed by (dataElement, period, organisationUnit, categoryOptionCombo, attributeOptionCombo), so every
+ * downloaded value is checked in constant time.
+ */
+@Reusable
+internal class DataValuePendingSyncGuard @Inject constructor(private val store: DataValueStore) {
+
+    fun filterNotPendingToSync(dataValues: Collection<DataValue>): List<DataValue> {
+        val pendingKeys = selectPendingKeys(dataValues)
+        return if (pendingKeys.isEmpty()) {
+            dataValues.toList()
+        } else {
+            dataValues.filterNot { pendingKeys.contains(DataValueKey.from(it)) }
+        }
+    }
+
+    private fun selectPendingKeys(dataValues: Collection<DataValue>): Set<DataValueKey> {
+        val organisationUnits = dataValues.mapNotNullTo(HashSet()) { it.organisationUnit() }
+        val periods = dataValues.mapNotNullTo(HashSet()) { it.period() }
+
+        return organisationUnits.chunked(StoreUtils.IN_CLAUSE_CHUNK_SIZE).flatMapTo(HashSet()) { chunk ->
+            val whereClause = WhereClauseBuilder()
+                .appendNotInKeyStringValues(
+                    DataValueTableInfo.Columns.STATE,
+                    listOf(State.SYNCED.name, State.SYNCED_VIA_SMS.name)
+                )
+                .appendInKeyStringValues(DataValueTableInfo.Columns.ORGANISATION_UNIT, chunk)
+
+            if (periods.size <= StoreUtils.IN_CLAUSE_CHUNK_SIZE) {
+                whereClause.appendInKeyStringValues(DataValueTableInfo.Columns.PERIOD, periods)
+            }
+
+            store.selectWhere(whereClause.build()).map { DataValueKey.from(it) }
+        }
+    }
+
+    private data class DataValueKey(
+        val dataElement: String?,
+        val period: String?,
+        val organisationUnit: String?,
+        val categoryOptionCombo: String?,
+        val attributeOptionCombo: String?
+    ) {
+        companion object {
+            fun from(dataValue: DataValue): DataValueKey {
+                return DataValueKey(
+                    dataValue.dataElement(),
+                    dataValue.period(),
+                    dataValue.organisationUnit(),
+                    dataValue.categoryOptionCombo(),
+                    dataValue.attributeOptionCombo()
+                )
+            }
+        }
+    }
+}
@@ -31,17 +31,23 @@ package org.hisp.dhis.android.core.datavalue.internal;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import org.hisp.dhis.android.core.D2Configuration;
 import org.hisp.dhis.android.core.arch.api.executors.internal.APICallExecutor;
 import org.hisp.dhis.android.core.arch.call.D2Progress;
 import org.hisp.dhis.android.core.arch.call.internal.D2ProgressManager;
+import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
+import org.hisp.dhis.android.core.arch.db.access.Transaction;
 import org.hisp.dhis.android.core.arch.helpers.internal.DataStateHelper;
 import org.hisp.dhis.android.core.common.State;
 import org.hisp.dhis.android.core.datavalue.DataValue;
 import org.hisp.dhis.android.core.imports.internal.DataValueImportSummary;
 import org.hisp.dhis.android.core.maintenance.D2Error;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
@@ -55,50 +61,100 @@ public final class DataValuePostCall {
     private final DataValueImportHandler dataValueImportHandler;
     private final APICallExecutor apiCallExecutor;
     private final DataValueStore dataValueStore;
+    private final DatabaseAdapter databaseAdapter;
+    private final D2Configuration d2Configuration;
 
     @Inject
     DataValuePostCall(@NonNull DataValueService dataValueService,
                       @NonNull DataValueImportHandler dataValueImportHandler,
                       @NonNull APICallExecutor apiCallExecutor,
-                      @NonNull DataValueStore dataValueStore) {
+                      @NonNull DataValueStore dataValueStore,
+                      @NonNull DatabaseAdapter databaseAdapter,
+                      @NonNull D2Configuration d2Configuration) {
 
         this.dataValueService = dataValueService;
         this.dataValueImportHandler = dataValueImportHandler;
         this.apiCallExecutor = apiCallExecutor;
         this.dataValueStore = dataValueStore;
+        this.databaseAdapter = databaseAdapter;
+        this.d2Configuration = d2Configuration;
     }
 
+    /**
+     * Uploads the data values in chunks of {@link D2Configuration#dataValueUploadChunkSize()}. The result of each
+     * chunk is persisted before the next one is sent, so a failure only affects the chunk being uploaded: previous
+     * chunks keep their synced state and the remaining ones are picked up by the next upload.
+     */
     public Observable<D2Progress> uploadDataValues(List<DataValue> dataValues) {
         return Observable.defer(() -> {
             if (dataValues.isEmpty()) {
                 return Observable.empty();
             } else {
-                D2ProgressManager progressManager = new D2ProgressManager(1);
+                List<List<DataValue>> chunks = chunk(dataValues, d2Configuration.dataValueUploadChunkSize());
+                D2ProgressManager progressManager = new D2ProgressManager(chunks.size());
 
                 return Observable.create(emitter -> {
-                    markObjectsAs(dataValues, State.UPLOADING);
-
-                    try {
-                        DataValueSet dataValueSet = new DataValueSet(dataValues);
-                        DataValueImportSummary dataValueImportSummary = apiCallExecutor.executeObjectCall(
-                                dataValueService.postDataValues(dataValueSet));
-
-                        dataValueImportHandler.handleImportSummary(dataValueSet, dataValueImportSummary);
-                    } catch (D2Error e) {
-                        markObjectsAs(dataValues, DataStateHelper.errorIfOnline(e));
-                        throw e;
+                    for (List<DataValue> chunk : chunks) {
+                        uploadChunk(chunk);
+                        emitter.onNext(progressManager.increaseProgressAndCompleteWithCount(DataValue.class));
                     }
-
-                    emitter.onNext(progressManager.increaseProgress(DataValue.class, true));
                     emitter.onComplete();
                 });
             }
         });
     }
 
+    /**
+     * The chunk is read again when it is marked as UPLOADING, so values edited while previous chunks were uploaded
+     * are posted with their current content.
+     */
+    private void uploadChunk(List<DataValue> chunk) throws D2Error {
+        List<DataValue> dataValues = dataValueStore.markAsUploading(chunk);
+        if (dataValues.isEmpty()) {
+            return;
+        }
+
+        try {
+            DataValueSet dataValueSet = new DataValueSet(dataValues);
+            DataValueImportSummary dataValueImportSummary = apiCallExecutor.executeObjectCall(
+                    dataValueService.postDataValues(dataValueSet));
+
+            Transaction transaction = databaseAdapter.beginNewTransaction();
+            try {
+                dataValueImportHandler.handleImportSummary(dataValueSet, dataValueImportSummary);
+                transaction.setSuccessful();
+            } finally {
+                transaction.end();
+            }
+        } catch (D2Error e) {
+            markObjectsAs(dataValues, DataStateHelper.errorIfOnline(e));
+            throw e;
+        }
+    }
+
+    private static List<List<DataValue>> chunk(List<DataValue> dataValues, int chunkSize) {
+        int size = Math.max(chunkSize, 1);
+        List<List<DataValue>> chunks = new ArrayList<>();
+        for (int i = 0; i < dataValues.size(); i += size) {
+            chunks.add(dataValues.subList(i, Math.min(i + size, dataValues.size())));
+        }
+        return chunks;
+    }
+
     private void markObjectsAs(Collection<DataValue> dataValues, @Nullable State forcedState) {
+        Map<State, List<DataValue>> dataValuesByState = new EnumMap<>(State.class);
         for (DataValue dataValue : dataValues) {
-            dataValueStore.setState(dataValue, DataStateHelper.forcedOrOwn(dataValue, forcedState));
+            State state = DataStateHelper.forcedOrOwn(dataValue, forcedState);
+            List<DataValue> stateDataValues = dataValuesByState.get(state);
+            if (stateDataValues == null) {
+                stateDataValues = new ArrayList<>();
+                dataValuesByState.put(state, stateDataValues);
+            }
+            stateDataValues.add(dataValue);
+        }
+
+        for (Map.Entry<State, List<DataValue>> entry : dataValuesByState.entrySet()) {
+            dataValueStore.setStateIfUploading(entry.getValue(), entry.getKey());
         }
     }
 }
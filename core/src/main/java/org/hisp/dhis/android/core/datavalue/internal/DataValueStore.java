@@ -29,16 +29,23 @@
 package org.hisp.dhis.android.core.datavalue.internal;
 
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
+import org.hisp.dhis.android.core.arch.db.access.Transaction;
 import org.hisp.dhis.android.core.arch.db.querybuilders.internal.SQLStatementBuilderImpl;
 import org.hisp.dhis.android.core.arch.db.querybuilders.internal.WhereClauseBuilder;
 import org.hisp.dhis.android.core.arch.db.stores.binders.internal.StatementBinder;
+import org.hisp.dhis.android.core.arch.db.stores.binders.internal.StatementWrapper;
 import org.hisp.dhis.android.core.arch.db.stores.binders.internal.WhereStatementBinder;
 import org.hisp.dhis.android.core.arch.db.stores.internal.ObjectWithoutUidStoreImpl;
+import org.hisp.dhis.android.core.arch.helpers.CollectionsHelper;
 import org.hisp.dhis.android.core.common.State;
 import org.hisp.dhis.android.core.datavalue.DataValue;
 import org.hisp.dhis.android.core.datavalue.DataValueTableInfo;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 import static org.hisp.dhis.android.core.datavalue.DataValueTableInfo.Columns;
 
@@ -109,6 +116,74 @@ public class DataValueStore extends ObjectWithoutUidStoreImpl<DataValue> {
         updateWhere(updatedDataValue);
     }
 
+    /**
+     * Reads the given DataValues again and marks the ones still pending upload as UPLOADING, in a single
+     * transaction, so values edited after the upload started are posted with their current content.
+     *
+     * @param dataValues DataValue elements you want to upload
+     * @return the DataValues marked as UPLOADING, as they were stored before being marked
+     */
+    List<DataValue> markAsUploading(Collection<DataValue> dataValues) {
+        String ids = idsOf(dataValues);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String whereClause = new WhereClauseBuilder()
+                .appendKeyOperatorValue(Columns.ID, "IN", "(" + ids + ")")
+                .appendInKeyEnumValues(Columns.STATE, Arrays.asList(State.uploadableStatesIncludingError()))
+                .build();
+
+        Transaction transaction = getDatabaseAdapter().beginNewTransaction();
+        try {
+            List<DataValue> pendingDataValues = selectWhere(whereClause);
+            updateState(State.UPLOADING, whereClause);
+            transaction.setSuccessful();
+            return pendingDataValues;
+        } finally {
+            transaction.end();
+        }
+    }
+
+    /**
+     * Sets the state of the given DataValues with a single statement. Only the values that are still UPLOADING are
+     * updated, so values edited during the upload keep the state set by the edition.
+     *
+     * @param dataValues DataValue elements you want to update
+     * @param newState The new state to be set for the DataValues
+     */
+    void setStateIfUploading(Collection<DataValue> dataValues, State newState) {
+        String ids = idsOf(dataValues);
+        if (!ids.isEmpty()) {
+            updateState(newState, new WhereClauseBuilder()
+                    .appendKeyOperatorValue(Columns.ID, "IN", "(" + ids + ")")
+                    .appendKeyStringValue(Columns.STATE, State.UPLOADING)
+                    .build());
+        }
+    }
+
+    private void updateState(State newState, String whereClause) {
+        DatabaseAdapter databaseAdapter = getDatabaseAdapter();
+        StatementWrapper statement = databaseAdapter.compileStatement("UPDATE " +
+                DataValueTableInfo.TABLE_INFO.name() + " SET " + Columns.STATE + " = ? WHERE " + whereClause + ";");
+        try {
+            statement.bind(1, newState);
+            databaseAdapter.executeUpdateDelete(statement);
+        } finally {
+            statement.close();
+        }
+    }
+
+    private static String idsOf(Collection<DataValue> dataValues) {
+        List<String> ids = new ArrayList<>(dataValues.size());
+        for (DataValue dataValue : dataValues) {
+            if (dataValue.id() != null) {
+                ids.add(String.valueOf(dataValue.id()));
+            }
+        }
+        return CollectionsHelper.commaAndSpaceSeparatedCollectionValues(ids);
+    }
+
     public boolean exists(DataValue dataValue) {
         return selectWhere(uniqueWhereClauseBuilder(dataValue).build()).size() > 0;
     }
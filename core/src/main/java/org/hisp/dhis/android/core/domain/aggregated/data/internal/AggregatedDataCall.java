@@ -30,6 +30,7 @@ package org.hisp.dhis.android.core.domain.aggregated.data.internal;
 
 import androidx.annotation.NonNull;
 
+import org.hisp.dhis.android.core.D2Configuration;
 import org.hisp.dhis.android.core.arch.api.executors.internal.RxAPICallExecutor;
 import org.hisp.dhis.android.core.arch.call.D2Progress;
 import org.hisp.dhis.android.core.arch.call.factories.internal.QueryCall;
@@ -52,6 +53,7 @@ import org.hisp.dhis.android.core.systeminfo.internal.SystemInfoModuleDownloader
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -61,6 +63,7 @@ import javax.inject.Inject;
 import dagger.Reusable;
 import io.reactivex.Observable;
 import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
 
 @Reusable
 @SuppressWarnings({"PMD.ExcessiveImports"})
@@ -78,7 +81,7 @@ final class AggregatedDataCall {
     private final AggregatedDataCallBundleFactory aggregatedDataCallBundleFactory;
     private final ResourceHandler resourceHandler;
     private final AggregatedDataSyncHashHelper hashHelper;
-
+    private final D2Configuration d2Configuration;
 
     @Inject
     AggregatedDataCall(@NonNull SystemInfoModuleDownloader systemInfoModuleDownloader,
@@ -92,7 +95,8 @@ final class AggregatedDataCall {
                        @NonNull ObjectWithoutUidStore<AggregatedDataSync> aggregatedDataSyncStore,
                        @NonNull AggregatedDataCallBundleFactory aggregatedDataCallBundleFactory,
                        @NonNull ResourceHandler resourceHandler,
-                       @NonNull AggregatedDataSyncHashHelper hashHelper) {
+                       @NonNull AggregatedDataSyncHashHelper hashHelper,
+                       @NonNull D2Configuration d2Configuration) {
         this.systemInfoModuleDownloader = systemInfoModuleDownloader;
         this.dhisVersionManager = dhisVersionManager;
         this.dataValueCall = dataValueCall;
@@ -105,82 +109,98 @@ final class AggregatedDataCall {
         this.aggregatedDataCallBundleFactory = aggregatedDataCallBundleFactory;
         this.resourceHandler = resourceHandler;
         this.hashHelper = hashHelper;
+        this.d2Configuration = d2Configuration;
     }
 
+    /**
+     * Requests up to {@link D2Configuration#aggregatedDataBundlesInFlight()} bundles at the same time and persists
+     * them one by one, in bundle order. Every bundle, including its {@link AggregatedDataSync} rows, is committed
+     * in its own transaction, so a failed download resumes from the bundles that were not committed. Fetch and
+     * persistence errors are stored per bundle and delayed until the other bundles are persisted.
+     */
     Observable<D2Progress> download() {
         D2ProgressManager progressManager = new D2ProgressManager(null);
 
-        Observable<D2Progress> observable = systemInfoModuleDownloader.downloadWithProgressManager(progressManager)
+        return systemInfoModuleDownloader.downloadWithProgressManager(progressManager)
                 .flatMap(progress -> selectDataSetsAndDownload(progressManager, progress));
-        return rxCallExecutor.wrapObservableTransactionally(observable, true);
     }
 
     private Observable<D2Progress> selectDataSetsAndDownload(D2ProgressManager progressManager,
                                                              D2Progress systemInfoProgress) {
+        int bundlesInFlight = d2Configuration.aggregatedDataBundlesInFlight();
         return Observable
                 .fromIterable(aggregatedDataCallBundleFactory.getBundles())
-                .flatMap(bundle ->
-                        downloadInternal(bundle, progressManager, systemInfoProgress)
-                );
+                .concatMapEagerDelayError(bundle -> rxCallExecutor.wrapSingle(fetch(bundle), true)
+                                .subscribeOn(Schedulers.io()).toObservable(),
+                        bundlesInFlight, bundlesInFlight, true)
+                .concatMapDelayError(bundleData -> persistTransactionally(bundleData, progressManager))
+                .startWith(systemInfoProgress);
     }
 
-    private Observable<D2Progress> downloadInternal(AggregatedDataCallBundle bundle,
-                                                    D2ProgressManager progressManager,
-                                                    D2Progress systemInfoProgress) {
+    private Single<BundleData> fetch(AggregatedDataCallBundle bundle) {
         DataValueQuery dataValueQuery = DataValueQuery.create(bundle);
 
-        Single<D2Progress> dataValueSingle = dataValueCall.download(dataValueQuery)
-                .map(dataValues -> progressManager.increaseProgress(DataValue.class, false));
-
         DataSetCompleteRegistrationQuery dataSetCompleteRegistrationQuery =
                 DataSetCompleteRegistrationQuery.create(UidsHelper.getUids(bundle.dataSets()),
                         bundle.periodIds(), bundle.rootOrganisationUnitUids(), bundle.key().lastUpdatedStr());
 
-        Single<D2Progress> dataSetCompleteRegistrationSingle = dataSetCompleteRegistrationCall
-                .download(dataSetCompleteRegistrationQuery).map(dscr ->
-                progressManager.increaseProgress(DataSetCompleteRegistration.class, false));
+        DataApprovalQuery dataApprovalQuery = dhisVersionManager.is2_29() ? null : getApprovalQuery(bundle);
+        Single<List<DataApproval>> approvalSingle = dataApprovalQuery == null ?
+                Single.just(Collections.emptyList()) : dataApprovalCall.fetch(dataApprovalQuery);
+
+        return Single.zip(
+                dataValueCall.fetch(dataValueQuery),
+                dataSetCompleteRegistrationCall.fetch(dataSetCompleteRegistrationQuery),
+                approvalSingle,
+                (dataValues, registrations, approvals) -> new BundleData(bundle,
+                        dataValueQuery, dataValues,
+                        dataSetCompleteRegistrationQuery, registrations,
+                        dataApprovalQuery, approvals));
+    }
 
+    private Observable<D2Progress> persistTransactionally(BundleData bundleData, D2ProgressManager progressManager) {
+        return rxCallExecutor.wrapObservableTransactionally(
+                Observable.fromCallable(() -> persist(bundleData, progressManager))
+                        .flatMapIterable(progressList -> progressList),
+                true);
+    }
 
-        @SuppressWarnings("PMD.NonStaticInitializer")
-        ArrayList<Single<D2Progress>> list = new ArrayList<Single<D2Progress>>() {{
-            add(Single.just(systemInfoProgress));
-            add(dataValueSingle);
-            add(dataSetCompleteRegistrationSingle);
-        }};
+    private List<D2Progress> persist(BundleData bundleData, D2ProgressManager progressManager) {
+        List<D2Progress> progressList = new ArrayList<>();
 
-        if (!dhisVersionManager.is2_29()) {
-            Single<D2Progress> approvalSingle = getApprovalSingle(bundle, progressManager);
-            if (approvalSingle != null) {
-                list.add(approvalSingle);
-            }
-        }
+        dataValueCall.persist(bundleData.dataValues, bundleData.dataValueQuery);
+        progressList.add(progressManager.increaseProgress(DataValue.class, false));
+
+        dataSetCompleteRegistrationCall.persist(bundleData.registrations, bundleData.registrationQuery);
+        progressList.add(progressManager.increaseProgress(DataSetCompleteRegistration.class, false));
 
-        list.add(updateAggregatedDataSync(bundle, progressManager));
+        if (bundleData.approvalQuery != null) {
+            dataApprovalCall.persist(bundleData.approvals, bundleData.approvalQuery);
+            progressList.add(progressManager.increaseProgress(DataApproval.class, false));
+        }
 
-        return Single.merge(list).toObservable();
+        progressList.add(updateAggregatedDataSync(bundleData.bundle, progressManager));
+        return progressList;
     }
 
-    private Single<D2Progress> updateAggregatedDataSync(AggregatedDataCallBundle bundle,
-                                                        D2ProgressManager progressManager) {
-        return Single.fromCallable(() -> {
-            for (DataSet dataSet : bundle.dataSets()) {
-                aggregatedDataSyncStore.updateOrInsertWhere(AggregatedDataSync.builder()
-                        .dataSet(dataSet.uid())
-                        .periodType(dataSet.periodType())
-                        .pastPeriods(bundle.key().pastPeriods())
-                        .futurePeriods(dataSet.openFuturePeriods())
-                        .dataElementsHash(hashHelper.getDataSetDataElementsHash(dataSet))
-                        .organisationUnitsHash(bundle.allOrganisationUnitUidsSet().hashCode())
-                        .lastUpdated(resourceHandler.getServerDate())
-                        .build()
-                );
-            }
-            return progressManager.increaseProgress(AggregatedDataSync.class, false);
-        });
+    private D2Progress updateAggregatedDataSync(AggregatedDataCallBundle bundle,
+                                                D2ProgressManager progressManager) {
+        for (DataSet dataSet : bundle.dataSets()) {
+            aggregatedDataSyncStore.updateOrInsertWhere(AggregatedDataSync.builder()
+                    .dataSet(dataSet.uid())
+                    .periodType(dataSet.periodType())
+                    .pastPeriods(bundle.key().pastPeriods())
+                    .futurePeriods(dataSet.openFuturePeriods())
+                    .dataElementsHash(hashHelper.getDataSetDataElementsHash(dataSet))
+                    .organisationUnitsHash(bundle.allOrganisationUnitUidsSet().hashCode())
+                    .lastUpdated(resourceHandler.getServerDate())
+                    .build()
+            );
+        }
+        return progressManager.increaseProgress(AggregatedDataSync.class, false);
     }
 
-    private Single<D2Progress> getApprovalSingle(AggregatedDataCallBundle bundle,
-                                                 D2ProgressManager progressManager) {
+    private DataApprovalQuery getApprovalQuery(AggregatedDataCallBundle bundle) {
         List<DataSet> dataSetsWithWorkflow = new ArrayList<>();
         Set<String> workflowUids = new HashSet<>();
         for (DataSet ds : bundle.dataSets()) {
@@ -195,12 +215,9 @@ final class AggregatedDataCall {
         } else {
             Set<String> attributeOptionComboUids = getAttributeOptionCombosUidsFrom(dataSetsWithWorkflow);
 
-            DataApprovalQuery dataApprovalQuery = DataApprovalQuery.create(workflowUids,
+            return DataApprovalQuery.create(workflowUids,
                     bundle.allOrganisationUnitUidsSet(), bundle.periodIds(), attributeOptionComboUids,
                     bundle.key().lastUpdatedStr());
-
-            return dataApprovalCall.download(dataApprovalQuery).map(dataApprovals ->
-                    progressManager.increaseProgress(DataApproval.class, false));
         }
     }
 
@@ -229,4 +246,31 @@ final class AggregatedDataCall {
     public void blockingDownload() {
         download().blockingSubscribe();
     }
+
+    private static final class BundleData {
+        private final AggregatedDataCallBundle bundle;
+        private final DataValueQuery dataValueQuery;
+        private final List<DataValue> dataValues;
+        private final DataSetCompleteRegistrationQuery registrationQuery;
+        private final List<DataSetCompleteRegistration> registrations;
+        private final DataApprovalQuery approvalQuery;
+        private final List<DataApproval> approvals;
+
+        @SuppressWarnings("PMD.ExcessiveParameterList")
+        BundleData(AggregatedDataCallBundle bundle,
+                   DataValueQuery dataValueQuery,
+                   List<DataValue> dataValues,
+                   DataSetCompleteRegistrationQuery registrationQuery,
+                   List<DataSetCompleteRegistration> registrations,
+                   DataApprovalQuery approvalQuery,
+                   List<DataApproval> approvals) {
+            this.bundle = bundle;
+            this.dataValueQuery = dataValueQuery;
+            this.dataValues = dataValues;
+            this.registrationQuery = registrationQuery;
+            this.registrations = registrations;
+            this.approvalQuery = approvalQuery;
+            this.approvals = approvals;
+        }
+    }
 }
\ No newline at end of file
@@ -31,6 +31,7 @@ package org.hisp.dhis.android.core.enrollment.internal;
 import org.hisp.dhis.android.core.arch.db.stores.internal.IdentifiableDeletableDataObjectStore;
 import org.hisp.dhis.android.core.enrollment.Enrollment;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -38,5 +39,7 @@ public interface EnrollmentStore extends IdentifiableDeletableDataObjectStore<En
 
     Map<String, List<Enrollment>> queryEnrollmentsToPost();
 
+    Map<String, List<Enrollment>> queryEnrollmentsToPost(Collection<String> trackedEntityInstanceUids);
+
     List<String> queryMissingRelationshipsUids();
 }
\ No newline at end of file
@@ -43,6 +43,7 @@ import org.hisp.dhis.android.core.enrollment.EnrollmentTableInfo;
 import org.hisp.dhis.android.core.event.EventTableInfo;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -85,7 +86,21 @@ public final class EnrollmentStoreImpl
                 .appendInKeyStringValues(DataColumns.STATE,
                         EnumHelper.asStringList(State.uploadableStatesIncludingError())).build();
 
-        List<Enrollment> enrollmentList = selectWhere(enrollmentsToPostQuery);
+        return enrollmentMapFromQuery(enrollmentsToPostQuery);
+    }
+
+    @Override
+    public Map<String, List<Enrollment>> queryEnrollmentsToPost(Collection<String> trackedEntityInstanceUids) {
+        String enrollmentsToPostQuery = new WhereClauseBuilder()
+                .appendInKeyStringValues(EnrollmentTableInfo.Columns.TRACKED_ENTITY_INSTANCE, trackedEntityInstanceUids)
+                .appendInKeyStringValues(DataColumns.STATE,
+                        EnumHelper.asStringList(State.uploadableStatesIncludingError())).build();
+
+        return enrollmentMapFromQuery(enrollmentsToPostQuery);
+    }
+
+    private Map<String, List<Enrollment>> enrollmentMapFromQuery(String whereClause) {
+        List<Enrollment> enrollmentList = selectWhere(whereClause);
 
         Map<String, List<Enrollment>> enrollmentMap = new HashMap<>();
         for (Enrollment enrollment : enrollmentList) {
@@ -48,9 +48,11 @@ import org.hisp.dhis.android.core.enrollment.EnrollmentTableInfo;
 import org.hisp.dhis.android.core.event.internal.EventFields;
 import org.hisp.dhis.android.core.event.internal.EventPostParentCall;
 import org.hisp.dhis.android.core.event.internal.EventStore;
+import org.hisp.dhis.android.core.maintenance.D2Error;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitTableInfo;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityDataValueTableInfo;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -58,6 +60,7 @@ import java.util.Map;
 import javax.inject.Inject;
 
 import dagger.Reusable;
+import io.reactivex.Completable;
 import io.reactivex.Observable;
 
 import static org.hisp.dhis.android.core.event.EventTableInfo.Columns;
@@ -107,6 +110,32 @@ public final class EventCollectionRepository
         return new EventObjectRepository(store, uid, childrenAppenders, updatedScope, dataStatePropagator);
     }
 
+    /**
+     * Removes several events in an asynchronous way. See {@link #blockingDelete(Collection)}.
+     * @param uids the uids of the events to remove
+     * @return the {@code Completable} which notifies the completion
+     */
+    public Completable delete(Collection<String> uids) {
+        return Completable.fromAction(() -> blockingDelete(uids));
+    }
+
+    /**
+     * Removes several events in a synchronous way, in a single transaction. Each event is removed as in
+     * {@link EventObjectRepository#blockingDelete()}, but the states of their enrollments and tracked entity
+     * instances are propagated once at the end. If any event can't be removed, no event is removed.
+     * Important: this is a blocking method and it should not be executed in the main thread. Consider the
+     * asynchronous version {@link #delete(Collection)}.
+     * @param uids the uids of the events to remove
+     * @throws D2Error a D2Error wrapping any possible error
+     */
+    public void blockingDelete(Collection<String> uids) throws D2Error {
+        dataStatePropagator.propagateInBatch(() -> {
+            for (String uid : uids) {
+                uid(uid).blockingDelete();
+            }
+        });
+    }
+
     public StringFilterConnector<EventCollectionRepository> byUid() {
         return cf.string(Columns.UID);
     }
@@ -30,10 +30,9 @@ package org.hisp.dhis.android.core.event.internal
 import dagger.Reusable
 import io.reactivex.Observable
 import javax.inject.Inject
-import kotlin.math.min
 import org.hisp.dhis.android.core.arch.api.executors.internal.RxAPICallExecutor
 import org.hisp.dhis.android.core.arch.api.paging.internal.ApiPagingEngine
-import org.hisp.dhis.android.core.arch.api.paging.internal.Paging
+import org.hisp.dhis.android.core.arch.api.payload.internal.StreamingPayload
 import org.hisp.dhis.android.core.arch.call.D2Progress
 import org.hisp.dhis.android.core.arch.call.executors.internal.D2CallExecutor
 import org.hisp.dhis.android.core.arch.call.internal.D2ProgressManager
@@ -126,6 +125,10 @@ class EventDownloadCall @Inject internal constructor(
         return EventsWithPagingResult(eventsCount, successfulSync)
     }
 
+    /**
+     * Events are persisted in batches while the page is being read, each batch in its own transaction, so the page
+     * is never held in memory at once.
+     */
     @Throws(D2Error::class)
     private fun getEventsWithPaging(eventQueryBuilder: EventQuery.Builder, combinationLimit: Int): Int {
 
@@ -138,21 +141,30 @@ class EventDownloadCall @Inject internal constructor(
             eventQueryBuilder.pageSize(paging.pageSize())
             eventQueryBuilder.page(paging.page())
 
-            val pageEvents = d2CallExecutor.executeD2Call(
-                endpointCallFactory.getCall(eventQueryBuilder.build()), true
-            )
-
-            val eventsToPersist = getEventsToPersist(paging, pageEvents)
-
-            rxCallExecutor.wrapCompletableTransactionally(
-                persistenceCallFactory
-                    .persistEvents(eventsToPersist, null),
+            var offset = 0
+            val pageEventsCount = d2CallExecutor.executeD2Call(
+                endpointCallFactory.getStreamingCall(
+                    eventQueryBuilder.build(),
+                    BATCH_SIZE,
+                    StreamingPayload.BatchConsumer { batch ->
+                        val eventsToPersist = ApiPagingEngine.getBatchItemsToKeep(paging, offset, batch)
+                        offset += batch.size
+
+                        if (eventsToPersist.isNotEmpty()) {
+                            rxCallExecutor.wrapCompletableTransactionally(
+                                persistenceCallFactory
+                                    .persistEvents(eventsToPersist, null),
+                                true
+                            ).blockingGet()
+
+                            downloadedEventsForCombination += eventsToPersist.size
+                        }
+                    }
+                ),
                 true
-            ).blockingGet()
-
-            downloadedEventsForCombination += eventsToPersist.size
+            )
 
-            if (pageEvents.size < paging.pageSize()) {
+            if (pageEventsCount < paging.pageSize()) {
                 break
             }
         }
@@ -160,18 +172,9 @@ class EventDownloadCall @Inject internal constructor(
         return downloadedEventsForCombination
     }
 
-    private fun getEventsToPersist(paging: Paging, pageEvents: List<Event>): List<Event> {
+    private class EventsWithPagingResult(var eventCount: Int, var successfulSync: Boolean)
 
-        return if (paging.isLastPage && pageEvents.size > paging.previousItemsToSkipCount()) {
-            val toIndex = min(
-                pageEvents.size,
-                paging.pageSize() - paging.posteriorItemsToSkipCount()
-            )
-            pageEvents.subList(paging.previousItemsToSkipCount(), toIndex)
-        } else {
-            pageEvents
-        }
+    companion object {
+        private const val BATCH_SIZE = 50
     }
-
-    private class EventsWithPagingResult(var eventCount: Int, var successfulSync: Boolean)
 }
@@ -31,6 +31,7 @@ import dagger.Reusable
 import java.util.concurrent.Callable
 import javax.inject.Inject
 import org.hisp.dhis.android.core.arch.api.executors.internal.APICallExecutor
+import org.hisp.dhis.android.core.arch.api.payload.internal.StreamingPayload
 import org.hisp.dhis.android.core.arch.helpers.CollectionsHelper
 import org.hisp.dhis.android.core.event.Event
 
@@ -40,9 +41,17 @@ internal class EventEndpointCallFactory @Inject constructor(
     private val apiCallExecutor: APICallExecutor
 ) {
 
-    fun getCall(eventQuery: EventQuery): Callable<List<Event>> {
+    /**
+     * Hands the events of the page to the consumer in batches of [batchSize] as they are read. The callable returns
+     * the number of events in the page.
+     */
+    fun getStreamingCall(
+        eventQuery: EventQuery,
+        batchSize: Int,
+        consumer: StreamingPayload.BatchConsumer<Event>
+    ): Callable<Int> {
         return Callable {
-            val call = service.getEvents(
+            val call = service.getEventsStreaming(
                 eventQuery.orgUnit(),
                 eventQuery.commonParams().ouMode.name,
                 eventQuery.commonParams().program,
@@ -55,7 +64,7 @@ internal class EventEndpointCallFactory @Inject constructor(
                 true,
                 getUidStr(eventQuery)
             )
-            apiCallExecutor.executePayloadCall(call)
+            apiCallExecutor.executeStreamingPayloadCall(call, batchSize, consumer)
         }
     }
 
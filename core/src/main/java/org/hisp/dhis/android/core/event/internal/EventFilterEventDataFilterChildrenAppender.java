@@ -30,25 +30,27 @@ package org.hisp.dhis.android.core.event.internal;
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.SingleParentChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.event.EventDataFilter;
 import org.hisp.dhis.android.core.event.EventFilter;
 import org.hisp.dhis.android.core.event.EventQueryCriteria;
 
-public final class EventFilterEventDataFilterChildrenAppender extends ChildrenAppender<EventFilter> {
+import java.util.List;
 
-    private final SingleParentChildStore<EventFilter, EventDataFilter> childStore;
+public final class EventFilterEventDataFilterChildrenAppender
+        extends BatchedChildrenAppender<EventFilter, EventDataFilter> {
 
     private EventFilterEventDataFilterChildrenAppender(
             SingleParentChildStore<EventFilter, EventDataFilter> childStore) {
-        this.childStore = childStore;
+        super(childStore);
     }
 
     @Override
-    protected EventFilter appendChildren(EventFilter eventFilter) {
+    protected EventFilter appendChildren(EventFilter eventFilter, List<EventDataFilter> children) {
         if (eventFilter.eventQueryCriteria() != null) {
             EventQueryCriteria.Builder criteriaBuilder = eventFilter.eventQueryCriteria().toBuilder();
-            criteriaBuilder.dataFilters(childStore.getChildren(eventFilter));
+            criteriaBuilder.dataFilters(children);
             return eventFilter.toBuilder().eventQueryCriteria(criteriaBuilder.build()).build();
         }
         return EventFilter.builder().build();
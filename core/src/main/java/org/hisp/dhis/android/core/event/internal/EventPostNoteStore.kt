@@ -31,6 +31,8 @@ import dagger.Reusable
 import javax.inject.Inject
 import org.hisp.dhis.android.core.arch.db.querybuilders.internal.WhereClauseBuilder
 import org.hisp.dhis.android.core.arch.db.stores.internal.IdentifiableObjectStore
+import org.hisp.dhis.android.core.arch.db.stores.internal.StoreUtils
+import org.hisp.dhis.android.core.arch.helpers.CollectionsHelper
 import org.hisp.dhis.android.core.common.DataColumns
 import org.hisp.dhis.android.core.common.State
 import org.hisp.dhis.android.core.note.Note
@@ -41,13 +43,37 @@ internal class EventPostNoteStore @Inject internal constructor(
     private val noteStore: IdentifiableObjectStore<Note>
 ) {
 
-    fun queryNotes(): List<Note> {
-        val whereNotesClause = WhereClauseBuilder()
-            .appendInKeyStringValues(
-                DataColumns.STATE, State.uploadableStatesIncludingError().map { it.name }
-            )
-            .appendKeyStringValue(NoteTableInfo.Columns.NOTE_TYPE, Note.NoteType.EVENT_NOTE)
-            .build()
-        return noteStore.selectWhere(whereNotesClause)
+    /**
+     * Returns the notes to post of the given events, grouped by event uid.
+     */
+    fun queryNotes(eventUids: Collection<String>): Map<String, List<Note>> {
+        return queryNotes(Note.NoteType.EVENT_NOTE, NoteTableInfo.Columns.EVENT, eventUids) { it.event() }
+    }
+
+    /**
+     * Returns the notes to post of the given enrollments, grouped by enrollment uid.
+     */
+    fun queryEnrollmentNotes(enrollmentUids: Collection<String>): Map<String, List<Note>> {
+        return queryNotes(Note.NoteType.ENROLLMENT_NOTE, NoteTableInfo.Columns.ENROLLMENT, enrollmentUids) {
+            it.enrollment()
+        }
+    }
+
+    private fun queryNotes(
+        noteType: Note.NoteType,
+        ownerColumn: String,
+        ownerUids: Collection<String>,
+        owner: (Note) -> String?
+    ): Map<String, List<Note>> {
+        return CollectionsHelper.setPartition(ownerUids, StoreUtils.IN_CLAUSE_CHUNK_SIZE).flatMap { chunk ->
+            val whereNotesClause = WhereClauseBuilder()
+                .appendInKeyStringValues(
+                    DataColumns.STATE, State.uploadableStatesIncludingError().map { it.name }
+                )
+                .appendKeyStringValue(NoteTableInfo.Columns.NOTE_TYPE, noteType)
+                .appendInKeyStringValues(ownerColumn, chunk)
+                .build()
+            noteStore.selectWhere(whereNotesClause)
+        }.groupBy { owner(it)!! }
     }
 }
@@ -42,12 +42,12 @@ internal class EventPostPayloadGenerator @Inject internal constructor(
 
     fun getEvents(events: List<Event>): List<Event> {
         val dataValueMap = trackedEntityDataValueStore.querySingleEventsTrackedEntityDataValues()
-        val notes = noteStore.queryNotes()
+        val notes = noteStore.queryNotes(events.map { it.uid() })
 
         return events.map { event ->
             val eventBuilder = event.toBuilder()
                 .trackedEntityDataValues(dataValueMap[event.uid()])
-                .notes(notes.filter { it.event() == event.uid() })
+                .notes(notes[event.uid()] ?: emptyList())
             if (versionManager.is2_30) {
                 eventBuilder.geometry(null)
             }
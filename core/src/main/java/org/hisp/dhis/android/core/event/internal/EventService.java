@@ -31,6 +31,7 @@ package org.hisp.dhis.android.core.event.internal;
 import org.hisp.dhis.android.core.arch.api.fields.internal.Fields;
 import org.hisp.dhis.android.core.arch.api.filters.internal.Which;
 import org.hisp.dhis.android.core.arch.api.payload.internal.Payload;
+import org.hisp.dhis.android.core.arch.api.payload.internal.StreamingPayload;
 import org.hisp.dhis.android.core.event.Event;
 import org.hisp.dhis.android.core.imports.internal.EventWebResponse;
 
@@ -63,7 +64,7 @@ public interface EventService {
     Call<EventWebResponse> postEvents(@Body EventPayload events, @Query(STRATEGY) String strategy);
 
     @GET(EVENTS)
-    Call<Payload<Event>> getEvents(
+    Call<StreamingPayload<Event>> getEventsStreaming(
             @Query(ORG_UNIT) String orgUnit,
             @Query(OU_MODE) String orgUnitMode,
             @Query(PROGRAM) String program,
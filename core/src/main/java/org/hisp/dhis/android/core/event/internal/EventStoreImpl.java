@@ -46,6 +46,7 @@ import org.hisp.dhis.android.core.event.EventTableInfo;
 import org.hisp.dhis.android.core.event.EventTableInfo.Columns;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -91,7 +92,20 @@ public final class EventStoreImpl extends IdentifiableDeletableDataObjectStoreIm
                 .appendIsNotNullValue(Columns.ENROLLMENT)
                 .appendInKeyStringValues(Columns.STATE, EnumHelper.asStringList(State.uploadableStates())).build();
 
-        List<Event> eventList = selectWhere(eventsAttachedToEnrollmentsQuery);
+        return eventMapFromQuery(eventsAttachedToEnrollmentsQuery);
+    }
+
+    @Override
+    public Map<String, List<Event>> queryEventsAttachedToEnrollmentToPost(Collection<String> enrollmentUids) {
+        String eventsAttachedToEnrollmentsQuery = new WhereClauseBuilder()
+                .appendInKeyStringValues(Columns.ENROLLMENT, enrollmentUids)
+                .appendInKeyStringValues(Columns.STATE, EnumHelper.asStringList(State.uploadableStates())).build();
+
+        return eventMapFromQuery(eventsAttachedToEnrollmentsQuery);
+    }
+
+    private Map<String, List<Event>> eventMapFromQuery(String whereClause) {
+        List<Event> eventList = selectWhere(whereClause);
 
         Map<String, List<Event>> eventsMap = new HashMap<>();
         for (Event event : eventList) {
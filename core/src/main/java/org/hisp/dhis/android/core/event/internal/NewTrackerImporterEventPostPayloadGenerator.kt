@@ -48,14 +48,14 @@ internal class NewTrackerImporterEventPostPayloadGenerator @Inject internal cons
         val eventTransformer = NewTrackerImporterEventTransformer()
 
         val dataValueMap = trackedEntityDataValueStore.querySingleEventsTrackedEntityDataValues()
-        val notes = noteStore.queryNotes().map { noteTransformer.transform(it) }
+        val notes = noteStore.queryNotes(events.map { it.uid() })
         return events
             .map { eventTransformer.transform(it) }
             .map { event ->
                 val dataValues = dataValueMap[event.uid()]?.map { dataValueTransformer.transform(it) }
                 event.toBuilder()
                     .trackedEntityDataValues(dataValues)
-                    .notes(notes.filter { it.event() == event.uid() })
+                    .notes(notes[event.uid()]?.map { noteTransformer.transform(it) } ?: emptyList())
                     .build()
             }
     }
@@ -144,7 +144,7 @@ internal class EventCollectionRepositoryAdapter @Inject constructor(
                 }?.flatten()
             OrganisationUnitMode.DESCENDANTS ->
                 scope.orgUnits()?.map { orgUnit ->
-                    organisationUnitCollectionRepository.byPath().like(orgUnit).blockingGetUids()
+                    organisationUnitCollectionRepository.byDescendantOf(orgUnit).blockingGetUids() + orgUnit
                 }?.flatten()
             OrganisationUnitMode.SELECTED ->
                 scope.orgUnits()
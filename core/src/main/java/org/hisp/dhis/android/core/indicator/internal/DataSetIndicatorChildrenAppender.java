@@ -31,29 +31,30 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.LinkChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.dataset.DataSet;
 import org.hisp.dhis.android.core.indicator.DataSetIndicatorLinkTableInfo;
 import org.hisp.dhis.android.core.indicator.Indicator;
 import org.hisp.dhis.android.core.indicator.IndicatorTableInfo;
 
-public final class DataSetIndicatorChildrenAppender extends ChildrenAppender<DataSet> {
+import java.util.List;
+
+public final class DataSetIndicatorChildrenAppender extends BatchedChildrenAppender<DataSet, Indicator> {
 
     private static final LinkTableChildProjection CHILD_PROJECTION = new LinkTableChildProjection(
             IndicatorTableInfo.TABLE_INFO,
             DataSetIndicatorLinkTableInfo.Columns.DATA_SET,
             DataSetIndicatorLinkTableInfo.Columns.INDICATOR);
-    private final LinkChildStore<DataSet, Indicator> linkChildStore;
-
     private DataSetIndicatorChildrenAppender(
             LinkChildStore<DataSet, Indicator> linkChildStore) {
-        this.linkChildStore = linkChildStore;
+        super(linkChildStore);
     }
 
     @Override
-    protected DataSet appendChildren(DataSet dataSet) {
+    protected DataSet appendChildren(DataSet dataSet, List<Indicator> children) {
         DataSet.Builder builder = dataSet.toBuilder();
-        builder.indicators(linkChildStore.getChildren(dataSet));
+        builder.indicators(children);
         return builder.build();
     }
 
@@ -30,22 +30,23 @@ package org.hisp.dhis.android.core.legendset.internal;
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.SingleParentChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.legendset.Legend;
 import org.hisp.dhis.android.core.legendset.LegendSet;
 
-final class LegendChildrenAppender extends ChildrenAppender<LegendSet> {
+import java.util.List;
 
-    private final SingleParentChildStore<LegendSet, Legend> childStore;
+final class LegendChildrenAppender extends BatchedChildrenAppender<LegendSet, Legend> {
 
     private LegendChildrenAppender(SingleParentChildStore<LegendSet, Legend> childStore) {
-        this.childStore = childStore;
+        super(childStore);
     }
 
     @Override
-    protected LegendSet appendChildren(LegendSet legendSet) {
+    protected LegendSet appendChildren(LegendSet legendSet, List<Legend> children) {
         LegendSet.Builder builder = legendSet.toBuilder();
-        builder.legends(childStore.getChildren(legendSet));
+        builder.legends(children);
         return builder.build();
     }
 
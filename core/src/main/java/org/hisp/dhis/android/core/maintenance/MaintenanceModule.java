@@ -27,12 +27,20 @@
  */
 package org.hisp.dhis.android.core.maintenance;
 
+import org.hisp.dhis.android.core.arch.db.access.DatabaseMetrics;
+
 public interface MaintenanceModule {
     ForeignKeyViolationCollectionRepository foreignKeyViolations();
     D2ErrorCollectionRepository d2Errors();
     PerformanceHintsService getPerformanceHintsService(int organisationUnitThreshold,
                                                        int programRulesPerProgramThreshold);
 
+    /**
+     * Cost of the database operations, grouped by statement and table. Only recorded when enabled through
+     * {@code D2Configuration.databaseMetricsEnabled}.
+     */
+    DatabaseMetrics databaseMetrics();
+
 
     // TODO restore when finished DatabaseImportExport databaseImportExport();
 }
\ No newline at end of file
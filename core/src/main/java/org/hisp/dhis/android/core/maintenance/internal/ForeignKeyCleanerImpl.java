@@ -33,18 +33,32 @@ import android.util.Log;
 
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.ObjectStore;
+import org.hisp.dhis.android.core.arch.db.stores.internal.StoreUtils;
 import org.hisp.dhis.android.core.arch.helpers.CollectionsHelper;
 import org.hisp.dhis.android.core.common.IdentifiableColumns;
 import org.hisp.dhis.android.core.maintenance.ForeignKeyViolation;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Removes the rows reported by {@code PRAGMA foreign_key_check}. Every pass groups the violations by table, stores
+ * them with one bulk insert per table and deletes the offending rows with {@code ROWID IN (...)} statements. Passes
+ * are repeated while deletions leave new violations behind (references to the deleted rows).
+ */
+@SuppressWarnings({"PMD.AvoidInstantiatingObjectsInLoops"})
 public final class ForeignKeyCleanerImpl implements ForeignKeyCleaner {
 
     private final DatabaseAdapter databaseAdapter;
     private final ObjectStore<ForeignKeyViolation> foreignKeyViolationStore;
+    private final Map<String, Map<String, ForeignKey>> foreignKeysByTable = new HashMap<>();
 
     ForeignKeyCleanerImpl(DatabaseAdapter databaseAdapter,
                           ObjectStore<ForeignKeyViolation> foreignKeyViolationStore) {
@@ -66,131 +80,141 @@ public final class ForeignKeyCleanerImpl implements ForeignKeyCleaner {
 
     private Integer cleanForeignKeyErrorsIteration() {
         Integer rowsCount = 0;
-        Cursor errorsCursor = getForeignKeyErrorsCursor();
-
-        if (errorsCursor != null) {
-            do {
-                deleteForeignKeyReferencedObject(errorsCursor);
-                rowsCount++;
-            } while (errorsCursor.moveToNext());
-            errorsCursor.close();
+        Map<String, List<ForeignKeyError>> errorsByTable = getForeignKeyErrors();
+
+        for (Map.Entry<String, List<ForeignKeyError>> tableErrors : errorsByTable.entrySet()) {
+            deleteForeignKeyReferencedObjects(tableErrors.getKey(), tableErrors.getValue());
+            rowsCount = rowsCount + tableErrors.getValue().size();
         }
 
         return rowsCount;
     }
 
-    private void deleteForeignKeyReferencedObject(Cursor errorsCursor) {
-        String fromTable = errorsCursor.getString(0);
-        String rowId = errorsCursor.getString(1);
-        String toTable = errorsCursor.getString(2);
-        String foreignKeyIdNumber = errorsCursor.getString(3);
-
-        ForeignKeyViolation foreignKeyViolation =
-                getForeignKeyViolation(foreignKeyIdNumber, fromTable, toTable, rowId);
-
-        if (foreignKeyViolation != null) {
-            foreignKeyViolationStore.insert(foreignKeyViolation);
-
-            List<String> argumentValues = new ArrayList<>();
-            argumentValues.add(rowId);
-            String[] argumentValuesArray = argumentValues.toArray(new String[argumentValues.size()]);
-            String deleteClause = "ROWID = ?;";
-            int rowsAffected = databaseAdapter.delete(fromTable, deleteClause, argumentValuesArray);
-            if (rowsAffected != 0) {
-                String msg = " was not persisted on " + fromTable +
-                        " table to avoid Foreign Key constraint error. Target not found on "
-                        + toTable + " table. " + foreignKeyViolation.toString();
-                String warningMsg;
-                if (foreignKeyViolation.fromObjectUid() == null) {
-                    warningMsg = "An object" + msg;
-                } else {
-                    warningMsg = "The object " + foreignKeyViolation.fromObjectUid() + msg;
-                }
-                Log.w(this.getClass().getSimpleName(), warningMsg);
+    private void deleteForeignKeyReferencedObjects(String fromTable, List<ForeignKeyError> errors) {
+        Map<String, ForeignKey> foreignKeys = getForeignKeys(fromTable);
+        Map<String, List<ForeignKeyError>> errorsByRowId = new LinkedHashMap<>();
+        for (ForeignKeyError error : errors) {
+            List<ForeignKeyError> rowErrors = errorsByRowId.get(error.rowId);
+            if (rowErrors == null) {
+                rowErrors = new ArrayList<>();
+                errorsByRowId.put(error.rowId, rowErrors);
             }
+            rowErrors.add(error);
         }
-    }
-
-    private ForeignKeyViolation getForeignKeyViolation(String foreignKeyIdNumber, String fromTable, String toTable,
-                                                       String rowId) {
-        Cursor listCursor = databaseAdapter.rawQuery("PRAGMA foreign_key_list(" + fromTable + ");");
 
-        ForeignKeyViolation foreignKeyViolation = null;
-
-        try {
-            if (listCursor.getCount() > 0) {
-                listCursor.moveToFirst();
-                do {
-                    if (foreignKeyIdNumber.equals(String.valueOf(listCursor.getInt(0)))) {
-                        foreignKeyViolation = buildViolation(listCursor, fromTable, toTable, rowId);
+        for (Set<String> rowIdsChunk : CollectionsHelper.setPartition(errorsByRowId.keySet(),
+                StoreUtils.IN_CLAUSE_CHUNK_SIZE)) {
+            Map<String, FromObject> fromObjects = getFromObjects(fromTable, rowIdsChunk);
+
+            List<ForeignKeyViolation> violations = new ArrayList<>();
+            Set<String> violatingRowIds = new HashSet<>();
+            for (Map.Entry<String, FromObject> fromObject : fromObjects.entrySet()) {
+                for (ForeignKeyError error : errorsByRowId.get(fromObject.getKey())) {
+                    ForeignKey foreignKey = foreignKeys.get(error.foreignKeyIdNumber);
+                    if (foreignKey != null) {
+                        violations.add(buildViolation(foreignKey, fromTable, error.toTable, fromObject.getValue()));
+                        violatingRowIds.add(fromObject.getKey());
                     }
-
-                } while (listCursor.moveToNext());
+                }
             }
 
-        } finally {
-            listCursor.close();
-        }
+            if (!violations.isEmpty()) {
+                foreignKeyViolationStore.insert(violations);
 
-        return foreignKeyViolation;
+                int rowsAffected = databaseAdapter.delete(fromTable,
+                        "ROWID IN (" + CollectionsHelper.commaSeparatedCollectionValues(violatingRowIds) + ")",
+                        null);
+                if (rowsAffected != 0) {
+                    logViolations(violations);
+                }
+            }
+        }
     }
 
-    private ForeignKeyViolation buildViolation(Cursor listCursor, String fromTable, String toTable, String rowId) {
+    private void logViolations(Collection<ForeignKeyViolation> violations) {
+        for (ForeignKeyViolation foreignKeyViolation : violations) {
+            String msg = " was not persisted on " + foreignKeyViolation.fromTable() +
+                    " table to avoid Foreign Key constraint error. Target not found on "
+                    + foreignKeyViolation.toTable() + " table. " + foreignKeyViolation.toString();
+            String warningMsg;
+            if (foreignKeyViolation.fromObjectUid() == null) {
+                warningMsg = "An object" + msg;
+            } else {
+                warningMsg = "The object " + foreignKeyViolation.fromObjectUid() + msg;
+            }
+            Log.w(this.getClass().getSimpleName(), warningMsg);
+        }
+    }
 
-        ForeignKeyViolation foreignKeyViolation = null;
+    private Map<String, ForeignKey> getForeignKeys(String fromTable) {
+        Map<String, ForeignKey> foreignKeys = foreignKeysByTable.get(fromTable);
+        if (foreignKeys == null) {
+            foreignKeys = new HashMap<>();
+            try (Cursor listCursor = databaseAdapter.rawQuery("PRAGMA foreign_key_list(" + fromTable + ");")) {
+                while (listCursor.moveToNext()) {
+                    foreignKeys.put(String.valueOf(listCursor.getInt(0)),
+                            new ForeignKey(listCursor.getString(3), listCursor.getString(4)));
+                }
+            }
+            foreignKeysByTable.put(fromTable, foreignKeys);
+        }
+        return foreignKeys;
+    }
 
-        String fromColumn = listCursor.getString(3);
-        String selectStatement = "SELECT * FROM " + fromTable + " WHERE ROWID = " + rowId + ";";
+    private Map<String, FromObject> getFromObjects(String fromTable, Collection<String> rowIds) {
+        Map<String, FromObject> fromObjects = new HashMap<>();
+        String selectStatement = "SELECT ROWID, * FROM " + fromTable + " WHERE ROWID IN (" +
+                CollectionsHelper.commaSeparatedCollectionValues(rowIds) + ");";
 
         try (Cursor objectCursor = databaseAdapter.rawQuery(selectStatement)) {
-            if (objectCursor.getCount() > 0) {
-                objectCursor.moveToFirst();
-
-                String uid = null;
-                int uidColumnIndex = objectCursor.getColumnIndex(
-                        IdentifiableColumns.UID);
-                if (uidColumnIndex != -1) {
-                    uid = objectCursor.getString(uidColumnIndex);
-                }
+            String[] columnNames = objectCursor.getColumnNames();
+            int uidColumnIndex = objectCursor.getColumnIndex(IdentifiableColumns.UID);
 
+            while (objectCursor.moveToNext()) {
+                Map<String, String> values = new HashMap<>();
                 List<String> columnAndValues = new ArrayList<>();
-                for (String columnName : objectCursor.getColumnNames()) {
-                    columnAndValues.add(columnName + ": " +
-                            getColumnValueAsString(objectCursor, columnName));
+                for (int i = 1; i < columnNames.length; i++) {
+                    String value = getColumnValueAsString(objectCursor, i);
+                    values.put(columnNames[i], value);
+                    columnAndValues.add(columnNames[i] + ": " + value);
                 }
 
-                foreignKeyViolation = ForeignKeyViolation.builder()
-                        .fromTable(fromTable)
-                        .toTable(toTable)
-                        .fromColumn(fromColumn)
-                        .toColumn(listCursor.getString(4))
-                        .notFoundValue(getColumnValueAsString(objectCursor, fromColumn))
-                        .fromObjectRow(CollectionsHelper.commaAndSpaceSeparatedArrayValues(
-                                columnAndValues.toArray(new String[objectCursor.getColumnCount()])))
-                        .fromObjectUid(uid)
-                        .created(new Date())
-                        .build();
+                String uid = uidColumnIndex == -1 ? null : objectCursor.getString(uidColumnIndex);
+                fromObjects.put(objectCursor.getString(0), new FromObject(uid, values,
+                        CollectionsHelper.commaAndSpaceSeparatedCollectionValues(columnAndValues)));
             }
         }
 
-        return foreignKeyViolation;
+        return fromObjects;
     }
 
-    private String getColumnValueAsString(Cursor cursor, String columnName) {
+    private ForeignKeyViolation buildViolation(ForeignKey foreignKey, String fromTable, String toTable,
+                                               FromObject fromObject) {
+        return ForeignKeyViolation.builder()
+                .fromTable(fromTable)
+                .toTable(toTable)
+                .fromColumn(foreignKey.fromColumn)
+                .toColumn(foreignKey.toColumn)
+                .notFoundValue(fromObject.values.get(foreignKey.fromColumn))
+                .fromObjectRow(fromObject.row)
+                .fromObjectUid(fromObject.uid)
+                .created(new Date())
+                .build();
+    }
 
-        int fromColumnIndex = cursor.getColumnIndex(columnName);
-        int fromColumnType = cursor.getType(fromColumnIndex);
+    private String getColumnValueAsString(Cursor cursor, int columnIndex) {
+        int columnType = cursor.getType(columnIndex);
 
         String columnValue;
-        switch (fromColumnType) {
+        switch (columnType) {
             case 1:
-                columnValue = String.valueOf(cursor.getInt(fromColumnIndex));
+                columnValue = String.valueOf(cursor.getInt(columnIndex));
                 break;
             case 2:
-                columnValue = String.valueOf(cursor.getFloat(fromColumnIndex));
+                columnValue = String.valueOf(cursor.getFloat(columnIndex));
                 break;
             case 3:
-                columnValue = cursor.getString(fromColumnIndex);
+                columnValue = cursor.getString(columnIndex);
                 break;
             default:
                 columnValue = null;
@@ -200,15 +224,20 @@ public final class ForeignKeyCleanerImpl implements ForeignKeyCleaner {
         return columnValue;
     }
 
-    private Cursor getForeignKeyErrorsCursor() {
-        Cursor cursor = databaseAdapter.rawQuery("PRAGMA foreign_key_check;");
-        if (cursor.getCount() > 0) {
-            cursor.moveToFirst();
-            return cursor;
+    private Map<String, List<ForeignKeyError>> getForeignKeyErrors() {
+        Map<String, List<ForeignKeyError>> errorsByTable = new LinkedHashMap<>();
+        try (Cursor cursor = databaseAdapter.rawQuery("PRAGMA foreign_key_check;")) {
+            while (cursor.moveToNext()) {
+                String fromTable = cursor.getString(0);
+                List<ForeignKeyError> tableErrors = errorsByTable.get(fromTable);
+                if (tableErrors == null) {
+                    tableErrors = new ArrayList<>();
+                    errorsByTable.put(fromTable, tableErrors);
+                }
+                tableErrors.add(new ForeignKeyError(cursor.getString(1), cursor.getString(2), cursor.getString(3)));
+            }
         }
-
-        cursor.close();
-        return null;
+        return errorsByTable;
     }
 
     public static ForeignKeyCleaner create(DatabaseAdapter databaseAdapter) {
@@ -217,4 +246,38 @@ public final class ForeignKeyCleanerImpl implements ForeignKeyCleaner {
                 ForeignKeyViolationStore.create(databaseAdapter)
         );
     }
-}
\ No newline at end of file
+
+    private static final class ForeignKeyError {
+        private final String rowId;
+        private final String toTable;
+        private final String foreignKeyIdNumber;
+
+        ForeignKeyError(String rowId, String toTable, String foreignKeyIdNumber) {
+            this.rowId = rowId;
+            this.toTable = toTable;
+            this.foreignKeyIdNumber = foreignKeyIdNumber;
+        }
+    }
+
+    private static final class ForeignKey {
+        private final String fromColumn;
+        private final String toColumn;
+
+        ForeignKey(String fromColumn, String toColumn) {
+            this.fromColumn = fromColumn;
+            this.toColumn = toColumn;
+        }
+    }
+
+    private static final class FromObject {
+        private final String uid;
+        private final Map<String, String> values;
+        private final String row;
+
+        FromObject(String uid, Map<String, String> values, String row) {
+            this.uid = uid;
+            this.values = values;
+            this.row = row;
+        }
+    }
+}
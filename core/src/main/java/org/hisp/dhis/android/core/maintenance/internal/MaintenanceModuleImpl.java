@@ -28,6 +28,7 @@
 package org.hisp.dhis.android.core.maintenance.internal;
 
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
+import org.hisp.dhis.android.core.arch.db.access.DatabaseMetrics;
 import org.hisp.dhis.android.core.maintenance.D2ErrorCollectionRepository;
 import org.hisp.dhis.android.core.maintenance.ForeignKeyViolationCollectionRepository;
 import org.hisp.dhis.android.core.maintenance.MaintenanceModule;
@@ -43,14 +44,17 @@ public final class MaintenanceModuleImpl implements MaintenanceModule {
     private final DatabaseAdapter databaseAdapter;
     private final ForeignKeyViolationCollectionRepository foreignKeyViolations;
     private final D2ErrorCollectionRepository d2Errors;
+    private final DatabaseMetrics databaseMetrics;
 
     @Inject
     MaintenanceModuleImpl(DatabaseAdapter databaseAdapter,
                           ForeignKeyViolationCollectionRepository foreignKeyViolations,
-                          D2ErrorCollectionRepository d2Errors) {
+                          D2ErrorCollectionRepository d2Errors,
+                          DatabaseMetrics databaseMetrics) {
         this.databaseAdapter = databaseAdapter;
         this.foreignKeyViolations = foreignKeyViolations;
         this.d2Errors = d2Errors;
+        this.databaseMetrics = databaseMetrics;
     }
 
     @Override
@@ -69,4 +73,9 @@ public final class MaintenanceModuleImpl implements MaintenanceModule {
     public D2ErrorCollectionRepository d2Errors() {
         return d2Errors;
     }
+
+    @Override
+    public DatabaseMetrics databaseMetrics() {
+        return databaseMetrics;
+    }
 }
\ No newline at end of file
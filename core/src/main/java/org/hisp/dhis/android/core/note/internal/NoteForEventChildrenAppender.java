@@ -30,22 +30,23 @@ package org.hisp.dhis.android.core.note.internal;
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.SingleParentChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.event.Event;
 import org.hisp.dhis.android.core.note.Note;
 
-public final class NoteForEventChildrenAppender extends ChildrenAppender<Event> {
+import java.util.List;
 
-    private final SingleParentChildStore<Event, Note> childStore;
+public final class NoteForEventChildrenAppender extends BatchedChildrenAppender<Event, Note> {
 
     private NoteForEventChildrenAppender(SingleParentChildStore<Event, Note> childStore) {
-        this.childStore = childStore;
+        super(childStore);
     }
 
     @Override
-    protected Event appendChildren(Event event) {
+    protected Event appendChildren(Event event, List<Note> children) {
         Event.Builder builder = event.toBuilder();
-        builder.notes(childStore.getChildren(event));
+        builder.notes(children);
         return builder.build();
     }
 
@@ -29,7 +29,9 @@
 package org.hisp.dhis.android.core.option.internal;
 
 import org.hisp.dhis.android.core.arch.api.executors.internal.APIDownloader;
+import org.hisp.dhis.android.core.arch.api.payload.internal.Payload;
 import org.hisp.dhis.android.core.arch.call.factories.internal.UidsCall;
+import org.hisp.dhis.android.core.arch.call.factories.internal.UidsStreamingCall;
 import org.hisp.dhis.android.core.arch.handlers.internal.Handler;
 import org.hisp.dhis.android.core.common.ObjectWithUid;
 import org.hisp.dhis.android.core.option.Option;
@@ -40,10 +42,11 @@ import java.util.Set;
 import javax.inject.Inject;
 
 import dagger.Reusable;
+import io.reactivex.Completable;
 import io.reactivex.Single;
 
 @Reusable
-public final class OptionCall implements UidsCall<Option> {
+public final class OptionCall implements UidsCall<Option>, UidsStreamingCall<Option> {
 
     private static final int MAX_UID_LIST_SIZE = 64;
 
@@ -60,9 +63,17 @@ public final class OptionCall implements UidsCall<Option> {
 
     @Override
     public Single<List<Option>> download(Set<String> optionSetUids) {
-        return apiDownloader.downloadPartitioned(optionSetUids, MAX_UID_LIST_SIZE, handler, partitionUids -> {
-            String optionSetUidsFilterStr = "optionSet." + ObjectWithUid.uid.in(partitionUids).generateString();
-            return service.getOptions(OptionFields.allFields, optionSetUidsFilterStr, Boolean.FALSE);
-        });
+        return apiDownloader.downloadPartitioned(optionSetUids, MAX_UID_LIST_SIZE, handler, this::downloadPartition);
     }
-}
\ No newline at end of file
+
+    @Override
+    public Completable downloadStreaming(Set<String> optionSetUids) {
+        return apiDownloader.downloadPartitionedStreaming(optionSetUids, MAX_UID_LIST_SIZE, handler,
+                this::downloadPartition);
+    }
+
+    private Single<Payload<Option>> downloadPartition(Set<String> partitionUids) {
+        String optionSetUidsFilterStr = "optionSet." + ObjectWithUid.uid.in(partitionUids).generateString();
+        return service.getOptions(OptionFields.allFields, optionSetUidsFilterStr, Boolean.FALSE);
+    }
+}
@@ -31,28 +31,30 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.ObjectWithUidChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
+import org.hisp.dhis.android.core.common.ObjectWithUid;
 import org.hisp.dhis.android.core.option.OptionGroup;
 import org.hisp.dhis.android.core.option.OptionGroupOptionLinkTableInfo;
 import org.hisp.dhis.android.core.option.OptionTableInfo;
 
-final class OptionGroupOptionChildrenAppender extends ChildrenAppender<OptionGroup> {
+import java.util.List;
+
+final class OptionGroupOptionChildrenAppender extends BatchedChildrenAppender<OptionGroup, ObjectWithUid> {
 
     private static final LinkTableChildProjection CHILD_PROJECTION = new LinkTableChildProjection(
             OptionTableInfo.TABLE_INFO,
             OptionGroupOptionLinkTableInfo.Columns.OPTION_GROUP,
             OptionGroupOptionLinkTableInfo.Columns.OPTION);
 
-    private final ObjectWithUidChildStore<OptionGroup> childStore;
-
     private OptionGroupOptionChildrenAppender(ObjectWithUidChildStore<OptionGroup> childStore) {
-        this.childStore = childStore;
+        super(childStore);
     }
 
     @Override
-    protected OptionGroup appendChildren(OptionGroup optionGroup) {
+    protected OptionGroup appendChildren(OptionGroup optionGroup, List<ObjectWithUid> children) {
         OptionGroup.Builder builder = optionGroup.toBuilder();
-        builder.options(childStore.getChildren(optionGroup));
+        builder.options(children);
         return builder.build();
     }
 
@@ -29,6 +29,7 @@
 package org.hisp.dhis.android.core.option.internal;
 
 import org.hisp.dhis.android.core.arch.call.factories.internal.UidsCall;
+import org.hisp.dhis.android.core.arch.call.factories.internal.UidsStreamingCall;
 import org.hisp.dhis.android.core.option.Option;
 import org.hisp.dhis.android.core.option.OptionGroup;
 import org.hisp.dhis.android.core.option.OptionModule;
@@ -65,6 +66,12 @@ public final class OptionPackageDIModule {
         return impl;
     }
 
+    @Provides
+    @Reusable
+    UidsStreamingCall<Option> optionStreamingCall(OptionCall impl) {
+        return impl;
+    }
+
     @Provides
     @Reusable
     OptionService optionService(Retrofit retrofit) {
@@ -71,6 +71,36 @@ public class OrganisationUnitCollectionRepository
         return cf.string(Columns.PATH);
     }
 
+    /**
+     * Filters the organisation units that have the given organisation unit in their path, excluding the organisation
+     * unit itself. It is resolved through an indexed ancestor table instead of matching the path.
+     *
+     * @param uid Ancestor organisation unit uid
+     * @return the repository
+     */
+    public OrganisationUnitCollectionRepository byDescendantOf(String uid) {
+        return cf.subQuery(IdentifiableColumns.UID).inLinkTable(
+                OrganisationUnitAncestorTableInfo.TABLE_INFO.name(),
+                OrganisationUnitAncestorTableInfo.Columns.DESCENDANT,
+                OrganisationUnitAncestorTableInfo.Columns.ANCESTOR,
+                Collections.singletonList(uid));
+    }
+
+    /**
+     * Filters the organisation units listed in the path of the given organisation unit, excluding the organisation
+     * unit itself. Only the ancestors stored in the database are returned.
+     *
+     * @param uid Descendant organisation unit uid
+     * @return the repository
+     */
+    public OrganisationUnitCollectionRepository byAncestorOf(String uid) {
+        return cf.subQuery(IdentifiableColumns.UID).inLinkTable(
+                OrganisationUnitAncestorTableInfo.TABLE_INFO.name(),
+                OrganisationUnitAncestorTableInfo.Columns.ANCESTOR,
+                OrganisationUnitAncestorTableInfo.Columns.DESCENDANT,
+                Collections.singletonList(uid));
+    }
+
     public DateFilterConnector<OrganisationUnitCollectionRepository> byOpeningDate() {
         return cf.date(Columns.OPENING_DATE);
     }
@@ -32,28 +32,30 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.ObjectWithUidChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
+import org.hisp.dhis.android.core.common.ObjectWithUid;
 import org.hisp.dhis.android.core.dataset.DataSetOrganisationUnitLinkTableInfo;
 import org.hisp.dhis.android.core.dataset.DataSetTableInfo;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnit;
 
-final class OrganisationUnitDataSetChildrenAppender extends ChildrenAppender<OrganisationUnit> {
+import java.util.List;
+
+final class OrganisationUnitDataSetChildrenAppender extends BatchedChildrenAppender<OrganisationUnit, ObjectWithUid> {
 
     private static final LinkTableChildProjection CHILD_PROJECTION = new LinkTableChildProjection(
             DataSetTableInfo.TABLE_INFO,
             DataSetOrganisationUnitLinkTableInfo.Columns.ORGANISATION_UNIT,
             DataSetOrganisationUnitLinkTableInfo.Columns.DATA_SET);
 
-    private final ObjectWithUidChildStore<OrganisationUnit> childStore;
-
     private OrganisationUnitDataSetChildrenAppender(ObjectWithUidChildStore<OrganisationUnit> childStore) {
-        this.childStore = childStore;
+        super(childStore);
     }
 
     @Override
-    protected OrganisationUnit appendChildren(OrganisationUnit organisationUnit) {
+    protected OrganisationUnit appendChildren(OrganisationUnit organisationUnit, List<ObjectWithUid> children) {
         OrganisationUnit.Builder builder = organisationUnit.toBuilder();
-        builder.dataSets(childStore.getChildren(organisationUnit));
+        builder.dataSets(children);
         return builder.build();
     }
 
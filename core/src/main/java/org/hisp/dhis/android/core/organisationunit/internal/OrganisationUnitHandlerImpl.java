@@ -33,16 +33,17 @@ import androidx.annotation.NonNull;
 
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.IdentifiableObjectStore;
-import org.hisp.dhis.android.core.arch.handlers.internal.HandleAction;
 import org.hisp.dhis.android.core.arch.handlers.internal.Handler;
 import org.hisp.dhis.android.core.arch.handlers.internal.IdentifiableHandlerImpl;
 import org.hisp.dhis.android.core.arch.handlers.internal.LinkHandler;
 import org.hisp.dhis.android.core.arch.handlers.internal.LinkHandlerImpl;
+import org.hisp.dhis.android.core.arch.helpers.CollectionsHelper;
 import org.hisp.dhis.android.core.arch.helpers.GeometryHelper;
 import org.hisp.dhis.android.core.common.ObjectWithUid;
 import org.hisp.dhis.android.core.dataset.DataSetOrganisationUnitLink;
 import org.hisp.dhis.android.core.dataset.internal.DataSetOrganisationUnitLinkStore;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnit;
+import org.hisp.dhis.android.core.organisationunit.OrganisationUnitAncestor;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitGroup;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitOrganisationUnitGroupLink;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitProgramLink;
@@ -51,19 +52,27 @@ import org.hisp.dhis.android.core.user.UserOrganisationUnitLink;
 import org.hisp.dhis.android.core.user.internal.UserOrganisationUnitLinkHelper;
 import org.hisp.dhis.android.core.user.internal.UserOrganisationUnitLinkStoreImpl;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @SuppressWarnings({"PMD.ExcessiveImports"})
 class OrganisationUnitHandlerImpl extends IdentifiableHandlerImpl<OrganisationUnit>
         implements OrganisationUnitHandler {
+    private static final String PATH_SEPARATOR = "/";
+
     private final LinkHandler<OrganisationUnit, UserOrganisationUnitLink> userOrganisationUnitLinkHandler;
     private final LinkHandler<ObjectWithUid, OrganisationUnitProgramLink> organisationUnitProgramLinkHandler;
     private final LinkHandler<ObjectWithUid, DataSetOrganisationUnitLink> dataSetOrganisationUnitLinkHandler;
     private final Handler<OrganisationUnitGroup> organisationUnitGroupHandler;
     private final LinkHandler<OrganisationUnitGroup, OrganisationUnitOrganisationUnitGroupLink>
             organisationUnitGroupLinkHandler;
+    private final LinkHandler<String, OrganisationUnitAncestor> organisationUnitAncestorLinkHandler;
 
     private User user;
     private OrganisationUnit.Scope scope;
@@ -78,7 +87,9 @@ class OrganisationUnitHandlerImpl extends IdentifiableHandlerImpl<OrganisationUn
                                 @NonNull Handler<OrganisationUnitGroup> organisationUnitGroupHandler,
                                 @NonNull LinkHandler<OrganisationUnitGroup,
                                         OrganisationUnitOrganisationUnitGroupLink>
-                                        organisationUnitGroupLinkHandler) {
+                                        organisationUnitGroupLinkHandler,
+                                @NonNull LinkHandler<String, OrganisationUnitAncestor>
+                                        organisationUnitAncestorLinkHandler) {
 
         super(organisationUnitStore);
         this.userOrganisationUnitLinkHandler = userOrganisationUnitLinkHandler;
@@ -86,6 +97,7 @@ class OrganisationUnitHandlerImpl extends IdentifiableHandlerImpl<OrganisationUn
         this.organisationUnitGroupLinkHandler = organisationUnitGroupLinkHandler;
         this.organisationUnitProgramLinkHandler = organisationUnitProgramLinkHandler;
         this.dataSetOrganisationUnitLinkHandler = dataSetOrganisationUnitLinkHandler;
+        this.organisationUnitAncestorLinkHandler = organisationUnitAncestorLinkHandler;
     }
 
     @Override
@@ -114,54 +126,107 @@ class OrganisationUnitHandlerImpl extends IdentifiableHandlerImpl<OrganisationUn
     }
 
     @Override
-    protected void afterObjectHandled(OrganisationUnit organisationUnit, HandleAction action) {
-        addUserOrganisationUnitLink(organisationUnit);
-        addOrganisationUnitProgramLink(organisationUnit);
-        addOrganisationUnitDataSetLink(organisationUnit);
-        organisationUnitGroupHandler.handleMany(organisationUnit.organisationUnitGroups());
-        addOrganisationUnitOrganisationUnitGroupLink(organisationUnit);
+    protected void afterCollectionHandled(Collection<OrganisationUnit> organisationUnits) {
+        addUserOrganisationUnitLinks(organisationUnits);
+        addOrganisationUnitProgramLinks(organisationUnits);
+        addOrganisationUnitDataSetLinks(organisationUnits);
+        addOrganisationUnitGroups(organisationUnits);
+        addOrganisationUnitAncestors(organisationUnits);
     }
 
-    private void addOrganisationUnitProgramLink(@NonNull OrganisationUnit organisationUnit) {
-        List<ObjectWithUid> orgUnitPrograms = organisationUnit.programs();
-        if (orgUnitPrograms != null) {
-            organisationUnitProgramLinkHandler.handleMany(organisationUnit.uid(), orgUnitPrograms,
-                    program -> OrganisationUnitProgramLink.builder()
-                            .organisationUnit(organisationUnit.uid()).program(program.uid()).build());
+    /**
+     * Replaces the rows of the ancestor closure table of the persisted organisation units by the ancestors listed in
+     * their paths. The table is not reset before downloading, so only the units of this page are passed: the rows of
+     * units from other pages are kept, and the rows of deleted units are removed by the foreign key cascade.
+     */
+    private void addOrganisationUnitAncestors(@NonNull Collection<OrganisationUnit> organisationUnits) {
+        Map<String, Collection<String>> ancestorsByOrgUnit = new HashMap<>();
+        for (OrganisationUnit organisationUnit : organisationUnits) {
+            if (!CollectionsHelper.isDeleted(organisationUnit)) {
+                ancestorsByOrgUnit.put(organisationUnit.uid(), getAncestors(organisationUnit));
+            }
         }
+        organisationUnitAncestorLinkHandler.handleMany(ancestorsByOrgUnit,
+                (orgUnitUid, ancestor) -> OrganisationUnitAncestor.builder()
+                        .ancestor(ancestor).descendant(orgUnitUid).build());
     }
 
-    private void addOrganisationUnitDataSetLink(@NonNull OrganisationUnit organisationUnit) {
-        List<ObjectWithUid> orgUnitDataSets = organisationUnit.dataSets();
-        if (orgUnitDataSets != null) {
+    private static Set<String> getAncestors(OrganisationUnit organisationUnit) {
+        Set<String> ancestors = new LinkedHashSet<>();
+        if (organisationUnit.path() == null) {
+            if (organisationUnit.parent() != null) {
+                ancestors.add(organisationUnit.parent().uid());
+            }
+        } else {
+            for (String pathUid : organisationUnit.path().split(PATH_SEPARATOR)) {
+                if (!pathUid.isEmpty() && !pathUid.equals(organisationUnit.uid())) {
+                    ancestors.add(pathUid);
+                }
+            }
+        }
+        return ancestors;
+    }
 
-            dataSetOrganisationUnitLinkHandler.handleMany(organisationUnit.uid(), orgUnitDataSets,
-                    dataSet -> DataSetOrganisationUnitLink.builder()
-                            .dataSet(dataSet.uid()).organisationUnit(organisationUnit.uid()).build());
+    private void addOrganisationUnitProgramLinks(@NonNull Collection<OrganisationUnit> organisationUnits) {
+        Map<String, Collection<ObjectWithUid>> programsByOrgUnit = new HashMap<>();
+        for (OrganisationUnit organisationUnit : organisationUnits) {
+            if (organisationUnit.programs() != null) {
+                programsByOrgUnit.put(organisationUnit.uid(), organisationUnit.programs());
+            }
         }
+        organisationUnitProgramLinkHandler.handleMany(programsByOrgUnit,
+                (orgUnitUid, program) -> OrganisationUnitProgramLink.builder()
+                        .organisationUnit(orgUnitUid).program(program.uid()).build());
     }
 
-    private void addOrganisationUnitOrganisationUnitGroupLink(@NonNull OrganisationUnit organisationUnit) {
+    private void addOrganisationUnitDataSetLinks(@NonNull Collection<OrganisationUnit> organisationUnits) {
+        Map<String, Collection<ObjectWithUid>> dataSetsByOrgUnit = new HashMap<>();
+        for (OrganisationUnit organisationUnit : organisationUnits) {
+            if (organisationUnit.dataSets() != null) {
+                dataSetsByOrgUnit.put(organisationUnit.uid(), organisationUnit.dataSets());
+            }
+        }
+        dataSetOrganisationUnitLinkHandler.handleMany(dataSetsByOrgUnit,
+                (orgUnitUid, dataSet) -> DataSetOrganisationUnitLink.builder()
+                        .dataSet(dataSet.uid()).organisationUnit(orgUnitUid).build());
+    }
 
-        List<OrganisationUnitGroup> linkedOrganisationUnitGroups = organisationUnit.organisationUnitGroups();
+    private void addOrganisationUnitGroups(@NonNull Collection<OrganisationUnit> organisationUnits) {
+        Map<String, OrganisationUnitGroup> groupsByUid = new LinkedHashMap<>();
+        Map<String, Collection<OrganisationUnitGroup>> groupsByOrgUnit = new HashMap<>();
+        for (OrganisationUnit organisationUnit : organisationUnits) {
+            List<OrganisationUnitGroup> linkedOrganisationUnitGroups = organisationUnit.organisationUnitGroups();
+            if (linkedOrganisationUnitGroups != null && !linkedOrganisationUnitGroups.isEmpty()) {
+                for (OrganisationUnitGroup organisationUnitGroup : linkedOrganisationUnitGroups) {
+                    groupsByUid.put(organisationUnitGroup.uid(), organisationUnitGroup);
+                }
+                groupsByOrgUnit.put(organisationUnit.uid(), linkedOrganisationUnitGroups);
+            }
+        }
 
-        if (linkedOrganisationUnitGroups == null || linkedOrganisationUnitGroups.isEmpty()) {
+        if (groupsByOrgUnit.isEmpty()) {
             return;
         }
 
-        organisationUnitGroupLinkHandler.handleMany(organisationUnit.uid(), linkedOrganisationUnitGroups,
-                organisationUnitGroup -> OrganisationUnitOrganisationUnitGroupLink.builder()
-                        .organisationUnit(organisationUnit.uid()).organisationUnitGroup(organisationUnitGroup.uid())
+        organisationUnitGroupHandler.handleMany(new ArrayList<>(groupsByUid.values()));
+        organisationUnitGroupLinkHandler.handleMany(groupsByOrgUnit,
+                (orgUnitUid, organisationUnitGroup) -> OrganisationUnitOrganisationUnitGroupLink.builder()
+                        .organisationUnit(orgUnitUid).organisationUnitGroup(organisationUnitGroup.uid())
                         .build());
     }
 
-    private void addUserOrganisationUnitLink(@NonNull OrganisationUnit organisationUnit) {
+    @Override
+    public void addUserOrganisationUnitLinks(@NonNull Collection<OrganisationUnit> organisationUnits) {
+        if (organisationUnits.isEmpty()) {
+            return;
+        }
+
         UserOrganisationUnitLink.Builder builder = UserOrganisationUnitLink.builder()
                 .organisationUnitScope(scope.name()).user(user.uid());
 
         // TODO MasterUid set to "" to avoid cleaning link table. Orgunits are paged, so the whole orguntit list is
         //  not available in the handler. Maybe the store should not be a linkStore.
-        userOrganisationUnitLinkHandler.handleMany("", Collections.singletonList(organisationUnit),
+        userOrganisationUnitLinkHandler.handleMany("", organisationUnits,
                 orgUnit -> builder
                         .organisationUnit(orgUnit.uid())
                         .root(UserOrganisationUnitLinkHelper.isRoot(scope, user, orgUnit))
@@ -169,13 +234,6 @@ class OrganisationUnitHandlerImpl extends IdentifiableHandlerImpl<OrganisationUn
         );
     }
 
-    @Override
-    public void addUserOrganisationUnitLinks(@NonNull Collection<OrganisationUnit> organisationUnits) {
-        for (OrganisationUnit organisationUnit : organisationUnits) {
-            addUserOrganisationUnitLink(organisationUnit);
-        }
-    }
-
     public static OrganisationUnitHandler create(DatabaseAdapter databaseAdapter) {
         return new OrganisationUnitHandlerImpl(
                 OrganisationUnitStore.create(databaseAdapter),
@@ -183,6 +241,7 @@ class OrganisationUnitHandlerImpl extends IdentifiableHandlerImpl<OrganisationUn
                 new LinkHandlerImpl<>(OrganisationUnitProgramLinkStore.create(databaseAdapter)),
                 new LinkHandlerImpl<>(DataSetOrganisationUnitLinkStore.create(databaseAdapter)),
                 new IdentifiableHandlerImpl<>(OrganisationUnitGroupStore.create(databaseAdapter)),
-                new LinkHandlerImpl<>(OrganisationUnitOrganisationUnitGroupLinkStore.create(databaseAdapter)));
+                new LinkHandlerImpl<>(OrganisationUnitOrganisationUnitGroupLinkStore.create(databaseAdapter)),
+                new LinkHandlerImpl<>(OrganisationUnitAncestorStore.create(databaseAdapter)));
     }
 }
\ No newline at end of file
@@ -28,6 +28,7 @@
 
 package org.hisp.dhis.android.core.organisationunit.internal;
 
+import org.hisp.dhis.android.core.organisationunit.OrganisationUnitAncestorTableInfo;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitGroupTableInfo;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitLevelTableInfo;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitOrganisationUnitGroupLinkTableInfo;
@@ -57,7 +58,8 @@ public final class OrganisationUnitModuleWiper implements ModuleWiper {
                 OrganisationUnitProgramLinkTableInfo.TABLE_INFO,
                 OrganisationUnitGroupTableInfo.TABLE_INFO,
                 OrganisationUnitLevelTableInfo.TABLE_INFO,
-                OrganisationUnitOrganisationUnitGroupLinkTableInfo.TABLE_INFO);
+                OrganisationUnitOrganisationUnitGroupLinkTableInfo.TABLE_INFO,
+                OrganisationUnitAncestorTableInfo.TABLE_INFO);
     }
 
     @Override
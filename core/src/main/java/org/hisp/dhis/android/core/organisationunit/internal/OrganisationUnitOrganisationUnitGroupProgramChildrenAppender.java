@@ -32,30 +32,32 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.LinkChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnit;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitGroup;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitGroupTableInfo;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitOrganisationUnitGroupLinkTableInfo;
 
-final class OrganisationUnitOrganisationUnitGroupProgramChildrenAppender extends ChildrenAppender<OrganisationUnit> {
+import java.util.List;
+
+final class OrganisationUnitOrganisationUnitGroupProgramChildrenAppender
+        extends BatchedChildrenAppender<OrganisationUnit, OrganisationUnitGroup> {
 
     private static final LinkTableChildProjection CHILD_PROJECTION = new LinkTableChildProjection(
             OrganisationUnitGroupTableInfo.TABLE_INFO,
             OrganisationUnitOrganisationUnitGroupLinkTableInfo.Columns.ORGANISATION_UNIT,
             OrganisationUnitOrganisationUnitGroupLinkTableInfo.Columns.ORGANISATION_UNIT_GROUP);
 
-    private final LinkChildStore<OrganisationUnit, OrganisationUnitGroup> linkChildStore;
-
     private OrganisationUnitOrganisationUnitGroupProgramChildrenAppender(
             LinkChildStore<OrganisationUnit, OrganisationUnitGroup> linkChildStore) {
-        this.linkChildStore = linkChildStore;
+        super(linkChildStore);
     }
 
     @Override
-    protected OrganisationUnit appendChildren(OrganisationUnit organisationUnit) {
+    protected OrganisationUnit appendChildren(OrganisationUnit organisationUnit, List<OrganisationUnitGroup> children) {
         OrganisationUnit.Builder builder = organisationUnit.toBuilder();
-        builder.organisationUnitGroups(linkChildStore.getChildren(organisationUnit));
+        builder.organisationUnitGroups(children);
         return builder.build();
     }
 
@@ -32,29 +32,31 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.ObjectWithUidChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
+import org.hisp.dhis.android.core.common.ObjectWithUid;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnit;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitProgramLinkTableInfo;
 import org.hisp.dhis.android.core.program.ProgramTableInfo;
 
-final class OrganisationUnitProgramChildrenAppender extends ChildrenAppender<OrganisationUnit> {
+import java.util.List;
+
+final class OrganisationUnitProgramChildrenAppender extends BatchedChildrenAppender<OrganisationUnit, ObjectWithUid> {
 
     private static final LinkTableChildProjection CHILD_PROJECTION = new LinkTableChildProjection(
             ProgramTableInfo.TABLE_INFO,
             OrganisationUnitProgramLinkTableInfo.Columns.ORGANISATION_UNIT,
             OrganisationUnitProgramLinkTableInfo.Columns.PROGRAM);
 
-    private final ObjectWithUidChildStore<OrganisationUnit> childStore;
-
     private OrganisationUnitProgramChildrenAppender(
             ObjectWithUidChildStore<OrganisationUnit> childStore) {
-        this.childStore = childStore;
+        super(childStore);
     }
 
     @Override
-    protected OrganisationUnit appendChildren(OrganisationUnit organisationUnit) {
+    protected OrganisationUnit appendChildren(OrganisationUnit organisationUnit, List<ObjectWithUid> children) {
         OrganisationUnit.Builder builder = organisationUnit.toBuilder();
-        builder.programs(childStore.getChildren(organisationUnit));
+        builder.programs(children);
         return builder.build();
     }
 
@@ -28,23 +28,99 @@
 
 package org.hisp.dhis.android.core.parser.internal.expression;
 
-import android.os.Build;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.hisp.dhis.antlr.AntlrErrorListener;
+import org.hisp.dhis.parser.expression.antlr.ExpressionLexer;
+import org.hisp.dhis.parser.expression.antlr.ExpressionParser;
 
-import org.hisp.dhis.antlr.Parser;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public final class CommonParser {
 
+    /**
+     * Maximum number of parse trees kept. Validation rules, indicators and program indicators of a regular
+     * configuration use far fewer distinct expressions.
+     */
+    static final int MAX_CACHED_EXPRESSIONS = 1000;
+
+    /**
+     * Parse trees by expression, in access order. The grammar is the same for every kind of expression, so the
+     * expression string alone identifies the tree; visitors only differ in how they walk it.
+     */
+    private static final Map<String, ParseTree> PARSE_TREES =
+            new LinkedHashMap<String, ParseTree>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ParseTree> eldest) {
+                    return size() > MAX_CACHED_EXPRESSIONS;
+                }
+            };
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
     private CommonParser() {
     }
 
     public static Object visit(String expression, CommonExpressionVisitor visitor) {
-        int sdkVersion = Build.VERSION.SDK_INT;
+        return visitor.visit(getParseTree(expression));
+    }
+
+    public static long getCacheHits() {
+        return HITS.get();
+    }
+
+    public static long getCacheMisses() {
+        return MISSES.get();
+    }
+
+    public static int getCacheSize() {
+        synchronized (PARSE_TREES) {
+            return PARSE_TREES.size();
+        }
+    }
 
-        // In unit test, sdk value is 0. Ignore it and use cache by default.
-        if (sdkVersion > 0 && sdkVersion < Build.VERSION_CODES.LOLLIPOP) {
-            return Parser.visit(expression, visitor, false);
-        } else {
-            return Parser.visit(expression, visitor);
+    static void clearCache() {
+        synchronized (PARSE_TREES) {
+            PARSE_TREES.clear();
         }
+        HITS.set(0);
+        MISSES.set(0);
+    }
+
+    private static ParseTree getParseTree(String expression) {
+        ParseTree parseTree;
+        synchronized (PARSE_TREES) {
+            parseTree = PARSE_TREES.get(expression);
+        }
+        if (parseTree != null) {
+            HITS.incrementAndGet();
+            return parseTree;
+        }
+
+        // Parsed outside the lock: two threads may parse the same expression, but neither blocks the other.
+        MISSES.incrementAndGet();
+        ParseTree newParseTree = createParseTree(expression);
+        synchronized (PARSE_TREES) {
+            PARSE_TREES.put(expression, newParseTree);
+        }
+        return newParseTree;
+    }
+
+    private static ParseTree createParseTree(String expression) {
+        AntlrErrorListener errorListener = new AntlrErrorListener();
+
+        ExpressionLexer lexer = new ExpressionLexer(CharStreams.fromString(expression));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(errorListener);
+
+        ExpressionParser parser = new ExpressionParser(new CommonTokenStream(lexer));
+        parser.removeErrorListeners();
+        parser.addErrorListener(errorListener);
+
+        return parser.expression();
     }
 }
@@ -30,24 +30,25 @@ package org.hisp.dhis.android.core.program.internal;
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.LinkChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.legendset.LegendSet;
 import org.hisp.dhis.android.core.legendset.ProgramIndicatorLegendSetLinkTableInfo;
 import org.hisp.dhis.android.core.program.ProgramIndicator;
 
-final class ProgramIndicatorLegendSetChildrenAppender extends ChildrenAppender<ProgramIndicator> {
+import java.util.List;
 
-    private final LinkChildStore<ProgramIndicator, LegendSet> linkChildStore;
+final class ProgramIndicatorLegendSetChildrenAppender extends BatchedChildrenAppender<ProgramIndicator, LegendSet> {
 
     private ProgramIndicatorLegendSetChildrenAppender(
             LinkChildStore<ProgramIndicator, LegendSet> linkChildStore) {
-        this.linkChildStore = linkChildStore;
+        super(linkChildStore);
     }
 
     @Override
-    protected ProgramIndicator appendChildren(ProgramIndicator programIndicator) {
+    protected ProgramIndicator appendChildren(ProgramIndicator programIndicator, List<LegendSet> children) {
         ProgramIndicator.Builder builder = programIndicator.toBuilder();
-        builder.legendSets(linkChildStore.getChildren(programIndicator));
+        builder.legendSets(children);
         return builder.build();
     }
 
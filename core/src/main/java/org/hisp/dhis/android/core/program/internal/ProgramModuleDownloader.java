@@ -30,6 +30,7 @@ package org.hisp.dhis.android.core.program.internal;
 
 import org.hisp.dhis.android.core.arch.call.factories.internal.ListCall;
 import org.hisp.dhis.android.core.arch.call.factories.internal.UidsCall;
+import org.hisp.dhis.android.core.arch.call.factories.internal.UidsStreamingCall;
 import org.hisp.dhis.android.core.arch.helpers.UidsHelper;
 import org.hisp.dhis.android.core.arch.modules.internal.MetadataModuleByUidDownloader;
 import org.hisp.dhis.android.core.event.EventFilter;
@@ -51,6 +52,7 @@ import java.util.Set;
 import javax.inject.Inject;
 
 import dagger.Reusable;
+import io.reactivex.Completable;
 import io.reactivex.Single;
 
 @Reusable
@@ -58,27 +60,27 @@ public class ProgramModuleDownloader implements MetadataModuleByUidDownloader<Li
 
     private final UidsCall<Program> programCall;
     private final UidsCall<ProgramStage> programStageCall;
-    private final UidsCall<ProgramRule> programRuleCall;
+    private final UidsStreamingCall<ProgramRule> programRuleCall;
     private final UidsCall<TrackedEntityType> trackedEntityTypeCall;
     private final UidsCall<TrackedEntityAttribute> trackedEntityAttributeCall;
     private final UidsCall<TrackedEntityInstanceFilter> trackedEntityInstanceFilterCall;
     private final UidsCall<EventFilter> eventFilterCall;
     private final ListCall<RelationshipType> relationshipTypeCall;
     private final UidsCall<OptionSet> optionSetCall;
-    private final UidsCall<Option> optionCall;
+    private final UidsStreamingCall<Option> optionCall;
     private final UidsCall<OptionGroup> optionGroupCall;
 
     @Inject
     ProgramModuleDownloader(UidsCall<Program> programCall,
                             UidsCall<ProgramStage> programStageCall,
-                            UidsCall<ProgramRule> programRuleCall,
+                            UidsStreamingCall<ProgramRule> programRuleCall,
                             UidsCall<TrackedEntityType> trackedEntityTypeCall,
                             UidsCall<TrackedEntityAttribute> trackedEntityAttributeCall,
                             UidsCall<TrackedEntityInstanceFilter> trackedEntityInstanceFilterCall,
                             UidsCall<EventFilter> eventFilterCall,
                             ListCall<RelationshipType> relationshipTypeCall,
                             UidsCall<OptionSet> optionSetCall,
-                            UidsCall<Option> optionCall,
+                            UidsStreamingCall<Option> optionCall,
                             UidsCall<OptionGroup> optionGroupCall) {
         this.programCall = programCall;
         this.programStageCall = programStageCall;
@@ -105,15 +107,17 @@ public class ProgramModuleDownloader implements MetadataModuleByUidDownloader<Li
                         .flatMap(attributes -> {
                             Set<String> optionSetUids = ProgramParentUidsHelper.getAssignedOptionSetUids(
                                     attributes, programStages);
-                            return Single.merge(Arrays.asList(
-                                    programRuleCall.download(programUids),
-                                    trackedEntityInstanceFilterCall.download(programUids),
-                                    eventFilterCall.download(programUids),
-                                    relationshipTypeCall.download(),
-                                    optionSetCall.download(optionSetUids),
-                                    optionCall.download(optionSetUids),
-                                    optionGroupCall.download(optionSetUids))
-                            ).ignoreElements().toSingle(() -> programs);
+                            return Completable.mergeArray(
+                                    programRuleCall.downloadStreaming(programUids),
+                                    Single.merge(Arrays.asList(
+                                            trackedEntityInstanceFilterCall.download(programUids),
+                                            eventFilterCall.download(programUids),
+                                            relationshipTypeCall.download(),
+                                            optionSetCall.download(optionSetUids),
+                                            optionGroupCall.download(optionSetUids))
+                                    ).ignoreElements(),
+                                    optionCall.downloadStreaming(optionSetUids)
+                            ).toSingle(() -> programs);
                         });
             });
         });
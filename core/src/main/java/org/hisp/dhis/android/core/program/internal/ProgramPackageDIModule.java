@@ -29,6 +29,7 @@
 package org.hisp.dhis.android.core.program.internal;
 
 import org.hisp.dhis.android.core.arch.call.factories.internal.UidsCall;
+import org.hisp.dhis.android.core.arch.call.factories.internal.UidsStreamingCall;
 import org.hisp.dhis.android.core.program.Program;
 import org.hisp.dhis.android.core.program.ProgramModule;
 import org.hisp.dhis.android.core.program.ProgramRule;
@@ -73,6 +74,12 @@ public final class ProgramPackageDIModule {
         return impl;
     }
 
+    @Provides
+    @Reusable
+    UidsStreamingCall<ProgramRule> programRuleStreamingCall(ProgramRuleCall impl) {
+        return impl;
+    }
+
     @Provides
     @Reusable
     UidsCall<ProgramStage> programStageCall(ProgramStageCall impl) {
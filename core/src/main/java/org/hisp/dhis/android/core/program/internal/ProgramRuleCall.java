@@ -29,7 +29,9 @@
 package org.hisp.dhis.android.core.program.internal;
 
 import org.hisp.dhis.android.core.arch.api.executors.internal.APIDownloader;
+import org.hisp.dhis.android.core.arch.api.payload.internal.Payload;
 import org.hisp.dhis.android.core.arch.call.factories.internal.UidsCall;
+import org.hisp.dhis.android.core.arch.call.factories.internal.UidsStreamingCall;
 import org.hisp.dhis.android.core.arch.handlers.internal.Handler;
 import org.hisp.dhis.android.core.common.ObjectWithUid;
 import org.hisp.dhis.android.core.program.ProgramRule;
@@ -40,10 +42,11 @@ import java.util.Set;
 import javax.inject.Inject;
 
 import dagger.Reusable;
+import io.reactivex.Completable;
 import io.reactivex.Single;
 
 @Reusable
-final class ProgramRuleCall implements UidsCall<ProgramRule> {
+final class ProgramRuleCall implements UidsCall<ProgramRule>, UidsStreamingCall<ProgramRule> {
 
     private static final int MAX_UID_LIST_SIZE = 64;
 
@@ -60,9 +63,17 @@ final class ProgramRuleCall implements UidsCall<ProgramRule> {
 
     @Override
     public Single<List<ProgramRule>> download(Set<String> programUids) {
-        return apiDownloader.downloadPartitioned(programUids, MAX_UID_LIST_SIZE, handler, partitionUids -> {
-            String programUidsFilterStr = "program." + ObjectWithUid.uid.in(partitionUids).generateString();
-            return service.getProgramRules(ProgramRuleFields.allFields, programUidsFilterStr, Boolean.FALSE);
-        });
+        return apiDownloader.downloadPartitioned(programUids, MAX_UID_LIST_SIZE, handler, this::downloadPartition);
     }
-}
\ No newline at end of file
+
+    @Override
+    public Completable downloadStreaming(Set<String> programUids) {
+        return apiDownloader.downloadPartitionedStreaming(programUids, MAX_UID_LIST_SIZE, handler,
+                this::downloadPartition);
+    }
+
+    private Single<Payload<ProgramRule>> downloadPartition(Set<String> partitionUids) {
+        String programUidsFilterStr = "program." + ObjectWithUid.uid.in(partitionUids).generateString();
+        return service.getProgramRules(ProgramRuleFields.allFields, programUidsFilterStr, Boolean.FALSE);
+    }
+}
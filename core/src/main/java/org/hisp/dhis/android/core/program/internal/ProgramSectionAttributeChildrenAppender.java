@@ -31,30 +31,32 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.LinkChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.program.ProgramSection;
 import org.hisp.dhis.android.core.program.ProgramSectionAttributeLinkTableInfo;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityAttribute;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityAttributeTableInfo;
 
-final class ProgramSectionAttributeChildrenAppender extends ChildrenAppender<ProgramSection> {
+import java.util.List;
+
+final class ProgramSectionAttributeChildrenAppender
+        extends BatchedChildrenAppender<ProgramSection, TrackedEntityAttribute> {
 
     static final LinkTableChildProjection CHILD_PROJECTION = new LinkTableChildProjection(
             TrackedEntityAttributeTableInfo.TABLE_INFO,
             ProgramSectionAttributeLinkTableInfo.Columns.PROGRAM_SECTION,
             ProgramSectionAttributeLinkTableInfo.Columns.ATTRIBUTE);
 
-    private final LinkChildStore<ProgramSection, TrackedEntityAttribute> linkChildStore;
-
     private ProgramSectionAttributeChildrenAppender(
             LinkChildStore<ProgramSection, TrackedEntityAttribute> linkChildStore) {
-        this.linkChildStore = linkChildStore;
+        super(linkChildStore);
     }
 
     @Override
-    protected ProgramSection appendChildren(ProgramSection programSection) {
+    protected ProgramSection appendChildren(ProgramSection programSection, List<TrackedEntityAttribute> children) {
         ProgramSection.Builder builder = programSection.toBuilder();
-        builder.attributes(linkChildStore.getChildren(programSection));
+        builder.attributes(children);
         return builder.build();
     }
 
@@ -31,30 +31,32 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.LinkChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.dataelement.DataElement;
 import org.hisp.dhis.android.core.dataelement.DataElementTableInfo;
 import org.hisp.dhis.android.core.program.ProgramStageSection;
 import org.hisp.dhis.android.core.program.ProgramStageSectionDataElementLinkTableInfo;
 
-final class ProgramStageSectionDataElementChildrenAppender extends ChildrenAppender<ProgramStageSection> {
+import java.util.List;
+
+final class ProgramStageSectionDataElementChildrenAppender
+        extends BatchedChildrenAppender<ProgramStageSection, DataElement> {
 
     static final LinkTableChildProjection CHILD_PROJECTION = new LinkTableChildProjection(
             DataElementTableInfo.TABLE_INFO,
             ProgramStageSectionDataElementLinkTableInfo.Columns.PROGRAM_STAGE_SECTION,
             ProgramStageSectionDataElementLinkTableInfo.Columns.DATA_ELEMENT);
 
-    private final LinkChildStore<ProgramStageSection, DataElement> linkChildStore;
-
     private ProgramStageSectionDataElementChildrenAppender(
             LinkChildStore<ProgramStageSection, DataElement> linkChildStore) {
-        this.linkChildStore = linkChildStore;
+        super(linkChildStore);
     }
 
     @Override
-    protected ProgramStageSection appendChildren(ProgramStageSection programStageSection) {
+    protected ProgramStageSection appendChildren(ProgramStageSection programStageSection, List<DataElement> children) {
         ProgramStageSection.Builder builder = programStageSection.toBuilder();
-        builder.dataElements(linkChildStore.getChildren(programStageSection));
+        builder.dataElements(children);
         return builder.build();
     }
 
@@ -31,30 +31,33 @@ import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.LinkChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
 import org.hisp.dhis.android.core.arch.db.stores.projections.internal.LinkTableChildProjection;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.program.ProgramIndicator;
 import org.hisp.dhis.android.core.program.ProgramIndicatorTableInfo;
 import org.hisp.dhis.android.core.program.ProgramStageSection;
 import org.hisp.dhis.android.core.program.ProgramStageSectionProgramIndicatorLinkTableInfo;
 
-final class ProgramStageSectionProgramIndicatorChildrenAppender extends ChildrenAppender<ProgramStageSection> {
+import java.util.List;
+
+final class ProgramStageSectionProgramIndicatorChildrenAppender
+        extends BatchedChildrenAppender<ProgramStageSection, ProgramIndicator> {
 
     private static final LinkTableChildProjection CHILD_PROJECTION = new LinkTableChildProjection(
             ProgramIndicatorTableInfo.TABLE_INFO,
             ProgramStageSectionProgramIndicatorLinkTableInfo.Columns.PROGRAM_STAGE_SECTION,
             ProgramStageSectionProgramIndicatorLinkTableInfo.Columns.PROGRAM_INDICATOR);
 
-    private final LinkChildStore<ProgramStageSection, ProgramIndicator> linkChildStore;
-
     private ProgramStageSectionProgramIndicatorChildrenAppender(
             LinkChildStore<ProgramStageSection, ProgramIndicator> linkChildStore) {
-        this.linkChildStore = linkChildStore;
+        super(linkChildStore);
     }
 
     @Override
-    protected ProgramStageSection appendChildren(ProgramStageSection programStageSection) {
+    protected ProgramStageSection appendChildren(ProgramStageSection programStageSection,
+                                                 List<ProgramIndicator> children) {
         ProgramStageSection.Builder builder = programStageSection.toBuilder();
-        builder.programIndicators(linkChildStore.getChildren(programStageSection));
+        builder.programIndicators(children);
         return builder.build();
     }
 
@@ -30,6 +30,9 @@ package org.hisp.dhis.android.core.program.programindicatorengine;
 
 import androidx.annotation.NonNull;
 
+import java.util.Collection;
+import java.util.Map;
+
 public interface ProgramIndicatorEngine {
 
     /**
@@ -66,4 +69,33 @@ public interface ProgramIndicatorEngine {
      */
     String getEventProgramIndicatorValue(@NonNull String eventUid, @NonNull String programIndicatorUid);
 
-}
\ No newline at end of file
+    /**
+     * Evaluates a set of program indicators for a set of enrollments. Constants, metadata and data values are loaded
+     * once for the whole set, so this method should be preferred to repeated calls to
+     * {@link #getEnrollmentProgramIndicatorValue(String, String)} when evaluating line-lists.
+     *
+     * @param enrollmentUids Enrollments to evaluate
+     * @param programIndicatorUids Program indicators to evaluate
+     * @return Map of enrollment uid to a map of program indicator uid to its evaluation. Enrollments or program
+     * indicators that do not exist are not included.
+     */
+    @NonNull
+    Map<String, Map<String, String>> getEnrollmentProgramIndicatorValues(
+            @NonNull Collection<String> enrollmentUids,
+            @NonNull Collection<String> programIndicatorUids);
+
+    /**
+     * Evaluates a set of program indicators for a set of events. Constants, metadata and data values are loaded
+     * once for the whole set, so this method should be preferred to repeated calls to
+     * {@link #getEventProgramIndicatorValue(String, String)} when evaluating line-lists.
+     *
+     * @param eventUids Events to evaluate
+     * @param programIndicatorUids Program indicators to evaluate
+     * @return Map of event uid to a map of program indicator uid to its evaluation. Events that do not exist or are
+     * deleted and program indicators that do not exist are not included.
+     */
+    @NonNull
+    Map<String, Map<String, String>> getEventProgramIndicatorValues(
+            @NonNull Collection<String> eventUids,
+            @NonNull Collection<String> programIndicatorUids);
+}
@@ -27,11 +27,17 @@
  */
 package org.hisp.dhis.android.core.program.programindicatorengine.internal
 
+import io.reactivex.Flowable
+import io.reactivex.schedulers.Schedulers
 import java.util.*
 import javax.inject.Inject
+import org.hisp.dhis.android.core.arch.db.querybuilders.internal.WhereClauseBuilder
 import org.hisp.dhis.android.core.arch.db.stores.internal.IdentifiableObjectStore
+import org.hisp.dhis.android.core.arch.db.stores.internal.StoreUtils
 import org.hisp.dhis.android.core.arch.helpers.UidsHelper.mapByUid
 import org.hisp.dhis.android.core.arch.repositories.scope.RepositoryScope
+import org.hisp.dhis.android.core.common.IdentifiableColumns
+import org.hisp.dhis.android.core.common.ObjectWithUidInterface
 import org.hisp.dhis.android.core.constant.Constant
 import org.hisp.dhis.android.core.dataelement.DataElement
 import org.hisp.dhis.android.core.enrollment.Enrollment
@@ -43,6 +49,7 @@ import org.hisp.dhis.android.core.program.ProgramStageCollectionRepository
 import org.hisp.dhis.android.core.program.programindicatorengine.ProgramIndicatorEngine
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityAttribute
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityAttributeValue
+import org.hisp.dhis.android.core.trackedentity.TrackedEntityAttributeValueTableInfo
 import org.hisp.dhis.android.core.trackedentity.internal.TrackedEntityAttributeValueStore
 
 internal class ProgramIndicatorEngineImpl @Inject constructor(
@@ -107,17 +114,110 @@ internal class ProgramIndicatorEngineImpl @Inject constructor(
         return evaluateProgramIndicatorContext(programIndicatorContext)
     }
 
-    private fun evaluateProgramIndicatorContext(context: ProgramIndicatorContext): String? {
+    override fun getEnrollmentProgramIndicatorValues(
+        enrollmentUids: Collection<String>,
+        programIndicatorUids: Collection<String>
+    ): Map<String, Map<String, String?>> {
+        val programIndicators = getProgramIndicators(programIndicatorUids)
+        if (enrollmentUids.isEmpty() || programIndicators.isEmpty()) {
+            return mapOf()
+        }
+
+        val enrollments = getEnrollments(enrollmentUids)
+        val attributeValues = getAttributeValuesByInstance(enrollments.mapNotNull { it.trackedEntityInstance() })
+        val events = getEventsByEnrollment(enrollments)
+
+        return evaluateInBatch(enrollments, programIndicators) { enrollment, programIndicator ->
+            ProgramIndicatorContext.builder()
+                .programIndicator(programIndicator)
+                .attributeValues(attributeValues[enrollment.trackedEntityInstance()] ?: mapOf())
+                .enrollment(enrollment)
+                .events(events[enrollment.uid()] ?: mapOf())
+                .build()
+        }
+    }
+
+    override fun getEventProgramIndicatorValues(
+        eventUids: Collection<String>,
+        programIndicatorUids: Collection<String>
+    ): Map<String, Map<String, String?>> {
+        val programIndicators = getProgramIndicators(programIndicatorUids)
+        if (eventUids.isEmpty() || programIndicators.isEmpty()) {
+            return mapOf()
+        }
+
+        val events = eventUids.toSet().chunked(StoreUtils.IN_CLAUSE_CHUNK_SIZE).flatMap { chunk ->
+            eventRepository
+                .withTrackedEntityDataValues()
+                .byDeleted().isFalse
+                .byUid().`in`(chunk)
+                .blockingGet()
+        }
+        val enrollments = getEnrollments(events.mapNotNull { it.enrollment() }).map { it.uid() to it }.toMap()
+        val attributeValues = getAttributeValuesByInstance(enrollments.values.mapNotNull { it.trackedEntityInstance() })
+
+        return evaluateInBatch(events, programIndicators) { event, programIndicator ->
+            val enrollment = event.enrollment()?.let { enrollments[it] }
+            ProgramIndicatorContext.builder()
+                .programIndicator(programIndicator)
+                .attributeValues(enrollment?.trackedEntityInstance()?.let { attributeValues[it] } ?: mapOf())
+                .enrollment(enrollment)
+                .events(mapOf(event.programStage() to listOf(event)))
+                .build()
+        }
+    }
+
+    private fun evaluateProgramIndicatorContext(
+        context: ProgramIndicatorContext,
+        constants: Map<String, Constant> = constantMap,
+        metadataCache: ProgramIndicatorMetadataCache =
+            ProgramIndicatorMetadataCache(dataElementStore, trackedEntityAttributeStore)
+    ): String? {
         val executor = ProgramIndicatorExecutor(
-            constantMap,
+            constants,
             context,
             dataElementStore,
-            trackedEntityAttributeStore
+            trackedEntityAttributeStore,
+            metadataCache
         )
 
         return executor.getProgramIndicatorValue(context.programIndicator().expression())
     }
 
+    /**
+     * Evaluates every program indicator for every item. Constants and metadata are loaded once for the whole
+     * batch; large batches are spread over the computation scheduler, as evaluation itself is CPU bound.
+     */
+    private fun <T : ObjectWithUidInterface> evaluateInBatch(
+        items: List<T>,
+        programIndicators: List<ProgramIndicator>,
+        contextFor: (T, ProgramIndicator) -> ProgramIndicatorContext
+    ): Map<String, Map<String, String?>> {
+        val constants = constantMap
+        val metadataCache = ProgramIndicatorMetadataCache(dataElementStore, trackedEntityAttributeStore)
+
+        val evaluateItem = { item: T ->
+            item.uid() to programIndicators.map { programIndicator ->
+                val context = contextFor(item, programIndicator)
+                programIndicator.uid() to evaluateProgramIndicatorContext(context, constants, metadataCache)
+            }.toMap()
+        }
+
+        val results = if (items.size >= PARALLEL_EVALUATION_THRESHOLD) {
+            Flowable.fromIterable(items)
+                .parallel()
+                .runOn(Schedulers.computation())
+                .map { evaluateItem(it) }
+                .sequential()
+                .toList()
+                .blockingGet()
+        } else {
+            items.map(evaluateItem)
+        }
+
+        return results.toMap()
+    }
+
     private val constantMap: Map<String, Constant>
         get() {
             val constants = constantStore.selectAll()
@@ -150,4 +250,74 @@ internal class ProgramIndicatorEngineImpl @Inject constructor(
             programStageUid to programStageEvents
         }.toMap()
     }
+
+    private fun getProgramIndicators(programIndicatorUids: Collection<String>): List<ProgramIndicator> {
+        return selectByUids(programIndicatorStore, programIndicatorUids)
+    }
+
+    private fun getEnrollments(enrollmentUids: Collection<String>): List<Enrollment> {
+        return selectByUids(enrollmentStore, enrollmentUids)
+    }
+
+    private fun <O : ObjectWithUidInterface> selectByUids(
+        store: IdentifiableObjectStore<O>,
+        uids: Collection<String>
+    ): List<O> {
+        return uids.toSet().chunked(StoreUtils.IN_CLAUSE_CHUNK_SIZE).flatMap { chunk ->
+            store.selectWhere(
+                WhereClauseBuilder()
+                    .appendInKeyStringValues(IdentifiableColumns.UID, chunk)
+                    .build()
+            )
+        }
+    }
+
+    private fun getAttributeValuesByInstance(
+        teiUids: Collection<String>
+    ): Map<String, Map<String, TrackedEntityAttributeValue>> {
+        val values = teiUids.toSet().chunked(StoreUtils.IN_CLAUSE_CHUNK_SIZE).flatMap { chunk ->
+            trackedEntityAttributeValueStore.selectWhere(
+                WhereClauseBuilder()
+                    .appendInKeyStringValues(
+                        TrackedEntityAttributeValueTableInfo.Columns.TRACKED_ENTITY_INSTANCE, chunk
+                    )
+                    .build()
+            )
+        }
+
+        return values
+            .filter { it.trackedEntityInstance() != null && it.trackedEntityAttribute() != null }
+            .groupBy { it.trackedEntityInstance()!! }
+            .mapValues { entry -> entry.value.map { it.trackedEntityAttribute()!! to it }.toMap() }
+    }
+
+    private fun getEventsByEnrollment(enrollments: List<Enrollment>): Map<String, Map<String, List<Event>>> {
+        val programStageUids = enrollments.mapNotNull { it.program() }.toSet().let { programUids ->
+            programRepository.byProgramUid().`in`(programUids).blockingGet()
+                .filter { it.program() != null }
+                .groupBy({ it.program()!!.uid() }, { it.uid() })
+        }
+
+        val events = enrollments.map { it.uid() }.chunked(StoreUtils.IN_CLAUSE_CHUNK_SIZE).flatMap { chunk ->
+            eventRepository
+                .byEnrollmentUid().`in`(chunk)
+                .byDeleted().isFalse
+                .orderByEventDate(RepositoryScope.OrderByDirection.ASC)
+                .orderByLastUpdated(RepositoryScope.OrderByDirection.ASC)
+                .withTrackedEntityDataValues()
+                .blockingGet()
+        }.groupBy { it.enrollment()!! }
+
+        return enrollments.map { enrollment ->
+            val enrollmentEvents = events[enrollment.uid()] ?: listOf()
+            val stageUids = programStageUids[enrollment.program()] ?: listOf()
+            enrollment.uid() to stageUids.map { stageUid ->
+                stageUid to enrollmentEvents.filter { it.programStage() == stageUid }
+            }.toMap()
+        }.toMap()
+    }
+
+    companion object {
+        private const val PARALLEL_EVALUATION_THRESHOLD = 100
+    }
 }
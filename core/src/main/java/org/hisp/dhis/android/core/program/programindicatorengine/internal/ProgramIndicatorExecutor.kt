@@ -41,7 +41,9 @@ internal class ProgramIndicatorExecutor constructor(
     private val constantMap: Map<String, Constant>,
     private val programIndicatorContext: ProgramIndicatorContext,
     private val dataElementStore: IdentifiableObjectStore<DataElement>,
-    private val trackedEntityAttributeStore: IdentifiableObjectStore<TrackedEntityAttribute>
+    private val trackedEntityAttributeStore: IdentifiableObjectStore<TrackedEntityAttribute>,
+    private val metadataCache: ProgramIndicatorMetadataCache =
+        ProgramIndicatorMetadataCache(dataElementStore, trackedEntityAttributeStore)
 ) {
     fun getProgramIndicatorValue(expression: String?): String? {
         val visitor = newVisitor(ParserUtils.ITEM_EVALUATE)
@@ -66,6 +68,14 @@ internal class ProgramIndicatorExecutor constructor(
         return getCountVisitor(expression).itemZeroPosValuesFound
     }
 
+    fun getDataElement(uid: String): DataElement? {
+        return metadataCache.getDataElement(uid)
+    }
+
+    fun getTrackedEntityAttribute(uid: String): TrackedEntityAttribute? {
+        return metadataCache.getTrackedEntityAttribute(uid)
+    }
+
     private fun getCountVisitor(expression: String): CommonExpressionVisitor {
         val visitor = newVisitor(ParserUtils.ITEM_VALUE_COUNT)
         CommonParser.visit(expression, visitor)
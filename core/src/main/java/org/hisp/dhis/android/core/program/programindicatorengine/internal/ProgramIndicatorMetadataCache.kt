@@ -0,0 +1,53 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.program.programindicatorengine.internal
+
+import java.util.concurrent.ConcurrentHashMap
+import org.hisp.dhis.android.core.arch.db.stores.internal.IdentifiableObjectStore
+import org.hisp.dhis.android.core.dataelement.DataElement
+import org.hisp.dhis.android.core.trackedentity.TrackedEntityAttribute
+
+/**
+ * Memoizes the metadata lookups done by the expression items, so a data element or attribute referenced by
+ * many evaluations is read only once. It is safe to share across executors evaluated in parallel.
+ */
+internal class ProgramIndicatorMetadataCache(
+    private val dataElementStore: IdentifiableObjectStore<DataElement>,
+    private val trackedEntityAttributeStore: IdentifiableObjectStore<TrackedEntityAttribute>
+) {
+    private val dataElements: MutableMap<String, DataElement> = ConcurrentHashMap()
+    private val attributes: MutableMap<String, TrackedEntityAttribute> = ConcurrentHashMap()
+
+    fun getDataElement(uid: String): DataElement? {
+        return dataElements[uid] ?: dataElementStore.selectByUid(uid)?.also { dataElements[uid] = it }
+    }
+
+    fun getTrackedEntityAttribute(uid: String): TrackedEntityAttribute? {
+        return attributes[uid] ?: trackedEntityAttributeStore.selectByUid(uid)?.also { attributes[uid] = it }
+    }
+}
@@ -46,7 +46,8 @@ public class ProgramItemAttribute
         TrackedEntityAttributeValue attributeValue =
                 visitor.getProgramIndicatorContext().attributeValues().get(attributeUid);
 
-        TrackedEntityAttribute attribute = visitor.getTrackedEntityAttributeStore().selectByUid(attributeUid);
+        TrackedEntityAttribute attribute =
+                visitor.getProgramIndicatorExecutor().getTrackedEntityAttribute(attributeUid);
 
         String value = attributeValue == null ? null : attributeValue.value();
 
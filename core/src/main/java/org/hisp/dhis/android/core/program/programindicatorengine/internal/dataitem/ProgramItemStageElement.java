@@ -59,7 +59,7 @@ public class ProgramItemStageElement
             }
         }
 
-        DataElement dataElement = visitor.getDataElementStore().selectByUid(dataElementId);
+        DataElement dataElement = visitor.getProgramIndicatorExecutor().getDataElement(dataElementId);
 
         Object handledValue = visitor.handleNulls(value);
         String strValue = handledValue == null ? null : handledValue.toString();
@@ -60,6 +60,14 @@ internal class RelationshipHandlerImpl @Inject constructor(
         return o
     }
 
+    /**
+     * Existing relationships are matched by their items, which are written after each relationship is persisted,
+     * so relationships must keep being handled one by one.
+     */
+    override fun isBulkPersistenceSupported(): Boolean {
+        return false
+    }
+
     override fun afterObjectHandled(o: Relationship, action: HandleAction) {
         relationshipItemHandler.handle(
             o.from()!!.toBuilder()
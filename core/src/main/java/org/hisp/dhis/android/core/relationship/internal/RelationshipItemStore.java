@@ -29,10 +29,14 @@
 package org.hisp.dhis.android.core.relationship.internal;
 
 import org.hisp.dhis.android.core.arch.db.stores.internal.ObjectWithoutUidStore;
+import org.hisp.dhis.android.core.common.State;
 import org.hisp.dhis.android.core.relationship.RelationshipConstraintType;
 import org.hisp.dhis.android.core.relationship.RelationshipItem;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import androidx.annotation.NonNull;
 
@@ -44,4 +48,12 @@ public interface RelationshipItemStore extends ObjectWithoutUidStore<Relationshi
             @NonNull RelationshipConstraintType constraintType);
 
     List<String> getRelatedTeiUids(List<String> trackedEntityInstanceUids);
+
+    /**
+     * Resolves, for each of the given TEIs, the TEIs reachable following FROM -> TO relationships whose state is
+     * {@code state}. The traversal only continues through TEIs in that state.
+     *
+     * @return map from each given TEI uid to its related TEI uids. TEIs without related TEIs are not included.
+     */
+    Map<String, Set<String>> getRelatedTeiUidsRecursively(Collection<String> trackedEntityInstanceUids, State state);
 }
\ No newline at end of file
@@ -38,14 +38,27 @@ import org.hisp.dhis.android.core.arch.db.querybuilders.internal.WhereClauseBuil
 import org.hisp.dhis.android.core.arch.db.stores.binders.internal.StatementBinder;
 import org.hisp.dhis.android.core.arch.db.stores.binders.internal.WhereStatementBinder;
 import org.hisp.dhis.android.core.arch.db.stores.internal.ObjectWithoutUidStoreImpl;
+import org.hisp.dhis.android.core.arch.db.stores.internal.StoreUtils;
+import org.hisp.dhis.android.core.arch.helpers.CollectionsHelper;
 import org.hisp.dhis.android.core.arch.helpers.UidsHelper;
+import org.hisp.dhis.android.core.common.DataColumns;
+import org.hisp.dhis.android.core.common.IdentifiableColumns;
+import org.hisp.dhis.android.core.common.State;
 import org.hisp.dhis.android.core.relationship.RelationshipConstraintType;
 import org.hisp.dhis.android.core.relationship.RelationshipItem;
 import org.hisp.dhis.android.core.relationship.RelationshipItemTableInfo;
 import org.hisp.dhis.android.core.relationship.RelationshipItemTableInfo.Columns;
+import org.hisp.dhis.android.core.trackedentity.TrackedEntityInstanceTableInfo;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public final class RelationshipItemStoreImpl extends ObjectWithoutUidStoreImpl<RelationshipItem>
         implements RelationshipItemStore {
@@ -137,6 +150,93 @@ public final class RelationshipItemStoreImpl extends ObjectWithoutUidStoreImpl<R
         return relatedTEiUids;
     }
 
+    @Override
+    @SuppressWarnings({"PMD.AvoidInstantiatingObjectsInLoops"})
+    public Map<String, Set<String>> getRelatedTeiUidsRecursively(Collection<String> trackedEntityInstanceUids,
+                                                                 State state) {
+        Map<String, Set<String>> relatedTeis = new HashMap<>();
+        Map<String, Set<String>> directlyRelatedTeis = new HashMap<>();
+        Map<String, Set<String>> pending = new HashMap<>();
+        for (String uid : trackedEntityInstanceUids) {
+            pending.put(uid, Collections.singleton(uid));
+        }
+
+        // Expands the graph one level at a time, so each TEI is only queried once whatever the number of roots.
+        while (!pending.isEmpty()) {
+            Set<String> toExpand = new HashSet<>();
+            for (Set<String> teis : pending.values()) {
+                toExpand.addAll(teis);
+            }
+            toExpand.removeAll(directlyRelatedTeis.keySet());
+            directlyRelatedTeis.putAll(getDirectlyRelatedTeiUids(toExpand, state));
+
+            Map<String, Set<String>> nextPending = new HashMap<>();
+            for (Map.Entry<String, Set<String>> entry : pending.entrySet()) {
+                String root = entry.getKey();
+                Set<String> rootRelatedTeis = relatedTeis.get(root);
+                Set<String> rootPending = new HashSet<>();
+                for (String tei : entry.getValue()) {
+                    for (String relatedTei : directlyRelatedTeis.get(tei)) {
+                        if (!relatedTei.equals(root)) {
+                            if (rootRelatedTeis == null) {
+                                rootRelatedTeis = new LinkedHashSet<>();
+                                relatedTeis.put(root, rootRelatedTeis);
+                            }
+                            if (rootRelatedTeis.add(relatedTei)) {
+                                rootPending.add(relatedTei);
+                            }
+                        }
+                    }
+                }
+                if (!rootPending.isEmpty()) {
+                    nextPending.put(root, rootPending);
+                }
+            }
+            pending = nextPending;
+        }
+        return relatedTeis;
+    }
+
+    @SuppressWarnings({"PMD.AvoidInstantiatingObjectsInLoops"})
+    private Map<String, Set<String>> getDirectlyRelatedTeiUids(Collection<String> trackedEntityInstanceUids,
+                                                               State state) {
+        Map<String, Set<String>> relatedTeis = new HashMap<>();
+        for (String uid : trackedEntityInstanceUids) {
+            relatedTeis.put(uid, new LinkedHashSet<>());
+        }
+        for (Set<String> chunk : CollectionsHelper.setPartition(trackedEntityInstanceUids,
+                StoreUtils.IN_CLAUSE_CHUNK_SIZE)) {
+            try (Cursor cursor = getDatabaseAdapter().rawQuery(directlyRelatedTeisQuery(chunk, state))) {
+                if (cursor.getCount() > 0) {
+                    cursor.moveToFirst();
+                    do {
+                        relatedTeis.get(cursor.getString(0)).add(cursor.getString(1));
+                    }
+                    while (cursor.moveToNext());
+                }
+            }
+        }
+        return relatedTeis;
+    }
+
+    private String directlyRelatedTeisQuery(Collection<String> trackedEntityInstanceUids, State state) {
+        String teiTable = TrackedEntityInstanceTableInfo.TABLE_INFO.name();
+        String itemTable = RelationshipItemTableInfo.TABLE_INFO.name();
+        String uids = CollectionsHelper.commaAndSpaceSeparatedArrayValues(
+                CollectionsHelper.withSingleQuotationMarksArray(trackedEntityInstanceUids));
+
+        return "SELECT fromItem." + Columns.TRACKED_ENTITY_INSTANCE + ", " +
+                "toItem." + Columns.TRACKED_ENTITY_INSTANCE + " FROM " + itemTable + " fromItem " +
+                "INNER JOIN " + itemTable + " toItem " +
+                "ON toItem." + Columns.RELATIONSHIP + " = fromItem." + Columns.RELATIONSHIP + " " +
+                "AND toItem." + Columns.RELATIONSHIP_ITEM_TYPE + " = '" + RelationshipConstraintType.TO + "' " +
+                "INNER JOIN " + teiTable + " relatedTei " +
+                "ON relatedTei." + IdentifiableColumns.UID + " = toItem." + Columns.TRACKED_ENTITY_INSTANCE + " " +
+                "AND relatedTei." + DataColumns.STATE + " = '" + state.name() + "' " +
+                "WHERE fromItem." + Columns.TRACKED_ENTITY_INSTANCE + " IN (" + uids + ") " +
+                "AND fromItem." + Columns.RELATIONSHIP_ITEM_TYPE + " = '" + RelationshipConstraintType.FROM + "';";
+    }
+
     private Cursor getAllItemsOfSameType(@NonNull RelationshipItem from, @NonNull RelationshipItem to) {
         String query = "SELECT " + RelationshipItemTableInfo.Columns.RELATIONSHIP + ", " +
                 "MAX(CASE WHEN " + RelationshipItemTableInfo.Columns.RELATIONSHIP_ITEM_TYPE + " = 'FROM' " +
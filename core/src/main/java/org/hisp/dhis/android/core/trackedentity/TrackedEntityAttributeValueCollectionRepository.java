@@ -35,6 +35,7 @@ import org.hisp.dhis.android.core.arch.repositories.filters.internal.FilterConne
 import org.hisp.dhis.android.core.arch.repositories.filters.internal.StringFilterConnector;
 import org.hisp.dhis.android.core.arch.repositories.scope.RepositoryScope;
 import org.hisp.dhis.android.core.common.internal.DataStatePropagator;
+import org.hisp.dhis.android.core.maintenance.D2Error;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityAttributeValueTableInfo.Columns;
 import org.hisp.dhis.android.core.trackedentity.internal.TrackedEntityAttributeValueStore;
 
@@ -43,6 +44,7 @@ import java.util.Map;
 import javax.inject.Inject;
 
 import dagger.Reusable;
+import io.reactivex.Completable;
 
 @Reusable
 public final class TrackedEntityAttributeValueCollectionRepository extends ReadOnlyCollectionRepositoryImpl
@@ -71,6 +73,35 @@ public final class TrackedEntityAttributeValueCollectionRepository extends ReadO
                 dataStatePropagator, trackedEntityAttribute, trackedEntityInstance);
     }
 
+    /**
+     * Sets the values of several attributes of a tracked entity instance in an asynchronous way. See
+     * {@link #blockingSet(String, Map)}.
+     * @param trackedEntityInstance the tracked entity instance uid
+     * @param valuesByAttribute the values to set, keyed by tracked entity attribute uid
+     * @return the {@code Completable} which notifies the completion
+     */
+    public Completable set(String trackedEntityInstance, Map<String, String> valuesByAttribute) {
+        return Completable.fromAction(() -> blockingSet(trackedEntityInstance, valuesByAttribute));
+    }
+
+    /**
+     * Sets the values of several attributes of a tracked entity instance in a synchronous way. All the values are
+     * stored in a single transaction and the state of the tracked entity instance is propagated once at the end.
+     * If any value can't be set, no value is stored.
+     * Important: this is a blocking method and it should not be executed in the main thread. Consider the
+     * asynchronous version {@link #set(String, Map)}.
+     * @param trackedEntityInstance the tracked entity instance uid
+     * @param valuesByAttribute the values to set, keyed by tracked entity attribute uid
+     * @throws D2Error a D2Error wrapping any possible error
+     */
+    public void blockingSet(String trackedEntityInstance, Map<String, String> valuesByAttribute) throws D2Error {
+        dataStatePropagator.propagateInBatch(() -> {
+            for (Map.Entry<String, String> entry : valuesByAttribute.entrySet()) {
+                value(entry.getKey(), trackedEntityInstance).blockingSet(entry.getValue());
+            }
+        });
+    }
+
     public StringFilterConnector<TrackedEntityAttributeValueCollectionRepository> byTrackedEntityAttribute() {
         return cf.string(Columns.TRACKED_ENTITY_ATTRIBUTE);
     }
@@ -36,6 +36,7 @@ import org.hisp.dhis.android.core.arch.repositories.filters.internal.FilterConne
 import org.hisp.dhis.android.core.arch.repositories.filters.internal.StringFilterConnector;
 import org.hisp.dhis.android.core.arch.repositories.scope.RepositoryScope;
 import org.hisp.dhis.android.core.common.internal.DataStatePropagator;
+import org.hisp.dhis.android.core.maintenance.D2Error;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityDataValueTableInfo.Columns;
 import org.hisp.dhis.android.core.trackedentity.internal.TrackedEntityDataValueStore;
 
@@ -44,6 +45,7 @@ import java.util.Map;
 import javax.inject.Inject;
 
 import dagger.Reusable;
+import io.reactivex.Completable;
 
 @Reusable
 public final class TrackedEntityDataValueCollectionRepository
@@ -70,6 +72,35 @@ public final class TrackedEntityDataValueCollectionRepository
                 store, childrenAppenders, updatedScope, dataStatePropagator, event, dataElement);
     }
 
+    /**
+     * Sets the values of several data elements of an event in an asynchronous way. See
+     * {@link #blockingSet(String, Map)}.
+     * @param event the event uid
+     * @param valuesByDataElement the values to set, keyed by data element uid
+     * @return the {@code Completable} which notifies the completion
+     */
+    public Completable set(String event, Map<String, String> valuesByDataElement) {
+        return Completable.fromAction(() -> blockingSet(event, valuesByDataElement));
+    }
+
+    /**
+     * Sets the values of several data elements of an event in a synchronous way. All the values are stored in a
+     * single transaction and the states of the event, enrollment and tracked entity instance are propagated once at
+     * the end. If any value can't be set, no value is stored.
+     * Important: this is a blocking method and it should not be executed in the main thread. Consider the
+     * asynchronous version {@link #set(String, Map)}.
+     * @param event the event uid
+     * @param valuesByDataElement the values to set, keyed by data element uid
+     * @throws D2Error a D2Error wrapping any possible error
+     */
+    public void blockingSet(String event, Map<String, String> valuesByDataElement) throws D2Error {
+        dataStatePropagator.propagateInBatch(() -> {
+            for (Map.Entry<String, String> entry : valuesByDataElement.entrySet()) {
+                value(event, entry.getKey()).blockingSet(entry.getValue());
+            }
+        });
+    }
+
     public StringFilterConnector<TrackedEntityDataValueCollectionRepository> byEvent() {
         return cf.string(Columns.EVENT);
     }
@@ -29,20 +29,17 @@ package org.hisp.dhis.android.core.trackedentity.internal
 
 import dagger.Reusable
 import javax.inject.Inject
-import org.hisp.dhis.android.core.arch.db.querybuilders.internal.WhereClauseBuilder
-import org.hisp.dhis.android.core.arch.db.stores.internal.IdentifiableObjectStore
 import org.hisp.dhis.android.core.arch.handlers.internal.Transformer
-import org.hisp.dhis.android.core.common.DataColumns
 import org.hisp.dhis.android.core.common.State
 import org.hisp.dhis.android.core.enrollment.NewTrackerImporterEnrollment
 import org.hisp.dhis.android.core.enrollment.NewTrackerImporterEnrollmentTransformer
 import org.hisp.dhis.android.core.enrollment.internal.EnrollmentStore
 import org.hisp.dhis.android.core.event.NewTrackerImporterEvent
 import org.hisp.dhis.android.core.event.NewTrackerImporterEventTransformer
+import org.hisp.dhis.android.core.event.internal.EventPostNoteStore
 import org.hisp.dhis.android.core.event.internal.EventStore
 import org.hisp.dhis.android.core.note.NewTrackerImporterNote
 import org.hisp.dhis.android.core.note.NewTrackerImporterNoteTransformer
-import org.hisp.dhis.android.core.note.Note
 import org.hisp.dhis.android.core.trackedentity.*
 
 @Reusable
@@ -51,7 +48,7 @@ internal class NewTrackerImporterTrackedEntityPostPayloadGenerator @Inject inter
     private val eventStore: EventStore,
     private val trackedEntityDataValueStore: TrackedEntityDataValueStore,
     private val trackedEntityAttributeValueStore: TrackedEntityAttributeValueStore,
-    private val noteStore: IdentifiableObjectStore<Note>,
+    private val noteStore: EventPostNoteStore,
     private val stateManager: NewTrackerImporterTrackedEntityPostStateManager
 ) {
 
@@ -74,7 +71,15 @@ internal class NewTrackerImporterTrackedEntityPostPayloadGenerator @Inject inter
             trackedEntityAttributeValueStore.queryTrackedEntityAttributeValueToPost(),
             NewTrackerImporterTrackedEntityAttributeValueTransformer()
         )
-        val notes = getNotes()
+        val enrollmentUids = filteredTrackedEntityInstances.flatMap { tei ->
+            enrollmentMap[tei.uid()]?.map { it.uid() } ?: emptyList()
+        }
+        val eventUids = enrollmentUids.flatMap { enrollmentUid ->
+            eventMap[enrollmentUid]?.map { it.uid() } ?: emptyList()
+        }
+        val noteTransformer = NewTrackerImporterNoteTransformer()
+        val eventNotes = transformMap(noteStore.queryNotes(eventUids), noteTransformer)
+        val enrollmentNotes = transformMap(noteStore.queryEnrollmentNotes(enrollmentUids), noteTransformer)
 
         val trackedEntityTransformer = NewTrackerImporterTranckedEntityTransformer()
 
@@ -85,7 +90,8 @@ internal class NewTrackerImporterTrackedEntityPostPayloadGenerator @Inject inter
                 eventMap,
                 enrollmentMap,
                 attributeValueMap,
-                notes
+                eventNotes,
+                enrollmentNotes
             )
         }
 
@@ -93,18 +99,8 @@ internal class NewTrackerImporterTrackedEntityPostPayloadGenerator @Inject inter
         return trackedEntitiesToSync
     }
 
-    private fun getNotes(): List<NewTrackerImporterNote> {
-        val whereNotesClause = WhereClauseBuilder()
-            .appendInKeyStringValues(
-                DataColumns.STATE, State.uploadableStatesIncludingError().map { it.name }
-            )
-            .build()
-        val notesTransformer = NewTrackerImporterNoteTransformer()
-        return noteStore.selectWhere(whereNotesClause).map { notesTransformer.transform(it) }
-    }
-
     private fun <A, B> transformMap(
-        map: MutableMap<String, MutableList<A>>,
+        map: Map<String, List<A>>,
         transformer: Transformer<A, B>
     ): Map<String, List<B>> {
         return map.mapValues {
@@ -120,31 +116,36 @@ internal class NewTrackerImporterTrackedEntityPostPayloadGenerator @Inject inter
         eventMap: Map<String, List<NewTrackerImporterEvent>>,
         enrollmentMap: Map<String, List<NewTrackerImporterEnrollment>>,
         attributeValueMap: Map<String, List<NewTrackerImporterTrackedEntityAttributeValue>>,
-        notes: List<NewTrackerImporterNote>
+        eventNotes: Map<String, List<NewTrackerImporterNote>>,
+        enrollmentNotes: Map<String, List<NewTrackerImporterNote>>
     ): NewTrackerImporterTrackedEntity {
         return trackedEntity.toBuilder()
-            .enrollments(getEnrollments(dataValueMap, eventMap, enrollmentMap, notes, trackedEntity.uid()))
+            .enrollments(
+                getEnrollments(dataValueMap, eventMap, enrollmentMap, eventNotes, enrollmentNotes, trackedEntity.uid())
+            )
             .trackedEntityAttributeValues(attributeValueMap[trackedEntity.uid()] ?: emptyList())
             .build()
     }
 
+    @Suppress("LongParameterList")
     private fun getEnrollments(
         dataValueMap: Map<String, List<NewTrackerImporterTrackedEntityDataValue>>,
         eventMap: Map<String, List<NewTrackerImporterEvent>>,
         enrollmentMap: Map<String, List<NewTrackerImporterEnrollment>>,
-        notes: List<NewTrackerImporterNote>,
+        eventNotes: Map<String, List<NewTrackerImporterNote>>,
+        enrollmentNotes: Map<String, List<NewTrackerImporterNote>>,
         trackedEntityInstanceUid: String
     ): List<NewTrackerImporterEnrollment> {
         return enrollmentMap[trackedEntityInstanceUid]?.map { enrollment ->
             val events = eventMap[enrollment.uid()]?.map { event ->
                 val eventBuilder = event.toBuilder()
                     .trackedEntityDataValues(dataValueMap[event.uid()])
-                    .notes(notes.filter { it.event() == event.uid() })
+                    .notes(eventNotes[event.uid()] ?: emptyList())
                 eventBuilder.build()
             } ?: emptyList()
             NewTrackerImporterEnrollment.builder()
                 .events(events)
-                .notes(notes.filter { it.enrollment() == enrollment.uid() })
+                .notes(enrollmentNotes[enrollment.uid()] ?: emptyList())
                 .build()
         } ?: emptyList()
     }
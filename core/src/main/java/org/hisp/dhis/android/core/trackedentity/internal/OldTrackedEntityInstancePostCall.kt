@@ -58,9 +58,10 @@ internal class OldTrackedEntityInstancePostCall @Inject internal constructor(
     ): Observable<D2Progress> {
         return Observable.create { emitter: ObservableEmitter<D2Progress> ->
             val strategy = if (versionManager.is2_29) "CREATE_AND_UPDATE" else "SYNC"
-            val teiPartitions = payloadGenerator.getTrackedEntityInstancesPartitions(filteredTrackedEntityInstances)
-            val progressManager = D2ProgressManager(teiPartitions.size)
-            for (partition in teiPartitions) {
+            val teiPages = payloadGenerator.getPagedTrackedEntityInstances(filteredTrackedEntityInstances)
+            val progressManager = D2ProgressManager(teiPages.size)
+            for (page in teiPages) {
+                val partition = payloadGenerator.getTrackedEntityInstancesPartition(page)
                 val thisPartition = relationshipDeleteCall.postDeletedRelationships(partition)
                 val trackedEntityInstancePayload = TrackedEntityInstancePayload.create(thisPartition)
                 try {
@@ -102,17 +102,18 @@ public final class TrackedEntityAttributeReservedValueStore
 
     @Override
     public TrackedEntityAttributeReservedValue popOne(@NonNull String ownerUid, @Nullable String organisationUnitUid) {
-        return popOneWhere(where(ownerUid, organisationUnitUid, null));
+        return popOneWhere(where(ownerUid, organisationUnitUid, null).build());
     }
 
     @Override
     public int count(@NonNull String ownerUid, @Nullable String organisationUnitUid, @Nullable String pattern) {
-        return countWhere(where(ownerUid, organisationUnitUid, pattern));
+        WhereClauseBuilder whereClause = where(ownerUid, organisationUnitUid, pattern);
+        return countWhere(whereClause.buildSelection(), whereClause.buildSelectionArgs());
     }
 
-    private String where(@NonNull String ownerUid,
-                         @Nullable String organisationUnit,
-                         @Nullable String pattern) {
+    private WhereClauseBuilder where(@NonNull String ownerUid,
+                                     @Nullable String organisationUnit,
+                                     @Nullable String pattern) {
         WhereClauseBuilder builder = new WhereClauseBuilder()
                 .appendKeyStringValue(Columns.OWNER_UID, ownerUid);
 
@@ -123,7 +124,7 @@ public final class TrackedEntityAttributeReservedValueStore
             builder.appendKeyStringValue(Columns.PATTERN, pattern);
         }
 
-        return builder.build();
+        return builder;
     }
 
     public static TrackedEntityAttributeReservedValueStoreInterface create(DatabaseAdapter databaseAdapter) {
@@ -31,6 +31,7 @@ package org.hisp.dhis.android.core.trackedentity.internal;
 import org.hisp.dhis.android.core.arch.db.stores.internal.ObjectWithoutUidStore;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityAttributeValue;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -40,6 +41,9 @@ public interface TrackedEntityAttributeValueStore extends ObjectWithoutUidStore<
 
     Map<String, List<TrackedEntityAttributeValue>> queryTrackedEntityAttributeValueToPost();
 
+    Map<String, List<TrackedEntityAttributeValue>> queryTrackedEntityAttributeValueToPost(
+            Collection<String> trackedEntityInstanceUids);
+
     List<TrackedEntityAttributeValue> queryByTrackedEntityInstance(String trackedEntityInstanceUid);
 
     void deleteByInstanceAndNotInAttributes(@NonNull String trackedEntityInstanceUid,
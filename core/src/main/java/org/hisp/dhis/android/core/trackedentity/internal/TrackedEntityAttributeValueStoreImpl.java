@@ -44,6 +44,7 @@ import org.hisp.dhis.android.core.trackedentity.TrackedEntityAttributeValue;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityAttributeValueTableInfo;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -90,6 +91,25 @@ public final class TrackedEntityAttributeValueStoreImpl
                         "ON TrackedEntityAttributeValue.trackedEntityInstance = TrackedEntityInstance.uid) " +
                         "WHERE " + teiInUploadableState() + ";";
 
+        return trackedEntityAttributeValueMapFromQuery(toPostQuery);
+    }
+
+    @Override
+    public Map<String, List<TrackedEntityAttributeValue>> queryTrackedEntityAttributeValueToPost(
+            Collection<String> trackedEntityInstanceUids) {
+        String toPostQuery =
+                "SELECT TrackedEntityAttributeValue.* " +
+                        "FROM (TrackedEntityAttributeValue INNER JOIN TrackedEntityInstance " +
+                        "ON TrackedEntityAttributeValue.trackedEntityInstance = TrackedEntityInstance.uid) " +
+                        "WHERE TrackedEntityInstance.uid IN (" + CollectionsHelper.commaAndSpaceSeparatedArrayValues(
+                                CollectionsHelper.withSingleQuotationMarksArray(trackedEntityInstanceUids)) + ") " +
+                        "AND " + teiInUploadableState() + ";";
+
+        return trackedEntityAttributeValueMapFromQuery(toPostQuery);
+    }
+
+    private Map<String, List<TrackedEntityAttributeValue>> trackedEntityAttributeValueMapFromQuery(
+            String toPostQuery) {
         List<TrackedEntityAttributeValue> valueList = trackedEntityAttributeValueListFromQuery(toPostQuery);
 
         Map<String, List<TrackedEntityAttributeValue>> valueMap = new HashMap<>();
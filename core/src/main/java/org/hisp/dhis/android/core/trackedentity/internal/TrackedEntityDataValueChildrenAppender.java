@@ -30,23 +30,24 @@ package org.hisp.dhis.android.core.trackedentity.internal;
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.SingleParentChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.event.Event;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityDataValue;
 
-public final class TrackedEntityDataValueChildrenAppender extends ChildrenAppender<Event> {
+import java.util.List;
 
-
-    private final SingleParentChildStore<Event, TrackedEntityDataValue> childStore;
+public final class TrackedEntityDataValueChildrenAppender
+        extends BatchedChildrenAppender<Event, TrackedEntityDataValue> {
 
     private TrackedEntityDataValueChildrenAppender(SingleParentChildStore<Event, TrackedEntityDataValue> childStore) {
-        this.childStore = childStore;
+        super(childStore);
     }
 
     @Override
-    protected Event appendChildren(Event event) {
+    protected Event appendChildren(Event event, List<TrackedEntityDataValue> children) {
         Event.Builder builder = event.toBuilder();
-        builder.trackedEntityDataValues(childStore.getChildren(event));
+        builder.trackedEntityDataValues(children);
         return builder.build();
     }
 
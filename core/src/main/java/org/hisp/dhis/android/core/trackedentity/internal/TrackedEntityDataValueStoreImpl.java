@@ -46,6 +46,7 @@ import org.hisp.dhis.android.core.trackedentity.TrackedEntityDataValue;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityDataValueTableInfo;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -143,6 +144,20 @@ public final class TrackedEntityDataValueStoreImpl extends ObjectWithoutUidStore
         return queryTrackedEntityDataValues(queryStatement);
     }
 
+    @Override
+    public Map<String, List<TrackedEntityDataValue>> queryTrackerTrackedEntityDataValues(
+            Collection<String> eventUids) {
+
+        String queryStatement = "SELECT TrackedEntityDataValue.* " +
+                " FROM (TrackedEntityDataValue INNER JOIN Event ON TrackedEntityDataValue.event = Event.uid) " +
+                " WHERE Event.enrollment IS NOT NULL " +
+                "AND TrackedEntityDataValue.event IN (" + CollectionsHelper.commaAndSpaceSeparatedArrayValues(
+                        CollectionsHelper.withSingleQuotationMarksArray(eventUids)) + ") " +
+                "AND " + eventInUploadableState() + ";";
+
+        return queryTrackedEntityDataValues(queryStatement);
+    }
+
     private Map<String, List<TrackedEntityDataValue>> queryTrackedEntityDataValues(String queryStatement) {
 
         List<TrackedEntityDataValue> dataValueList = new ArrayList<>();
@@ -48,7 +48,8 @@ internal class TrackedEntityInstanceDownloadCall @Inject constructor(
     private val systemInfoModuleDownloader: SystemInfoModuleDownloader,
     private val relationshipDownloadAndPersistCallFactory: RelationshipDownloadAndPersistCallFactory,
     private val versionManager: DHISVersionManager,
-    private val internalCall: TrackedEntityInstanceDownloadInternalCall
+    private val internalCall: TrackedEntityInstanceDownloadInternalCall,
+    private val schedulers: TrackerDownloadSchedulers
 ) {
 
     fun download(params: ProgramDataDownloadParams): Observable<D2Progress> {
@@ -67,7 +68,7 @@ internal class TrackedEntityInstanceDownloadCall @Inject constructor(
                 )
             }
         }
-        return rxCallExecutor.wrapObservableTransactionally(observable, true)
+        return observable.subscribeOn(schedulers.writer)
     }
 
     private fun downloadRelationships(
@@ -77,7 +78,9 @@ internal class TrackedEntityInstanceDownloadCall @Inject constructor(
         return Observable.defer {
             val completable =
                 if (versionManager.is2_29) Completable.complete()
-                else relationshipDownloadAndPersistCallFactory.downloadAndPersist(relatives)
+                else rxCallExecutor.wrapCompletableTransactionally(
+                    relationshipDownloadAndPersistCallFactory.downloadAndPersist(relatives), true
+                )
             completable.andThen(
                 Observable.just(
                     progressManager.increaseProgress(
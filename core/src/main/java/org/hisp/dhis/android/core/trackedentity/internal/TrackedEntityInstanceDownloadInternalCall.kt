@@ -28,14 +28,21 @@
 package org.hisp.dhis.android.core.trackedentity.internal
 
 import dagger.Reusable
+import io.reactivex.Completable
+import io.reactivex.Emitter
+import io.reactivex.Flowable
 import io.reactivex.Observable
 import io.reactivex.Single
+import io.reactivex.functions.BiConsumer
+import io.reactivex.functions.Consumer
+import java.io.InterruptedIOException
+import java.util.concurrent.Callable
 import javax.inject.Inject
-import kotlin.math.min
+import org.hisp.dhis.android.core.D2Configuration
 import org.hisp.dhis.android.core.arch.api.executors.internal.RxAPICallExecutor
 import org.hisp.dhis.android.core.arch.api.paging.internal.ApiPagingEngine
 import org.hisp.dhis.android.core.arch.api.paging.internal.Paging
-import org.hisp.dhis.android.core.arch.api.payload.internal.Payload
+import org.hisp.dhis.android.core.arch.api.payload.internal.StreamingPayload
 import org.hisp.dhis.android.core.arch.call.D2Progress
 import org.hisp.dhis.android.core.arch.call.internal.D2ProgressManager
 import org.hisp.dhis.android.core.arch.helpers.internal.BooleanWrapper
@@ -49,88 +56,148 @@ internal class TrackedEntityInstanceDownloadInternalCall @Inject constructor(
     private val persistenceCallFactory: TrackedEntityInstancePersistenceCallFactory,
     private val endpointCallFactory: TrackedEntityInstancesEndpointCallFactory,
     private val apiCallExecutor: RxAPICallExecutor,
-    private val lastUpdatedManager: TrackedEntityInstanceLastUpdatedManager
+    private val lastUpdatedManager: TrackedEntityInstanceLastUpdatedManager,
+    private val schedulers: TrackerDownloadSchedulers,
+    private val d2Configuration: D2Configuration
 ) {
 
+    /**
+     * Pages are requested on the network scheduler, up to the configured number in flight, and read in batches that
+     * are persisted in order on the writer scheduler, so persisting overlaps with the download. Every batch is
+     * committed in its own transaction, as holding one open while the page is read would block other writers.
+     * Batches are read under backpressure, so a page stops reading while its batches wait for the writer.
+     * Must be subscribed on [TrackerDownloadSchedulers.writer].
+     */
     fun downloadTeis(
         progressManager: D2ProgressManager,
         params: ProgramDataDownloadParams,
         relatives: RelationshipItemRelatives
     ): Observable<D2Progress> {
         return Observable.defer {
-            // TODO .subscribeOn(teiDownloadScheduler);
             val teiQueries = queryFactory.getQueries(params)
             val overwrite = params.overwrite()
-            Observable.fromIterable(teiQueries).flatMap { teiQuery ->
+            Observable.fromIterable(teiQueries).concatMap { teiQuery ->
                 val isFullUpdate = teiQuery.commonParams().program == null
-                getTrackedEntityInstancesWithPaging(teiQuery).flatMapSingle { teiList ->
+                getTrackedEntityInstancesWithPaging(teiQuery) { teiList ->
                     persistenceCallFactory.persistTEIs(teiList, isFullUpdate, overwrite, relatives)
-                        .toSingle {
-                            progressManager.increaseProgress(
-                                TrackedEntityInstance::class.java, false
-                            )
-                        }
+                }.map {
+                    progressManager.increaseProgress(TrackedEntityInstance::class.java, false)
                 }
             }
         }
     }
 
+    /**
+     * Emits the paging of every page once its instances are persisted.
+     */
     private fun getTrackedEntityInstancesWithPaging(
-        baseQuery: TeiQuery
-    ): Observable<List<TrackedEntityInstance>> {
+        baseQuery: TeiQuery,
+        persist: (List<TrackedEntityInstance>) -> Completable
+    ): Observable<Paging> {
         val pagingList = ApiPagingEngine.getPaginationList(baseQuery.pageSize(), baseQuery.commonParams().limit)
+        val pagesInFlight = d2Configuration.trackerDownloadPagesInFlight()
         val allOkay = BooleanWrapper(true)
-        return Observable
+        return Flowable
             .fromIterable(pagingList)
-            .flatMapSingle { paging: Paging ->
-                val pageQuery = baseQuery.toBuilder().page(paging.page()).pageSize(paging.pageSize()).build()
-                apiCallExecutor.wrapSingle(endpointCallFactory.getCall(pageQuery), true)
-                    .map { payload: Payload<TrackedEntityInstance> ->
-                        TeiListWithPaging(
-                            true,
-                            limitTeisForPage(payload.items(), paging),
-                            paging
-                        )
-                    }
-                    .onErrorResumeNext {
+            .concatMapEager(
+                { paging: Paging -> downloadPage(baseQuery, paging) },
+                pagesInFlight,
+                BATCHES_IN_FLIGHT
+            )
+            .observeOn(schedulers.writer, false, BATCHES_IN_FLIGHT)
+            .concatMapSingle { item: PageItem ->
+                when {
+                    item.error != null -> {
                         allOkay.set(false)
-                        Single.just(TeiListWithPaging(false, emptyList(), paging))
+                        apiCallExecutor.wrapSingle(Single.error<PageItem>(item.error), true)
+                            .onErrorReturnItem(item)
                     }
+                    item.isPageEnd -> Single.just(item)
+                    else -> apiCallExecutor.wrapCompletableTransactionally(persist(item.teis), true)
+                        .toSingleDefault(item)
+                }
             }
-            .takeUntil { res: TeiListWithPaging ->
-                res.isSuccess && (
-                    res.paging.isLastPage ||
-                        res.teiList.size < res.paging.pageSize()
+            .takeUntil { item: PageItem ->
+                item.isPageEnd && item.error == null && (
+                    item.paging.isLastPage ||
+                        item.pageCount < item.paging.pageSize()
                     )
             }
-            .map { tuple: TeiListWithPaging -> tuple.teiList }
+            .filter { item: PageItem -> item.isPageEnd }
+            .map { item: PageItem -> item.paging }
             .doOnComplete {
                 if (allOkay.get()) {
                     lastUpdatedManager.update(baseQuery)
                 }
             }
+            .toObservable()
     }
 
-    private fun limitTeisForPage(
-        pageTrackedEntityInstances: List<TrackedEntityInstance>,
-        paging: Paging
-    ): List<TrackedEntityInstance> {
-        return if (paging.isLastPage &&
-            pageTrackedEntityInstances.size > paging.previousItemsToSkipCount()
-        ) {
-            val toIndex = min(
-                pageTrackedEntityInstances.size,
-                paging.pageSize() - paging.posteriorItemsToSkipCount()
-            )
-            pageTrackedEntityInstances.subList(paging.previousItemsToSkipCount(), toIndex)
-        } else {
-            pageTrackedEntityInstances
+    /**
+     * Reads the page in batches on the network scheduler. A batch is only read when it is requested, so the page is
+     * never more than [BATCHES_IN_FLIGHT] batches ahead of the writer, and the response body is closed as soon as
+     * the page is read or cancelled. Does not touch the database: errors are stored later on the writer thread.
+     */
+    private fun downloadPage(baseQuery: TeiQuery, paging: Paging): Flowable<PageItem> {
+        val pageQuery = baseQuery.toBuilder().page(paging.page()).pageSize(paging.pageSize()).build()
+        return Flowable.generate<PageItem, PageReader>(
+            Callable { PageReader(pageQuery, paging) },
+            BiConsumer { reader, emitter -> reader.emitNext(emitter) },
+            Consumer { reader -> reader.close() }
+        ).subscribeOn(schedulers.network)
+    }
+
+    private inner class PageReader(private val pageQuery: TeiQuery, private val paging: Paging) {
+        private var batches: StreamingPayload.BatchReader<TrackedEntityInstance>? = null
+        private var offset = 0
+
+        /**
+         * Emits the next batch that has instances requested by the paging, or the end of the page.
+         */
+        @Suppress("TooGenericExceptionCaught")
+        fun emitNext(emitter: Emitter<PageItem>) {
+            try {
+                val reader = batches ?: endpointCallFactory.getPayload(pageQuery).batches(BATCH_SIZE)
+                batches = reader
+                var batch = reader.next()
+                while (batch != null) {
+                    val teis = ApiPagingEngine.getBatchItemsToKeep(paging, offset, batch)
+                    offset += batch.size
+                    if (teis.isNotEmpty()) {
+                        emitter.onNext(PageItem(paging, teis = teis))
+                        return
+                    }
+                    batch = reader.next()
+                }
+                emitter.onNext(PageItem(paging, isPageEnd = true, pageCount = reader.count()))
+            } catch (throwable: Throwable) {
+                if (throwable is InterruptedException || throwable is InterruptedIOException) {
+                    Thread.currentThread().interrupt()
+                }
+                emitter.onNext(PageItem(paging, isPageEnd = true, error = throwable))
+            }
+            emitter.onComplete()
+        }
+
+        fun close() {
+            batches?.close()
         }
     }
 
-    private data class TeiListWithPaging constructor(
-        val isSuccess: Boolean,
-        val teiList: List<TrackedEntityInstance>,
-        val paging: Paging
+    /**
+     * Either a batch of the instances of the page or its end, which carries the number of instances the server
+     * returned for the page or the error that interrupted it.
+     */
+    private class PageItem(
+        val paging: Paging,
+        val teis: List<TrackedEntityInstance> = emptyList(),
+        val isPageEnd: Boolean = false,
+        val pageCount: Int = 0,
+        val error: Throwable? = null
     )
+
+    companion object {
+        private const val BATCH_SIZE = 50
+        private const val BATCHES_IN_FLIGHT = 2
+    }
 }
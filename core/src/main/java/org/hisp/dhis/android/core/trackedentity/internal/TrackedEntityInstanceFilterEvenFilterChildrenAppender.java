@@ -30,24 +30,26 @@ package org.hisp.dhis.android.core.trackedentity.internal;
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.stores.internal.SingleParentChildStore;
 import org.hisp.dhis.android.core.arch.db.stores.internal.StoreFactory;
+import org.hisp.dhis.android.core.arch.repositories.children.internal.BatchedChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityInstanceEventFilter;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityInstanceFilter;
 
-public final class TrackedEntityInstanceFilterEvenFilterChildrenAppender
-        extends ChildrenAppender<TrackedEntityInstanceFilter> {
+import java.util.List;
 
-    private final SingleParentChildStore<TrackedEntityInstanceFilter, TrackedEntityInstanceEventFilter> childStore;
+public final class TrackedEntityInstanceFilterEvenFilterChildrenAppender
+        extends BatchedChildrenAppender<TrackedEntityInstanceFilter, TrackedEntityInstanceEventFilter> {
 
     private TrackedEntityInstanceFilterEvenFilterChildrenAppender(
             SingleParentChildStore<TrackedEntityInstanceFilter, TrackedEntityInstanceEventFilter> childStore) {
-        this.childStore = childStore;
+        super(childStore);
     }
 
     @Override
-    protected TrackedEntityInstanceFilter appendChildren(TrackedEntityInstanceFilter trackedEntityInstanceFilter) {
+    protected TrackedEntityInstanceFilter appendChildren(TrackedEntityInstanceFilter trackedEntityInstanceFilter,
+                                                         List<TrackedEntityInstanceEventFilter> children) {
         TrackedEntityInstanceFilter.Builder builder = trackedEntityInstanceFilter.toBuilder();
-        builder.eventFilters(childStore.getChildren(trackedEntityInstanceFilter));
+        builder.eventFilters(children);
         return builder.build();
     }
 
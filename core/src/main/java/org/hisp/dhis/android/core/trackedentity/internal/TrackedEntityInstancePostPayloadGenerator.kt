@@ -28,113 +28,178 @@
 package org.hisp.dhis.android.core.trackedentity.internal
 
 import dagger.Reusable
-import java.util.ArrayList
 import javax.inject.Inject
 import org.hisp.dhis.android.core.arch.db.querybuilders.internal.WhereClauseBuilder
-import org.hisp.dhis.android.core.arch.db.stores.internal.IdentifiableObjectStore
 import org.hisp.dhis.android.core.arch.helpers.CollectionsHelper
-import org.hisp.dhis.android.core.arch.helpers.UidsHelper.getUidsList
-import org.hisp.dhis.android.core.common.DataColumns
+import org.hisp.dhis.android.core.common.IdentifiableColumns
 import org.hisp.dhis.android.core.common.State
 import org.hisp.dhis.android.core.enrollment.Enrollment
 import org.hisp.dhis.android.core.enrollment.EnrollmentInternalAccessor
 import org.hisp.dhis.android.core.enrollment.internal.EnrollmentStore
 import org.hisp.dhis.android.core.event.Event
+import org.hisp.dhis.android.core.event.internal.EventPostNoteStore
 import org.hisp.dhis.android.core.event.internal.EventStore
 import org.hisp.dhis.android.core.note.Note
 import org.hisp.dhis.android.core.note.internal.NoteToPostTransformer
-import org.hisp.dhis.android.core.relationship.RelationshipCollectionRepository
-import org.hisp.dhis.android.core.relationship.RelationshipHelper
+import org.hisp.dhis.android.core.relationship.Relationship
+import org.hisp.dhis.android.core.relationship.RelationshipConstraintType
+import org.hisp.dhis.android.core.relationship.RelationshipItemTableInfo
 import org.hisp.dhis.android.core.relationship.internal.RelationshipDHISVersionManager
 import org.hisp.dhis.android.core.relationship.internal.RelationshipItemStore
+import org.hisp.dhis.android.core.relationship.internal.RelationshipStore
 import org.hisp.dhis.android.core.systeminfo.DHISVersionManager
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityAttributeValue
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityDataValue
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityInstance
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityInstanceInternalAccessor
 
-@Suppress("LongParameterList")
+@Suppress("LongParameterList", "TooManyFunctions")
 @Reusable
 internal class TrackedEntityInstancePostPayloadGenerator @Inject internal constructor(
     private val versionManager: DHISVersionManager,
     private val relationshipDHISVersionManager: RelationshipDHISVersionManager,
-    private val relationshipRepository: RelationshipCollectionRepository,
+    private val relationshipStore: RelationshipStore,
     private val trackedEntityInstanceStore: TrackedEntityInstanceStore,
     private val enrollmentStore: EnrollmentStore,
     private val eventStore: EventStore,
     private val trackedEntityDataValueStore: TrackedEntityDataValueStore,
     private val trackedEntityAttributeValueStore: TrackedEntityAttributeValueStore,
     private val relationshipItemStore: RelationshipItemStore,
-    private val noteStore: IdentifiableObjectStore<Note>,
+    private val noteStore: EventPostNoteStore,
     private val stateManager: TrackedEntityInstancePostStateManager
 ) {
 
+    /**
+     * Builds every partition eagerly. Uploads should rather iterate [getPagedTrackedEntityInstances] and call
+     * [getTrackedEntityInstancesPartition] for each page, so only one recreated partition is kept in memory.
+     */
     fun getTrackedEntityInstancesPartitions(
         filteredTrackedEntityInstances: List<TrackedEntityInstance>
     ): List<List<TrackedEntityInstance>> {
-        val dataValueMap = trackedEntityDataValueStore.queryTrackerTrackedEntityDataValues()
-        val eventMap = eventStore.queryEventsAttachedToEnrollmentToPost()
-        val enrollmentMap = enrollmentStore.queryEnrollmentsToPost()
-        val attributeValueMap = trackedEntityAttributeValueStore.queryTrackedEntityAttributeValueToPost()
-        val whereNotesClause = WhereClauseBuilder()
-            .appendInKeyStringValues(
-                DataColumns.STATE, State.uploadableStatesIncludingError().map { it.name }
-            )
-            .build()
-        val notes = noteStore.selectWhere(whereNotesClause)
-        val trackedEntityInstancesToSync = getPagedTrackedEntityInstances(filteredTrackedEntityInstances)
-        return trackedEntityInstancesToSync.map { partition ->
-            val partitionRecreated = partition.map { trackedEntityInstance ->
-                getTrackedEntityInstance(
-                    trackedEntityInstance, dataValueMap, eventMap, enrollmentMap, attributeValueMap, notes
-                )
-            }
-
-            stateManager.setPartitionStates(partitionRecreated, State.UPLOADING)
-            partitionRecreated
+        return getPagedTrackedEntityInstances(filteredTrackedEntityInstances).map {
+            getTrackedEntityInstancesPartition(it)
         }
     }
 
-    private fun getPagedTrackedEntityInstances(
+    /**
+     * Splits the TEIs into pages and adds to each page the related TEIs that must be posted together with them.
+     * The returned TEIs do not include any children.
+     */
+    fun getPagedTrackedEntityInstances(
         filteredTrackedEntityInstances: List<TrackedEntityInstance>
     ): List<List<TrackedEntityInstance>> {
+        val relatedTeiUids = relationshipItemStore.getRelatedTeiUidsRecursively(
+            filteredTrackedEntityInstances.map { it.uid() }, State.TO_POST
+        )
+        val relatedTeis = getTrackedEntityInstances(relatedTeiUids.values.flatten().toSet())
+
         val includedUids: MutableSet<String> = mutableSetOf()
         val partitions = CollectionsHelper.setPartition(filteredTrackedEntityInstances, DEFAULT_PAGE_SIZE)
         val partitionsWithRelationships: MutableList<List<TrackedEntityInstance>> = ArrayList()
         for (partition in partitions) {
-            val partitionWithoutDuplicates = partition.filterNot { o -> includedUids.contains(o.uid()) }
-            val partitionWithRelationships =
-                getTrackedEntityInstancesWithRelationships(partitionWithoutDuplicates.toMutableList(), includedUids)
+            val partitionWithoutDuplicates = partition.filterNot { includedUids.contains(it.uid()) }
+            val partitionUids = partitionWithoutDuplicates.map { it.uid() }.toSet()
+            val relatedToPost = partitionUids
+                .flatMap { relatedTeiUids[it] ?: emptySet<String>() }
+                .filterNot { partitionUids.contains(it) || includedUids.contains(it) }
+                .distinct()
+                .mapNotNull { relatedTeis[it] }
+
+            val partitionWithRelationships = partitionWithoutDuplicates + relatedToPost
             partitionsWithRelationships.add(partitionWithRelationships)
-            includedUids.addAll(getUidsList(partitionWithRelationships))
+            includedUids.addAll(partitionWithRelationships.map { it.uid() })
         }
         return partitionsWithRelationships
     }
 
-    private fun getTrackedEntityInstancesWithRelationships(
-        filteredTrackedEntityInstances: MutableList<TrackedEntityInstance>,
-        excludedUids: Set<String>
+    /**
+     * Recreates the given TEIs with their children to post, using queries scoped to the TEIs of this partition,
+     * and marks them as [State.UPLOADING].
+     */
+    fun getTrackedEntityInstancesPartition(
+        partition: List<TrackedEntityInstance>
     ): List<TrackedEntityInstance> {
-        val trackedEntityInstancesInDBToSync = trackedEntityInstanceStore.queryTrackedEntityInstancesToSync()
-        val filteredUids: List<String> = filteredTrackedEntityInstances.map { it.uid() }
-        val teiUidsToPost = trackedEntityInstanceStore.queryTrackedEntityInstancesToPost().map { it.uid() }
-        val relatedTeisToPost: MutableList<String> = ArrayList()
-        var internalRelatedTeis = filteredUids
-        do {
-            val relatedTeiUids = relationshipItemStore.getRelatedTeiUids(internalRelatedTeis)
-            relatedTeiUids.retainAll(teiUidsToPost)
-            relatedTeiUids.removeAll(filteredUids)
-            relatedTeiUids.removeAll(relatedTeisToPost)
-            relatedTeiUids.removeAll(excludedUids)
-            relatedTeisToPost.addAll(relatedTeiUids)
-            internalRelatedTeis = relatedTeiUids
-        } while (internalRelatedTeis.isNotEmpty())
-        for (trackedEntityInstanceInDB in trackedEntityInstancesInDBToSync) {
-            if (relatedTeisToPost.contains(trackedEntityInstanceInDB.uid())) {
-                filteredTrackedEntityInstances.add(trackedEntityInstanceInDB)
+        val teiUids = partition.map { it.uid() }
+        val enrollmentMap = enrollmentStore.queryEnrollmentsToPost(teiUids)
+        val enrollmentUids = enrollmentMap.values.flatten().map { it.uid() }
+        val eventMap = eventStore.queryEventsAttachedToEnrollmentToPost(enrollmentUids)
+        val eventUids = eventMap.values.flatten().map { it.uid() }
+        val dataValueMap = trackedEntityDataValueStore.queryTrackerTrackedEntityDataValues(eventUids)
+        val attributeValueMap = trackedEntityAttributeValueStore.queryTrackedEntityAttributeValueToPost(teiUids)
+        val eventNotes = noteStore.queryNotes(eventUids)
+        val enrollmentNotes = noteStore.queryEnrollmentNotes(enrollmentUids)
+        val relationshipMap = getRelationships(teiUids)
+
+        val partitionRecreated = partition.map { trackedEntityInstance ->
+            getTrackedEntityInstance(
+                trackedEntityInstance, dataValueMap, eventMap, enrollmentMap, attributeValueMap,
+                eventNotes, enrollmentNotes,
+                relationshipMap[trackedEntityInstance.uid()] ?: emptyList()
+            )
+        }
+
+        stateManager.setPartitionStates(partitionRecreated, State.UPLOADING)
+        return partitionRecreated
+    }
+
+    private fun getTrackedEntityInstances(uids: Collection<String>): Map<String, TrackedEntityInstance> {
+        return if (uids.isEmpty()) {
+            emptyMap()
+        } else {
+            val whereClause = WhereClauseBuilder()
+                .appendInKeyStringValues(IdentifiableColumns.UID, uids)
+                .build()
+            trackedEntityInstanceStore.selectWhere(whereClause).associateBy { it.uid() }
+        }
+    }
+
+    /**
+     * Equivalent to calling RelationshipCollectionRepository.getByItem(teiItem, true) for each TEI, but resolving
+     * the items and relationships of the whole partition with a constant number of queries.
+     */
+    private fun getRelationships(teiUids: List<String>): Map<String, List<Relationship>> {
+        val teiItems = relationshipItemStore.selectWhere(
+            WhereClauseBuilder()
+                .appendInKeyStringValues(RelationshipItemTableInfo.Columns.TRACKED_ENTITY_INSTANCE, teiUids)
+                .build()
+        )
+        val relationshipUids = teiItems.map { it.relationship()!!.uid() }.distinct()
+        if (relationshipUids.isEmpty()) {
+            return emptyMap()
+        }
+
+        val itemsByRelationship = relationshipItemStore.selectWhere(
+            WhereClauseBuilder()
+                .appendInKeyStringValues(RelationshipItemTableInfo.Columns.RELATIONSHIP, relationshipUids)
+                .build()
+        ).groupBy { it.relationship()!!.uid() }
+        val relationships = relationshipStore.selectWhere(
+            WhereClauseBuilder()
+                .appendInKeyStringValues(IdentifiableColumns.UID, relationshipUids)
+                .build()
+        ).associateBy { it.uid() }
+
+        val relationshipMap: MutableMap<String, MutableList<Relationship>> = mutableMapOf()
+        for (item in teiItems) {
+            val relationshipUid = item.relationship()!!.uid()
+            val relationship = relationships[relationshipUid] ?: continue
+            val relatedType = if (item.relationshipItemType() == RelationshipConstraintType.FROM) {
+                RelationshipConstraintType.TO
+            } else {
+                RelationshipConstraintType.FROM
+            }
+            val relatedItem = itemsByRelationship[relationshipUid]
+                ?.find { it.relationshipItemType() == relatedType } ?: continue
+
+            val (from, to) = if (relatedType == RelationshipConstraintType.TO) {
+                Pair(item, relatedItem)
+            } else {
+                Pair(relatedItem, item)
             }
+            relationshipMap.getOrPut(item.trackedEntityInstance()!!.trackedEntityInstance()) { mutableListOf() }
+                .add(relationship.toBuilder().from(from).to(to).build())
         }
-        return filteredTrackedEntityInstances
+        return relationshipMap
     }
 
     @Suppress("LongParameterList")
@@ -144,13 +209,15 @@ internal class TrackedEntityInstancePostPayloadGenerator @Inject internal constr
         eventMap: Map<String, List<Event>>,
         enrollmentMap: Map<String, List<Enrollment>>,
         attributeValueMap: Map<String, List<TrackedEntityAttributeValue>>,
-        notes: List<Note>
+        eventNotes: Map<String, List<Note>>,
+        enrollmentNotes: Map<String, List<Note>>,
+        dbRelationships: List<Relationship>
     ): TrackedEntityInstance {
         val enrollmentsRecreated =
-            getEnrollments(dataValueMap, eventMap, enrollmentMap, notes, trackedEntityInstance.uid())
+            getEnrollments(
+                dataValueMap, eventMap, enrollmentMap, eventNotes, enrollmentNotes, trackedEntityInstance.uid()
+            )
         val attributeValues = attributeValueMap[trackedEntityInstance.uid()]
-        val dbRelationships =
-            relationshipRepository.getByItem(RelationshipHelper.teiItem(trackedEntityInstance.uid()), true)
         val ownedRelationships =
             relationshipDHISVersionManager.getOwnedRelationships(dbRelationships, trackedEntityInstance.uid())
         val versionAwareRelationships =
@@ -165,11 +232,13 @@ internal class TrackedEntityInstancePostPayloadGenerator @Inject internal constr
             .build()
     }
 
+    @Suppress("LongParameterList")
     private fun getEnrollments(
         dataValueMap: Map<String, List<TrackedEntityDataValue>>,
         eventMap: Map<String, List<Event>>,
         enrollmentMap: Map<String, List<Enrollment>>,
-        notes: List<Note>,
+        eventNotes: Map<String, List<Note>>,
+        enrollmentNotes: Map<String, List<Note>>,
         trackedEntityInstanceUid: String
     ): List<Enrollment> {
         return enrollmentMap[trackedEntityInstanceUid]?.map { enrollment ->
@@ -177,7 +246,7 @@ internal class TrackedEntityInstancePostPayloadGenerator @Inject internal constr
             val events = eventMap[enrollment.uid()]?.map { event ->
                 val eventBuilder = event.toBuilder()
                     .trackedEntityDataValues(dataValueMap[event.uid()])
-                    .notes(getEventNotes(notes, event, transformer))
+                    .notes(transformNotes(eventNotes[event.uid()], transformer))
                 if (versionManager.is2_30) {
                     eventBuilder.geometry(null).build()
                 } else {
@@ -185,21 +254,13 @@ internal class TrackedEntityInstancePostPayloadGenerator @Inject internal constr
                 }
             } ?: emptyList()
             EnrollmentInternalAccessor.insertEvents(enrollment.toBuilder(), events)
-                .notes(getEnrollmentNotes(notes, enrollment, transformer))
+                .notes(transformNotes(enrollmentNotes[enrollment.uid()], transformer))
                 .build()
         } ?: emptyList()
     }
 
-    private fun getEventNotes(notes: List<Note>, event: Event, t: NoteToPostTransformer): List<Note> {
-        return notes
-            .filter { it.event() == event.uid() }
-            .map { t.transform(it) }
-    }
-
-    private fun getEnrollmentNotes(notes: List<Note>, enrollment: Enrollment, t: NoteToPostTransformer): List<Note> {
-        return notes
-            .filter { it.enrollment() == enrollment.uid() }
-            .map { t.transform(it) }
+    private fun transformNotes(notes: List<Note>?, t: NoteToPostTransformer): List<Note> {
+        return notes?.map { t.transform(it) } ?: emptyList()
     }
 
     companion object {
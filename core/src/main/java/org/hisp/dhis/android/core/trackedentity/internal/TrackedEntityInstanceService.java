@@ -31,6 +31,7 @@ package org.hisp.dhis.android.core.trackedentity.internal;
 import org.hisp.dhis.android.core.arch.api.fields.internal.Fields;
 import org.hisp.dhis.android.core.arch.api.filters.internal.Which;
 import org.hisp.dhis.android.core.arch.api.payload.internal.Payload;
+import org.hisp.dhis.android.core.arch.api.payload.internal.StreamingPayload;
 import org.hisp.dhis.android.core.imports.internal.HttpMessageResponse;
 import org.hisp.dhis.android.core.imports.internal.TEIWebResponse;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityInstance;
@@ -105,7 +106,7 @@ public interface TrackedEntityInstanceService {
             @Query(INCLUDE_DELETED) boolean includeDeleted);
 
     @GET(TRACKED_ENTITY_INSTANCES)
-    Single<Payload<TrackedEntityInstance>> getTrackedEntityInstances(
+    Call<StreamingPayload<TrackedEntityInstance>> getTrackedEntityInstancesStreaming(
             @Query(TRACKED_ENTITY_INSTACE) String trackedEntityInstances,
             @Query(OU) String orgUnits,
             @Query(OU_MODE) String orgUnitMode,
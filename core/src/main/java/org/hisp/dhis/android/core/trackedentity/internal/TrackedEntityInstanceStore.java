@@ -33,6 +33,8 @@ import org.hisp.dhis.android.core.trackedentity.TrackedEntityInstance;
 
 import java.util.List;
 
+import kotlin.Pair;
+
 public interface TrackedEntityInstanceStore extends IdentifiableDeletableDataObjectStore<TrackedEntityInstance> {
 
     List<TrackedEntityInstance> queryTrackedEntityInstancesToSync();
@@ -42,4 +44,13 @@ public interface TrackedEntityInstanceStore extends IdentifiableDeletableDataObj
     List<String> querySyncedTrackedEntityInstanceUids();
 
     List<String> queryMissingRelationshipsUids();
+
+    /**
+     * Runs a raw query that selects the instance columns followed by {@code keyCount} sorting key columns.
+     *
+     * @return the instances, paired with the sorting key values of the last one, or null if there is none
+     */
+    Pair<List<TrackedEntityInstance>, List<String>> selectRawQueryWithKeys(String sqlRawQuery,
+                                                                           String[] selectionArgs,
+                                                                           int keyCount);
 }
\ No newline at end of file
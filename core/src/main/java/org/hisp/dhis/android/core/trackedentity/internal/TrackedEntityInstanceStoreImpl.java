@@ -28,6 +28,8 @@
 
 package org.hisp.dhis.android.core.trackedentity.internal;
 
+import android.database.Cursor;
+
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
 import org.hisp.dhis.android.core.arch.db.querybuilders.internal.SQLStatementBuilderImpl;
 import org.hisp.dhis.android.core.arch.db.querybuilders.internal.WhereClauseBuilder;
@@ -39,8 +41,11 @@ import org.hisp.dhis.android.core.common.State;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityInstance;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityInstanceTableInfo;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import kotlin.Pair;
+
 public final class TrackedEntityInstanceStoreImpl
         extends IdentifiableDeletableDataObjectStoreImpl<TrackedEntityInstance>
         implements TrackedEntityInstanceStore {
@@ -101,6 +106,27 @@ public final class TrackedEntityInstanceStoreImpl
         return selectUidsWhere(whereRelationshipsClause);
     }
 
+    @Override
+    public Pair<List<TrackedEntityInstance>, List<String>> selectRawQueryWithKeys(String sqlRawQuery,
+                                                                                  String[] selectionArgs,
+                                                                                  int keyCount) {
+        List<TrackedEntityInstance> instances = new ArrayList<>();
+        List<String> lastKey = null;
+        try (Cursor cursor = getDatabaseAdapter().rawQuery(sqlRawQuery, selectionArgs)) {
+            while (cursor.moveToNext()) {
+                instances.add(TrackedEntityInstance.create(cursor));
+            }
+            if (cursor.moveToLast()) {
+                int firstKeyColumn = cursor.getColumnCount() - keyCount;
+                lastKey = new ArrayList<>(keyCount);
+                for (int i = firstKeyColumn; i < cursor.getColumnCount(); i++) {
+                    lastKey.add(cursor.getString(i));
+                }
+            }
+        }
+        return new Pair<>(instances, lastKey);
+    }
+
     public static TrackedEntityInstanceStore create(DatabaseAdapter databaseAdapter) {
         SQLStatementBuilderImpl statementBuilder = new SQLStatementBuilderImpl(
                 TrackedEntityInstanceTableInfo.TABLE_INFO.name(),
@@ -28,11 +28,11 @@
 package org.hisp.dhis.android.core.trackedentity.internal
 
 import dagger.Reusable
-import io.reactivex.Single
 import javax.inject.Inject
-import org.hisp.dhis.android.core.arch.api.payload.internal.Payload
+import org.hisp.dhis.android.core.arch.api.payload.internal.StreamingPayload
 import org.hisp.dhis.android.core.arch.helpers.CollectionsHelper
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityInstance
+import retrofit2.HttpException
 
 @Reusable
 internal class TrackedEntityInstancesEndpointCallFactory @Inject constructor(
@@ -40,8 +40,14 @@ internal class TrackedEntityInstancesEndpointCallFactory @Inject constructor(
     private val lastUpdatedManager: TrackedEntityInstanceLastUpdatedManager
 ) {
 
-    fun getCall(query: TeiQuery): Single<Payload<TrackedEntityInstance>> {
-        return trackedEntityInstanceService.getTrackedEntityInstances(
+    /**
+     * Requests the page and returns its payload unread, so the caller reads the instances in batches and closes it.
+     *
+     * Errors are not stored, as the call runs on the network scheduler: an unsuccessful response is thrown as an
+     * [HttpException] for the caller to store.
+     */
+    fun getPayload(query: TeiQuery): StreamingPayload<TrackedEntityInstance> {
+        val response = trackedEntityInstanceService.getTrackedEntityInstancesStreaming(
             getUidStr(query),
             getOuStr(query),
             query.commonParams().ouMode.name,
@@ -54,7 +60,13 @@ internal class TrackedEntityInstancesEndpointCallFactory @Inject constructor(
             lastUpdatedManager.getLastUpdatedStr(query.commonParams()),
             true,
             true
-        )
+        ).execute()
+        val payload = response.body()
+        if (!response.isSuccessful || payload == null) {
+            response.errorBody()?.close()
+            throw HttpException(response)
+        }
+        return payload
     }
 
     private fun getUidStr(query: TeiQuery): String? {
@@ -41,6 +41,7 @@ import org.hisp.dhis.android.core.enrollment.EnrollmentTableInfo
 import org.hisp.dhis.android.core.event.EventStatus
 import org.hisp.dhis.android.core.event.EventTableInfo
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnit
+import org.hisp.dhis.android.core.organisationunit.OrganisationUnitAncestorTableInfo
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitMode
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitTableInfo
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityAttributeValueTableInfo
@@ -58,6 +59,7 @@ internal class TrackedEntityInstanceLocalQueryHelper @Inject constructor(
     private val eventAlias = "ev"
     private val orgunitAlias = "ou"
     private val teavAlias = "teav"
+    private val sortKeyAlias = "sortKey"
 
     private val teiUid = dot(teiAlias, "uid")
     private val teiAll = dot(teiAlias, "*")
@@ -67,16 +69,35 @@ internal class TrackedEntityInstanceLocalQueryHelper @Inject constructor(
     private val trackedEntityAttribute = TrackedEntityAttributeValueTableInfo.Columns.TRACKED_ENTITY_ATTRIBUTE
     private val trackedEntityInstance = TrackedEntityAttributeValueTableInfo.Columns.TRACKED_ENTITY_INSTANCE
 
-    fun getSqlQuery(scope: TrackedEntityInstanceQueryRepositoryScope, excludeList: Set<String>, limit: Int): String {
-        return getSqlQuery(scope, excludeList, limit, teiAll)
+    /**
+     * Builds the query for the local search defined by the scope, which selects the instance columns followed by
+     * the [getSortKeyCount] sorting keys of every instance.
+     *
+     * @param lastKey Sorting keys of the last instance returned by the previous page, if any. Results are resumed
+     * right after this instance using a keyset (seek) condition on the sorting expressions, whose values are bound
+     * with [getSelectionArgs], so the cost of a page does not depend on the number of pages already returned.
+     */
+    fun getSqlQuery(scope: TrackedEntityInstanceQueryRepositoryScope, lastKey: List<String>?, limit: Int): String {
+        val keyColumns = orderByKeys(scope).mapIndexed { i, key -> "${key.expression} AS $sortKeyAlias$i" }
+        return getSqlQuery(scope, lastKey, limit, (listOf(teiAll) + keyColumns).joinToString(", "))
+    }
+
+    fun getSortKeyCount(scope: TrackedEntityInstanceQueryRepositoryScope): Int {
+        return orderByKeys(scope).size
+    }
+
+    /**
+     * Values of the keyset condition of the query resumed after [lastKey], in the order they are bound.
+     */
+    fun getSelectionArgs(lastKey: List<String>?): Array<String> {
+        return lastKey?.indices?.flatMap { i -> lastKey.subList(0, i + 1) }?.toTypedArray() ?: emptyArray()
     }
 
     fun getUidsWhereClause(
         scope: TrackedEntityInstanceQueryRepositoryScope,
-        excludeList: Set<String>,
         limit: Int
     ): String {
-        val selectSubQuery = getSqlQuery(scope, excludeList, limit, teiUid)
+        val selectSubQuery = getSqlQuery(scope, null, limit, teiUid)
         return WhereClauseBuilder()
             .appendInSubQuery(IdentifiableColumns.UID, selectSubQuery)
             .build()
@@ -84,7 +105,7 @@ internal class TrackedEntityInstanceLocalQueryHelper @Inject constructor(
 
     private fun getSqlQuery(
         scope: TrackedEntityInstanceQueryRepositoryScope,
-        excludeList: Set<String>,
+        lastKey: List<String>?,
         limit: Int,
         columns: String
     ): String {
@@ -137,12 +158,16 @@ internal class TrackedEntityInstanceLocalQueryHelper @Inject constructor(
 
         appendQueryWhere(where, scope)
         appendFiltersWhere(where, scope)
-        appendExcludeList(where, excludeList)
+
+        val orderByKeys = orderByKeys(scope)
+        if (lastKey != null) {
+            appendKeysetWhere(where, orderByKeys, lastKey)
+        }
 
         if (!where.isEmpty) {
             queryStr += " WHERE " + where.build()
         }
-        queryStr += orderByClause(scope)
+        queryStr += orderByClause(orderByKeys)
         if (limit > 0) {
             queryStr += " LIMIT $limit"
         }
@@ -211,9 +236,16 @@ internal class TrackedEntityInstanceLocalQueryHelper @Inject constructor(
         val inner = WhereClauseBuilder()
         when (ouMode) {
             OrganisationUnitMode.DESCENDANTS -> scope.orgUnits().forEach { orgUnit ->
-                inner.appendOrKeyLikeStringValue(
-                    dot(orgunitAlias, OrganisationUnitTableInfo.Columns.PATH),
-                    "%" + escapeQuotes(orgUnit) + "%"
+                inner.appendOrKeyStringValue(dot(orgunitAlias, IdentifiableColumns.UID), escapeQuotes(orgUnit))
+                inner.appendOrComplexQuery(
+                    String.format(
+                        "%s IN (SELECT %s FROM %s WHERE %s = '%s')",
+                        dot(orgunitAlias, IdentifiableColumns.UID),
+                        OrganisationUnitAncestorTableInfo.Columns.DESCENDANT,
+                        OrganisationUnitAncestorTableInfo.TABLE_INFO.name(),
+                        OrganisationUnitAncestorTableInfo.Columns.ANCESTOR,
+                        escapeQuotes(orgUnit)
+                    )
                 )
             }
             OrganisationUnitMode.CHILDREN -> scope.orgUnits().forEach { orgUnit ->
@@ -291,10 +323,27 @@ internal class TrackedEntityInstanceLocalQueryHelper @Inject constructor(
         }
     }
 
-    private fun appendExcludeList(where: WhereClauseBuilder, excludeList: Set<String>?) {
-        if (!excludeList.isNullOrEmpty()) {
-            where.appendNotInKeyStringValues(teiUid, excludeList.toList())
+    /**
+     * Appends the condition "sorting key after the key of the last returned instance", expanded as
+     * (k1 > ?) OR (k1 = ? AND k2 > ?) OR ... so it does not depend on row value support.
+     */
+    private fun appendKeysetWhere(
+        where: WhereClauseBuilder,
+        keys: List<OrderByKey>,
+        lastKey: List<String>
+    ) {
+        require(lastKey.size == keys.size) { "The last key does not match the sorting keys of the query" }
+        val keysetClause = WhereClauseBuilder()
+        keys.forEachIndexed { i, key ->
+            val keyClause = WhereClauseBuilder()
+            for (j in 0 until i) {
+                keyClause.appendKeyOperatorValue(keys[j].expression, "=", "?")
+            }
+            val operator = if (key.direction == OrderByDirection.ASC) ">" else "<"
+            keyClause.appendKeyOperatorValue(key.expression, operator, "?")
+            keysetClause.appendOrComplexQuery(keyClause.build())
         }
+        where.appendComplexQuery(keysetClause.build())
     }
 
     private fun appendEventWhere(where: WhereClauseBuilder, scope: TrackedEntityInstanceQueryRepositoryScope) {
@@ -411,94 +460,101 @@ internal class TrackedEntityInstanceLocalQueryHelper @Inject constructor(
         }
     }
 
-    private fun orderByClause(scope: TrackedEntityInstanceQueryRepositoryScope): String {
-        val orderClauses = scope.order().mapNotNull { item ->
-            when (item.column().type()) {
+    private fun orderByClause(keys: List<OrderByKey>): String {
+        return " ORDER BY ${keys.joinToString(", ") { "${it.expression} ${it.direction.name}" }}"
+    }
+
+    /**
+     * Sorting keys of the local query. Nullable keys are wrapped in IFNULL so they can be compared in the keyset
+     * condition, and the uid is always the last key to make the ordering total.
+     */
+    private fun orderByKeys(scope: TrackedEntityInstanceQueryRepositoryScope): List<OrderByKey> {
+        val scopeKeys = scope.order().mapNotNull { item ->
+            val expression = when (item.column().type()) {
                 TrackedEntityInstanceQueryScopeOrderColumn.Type.CREATED ->
                     if (hasProgram(scope)) {
-                        orderByEnrollmentField(scope.program(), IdentifiableColumns.CREATED, item.direction())
+                        orderByEnrollmentField(scope.program(), IdentifiableColumns.CREATED)
                     } else {
-                        dot(teiAlias, IdentifiableColumns.CREATED) + " " + item.direction().name
+                        nonNull(dot(teiAlias, IdentifiableColumns.CREATED))
                     }
 
                 TrackedEntityInstanceQueryScopeOrderColumn.Type.LAST_UPDATED ->
                     if (hasProgram(scope)) {
-                        orderByEnrollmentField(scope.program(), IdentifiableColumns.LAST_UPDATED, item.direction())
+                        orderByEnrollmentField(scope.program(), IdentifiableColumns.LAST_UPDATED)
                     } else {
-                        dot(teiAlias, IdentifiableColumns.LAST_UPDATED) + " " + item.direction().name
+                        nonNull(dot(teiAlias, IdentifiableColumns.LAST_UPDATED))
                     }
 
                 TrackedEntityInstanceQueryScopeOrderColumn.Type.ORGUNIT_NAME ->
-                    dot(orgunitAlias, IdentifiableColumns.NAME) + " " + item.direction().name
+                    nonNull(dot(orgunitAlias, IdentifiableColumns.NAME))
 
                 TrackedEntityInstanceQueryScopeOrderColumn.Type.ATTRIBUTE ->
                     orderByAttribute(item)
 
                 TrackedEntityInstanceQueryScopeOrderColumn.Type.ENROLLMENT_DATE ->
-                    orderByEnrollmentField(scope.program(), enrollmentDate, item.direction())
+                    orderByEnrollmentField(scope.program(), enrollmentDate)
 
                 TrackedEntityInstanceQueryScopeOrderColumn.Type.INCIDENT_DATE ->
-                    orderByEnrollmentField(
-                        scope.program(), EnrollmentTableInfo.Columns.INCIDENT_DATE, item.direction()
-                    )
+                    orderByEnrollmentField(scope.program(), EnrollmentTableInfo.Columns.INCIDENT_DATE)
 
                 TrackedEntityInstanceQueryScopeOrderColumn.Type.ENROLLMENT_STATUS ->
-                    orderByEnrollmentField(scope.program(), EnrollmentTableInfo.Columns.STATUS, item.direction())
+                    orderByEnrollmentField(scope.program(), EnrollmentTableInfo.Columns.STATUS)
 
                 TrackedEntityInstanceQueryScopeOrderColumn.Type.EVENT_DATE -> {
                     val eventField = "IFNULL(${EventTableInfo.Columns.EVENT_DATE},${EventTableInfo.Columns.DUE_DATE})"
-                    orderByEventField(scope.program(), eventField, item.direction())
+                    orderByEventField(scope.program(), eventField)
                 }
 
                 TrackedEntityInstanceQueryScopeOrderColumn.Type.COMPLETION_DATE ->
-                    orderByEventField(scope.program(), EventTableInfo.Columns.COMPLETE_DATE, item.direction())
+                    orderByEventField(scope.program(), EventTableInfo.Columns.COMPLETE_DATE)
 
                 else -> null
             }
-        } + orderByLastUpdated
+            expression?.let { OrderByKey(it, item.direction()) }
+        }
 
-        return " ORDER BY ${orderClauses.joinToString(", ")}"
+        return scopeKeys + orderByLastUpdated + OrderByKey(teiUid, OrderByDirection.ASC)
     }
 
     // TODO In case a program uid is provided, the server orders by enrollmentStatus.
-    private val orderByLastUpdated: String
-        get() = "$teiLastUpdated DESC "
+    private val orderByLastUpdated: OrderByKey
+        get() = OrderByKey(nonNull(teiLastUpdated), OrderByDirection.DESC)
 
-    private fun orderByEnrollmentField(program: String?, field: String, dir: OrderByDirection): String {
+    private fun orderByEnrollmentField(program: String?, field: String): String {
         val programClause = if (program == null) "" else "AND ${EnrollmentTableInfo.Columns.PROGRAM} = '$program'"
         return String.format(
-            "IFNULL((SELECT %s FROM %s WHERE %s = %s %s ORDER BY %s DESC LIMIT 1), 'zzzzz') %s",
+            "IFNULL((SELECT %s FROM %s WHERE %s = %s %s ORDER BY %s DESC LIMIT 1), 'zzzzz')",
             field,
             EnrollmentTableInfo.TABLE_INFO.name(),
             EnrollmentTableInfo.Columns.TRACKED_ENTITY_INSTANCE,
             dot(teiAlias, IdentifiableColumns.UID),
             programClause,
-            EnrollmentTableInfo.Columns.ENROLLMENT_DATE,
-            dir.name
+            EnrollmentTableInfo.Columns.ENROLLMENT_DATE
         )
     }
 
-    private fun orderByEventField(program: String?, field: String, dir: OrderByDirection): String {
+    private fun orderByEventField(program: String?, field: String): String {
         val programClause = if (program == null) "" else "AND ${EnrollmentTableInfo.Columns.PROGRAM} = '$program'"
-        return String.format(
-            "(SELECT %s FROM %s WHERE %s IN (SELECT %s FROM %s WHERE %s = %s %s) " +
-                "ORDER BY IFNULL(%s, %s) DESC LIMIT 1) %s",
-            field,
-            EventTableInfo.TABLE_INFO.name(),
-            EventTableInfo.Columns.ENROLLMENT,
-            IdentifiableColumns.UID,
-            EnrollmentTableInfo.TABLE_INFO.name(),
-            EnrollmentTableInfo.Columns.TRACKED_ENTITY_INSTANCE,
-            dot(teiAlias, IdentifiableColumns.UID),
-            programClause,
-            EventTableInfo.Columns.EVENT_DATE, EventTableInfo.Columns.DUE_DATE,
-            dir.name
+        return nonNull(
+            String.format(
+                "(SELECT %s FROM %s WHERE %s IN (SELECT %s FROM %s WHERE %s = %s %s) " +
+                    "ORDER BY IFNULL(%s, %s) DESC LIMIT 1)",
+                field,
+                EventTableInfo.TABLE_INFO.name(),
+                EventTableInfo.Columns.ENROLLMENT,
+                IdentifiableColumns.UID,
+                EnrollmentTableInfo.TABLE_INFO.name(),
+                EnrollmentTableInfo.Columns.TRACKED_ENTITY_INSTANCE,
+                dot(teiAlias, IdentifiableColumns.UID),
+                programClause,
+                EventTableInfo.Columns.EVENT_DATE, EventTableInfo.Columns.DUE_DATE
+            )
         )
     }
 
     private fun orderByAttribute(item: TrackedEntityInstanceQueryScopeOrderByItem): String {
         // Trick to put null values at the end of the list
-        val attOrder = String.format(
+        return String.format(
             "IFNULL((SELECT %s FROM %s WHERE %s = %s AND %s = %s), 'zzzzzzzz')",
             TrackedEntityAttributeValueTableInfo.Columns.VALUE,
             TrackedEntityAttributeValueTableInfo.TABLE_INFO.name(),
@@ -507,7 +563,14 @@ internal class TrackedEntityInstanceLocalQueryHelper @Inject constructor(
             TrackedEntityAttributeValueTableInfo.Columns.TRACKED_ENTITY_INSTANCE,
             dot(teiAlias, IdentifiableColumns.UID)
         )
-        return "$attOrder ${item.direction().name}"
+    }
+
+    /**
+     * Null values are sorted first in SQLite, the same as the empty string for text columns, so this keeps the
+     * original ordering while making the key comparable.
+     */
+    private fun nonNull(expression: String): String {
+        return "IFNULL($expression, '')"
     }
 
     private fun dot(item1: String, item2: String): String {
@@ -517,4 +580,6 @@ internal class TrackedEntityInstanceLocalQueryHelper @Inject constructor(
     private fun escapeQuotes(value: String?): String {
         return value!!.replace("'".toRegex(), "''")
     }
+
+    private data class OrderByKey(val expression: String, val direction: OrderByDirection)
 }
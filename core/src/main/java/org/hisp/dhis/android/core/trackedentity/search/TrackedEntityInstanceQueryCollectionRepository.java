@@ -516,7 +516,7 @@ public final class TrackedEntityInstanceQueryCollectionRepository
     @Override
     public List<TrackedEntityInstance> blockingGet() {
         if (scope.mode().equals(RepositoryMode.OFFLINE_ONLY) || scope.mode().equals(RepositoryMode.OFFLINE_FIRST)) {
-            String sqlQuery = localQueryHelper.getSqlQuery(scope, Collections.emptySet(),
+            String sqlQuery = localQueryHelper.getSqlQuery(scope, null,
                     -1);
             List<TrackedEntityInstance> instances = store.selectRawQuery(sqlQuery);
             return ChildrenAppenderExecutor.appendInObjectCollection(instances, childrenAppenders,
@@ -608,8 +608,7 @@ public final class TrackedEntityInstanceQueryCollectionRepository
     @Override
     public List<String> blockingGetUids() {
         if (scope.mode().equals(RepositoryMode.OFFLINE_ONLY) || scope.mode().equals(RepositoryMode.OFFLINE_FIRST)) {
-            String sqlQuery = localQueryHelper.getUidsWhereClause(scope, Collections.emptySet(),
-                    -1);
+            String sqlQuery = localQueryHelper.getUidsWhereClause(scope, -1);
             return store.selectUidsWhere(sqlQuery);
         } else {
             List<TrackedEntityInstance> instances = blockingGet();
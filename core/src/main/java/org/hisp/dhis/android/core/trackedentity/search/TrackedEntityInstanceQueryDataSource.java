@@ -47,6 +47,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import kotlin.Pair;
+
 import static org.hisp.dhis.android.core.arch.repositories.scope.internal.RepositoryMode.OFFLINE_FIRST;
 import static org.hisp.dhis.android.core.arch.repositories.scope.internal.RepositoryMode.OFFLINE_ONLY;
 import static org.hisp.dhis.android.core.arch.repositories.scope.internal.RepositoryMode.ONLINE_FIRST;
@@ -63,6 +65,7 @@ public final class TrackedEntityInstanceQueryDataSource
 
     private Set<String> returnedUidsOffline = new HashSet<>();
     private Set<String> returnedUidsOnline = new HashSet<>();
+    private List<String> lastKeyOffline;
 
     private final List<TrackedEntityInstanceQueryOnline> baseOnlineQueries;
 
@@ -97,6 +100,7 @@ public final class TrackedEntityInstanceQueryDataSource
                             @NonNull LoadInitialCallback<TrackedEntityInstance> callback) {
         returnedUidsOffline = new HashSet<>();
         returnedUidsOnline = new HashSet<>();
+        lastKeyOffline = null;
         callback.onResult(loadPages(params.requestedLoadSize));
     }
 
@@ -122,9 +126,7 @@ public final class TrackedEntityInstanceQueryDataSource
         List<TrackedEntityInstance> result = new ArrayList<>();
         if (scope.mode().equals(OFFLINE_ONLY) || scope.mode().equals(OFFLINE_FIRST)) {
             if (!isExhaustedOffline) {
-                List<TrackedEntityInstance> instances = queryOffline(requestedLoadSize);
-                result.addAll(instances);
-                isExhaustedOffline = instances.size() < requestedLoadSize;
+                result.addAll(queryOffline(requestedLoadSize));
             }
 
             if (result.size() < requestedLoadSize && scope.mode().equals(OFFLINE_FIRST)) {
@@ -135,20 +137,31 @@ public final class TrackedEntityInstanceQueryDataSource
             List<TrackedEntityInstance> instances = queryOnlineRecursive(requestedLoadSize);
             result.addAll(instances);
 
-            if (result.size() < requestedLoadSize && scope.mode().equals(ONLINE_FIRST)) {
-                List<TrackedEntityInstance> onlineInstances = queryOffline(requestedLoadSize);
-                result.addAll(onlineInstances);
+            if (result.size() < requestedLoadSize && scope.mode().equals(ONLINE_FIRST) && !isExhaustedOffline) {
+                result.addAll(queryOffline(requestedLoadSize));
             }
         }
         return result;
     }
 
     private List<TrackedEntityInstance> queryOffline(int requestedLoadSize) {
-        String sqlQuery = localQueryHelper.getSqlQuery(scope, returnedUidsOffline,
-                requestedLoadSize);
-        List<TrackedEntityInstance> instances = store.selectRawQuery(sqlQuery);
+        String sqlQuery = localQueryHelper.getSqlQuery(scope, lastKeyOffline, requestedLoadSize);
+        Pair<List<TrackedEntityInstance>, List<String>> page = store.selectRawQueryWithKeys(sqlQuery,
+                localQueryHelper.getSelectionArgs(lastKeyOffline), localQueryHelper.getSortKeyCount(scope));
+        List<TrackedEntityInstance> instances = page.getFirst();
+        isExhaustedOffline = instances.size() < requestedLoadSize;
+        if (!instances.isEmpty()) {
+            lastKeyOffline = page.getSecond();
+        }
         addUids(returnedUidsOffline, instances);
-        return appendAttributes(instances);
+
+        List<TrackedEntityInstance> notReturnedOnline = new ArrayList<>(instances.size());
+        for (TrackedEntityInstance instance : instances) {
+            if (!returnedUidsOnline.contains(instance.uid())) {
+                notReturnedOnline.add(instance);
+            }
+        }
+        return appendAttributes(notReturnedOnline);
     }
 
     private List<TrackedEntityInstance> queryOnlineRecursive(int requestLoadSize) {
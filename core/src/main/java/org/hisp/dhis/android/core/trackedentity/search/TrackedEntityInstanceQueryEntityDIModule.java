@@ -28,13 +28,15 @@
 
 package org.hisp.dhis.android.core.trackedentity.search;
 
+import org.hisp.dhis.android.core.arch.cache.internal.BoundedExpirableCache;
 import org.hisp.dhis.android.core.arch.cache.internal.D2Cache;
-import org.hisp.dhis.android.core.arch.cache.internal.ExpirableCache;
 import org.hisp.dhis.android.core.trackedentity.TrackedEntityInstance;
 
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import javax.inject.Singleton;
+
 import dagger.Module;
 import dagger.Provides;
 import dagger.Reusable;
@@ -42,6 +44,11 @@ import dagger.Reusable;
 @Module
 public final class TrackedEntityInstanceQueryEntityDIModule {
 
+    /**
+     * Maximum number of tracked entity instances kept in the online search cache, summed over all the cached queries.
+     */
+    private static final long ONLINE_CACHE_MAX_INSTANCES = 5000;
+
     @Provides
     @Reusable
     public TrackedEntityInstanceQueryRepositoryScope empty() {
@@ -49,9 +56,10 @@ public final class TrackedEntityInstanceQueryEntityDIModule {
     }
 
     @Provides
-    @Reusable
+    @Singleton
     public D2Cache<TrackedEntityInstanceQueryOnline, List<TrackedEntityInstance>> onlineCache() {
-        return new ExpirableCache<>(TimeUnit.MINUTES.toMillis(5));
+        return new BoundedExpirableCache<>(ONLINE_CACHE_MAX_INSTANCES, TimeUnit.MINUTES.toMillis(5),
+                (query, instances) -> Math.max(1, instances.size()));
     }
 
 }
\ No newline at end of file
@@ -31,6 +31,8 @@ import com.google.common.truth.Truth.assertThat
 import com.nhaarman.mockitokotlin2.argumentCaptor
 import com.nhaarman.mockitokotlin2.mock
 import com.nhaarman.mockitokotlin2.verify
+import java.util.Date
+import org.hisp.dhis.android.core.arch.repositories.scope.internal.FilterItemOperator
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.junit.runners.JUnit4
@@ -91,4 +93,34 @@ class EventLineListRepositoryShould {
         verify(eventLineListService).evaluate(paramsCaptor.capture())
         assertThat(paramsCaptor.firstValue.trackedEntityInstance).isEqualTo("tracked_entity_instance_uid")
     }
+
+    @Test
+    fun `Call service with event date filter`() {
+        val startDate = Date(0)
+        val endDate = Date()
+        repository
+            .byEventDate().afterOrEqual(startDate)
+            .byEventDate().beforeOrEqual(endDate)
+            .blockingEvaluate()
+
+        verify(eventLineListService).evaluate(paramsCaptor.capture())
+        assertThat(paramsCaptor.firstValue.eventDate?.startDate()).isEqualTo(startDate)
+        assertThat(paramsCaptor.firstValue.eventDate?.endDate()).isEqualTo(endDate)
+    }
+
+    @Test
+    fun `Call service with data value filters`() {
+        repository
+            .byDataValue("uid1").eq("value1")
+            .byDataValue("uid2").like("value2")
+            .blockingEvaluate()
+
+        verify(eventLineListService).evaluate(paramsCaptor.capture())
+        val filters = paramsCaptor.firstValue.dataFilters
+        assertThat(filters.size).isEqualTo(2)
+        assertThat(filters[0].key()).isEqualTo("uid1")
+        assertThat(filters[0].operator()).isEqualTo(FilterItemOperator.EQ)
+        assertThat(filters[1].key()).isEqualTo("uid2")
+        assertThat(filters[1].operator()).isEqualTo(FilterItemOperator.LIKE)
+    }
 }
@@ -92,6 +92,37 @@ public class ApiPagingEngineShould {
                 1,50,0, 0, true));
     }
 
+    @Test
+    public void keep_every_item_of_a_batch_not_in_the_last_page() {
+        Paging paging = Paging.create(2, 10, 0, 0, false);
+        List<Integer> batch = Arrays.asList(0, 1, 2, 3);
+
+        assertThat(ApiPagingEngine.getBatchItemsToKeep(paging, 4, batch)).isEqualTo(batch);
+    }
+
+    @Test
+    public void trim_the_batches_of_the_last_page() {
+        // Page of 10 items where only items 3 to 7 were requested, read in batches of 4.
+        Paging paging = Paging.create(3, 10, 3, 2, true);
+
+        assertThat(ApiPagingEngine.getBatchItemsToKeep(paging, 0, Arrays.asList(0, 1, 2, 3)))
+                .containsExactly(3);
+        assertThat(ApiPagingEngine.getBatchItemsToKeep(paging, 4, Arrays.asList(4, 5, 6, 7)))
+                .containsExactly(4, 5, 6, 7).inOrder();
+        assertThat(ApiPagingEngine.getBatchItemsToKeep(paging, 8, Arrays.asList(8, 9)))
+                .isEmpty();
+    }
+
+    @Test
+    public void trim_a_short_last_page() {
+        Paging paging = Paging.create(3, 10, 3, 2, true);
+
+        assertThat(ApiPagingEngine.getBatchItemsToKeep(paging, 0, Arrays.asList(0, 1, 2)))
+                .isEmpty();
+        assertThat(ApiPagingEngine.getBatchItemsToKeep(paging, 0, Arrays.asList(0, 1, 2, 3, 4)))
+                .containsExactly(3, 4).inOrder();
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void throw_exception_if_current_page_is_negative() throws IllegalArgumentException {
         ApiPagingEngine.getPaginationList(-30, 179);
@@ -0,0 +1,121 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.api.payload.internal
+
+import com.fasterxml.jackson.core.JsonParseException
+import com.google.common.truth.Truth.assertThat
+import okhttp3.MediaType
+import okhttp3.ResponseBody
+import org.hisp.dhis.android.core.arch.json.internal.ObjectMapperFactory.objectMapper
+import org.hisp.dhis.android.core.common.ObjectWithUid
+import org.junit.Test
+
+class StreamingPayloadShould {
+
+    private val pager = """"pager": {"page": 2, "pageCount": 3, "pageSize": 5, "total": 12}"""
+
+    @Test
+    fun `Should hand items in batches of the given size`() {
+        val payload = payloadOf("""{$pager, "items": [${items(5)}]}""")
+        val batches = mutableListOf<List<String>>()
+
+        val count = payload.stream(2) { batch -> batches.add(batch.map { it.uid() }) }
+
+        assertThat(count).isEqualTo(5)
+        assertThat(batches).containsExactly(listOf("uid0", "uid1"), listOf("uid2", "uid3"), listOf("uid4")).inOrder()
+    }
+
+    @Test
+    fun `Should read the pager wherever it is`() {
+        val payload = payloadOf("""{"items": [${items(1)}], $pager}""")
+
+        payload.stream(10) { }
+
+        assertThat(payload.pager().page()).isEqualTo(2)
+        assertThat(payload.pager().total()).isEqualTo(12)
+    }
+
+    @Test
+    fun `Should skip other fields`() {
+        val payload = payloadOf("""{"dataSet": "ds", "extra": {"values": [1, 2]}, "items": [${items(3)}], "x": 1}""")
+        val uids = mutableListOf<String>()
+
+        val count = payload.stream(10) { batch -> batch.mapTo(uids) { it.uid() } }
+
+        assertThat(count).isEqualTo(3)
+        assertThat(uids).containsExactly("uid0", "uid1", "uid2").inOrder()
+    }
+
+    @Test
+    fun `Should not call the consumer for an empty page`() {
+        val payload = payloadOf("""{$pager, "items": []}""")
+        var calls = 0
+
+        val count = payload.stream(10) { calls++ }
+
+        assertThat(count).isEqualTo(0)
+        assertThat(calls).isEqualTo(0)
+    }
+
+    @Test
+    fun `Should count null elements without handing them to the consumer`() {
+        val payload = payloadOf("""{$pager, "items": [${items(2)}, null, null]}""")
+        val uids = mutableListOf<String>()
+
+        val count = payload.stream(10) { batch -> batch.mapTo(uids) { it.uid() } }
+
+        assertThat(count).isEqualTo(4)
+        assertThat(uids).containsExactly("uid0", "uid1").inOrder()
+    }
+
+    @Test
+    fun `Should read batches on demand`() {
+        val reader = payloadOf("""{"items": [${items(3)}], $pager}""").batches(2)
+
+        assertThat(reader.next()!!.map { it.uid() }).containsExactly("uid0", "uid1").inOrder()
+        assertThat(reader.count()).isEqualTo(2)
+        assertThat(reader.next()!!.map { it.uid() }).containsExactly("uid2")
+        assertThat(reader.next()).isNull()
+        assertThat(reader.count()).isEqualTo(3)
+    }
+
+    @Test(expected = JsonParseException::class)
+    fun `Should fail if the payload is not an object`() {
+        payloadOf("""[${items(1)}]""").stream(10) { }
+    }
+
+    private fun items(count: Int): String {
+        return (0 until count).joinToString(", ") { """{"id": "uid$it"}""" }
+    }
+
+    private fun payloadOf(json: String): StreamingPayload<ObjectWithUid> {
+        val body = ResponseBody.create(MediaType.get("application/json"), json)
+        val itemType = objectMapper().typeFactory.constructType(ObjectWithUid::class.java)
+        return StreamingPayload(objectMapper(), itemType, body)
+    }
+}
@@ -33,6 +33,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hisp.dhis.android.core.arch.api.fields.internal.FieldsConverterFactory;
 import org.hisp.dhis.android.core.arch.api.filters.internal.FilterConverterFactory;
 import org.hisp.dhis.android.core.arch.api.internal.PreventURLDecodeInterceptor;
+import org.hisp.dhis.android.core.arch.api.payload.internal.StreamingPayloadConverterFactory;
+import org.hisp.dhis.android.core.arch.json.internal.ObjectMapperFactory;
 import org.hisp.dhis.android.core.mockwebserver.Dhis2MockServer;
 
 import okhttp3.OkHttpClient;
@@ -58,6 +60,7 @@ public class RetrofitFactory {
     public static Retrofit fromServerUrl(String serverUrl) {
         return new Retrofit.Builder()
                 .baseUrl(serverUrl)
+                .addConverterFactory(StreamingPayloadConverterFactory.create(ObjectMapperFactory.objectMapper()))
                 .addConverterFactory(JacksonConverterFactory.create(new ObjectMapper()))
                 .addConverterFactory(FilterConverterFactory.create())
                 .addConverterFactory(FieldsConverterFactory.create())
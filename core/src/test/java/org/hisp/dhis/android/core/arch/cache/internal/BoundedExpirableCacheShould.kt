@@ -0,0 +1,102 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.cache.internal
+
+import com.google.common.truth.Truth.assertThat
+import java.util.concurrent.TimeUnit
+import org.junit.Test
+
+class BoundedExpirableCacheShould {
+
+    private var now = 0L
+
+    private fun cache(maxWeight: Long, weigher: (String, String) -> Int = { _, _ -> 1 }) =
+        BoundedExpirableCache(maxWeight, TimeUnit.MINUTES.toMillis(1), weigher, { now })
+
+    @Test
+    fun `Should return cached values and count hits and misses`() {
+        val cache = cache(10)
+        cache["a"] = "A"
+
+        assertThat(cache["a"]).isEqualTo("A")
+        assertThat(cache["b"]).isNull()
+        assertThat(cache.stats().hits).isEqualTo(1)
+        assertThat(cache.stats().misses).isEqualTo(1)
+    }
+
+    @Test
+    fun `Should evict least recently used entries when max weight is exceeded`() {
+        val cache = cache(2)
+        cache["a"] = "A"
+        cache["b"] = "B"
+        cache["a"]
+        cache["c"] = "C"
+
+        assertThat(cache["a"]).isEqualTo("A")
+        assertThat(cache["b"]).isNull()
+        assertThat(cache["c"]).isEqualTo("C")
+        assertThat(cache.stats().evictions).isEqualTo(1)
+    }
+
+    @Test
+    fun `Should take entry weight into account`() {
+        val cache = cache(5) { _, value -> value.length }
+        cache["a"] = "AAA"
+        cache["b"] = "BBB"
+        cache["c"] = "CCCCCC"
+
+        assertThat(cache["a"]).isNull()
+        assertThat(cache["b"]).isEqualTo("BBB")
+        assertThat(cache["c"]).isNull()
+        assertThat(cache.stats().weight).isEqualTo(3)
+    }
+
+    @Test
+    fun `Should cache an entry as heavy as the max weight`() {
+        val cache = cache(6) { _, value -> value.length }
+        cache["a"] = "AAA"
+        cache["b"] = "BBBBBB"
+
+        assertThat(cache["a"]).isNull()
+        assertThat(cache["b"]).isEqualTo("BBBBBB")
+        assertThat(cache.stats().size).isEqualTo(1)
+    }
+
+    @Test
+    fun `Should expire each entry independently`() {
+        val cache = cache(10)
+        cache["a"] = "A"
+        now += TimeUnit.SECONDS.toNanos(30)
+        cache["b"] = "B"
+        now += TimeUnit.SECONDS.toNanos(40)
+
+        assertThat(cache["a"]).isNull()
+        assertThat(cache["b"]).isEqualTo("B")
+        assertThat(cache.stats().expirations).isEqualTo(1)
+    }
+}
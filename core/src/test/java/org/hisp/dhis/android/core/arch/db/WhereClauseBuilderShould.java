@@ -33,6 +33,9 @@ import com.google.common.collect.Lists;
 import org.hisp.dhis.android.core.arch.db.querybuilders.internal.WhereClauseBuilder;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static com.google.common.truth.Truth.assertThat;
 
 public class WhereClauseBuilderShould {
@@ -207,6 +210,41 @@ public class WhereClauseBuilderShould {
         assertThat(whereStatement).isEqualTo("COL1 >= 'VAL1' OR COL2 <= 'VAL2'");
     }
 
+    @Test
+    public void build_selection_with_placeholders_for_string_values() {
+        WhereClauseBuilder builder = new WhereClauseBuilder()
+                .appendKeyStringValue("COL1", "VAL1")
+                .appendKeyNumberValue("COL2", 2)
+                .appendIsNullOrValue("COL3", "VAL3");
+
+        assertThat(builder.build()).isEqualTo("COL1 = 'VAL1' AND COL2 = 2 AND (COL3 IS NULL OR COL3 = 'VAL3')");
+        assertThat(builder.buildSelection()).isEqualTo("COL1 = ? AND COL2 = 2 AND (COL3 IS NULL OR COL3 = ?)");
+        assertThat(builder.buildSelectionArgs()).asList().containsExactly("VAL1", "VAL3").inOrder();
+    }
+
+    @Test
+    public void build_selection_with_placeholders_for_in_values() {
+        WhereClauseBuilder builder = new WhereClauseBuilder()
+                .appendInKeyStringValues("COL1", Lists.newArrayList("VAL1", "VAL2"))
+                .appendNotInKeyStringValues("COL2", Lists.newArrayList("VAL3"));
+
+        assertThat(builder.buildSelection()).isEqualTo("COL1 IN (?, ?) AND COL2 NOT IN (?)");
+        assertThat(builder.buildSelectionArgs()).asList().containsExactly("VAL1", "VAL2", "VAL3").inOrder();
+    }
+
+    @Test
+    public void inline_in_values_exceeding_the_selection_args_limit() {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add("V" + i);
+        }
+        WhereClauseBuilder builder = new WhereClauseBuilder()
+                .appendInKeyStringValues("COL", values);
+
+        assertThat(builder.buildSelection()).isEqualTo(builder.build());
+        assertThat(builder.buildSelectionArgs()).isEmpty();
+    }
+
     @Test(expected = RuntimeException.class)
     public void throw_exception_for_no_pairs() {
         WhereClauseBuilder builder = new WhereClauseBuilder();
@@ -0,0 +1,185 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.db.access.internal;
+
+import android.database.Cursor;
+
+import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
+import org.hisp.dhis.android.core.arch.db.access.QueryMetrics;
+import org.hisp.dhis.android.core.arch.db.stores.binders.internal.StatementWrapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InstrumentedDatabaseAdapterShould {
+
+    @Mock
+    private DatabaseAdapter databaseAdapter;
+
+    @Mock
+    private Cursor cursor;
+
+    @Mock
+    private Cursor planCursor;
+
+    @Mock
+    private StatementWrapper statement;
+
+    private DatabaseMetricsCollector metrics;
+
+    private DatabaseAdapter instrumentedAdapter;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        metrics = new DatabaseMetricsCollector(true, 0);
+        instrumentedAdapter = metrics.instrument(databaseAdapter);
+
+        when(databaseAdapter.rawQuery(anyString(), any())).thenReturn(cursor);
+        when(databaseAdapter.rawQuery(eq("EXPLAIN QUERY PLAN SELECT * FROM Program WHERE uid = 'a'"), any()))
+                .thenReturn(planCursor);
+        when(cursor.getCount()).thenReturn(3);
+        when(planCursor.getColumnIndex("detail")).thenReturn(3);
+        when(planCursor.moveToNext()).thenReturn(true, false);
+        when(planCursor.getString(3)).thenReturn("SCAN TABLE Program");
+        when(databaseAdapter.compileStatement(anyString())).thenReturn(statement);
+        when(statement.executeUpdateDelete()).thenReturn(2);
+    }
+
+    @Test
+    public void return_the_same_adapter_when_disabled() {
+        DatabaseMetricsCollector disabled = new DatabaseMetricsCollector(false, 0);
+        assertThat(disabled.instrument(databaseAdapter)).isSameInstanceAs(databaseAdapter);
+    }
+
+    @Test
+    public void group_queries_by_shape() {
+        instrumentedAdapter.rawQuery("SELECT * FROM Program WHERE uid = 'a'");
+        instrumentedAdapter.rawQuery("SELECT * FROM Program WHERE uid = 'b'");
+        instrumentedAdapter.rawQuery("SELECT * FROM Program WHERE id IN (1, 2,3)");
+
+        List<QueryMetrics> queries = metrics.queries();
+        assertThat(queries).hasSize(2);
+
+        QueryMetrics byUid = metrics.queries().get(0).getExecutions() == 2 ? queries.get(0) : queries.get(1);
+        assertThat(byUid.getSql()).isEqualTo("SELECT * FROM Program WHERE uid = ?");
+        assertThat(byUid.getTable()).isEqualTo("Program");
+        assertThat(byUid.getRows()).isEqualTo(6);
+
+        assertThat(metrics.tables()).hasSize(1);
+        assertThat(metrics.tables().get(0).getExecutions()).isEqualTo(3);
+    }
+
+    @Test
+    public void capture_the_query_plan_once_per_slow_shape() {
+        instrumentedAdapter.rawQuery("SELECT * FROM Program WHERE uid = 'a'");
+        instrumentedAdapter.rawQuery("SELECT * FROM Program WHERE uid = 'a'");
+
+        verify(databaseAdapter, times(1))
+                .rawQuery(eq("EXPLAIN QUERY PLAN SELECT * FROM Program WHERE uid = 'a'"), any());
+        assertThat(metrics.slowQueries().get(0).getQueryPlan()).isEqualTo("SCAN TABLE Program");
+    }
+
+    @Test
+    public void record_compiled_statements() {
+        StatementWrapper wrapper = instrumentedAdapter.compileStatement("UPDATE Event SET state = ? WHERE uid = ?");
+        wrapper.executeUpdateDelete();
+
+        QueryMetrics update = metrics.queries().get(0);
+        assertThat(update.getTable()).isEqualTo("Event");
+        assertThat(update.getRows()).isEqualTo(2);
+        verify(statement).executeUpdateDelete();
+    }
+
+    @Test
+    public void record_outermost_transactions_only() {
+        instrumentedAdapter.beginNewTransaction();
+        instrumentedAdapter.beginNewTransaction().end();
+        instrumentedAdapter.endTransaction();
+
+        assertThat(metrics.transactions().getTransactions()).isEqualTo(1);
+        verify(databaseAdapter, times(2)).endTransaction();
+    }
+
+    @Test
+    public void end_the_transaction_when_the_commit_fails() {
+        doThrow(new RuntimeException("FOREIGN KEY constraint failed")).doNothing()
+                .when(databaseAdapter).endTransaction();
+
+        instrumentedAdapter.beginNewTransaction();
+        try {
+            instrumentedAdapter.endTransaction();
+        } catch (RuntimeException e) {
+            // Expected: the transaction is rolled back
+        }
+        instrumentedAdapter.beginNewTransaction();
+        instrumentedAdapter.endTransaction();
+
+        assertThat(metrics.transactions().getTransactions()).isEqualTo(2);
+    }
+
+    @Test
+    public void record_migration_statements_apart() {
+        DatabaseAdapter migrationAdapter = metrics.instrumentMigration(databaseAdapter);
+        migrationAdapter.execSQL("CREATE TABLE Program (_id INTEGER PRIMARY KEY)");
+
+        assertThat(metrics.queries()).isEmpty();
+        verify(databaseAdapter).execSQL("CREATE TABLE Program (_id INTEGER PRIMARY KEY)");
+    }
+
+    @Test
+    public void record_template_creation_only_when_enabled() {
+        DatabaseMetricsCollector disabled = new DatabaseMetricsCollector(false, 0);
+        metrics.recordTemplateCreation(TimeUnit.MILLISECONDS.toNanos(40));
+        disabled.recordTemplateCreation(TimeUnit.MILLISECONDS.toNanos(40));
+
+        assertThat(metrics.templateCreationTimeInMillis()).isEqualTo(40);
+        assertThat(disabled.templateCreationTimeInMillis()).isEqualTo(0);
+    }
+
+    @Test
+    public void reset_metrics() {
+        instrumentedAdapter.rawQuery("SELECT * FROM Program WHERE uid = 'a'");
+        metrics.reset();
+
+        assertThat(metrics.queries()).isEmpty();
+    }
+}
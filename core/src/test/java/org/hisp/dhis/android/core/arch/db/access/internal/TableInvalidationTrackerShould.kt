@@ -0,0 +1,169 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.db.access.internal
+
+import com.google.common.truth.Truth.assertThat
+import java.util.concurrent.Callable
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import org.junit.Test
+
+class TableInvalidationTrackerShould {
+
+    private val tracker = TableInvalidationTracker()
+
+    @Test
+    fun `Should notify changes outside transactions immediately`() {
+        val changes = tracker.changes().test()
+
+        tracker.onSqlExecuted("DELETE FROM Event WHERE uid = 'a'")
+
+        changes.assertValue(setOf("Event"))
+    }
+
+    @Test
+    fun `Should notify changes of a transaction once it is committed`() {
+        val changes = tracker.changes().test()
+
+        tracker.onTransactionBegin()
+        tracker.onTableChanged("Event")
+        tracker.onTransactionBegin()
+        tracker.onTableChanged("TrackedEntityDataValue")
+        tracker.onTransactionSuccessful()
+        tracker.onTransactionEnd()
+        changes.assertNoValues()
+
+        tracker.onTransactionSuccessful()
+        tracker.onTransactionEnd()
+        changes.assertValue(setOf("Event", "TrackedEntityDataValue"))
+    }
+
+    @Test
+    fun `Should discard changes of a rolled back transaction`() {
+        val changes = tracker.changes().test()
+
+        tracker.onTransactionBegin()
+        tracker.onTransactionBegin()
+        tracker.onTableChanged("Event")
+        tracker.onTransactionEnd()
+        tracker.onTransactionSuccessful()
+        tracker.onTransactionEnd()
+
+        changes.assertNoValues()
+    }
+
+    @Test
+    fun `Should discard changes of a transaction that fails to commit`() {
+        val changes = tracker.changes().test()
+
+        tracker.onTransactionBegin()
+        tracker.onTableChanged("Event")
+        tracker.onTransactionSuccessful()
+        tracker.onTransactionFailed()
+        tracker.onTransactionBegin()
+        tracker.onTableChanged("Enrollment")
+        tracker.onTransactionSuccessful()
+        tracker.onTransactionEnd()
+
+        changes.assertValue(setOf("Enrollment"))
+    }
+
+    @Test
+    fun `Should detect the table of write statements`() {
+        assertThat(tracker.tableWrittenBy("INSERT OR REPLACE INTO Event (uid) VALUES (?)")).isEqualTo("Event")
+        assertThat(tracker.tableWrittenBy("UPDATE Event SET state = ?")).isEqualTo("Event")
+        assertThat(tracker.tableWrittenBy("DELETE FROM Event")).isEqualTo("Event")
+        assertThat(tracker.tableWrittenBy("SELECT * FROM Event")).isNull()
+    }
+
+    @Test
+    fun `Should notify tables changed by foreign key actions of updates and deletes`() {
+        val reads = AtomicInteger()
+        tracker.setForeignKeyActionsReader(
+            Callable {
+                reads.incrementAndGet()
+                mapOf("Enrollment" to setOf("Event"), "Event" to setOf("TrackedEntityDataValue", "Note"))
+            }
+        )
+        val changes = tracker.changes().test()
+
+        tracker.onSqlExecuted("INSERT INTO Enrollment (uid) VALUES ('a')")
+        tracker.onSqlExecuted("DELETE FROM Enrollment WHERE uid = 'a'")
+        tracker.onTransactionBegin()
+        tracker.onTableChanged("Event")
+        tracker.onTransactionSuccessful()
+        tracker.onTransactionEnd()
+
+        changes.assertValues(
+            setOf("Enrollment"),
+            setOf("Enrollment", "Event", "TrackedEntityDataValue", "Note"),
+            setOf("Event", "TrackedEntityDataValue", "Note")
+        )
+        assertThat(reads.get()).isEqualTo(1)
+    }
+
+    @Test
+    fun `Should only consider plain inserts free of foreign key actions`() {
+        assertThat(tracker.triggersForeignKeyActions("INSERT INTO Event (uid) VALUES (?)")).isFalse()
+        assertThat(tracker.triggersForeignKeyActions("INSERT OR IGNORE INTO Event (uid) VALUES (?)")).isFalse()
+        assertThat(tracker.triggersForeignKeyActions("INSERT OR REPLACE INTO Event (uid) VALUES (?)")).isTrue()
+        assertThat(tracker.triggersForeignKeyActions("UPDATE Event SET state = ?")).isTrue()
+    }
+
+    @Test
+    fun `Should record tables read by nested queries`() {
+        val (_, tables) = tracker.recordReads(
+            Callable {
+                tracker.onQuery("SELECT * FROM Event WHERE enrollment IN (SELECT uid FROM Enrollment)")
+                tracker.recordReads(Callable { tracker.onQuery("SELECT * FROM Note") })
+            }
+        )
+
+        assertThat(tables).containsExactly("Event", "Enrollment", "Note")
+    }
+
+    @Test
+    fun `Should run observed queries again only when a read table changes`() {
+        val executions = AtomicInteger()
+        val observer = tracker.observe(
+            Callable {
+                tracker.onQuery("SELECT COUNT(*) FROM Event")
+                executions.incrementAndGet()
+            }
+        ).test()
+
+        observer.awaitCount(1)
+        tracker.onTableChanged("Program")
+        tracker.onTableChanged("Event")
+        observer.awaitCount(2)
+        observer.awaitDone(100, TimeUnit.MILLISECONDS)
+
+        observer.assertValues(1, 2)
+        observer.dispose()
+    }
+}
@@ -35,6 +35,8 @@ import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static com.google.common.truth.Truth.assertThat;
 
@@ -66,6 +68,23 @@ public class SQLStatementBuilderShould {
         );
     }
 
+    @Test
+    public void generate_multi_row_insert_statement() {
+        assertThat(builder.insertMany(3)).isEqualTo(
+                "INSERT INTO Test_Table (Test_Column_Name1, Test_Column_Name2) VALUES (?, ?), (?, ?), (?, ?);"
+        );
+    }
+
+    @Test
+    public void generate_multi_row_upsert_statement() {
+        SQLStatementBuilderImpl uidBuilder = new SQLStatementBuilderImpl(TABLE_NAME,
+                new String[]{"uid", COL_1}, new String[]{}, false);
+        assertThat(uidBuilder.upsertMany(2)).isEqualTo(
+                "INSERT INTO Test_Table (uid, Test_Column_Name1) VALUES (?, ?), (?, ?) " +
+                        "ON CONFLICT (uid) DO UPDATE SET Test_Column_Name1=excluded.Test_Column_Name1;"
+        );
+    }
+
     @Test
     public void generate_update_statement() {
         assertThat(builder.update()).isEqualTo(
@@ -129,6 +148,24 @@ public class SQLStatementBuilderShould {
         );
     }
 
+    @Test
+    public void generate_select_children_with_link_table_for_parents() {
+        assertThat(builder.selectChildrenWithLinkTableForParents(CHILD_PROJECTION, Arrays.asList("UID1", "UID2")))
+                .isEqualTo("SELECT c.*, l." + COL_1 + " AS parentUidAlias FROM Test_Table AS l, Category AS c WHERE l." +
+                        COL_2 + "=c.uid AND l." + COL_1 + " IN ('UID1', 'UID2');"
+        );
+    }
+
+    @Test
+    public void generate_select_children_with_link_table_for_parents_with_sort_order() {
+        SQLStatementBuilderImpl builderWithSortOrder = new SQLStatementBuilderImpl(TABLE_NAME, columns, columns, true);
+        assertThat(builderWithSortOrder.selectChildrenWithLinkTableForParents(CHILD_PROJECTION,
+                Collections.singletonList("UID"))).isEqualTo("SELECT c.*, l." + COL_1 + " AS parentUidAlias " +
+                "FROM Test_Table AS l, Category AS c WHERE l." + COL_2 + "=c.uid AND l." + COL_1 + " IN ('UID') " +
+                "ORDER BY l.sortOrder;"
+        );
+    }
+
     @Test
     public void generate_select_children_with_link_table_with_sort_order() {
         SQLStatementBuilderImpl builderWithSortOrder = new SQLStatementBuilderImpl(TABLE_NAME, columns, columns, true);
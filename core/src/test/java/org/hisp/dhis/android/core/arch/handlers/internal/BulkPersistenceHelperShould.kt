@@ -0,0 +1,62 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.handlers.internal
+
+import com.google.common.truth.Truth.assertThat
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import org.hisp.dhis.android.core.arch.db.stores.internal.IdentifiableObjectStore
+import org.hisp.dhis.android.core.common.ObjectWithUid
+import org.junit.Test
+
+class BulkPersistenceHelperShould {
+
+    private val store: IdentifiableObjectStore<ObjectWithUid> = mock()
+
+    private val o1 = ObjectWithUid.create("o1")
+    private val o2 = ObjectWithUid.create("o2")
+    private val o3 = ObjectWithUid.create("o3")
+
+    @Test
+    fun `Should return the actions reported by the store in the order of the objects`() {
+        whenever(store.updateOrInsert(listOf(o1, o3))).thenReturn(listOf(HandleAction.Insert, HandleAction.Update))
+
+        val actions = BulkPersistenceHelper.deleteOrPersistMany(store, listOf(o1, o2, o3)) { it == o2 }
+
+        assertThat(actions).containsExactly(HandleAction.Insert, HandleAction.Delete, HandleAction.Update).inOrder()
+        verify(store).deleteIfExists("o2")
+    }
+
+    @Test(expected = IllegalStateException::class)
+    fun `Should fail if the store does not report an action per persisted object`() {
+        whenever(store.updateOrInsert(listOf(o1, o2))).thenReturn(listOf(HandleAction.Update))
+
+        BulkPersistenceHelper.deleteOrPersistMany(store, listOf(o1, o2)) { false }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.handlers.internal
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.verifyNoMoreInteractions
+import org.hisp.dhis.android.core.arch.db.stores.internal.LinkStore
+import org.hisp.dhis.android.core.common.ObjectWithUid
+import org.hisp.dhis.android.core.organisationunit.OrganisationUnitProgramLink
+import org.junit.Test
+
+class LinkHandlerImplShould {
+
+    private val store: LinkStore<OrganisationUnitProgramLink> = mock()
+    private val handler = LinkHandlerImpl<ObjectWithUid, OrganisationUnitProgramLink>(store)
+
+    private val transformer: (String, ObjectWithUid) -> OrganisationUnitProgramLink = { orgUnit, program ->
+        OrganisationUnitProgramLink.builder().organisationUnit(orgUnit).program(program.uid()).build()
+    }
+
+    @Test
+    fun `Should replace links of all masters with one delete and one insert`() {
+        handler.handleMany(
+            mapOf(
+                "ou1" to listOf(ObjectWithUid.create("p1"), ObjectWithUid.create("p2")),
+                "ou2" to listOf(ObjectWithUid.create("p1"))
+            ),
+            transformer
+        )
+
+        verify(store).deleteLinksForMasterUids(setOf("ou1", "ou2"))
+        verify(store).insert(
+            listOf(
+                transformer("ou1", ObjectWithUid.create("p1")),
+                transformer("ou1", ObjectWithUid.create("p2")),
+                transformer("ou2", ObjectWithUid.create("p1"))
+            )
+        )
+        verifyNoMoreInteractions(store)
+    }
+
+    @Test
+    fun `Should keep the links of masters missing from the map`() {
+        handler.handleMany(mapOf("ou1" to emptyList()), transformer)
+
+        verify(store).deleteLinksForMasterUids(setOf("ou1"))
+        verify(store).insert(emptyList())
+        verify(store, never()).deleteAllLinks()
+        verifyNoMoreInteractions(store)
+    }
+
+    @Test
+    fun `Should not touch the store when there are no masters`() {
+        handler.handleMany(emptyMap(), transformer)
+
+        verify(store, never()).deleteLinksForMasterUids(any())
+        verifyNoMoreInteractions(store)
+    }
+}
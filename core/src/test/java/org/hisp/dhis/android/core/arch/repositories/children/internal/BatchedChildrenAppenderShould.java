@@ -0,0 +1,115 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.arch.repositories.children.internal;
+
+import org.hisp.dhis.android.core.arch.db.stores.internal.ChildrenStore;
+import org.hisp.dhis.android.core.common.ObjectWithUid;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BatchedChildrenAppenderShould {
+
+    @Mock
+    private ChildrenStore<ObjectWithUid, String> childStore;
+
+    private final ObjectWithUid parent1 = ObjectWithUid.create("parent1");
+    private final ObjectWithUid parent2 = ObjectWithUid.create("parent2");
+    private final ObjectWithUid parent3 = ObjectWithUid.create("parent3");
+
+    private final Map<String, List<String>> appended = new HashMap<>();
+
+    private BatchedChildrenAppender<ObjectWithUid, String> appender;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        appender = new BatchedChildrenAppender<ObjectWithUid, String>(childStore) {
+            @Override
+            protected ObjectWithUid appendChildren(ObjectWithUid parent, List<String> children) {
+                appended.put(parent.uid(), children);
+                return parent;
+            }
+        };
+    }
+
+    @Test
+    public void load_children_of_a_collection_in_a_single_call() {
+        Map<String, List<String>> children = new HashMap<>();
+        children.put("parent1", Arrays.asList("child1", "child2"));
+        children.put("parent2", Collections.emptyList());
+        when(childStore.getChildrenByParentUids(Arrays.asList("parent1", "parent2"))).thenReturn(children);
+
+        appender.appendChildrenInCollection(Arrays.asList(parent1, parent2));
+
+        assertThat(appended.get("parent1")).containsExactly("child1", "child2");
+        assertThat(appended.get("parent2")).isEmpty();
+        verify(childStore, never()).getChildren(parent1);
+    }
+
+    @Test
+    public void not_keep_children_of_previous_collections() {
+        Map<String, List<String>> children = new HashMap<>();
+        children.put("parent1", Collections.singletonList("child1"));
+        children.put("parent2", Collections.singletonList("child2"));
+        when(childStore.getChildrenByParentUids(Arrays.asList("parent1", "parent2"))).thenReturn(children);
+        when(childStore.getChildren(parent1)).thenReturn(Collections.singletonList("child1-updated"));
+        when(childStore.getChildren(parent3)).thenReturn(Collections.singletonList("child3"));
+
+        appender.appendChildrenInCollection(Arrays.asList(parent1, parent2));
+        appender.appendChildren(parent1);
+        appender.appendChildrenInCollection(Collections.singletonList(parent3));
+
+        assertThat(appended.get("parent1")).containsExactly("child1-updated");
+        assertThat(appended.get("parent3")).containsExactly("child3");
+    }
+
+    @Test
+    public void query_a_single_parent_directly() {
+        when(childStore.getChildren(parent1)).thenReturn(Collections.singletonList("child1"));
+
+        appender.appendChildrenInCollection(Collections.singletonList(parent1));
+
+        assertThat(appended.get("parent1")).containsExactly("child1");
+        verify(childStore, never()).getChildrenByParentUids(anyCollection());
+    }
+}
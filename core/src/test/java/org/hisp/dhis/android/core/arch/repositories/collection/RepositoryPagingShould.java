@@ -30,6 +30,7 @@ package org.hisp.dhis.android.core.arch.repositories.collection;
 
 import android.content.ContentValues;
 
+import org.hisp.dhis.android.core.arch.db.access.internal.TableInvalidationTracker;
 import org.hisp.dhis.android.core.arch.db.stores.internal.IdentifiableObjectStore;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.arch.repositories.paging.internal.RepositoryDataSource;
@@ -53,6 +54,7 @@ import java.util.Map;
 
 import androidx.paging.ItemKeyedDataSource;
 
+import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.verify;
@@ -88,6 +90,25 @@ public class RepositoryPagingShould  {
         when(store.selectWhere(anyString(), anyString(), anyInt())).thenReturn(objects);
     }
 
+    @Test
+    public void invalidate_data_source_when_a_read_table_changes() {
+        TableInvalidationTracker tracker = new TableInvalidationTracker();
+        when(store.invalidationTracker()).thenReturn(tracker);
+        when(store.selectWhere(anyString(), anyString(), anyInt())).thenAnswer(invocation -> {
+            tracker.onQuery("SELECT * FROM CategoryOption");
+            return objects;
+        });
+
+        RepositoryDataSource<CategoryOption> dataSource = new RepositoryDataSource<>(store, emptyScope, childrenAppenders);
+        dataSource.loadInitial(new ItemKeyedDataSource.LoadInitialParams<>(null, 3, false), initialCallback);
+
+        tracker.onTableChanged("Program");
+        assertThat(dataSource.isInvalid()).isFalse();
+
+        tracker.onTableChanged("CategoryOption");
+        assertThat(dataSource.isInvalid()).isTrue();
+    }
+
     @Test
     public void get_initial_page_objects_without_order_by() {
         RepositoryDataSource<CategoryOption> dataSource = new RepositoryDataSource<>(store, emptyScope, childrenAppenders);
@@ -0,0 +1,96 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.datavalue.internal
+
+import com.google.common.truth.Truth.assertThat
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.argumentCaptor
+import com.nhaarman.mockitokotlin2.doReturn
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import org.hisp.dhis.android.core.datavalue.DataValue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+@RunWith(JUnit4::class)
+class DataValuePendingSyncGuardShould {
+
+    private val store: DataValueStore = mock()
+
+    private val pendingValue = dataValue("de1", "value")
+    private val downloadedPending = dataValue("de1", "server value")
+    private val downloadedNew = dataValue("de2", "server value")
+
+    private lateinit var guard: DataValuePendingSyncGuard
+
+    @Before
+    fun setUp() {
+        whenever(store.selectWhere(any())) doReturn listOf(pendingValue)
+        guard = DataValuePendingSyncGuard(store)
+    }
+
+    @Test
+    fun discard_values_pending_to_sync() {
+        val result = guard.filterNotPendingToSync(listOf(downloadedPending, downloadedNew))
+
+        assertThat(result).containsExactly(downloadedNew)
+    }
+
+    @Test
+    fun load_pending_values_for_every_collection() {
+        guard.filterNotPendingToSync(listOf(downloadedPending))
+        guard.filterNotPendingToSync(listOf(downloadedNew))
+
+        verify(store, times(2)).selectWhere(any())
+    }
+
+    @Test
+    fun restrict_pending_values_to_collection_organisation_units_and_periods() {
+        guard.filterNotPendingToSync(listOf(downloadedPending, downloadedNew))
+
+        val whereClause = argumentCaptor<String>()
+        verify(store).selectWhere(whereClause.capture())
+        assertThat(whereClause.firstValue).contains("organisationUnit IN ('orgunit')")
+        assertThat(whereClause.firstValue).contains("period IN ('202101')")
+    }
+
+    private fun dataValue(dataElement: String, value: String): DataValue {
+        return DataValue.builder()
+            .dataElement(dataElement)
+            .period("202101")
+            .organisationUnit("orgunit")
+            .categoryOptionCombo("coc")
+            .attributeOptionCombo("aoc")
+            .value(value)
+            .build()
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.datavalue.internal;
+
+import org.hisp.dhis.android.core.D2Configuration;
+import org.hisp.dhis.android.core.arch.api.executors.internal.APICallExecutor;
+import org.hisp.dhis.android.core.arch.call.D2Progress;
+import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter;
+import org.hisp.dhis.android.core.arch.db.access.Transaction;
+import org.hisp.dhis.android.core.common.State;
+import org.hisp.dhis.android.core.datavalue.DataValue;
+import org.hisp.dhis.android.core.imports.internal.DataValueImportSummary;
+import org.hisp.dhis.android.core.maintenance.D2Error;
+import org.hisp.dhis.android.core.maintenance.D2ErrorCode;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import io.reactivex.observers.TestObserver;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class DataValuePostCallShould {
+
+    @Mock
+    private DataValueService dataValueService;
+
+    @Mock
+    private DataValueImportHandler dataValueImportHandler;
+
+    @Mock
+    private APICallExecutor apiCallExecutor;
+
+    @Mock
+    private DataValueStore dataValueStore;
+
+    @Mock
+    private DatabaseAdapter databaseAdapter;
+
+    @Mock
+    private D2Configuration d2Configuration;
+
+    @Mock
+    private Transaction transaction;
+
+    private final DataValue dataValue1 = dataValue("de1", State.TO_POST);
+    private final DataValue dataValue2 = dataValue("de2", State.TO_UPDATE);
+    private final DataValue dataValue3 = dataValue("de3", State.TO_UPDATE);
+
+    private final List<DataValue> firstChunk = Arrays.asList(dataValue1, dataValue2);
+    private final List<DataValue> secondChunk = Collections.singletonList(dataValue3);
+
+    private DataValuePostCall postCall;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        when(d2Configuration.dataValueUploadChunkSize()).thenReturn(2);
+        when(databaseAdapter.beginNewTransaction()).thenReturn(transaction);
+        when(dataValueStore.markAsUploading(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        postCall = new DataValuePostCall(dataValueService, dataValueImportHandler, apiCallExecutor,
+                dataValueStore, databaseAdapter, d2Configuration);
+    }
+
+    @Test
+    public void commit_the_import_summary_of_every_chunk() throws D2Error {
+        when(apiCallExecutor.executeObjectCall(any())).thenReturn(mock(DataValueImportSummary.class));
+
+        upload().assertComplete().assertValueCount(2);
+
+        verify(dataValueStore).markAsUploading(firstChunk);
+        verify(dataValueStore).markAsUploading(secondChunk);
+        verify(dataValueImportHandler, times(2)).handleImportSummary(any(), any());
+        verify(transaction, times(2)).setSuccessful();
+        verify(transaction, times(2)).end();
+    }
+
+    @Test
+    public void mark_failed_chunk_as_error_and_keep_previous_chunks() throws D2Error {
+        D2Error error = d2Error(D2ErrorCode.API_RESPONSE_PROCESS_ERROR);
+        when(apiCallExecutor.executeObjectCall(any()))
+                .thenReturn(mock(DataValueImportSummary.class))
+                .thenThrow(error);
+
+        upload().assertError(error).assertValueCount(1);
+
+        verify(dataValueImportHandler, times(1)).handleImportSummary(any(), any());
+        verify(dataValueStore).setStateIfUploading(secondChunk, State.ERROR);
+        verify(dataValueStore, never()).setStateIfUploading(eq(firstChunk), eq(State.ERROR));
+    }
+
+    @Test
+    public void restore_own_state_of_offline_chunk() throws D2Error {
+        D2Error error = d2Error(D2ErrorCode.UNKNOWN_HOST);
+        when(apiCallExecutor.executeObjectCall(any())).thenThrow(error);
+
+        upload().assertError(error).assertNoValues();
+
+        verify(dataValueStore).setStateIfUploading(Collections.singletonList(dataValue1), State.TO_POST);
+        verify(dataValueStore).setStateIfUploading(Collections.singletonList(dataValue2), State.TO_UPDATE);
+        verify(dataValueStore, never()).setStateIfUploading(any(Collection.class), eq(State.ERROR));
+        verify(dataValueStore, never()).markAsUploading(secondChunk);
+    }
+
+    @Test
+    public void post_the_values_as_stored_when_the_chunk_is_uploaded() throws D2Error {
+        DataValue editedDataValue3 = dataValue3.toBuilder().value("edited").build();
+        when(dataValueStore.markAsUploading(secondChunk)).thenReturn(Collections.singletonList(editedDataValue3));
+        when(apiCallExecutor.executeObjectCall(any())).thenReturn(mock(DataValueImportSummary.class));
+
+        upload().assertComplete();
+
+        ArgumentCaptor<DataValueSet> dataValueSets = ArgumentCaptor.forClass(DataValueSet.class);
+        verify(dataValueService, times(2)).postDataValues(dataValueSets.capture());
+        assertThat(dataValueSets.getAllValues().get(1).getDataValues()).containsExactly(editedDataValue3);
+    }
+
+    @Test
+    public void skip_chunks_without_pending_values() throws D2Error {
+        when(dataValueStore.markAsUploading(secondChunk)).thenReturn(Collections.emptyList());
+        when(apiCallExecutor.executeObjectCall(any())).thenReturn(mock(DataValueImportSummary.class));
+
+        upload().assertComplete().assertValueCount(2);
+
+        verify(dataValueService, times(1)).postDataValues(any());
+    }
+
+    private TestObserver<D2Progress> upload() {
+        return postCall.uploadDataValues(Arrays.asList(dataValue1, dataValue2, dataValue3)).test();
+    }
+
+    private static D2Error d2Error(D2ErrorCode errorCode) {
+        return D2Error.builder()
+                .errorCode(errorCode)
+                .errorDescription("error")
+                .build();
+    }
+
+    private static DataValue dataValue(String dataElement, State state) {
+        return DataValue.builder()
+                .dataElement(dataElement)
+                .period("202101")
+                .organisationUnit("orgunit")
+                .categoryOptionCombo("coc")
+                .attributeOptionCombo("aoc")
+                .value("value")
+                .state(state)
+                .build();
+    }
+}
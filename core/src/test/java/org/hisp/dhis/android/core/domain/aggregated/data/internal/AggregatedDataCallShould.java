@@ -0,0 +1,214 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.android.core.domain.aggregated.data.internal;
+
+import org.hisp.dhis.android.core.D2Configuration;
+import org.hisp.dhis.android.core.arch.api.executors.internal.RxAPICallExecutor;
+import org.hisp.dhis.android.core.arch.call.D2Progress;
+import org.hisp.dhis.android.core.arch.call.factories.internal.QueryCall;
+import org.hisp.dhis.android.core.arch.db.stores.internal.ObjectWithoutUidStore;
+import org.hisp.dhis.android.core.category.internal.CategoryOptionComboStore;
+import org.hisp.dhis.android.core.dataapproval.DataApproval;
+import org.hisp.dhis.android.core.dataapproval.internal.DataApprovalQuery;
+import org.hisp.dhis.android.core.dataset.DataSetCompleteRegistration;
+import org.hisp.dhis.android.core.dataset.internal.DataSetCompleteRegistrationQuery;
+import org.hisp.dhis.android.core.datavalue.DataValue;
+import org.hisp.dhis.android.core.datavalue.internal.DataValueQuery;
+import org.hisp.dhis.android.core.period.PeriodType;
+import org.hisp.dhis.android.core.resource.internal.ResourceHandler;
+import org.hisp.dhis.android.core.systeminfo.DHISVersionManager;
+import org.hisp.dhis.android.core.systeminfo.internal.SystemInfoModuleDownloader;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class AggregatedDataCallShould {
+
+    @Mock
+    private SystemInfoModuleDownloader systemInfoModuleDownloader;
+
+    @Mock
+    private DHISVersionManager dhisVersionManager;
+
+    @Mock
+    private QueryCall<DataValue, DataValueQuery> dataValueCall;
+
+    @Mock
+    private QueryCall<DataSetCompleteRegistration, DataSetCompleteRegistrationQuery> registrationCall;
+
+    @Mock
+    private QueryCall<DataApproval, DataApprovalQuery> dataApprovalCall;
+
+    @Mock
+    private CategoryOptionComboStore categoryOptionComboStore;
+
+    @Mock
+    private RxAPICallExecutor rxCallExecutor;
+
+    @Mock
+    private ObjectWithoutUidStore<AggregatedDataSync> aggregatedDataSyncStore;
+
+    @Mock
+    private AggregatedDataCallBundleFactory bundleFactory;
+
+    @Mock
+    private ResourceHandler resourceHandler;
+
+    @Mock
+    private AggregatedDataSyncHashHelper hashHelper;
+
+    @Mock
+    private D2Configuration d2Configuration;
+
+    private final AggregatedDataCallBundle slowBundle = bundle("202101");
+    private final AggregatedDataCallBundle fastBundle = bundle("202102");
+
+    private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+    private AggregatedDataCall aggregatedDataCall;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        when(systemInfoModuleDownloader.downloadWithProgressManager(any()))
+                .thenReturn(Observable.just(mock(D2Progress.class)));
+        when(dhisVersionManager.is2_29()).thenReturn(true);
+        when(d2Configuration.aggregatedDataBundlesInFlight()).thenReturn(2);
+        when(bundleFactory.getBundles()).thenReturn(Arrays.asList(slowBundle, fastBundle));
+        when(registrationCall.fetch(any())).thenReturn(Single.just(Collections.emptyList()));
+
+        when(rxCallExecutor.wrapSingle(any(Single.class), anyBoolean()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(rxCallExecutor.wrapObservableTransactionally(any(Observable.class), anyBoolean()))
+                .thenAnswer(invocation -> ((Observable<?>) invocation.getArgument(0))
+                        .doOnComplete(() -> events.add("commit")));
+
+        aggregatedDataCall = new AggregatedDataCall(systemInfoModuleDownloader, dhisVersionManager, dataValueCall,
+                registrationCall, dataApprovalCall, categoryOptionComboStore, rxCallExecutor,
+                aggregatedDataSyncStore, bundleFactory, resourceHandler, hashHelper, d2Configuration);
+    }
+
+    @Test
+    public void persist_bundles_in_order_with_a_transaction_per_bundle() {
+        when(dataValueCall.fetch(any())).thenAnswer(invocation -> {
+            DataValueQuery query = invocation.getArgument(0);
+            Single<List<DataValue>> values = Single.just(Collections.emptyList());
+            return query.bundle() == slowBundle ? values.delay(100, TimeUnit.MILLISECONDS) : values;
+        });
+
+        download().assertComplete();
+
+        ArgumentCaptor<DataValueQuery> queries = ArgumentCaptor.forClass(DataValueQuery.class);
+        verify(dataValueCall, times(2)).persist(any(), queries.capture());
+        assertThat(queries.getAllValues().get(0).bundle()).isEqualTo(slowBundle);
+        assertThat(queries.getAllValues().get(1).bundle()).isEqualTo(fastBundle);
+
+        verify(rxCallExecutor, times(2)).wrapObservableTransactionally(any(Observable.class), eq(true));
+        assertThat(events).containsExactly("commit", "commit").inOrder();
+    }
+
+    @Test
+    public void store_fetch_errors_and_persist_the_other_bundles() {
+        RuntimeException error = new RuntimeException("fetch error");
+        when(dataValueCall.fetch(any())).thenAnswer(invocation -> {
+            DataValueQuery query = invocation.getArgument(0);
+            return query.bundle() == slowBundle ? Single.error(error) : Single.just(Collections.emptyList());
+        });
+
+        download().assertError(error);
+
+        verify(rxCallExecutor, times(2)).wrapSingle(any(Single.class), eq(true));
+        verify(dataValueCall).persist(any(), any());
+        assertThat(events).containsExactly("commit");
+    }
+
+    @Test
+    public void keep_persisting_the_other_bundles_if_a_bundle_fails_to_persist() {
+        RuntimeException error = new RuntimeException("persistence error");
+        when(dataValueCall.fetch(any())).thenReturn(Single.just(Collections.emptyList()));
+        doAnswer(invocation -> {
+            DataValueQuery query = invocation.getArgument(1);
+            if (query.bundle() == slowBundle) {
+                throw error;
+            }
+            return null;
+        }).when(dataValueCall).persist(any(), any());
+
+        download().assertError(error);
+
+        verify(dataValueCall, times(2)).persist(any(), any());
+        assertThat(events).containsExactly("commit");
+    }
+
+    private TestObserver<D2Progress> download() {
+        TestObserver<D2Progress> observer = aggregatedDataCall.download().test();
+        observer.awaitTerminalEvent();
+        return observer;
+    }
+
+    private static AggregatedDataCallBundle bundle(String periodId) {
+        return AggregatedDataCallBundle.builder()
+                .key(AggregatedDataCallBundleKey.builder()
+                        .periodType(PeriodType.Monthly)
+                        .pastPeriods(1)
+                        .futurePeriods(0)
+                        .build())
+                .dataSets(Collections.emptyList())
+                .periodIds(Collections.singletonList(periodId))
+                .rootOrganisationUnitUids(Collections.singletonList("orgunit"))
+                .allOrganisationUnitUidsSet(Collections.singleton("orgunit"))
+                .build();
+    }
+}
@@ -31,6 +31,7 @@ import com.google.common.truth.Truth.assertThat
 import com.nhaarman.mockitokotlin2.mock
 import java.util.concurrent.Callable
 import org.hisp.dhis.android.core.arch.api.executors.internal.APICallExecutorImpl
+import org.hisp.dhis.android.core.arch.api.payload.internal.StreamingPayload
 import org.hisp.dhis.android.core.arch.api.testutils.RetrofitFactory
 import org.hisp.dhis.android.core.arch.db.access.DatabaseAdapter
 import org.hisp.dhis.android.core.data.trackedentity.internal.TrackerQueryCommonParamsSamples.get
@@ -57,6 +58,25 @@ class EventEndpointCallShould {
     fun setUp() {
     }
 
+    @Test
+    fun hand_the_events_to_the_consumer_in_batches() {
+        val batches = mutableListOf<List<String>>()
+        val eventEndpointCall = givenACallForQuery(
+            EventQuery.builder().commonParams(get()).build(),
+            2,
+            StreamingPayload.BatchConsumer { batch -> batches.add(batch.map { it.uid() }) }
+        )
+
+        mockWebServer.enqueueMockResponse(
+            200,
+            """{"pager": {"page": 1, "pageSize": 50}, "events": [{"event": "e1"}, {"event": "e2"}, {"event": "e3"}]}"""
+        )
+
+        assertThat(eventEndpointCall.call()).isEqualTo(3)
+        assertThat(batches).containsExactly(listOf("e1", "e2"), listOf("e3")).inOrder()
+        mockWebServer.takeRequest()
+    }
+
     @Test
     fun realize_request_with_page_filters_when_included_in_query() {
         val eventEndpointCall = givenAEventCallByPagination(2, 32)
@@ -106,7 +126,7 @@ class EventEndpointCallShould {
         assertThat(request.path).doesNotContain(startDateStr)
     }
 
-    private fun givenAEventCallByPagination(page: Int, pageCount: Int): Callable<List<Event>> {
+    private fun givenAEventCallByPagination(page: Int, pageCount: Int): Callable<Int> {
         val eventQuery = EventQuery.builder()
             .commonParams(get())
             .page(page)
@@ -116,18 +136,22 @@ class EventEndpointCallShould {
         return givenACallForQuery(eventQuery)
     }
 
-    private fun givenACallForQuery(eventQuery: EventQuery): Callable<List<Event>> {
+    private fun givenACallForQuery(
+        eventQuery: EventQuery,
+        batchSize: Int = 50,
+        consumer: StreamingPayload.BatchConsumer<Event> = StreamingPayload.BatchConsumer { }
+    ): Callable<Int> {
         return EventEndpointCallFactory(
             retrofit.create(EventService::class.java),
             APICallExecutorImpl.create(databaseAdapter)
-        ).getCall(eventQuery)
+        ).getStreamingCall(eventQuery, batchSize, consumer)
     }
 
     private fun givenAEventCallByOrgUnitAndProgram(
         orgUnit: String,
         program: String?,
         startDate: String? = null
-    ): Callable<List<Event>> {
+    ): Callable<Int> {
         val eventQuery = EventQuery.builder()
             .orgUnit(orgUnit)
             .commonParams(
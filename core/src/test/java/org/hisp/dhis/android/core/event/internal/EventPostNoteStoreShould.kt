@@ -0,0 +1,78 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.hisp.dhis.android.core.event.internal
+
+import com.google.common.truth.Truth.assertThat
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import org.hisp.dhis.android.core.arch.db.stores.internal.IdentifiableObjectStore
+import org.hisp.dhis.android.core.arch.db.stores.internal.StoreUtils
+import org.hisp.dhis.android.core.note.Note
+import org.junit.Test
+
+class EventPostNoteStoreShould {
+
+    private val noteStore: IdentifiableObjectStore<Note> = mock()
+    private val store = EventPostNoteStore(noteStore)
+
+    @Test
+    fun `Should group enrollment notes by enrollment uid`() {
+        val note1 = note("note1", "enrollment1")
+        val note2 = note("note2", "enrollment2")
+        val note3 = note("note3", "enrollment1")
+        whenever(noteStore.selectWhere(any())).thenReturn(listOf(note1, note2, note3))
+
+        val notes = store.queryEnrollmentNotes(listOf("enrollment1", "enrollment2"))
+
+        assertThat(notes).containsExactly(
+            "enrollment1", listOf(note1, note3),
+            "enrollment2", listOf(note2)
+        )
+    }
+
+    @Test
+    fun `Should query the notes in chunks of owner uids`() {
+        whenever(noteStore.selectWhere(any())).thenReturn(emptyList())
+
+        store.queryNotes((0..StoreUtils.IN_CLAUSE_CHUNK_SIZE).map { "event$it" })
+
+        verify(noteStore, times(2)).selectWhere(any())
+    }
+
+    private fun note(uid: String, enrollment: String): Note {
+        return Note.builder()
+            .uid(uid)
+            .noteType(Note.NoteType.ENROLLMENT_NOTE)
+            .enrollment(enrollment)
+            .build()
+    }
+}
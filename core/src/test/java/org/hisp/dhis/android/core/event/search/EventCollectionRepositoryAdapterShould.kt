@@ -63,7 +63,7 @@ class EventCollectionRepositoryAdapterShould {
         )
 
         whenever(ouRepository.blockingGetUids()) doReturn orgunitDescendants
-        whenever(ouRepository.byPath().like(orgunit).blockingGetUids()) doReturn orgunitDescendants
+        whenever(ouRepository.byDescendantOf(orgunit).blockingGetUids()) doReturn orgunitDescendants - orgunit
         whenever(ouRepository.byParentUid().like(orgunit).blockingGetUids()) doReturn orgunitChildren
     }
 
@@ -106,7 +106,7 @@ class EventCollectionRepositoryAdapterShould {
             .build()
 
         val orgunitList = adapter.getOrganisationUnits(scope)
-        assertThat(orgunitList).isEqualTo(orgunitDescendants)
+        assertThat(orgunitList).containsExactlyElementsIn(orgunitDescendants)
     }
 
     @Test
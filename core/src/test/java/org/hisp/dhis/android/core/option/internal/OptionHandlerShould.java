@@ -41,9 +41,11 @@ import org.junit.runners.JUnit4;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -55,6 +57,9 @@ public class OptionHandlerShould {
     @Mock
     private Option option;
 
+    @Mock
+    private Option otherOption;
+
     @Mock
     private ObjectStyle style;
 
@@ -73,6 +78,8 @@ public class OptionHandlerShould {
         when(option.uid()).thenReturn("test_option_uid");
         options = Collections.singletonList(option);
         when(option.style()).thenReturn(style);
+        when(otherOption.uid()).thenReturn("other_option_uid");
+        when(otherOption.style()).thenReturn(style);
         when(optionStore.updateOrInsert(option)).thenReturn(HandleAction.Insert);
     }
 
@@ -82,6 +89,19 @@ public class OptionHandlerShould {
         verify(optionCleaner).deleteNotPresent(options);
     }
 
+    @Test
+    public void persist_collections_in_bulk() {
+        List<Option> twoOptions = Arrays.asList(option, otherOption);
+        when(optionStore.updateOrInsert(twoOptions))
+                .thenReturn(Arrays.asList(HandleAction.Insert, HandleAction.Update));
+
+        optionHandler.handleMany(twoOptions);
+
+        verify(optionStore).updateOrInsert(twoOptions);
+        verify(optionStore, never()).updateOrInsert(option);
+        verify(optionStore, never()).updateOrInsert(otherOption);
+    }
+
     @Test
     public void extend_identifiable_handler_impl() {
         IdentifiableHandlerImpl<Option> genericHandler = new OptionHandler(optionStore, null);
@@ -37,6 +37,7 @@ import org.hisp.dhis.android.core.arch.handlers.internal.LinkHandler;
 import org.hisp.dhis.android.core.common.ObjectWithUid;
 import org.hisp.dhis.android.core.dataset.DataSetOrganisationUnitLink;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnit;
+import org.hisp.dhis.android.core.organisationunit.OrganisationUnitAncestor;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitGroup;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitOrganisationUnitGroupLink;
 import org.hisp.dhis.android.core.organisationunit.OrganisationUnitProgramLink;
@@ -49,12 +50,16 @@ import org.junit.runners.JUnit4;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -85,8 +90,13 @@ public class OrganisationUnitHandlerShould {
     private LinkHandler<OrganisationUnitGroup, OrganisationUnitOrganisationUnitGroupLink>
             organisationUnitGroupLinkHandler;
 
+    @Mock
+    private LinkHandler<String, OrganisationUnitAncestor> organisationUnitAncestorLinkHandler;
+
     private OrganisationUnit organisationUnitWithoutGroups;
 
+    private OrganisationUnit organisationUnitWithGroups;
+
     @Mock
     private OrganisationUnitGroup organisationUnitGroup;
 
@@ -112,7 +122,7 @@ public class OrganisationUnitHandlerShould {
         organisationUnitHandler = new OrganisationUnitHandlerImpl(
                 organisationUnitStore, userOrganisationUnitLinkHandler, organisationUnitProgramLinkHandler,
                 dataSetDataSetOrganisationUnitLinkHandler, organisationUnitGroupHandler,
-                organisationUnitGroupLinkHandler);
+                organisationUnitGroupLinkHandler, organisationUnitAncestorLinkHandler);
 
         when(user.uid()).thenReturn("test_user_uid");
         when(program.uid()).thenReturn(programUid);
@@ -127,7 +137,7 @@ public class OrganisationUnitHandlerShould {
         organisationUnitWithoutGroups = builder
                 .build();
 
-        OrganisationUnit organisationUnitWithGroups = builder
+        organisationUnitWithGroups = builder
                 .organisationUnitGroups(organisationUnitGroups)
                 .build();
 
@@ -144,8 +154,7 @@ public class OrganisationUnitHandlerShould {
     public void persist_program_organisation_unit_link_when_programs_uids() {
         organisationUnitHandler.setData(user, OrganisationUnit.Scope.SCOPE_DATA_CAPTURE);
         organisationUnitHandler.handleMany(organisationUnits, pathTransformer);
-        verify(organisationUnitProgramLinkHandler).handleMany(anyString(), anyListOf(ObjectWithUid.class),
-                any());
+        verify(organisationUnitProgramLinkHandler).handleMany(anyMap(), any());
     }
 
     @Test
@@ -169,8 +178,39 @@ public class OrganisationUnitHandlerShould {
         organisationUnitHandler.setData(user, OrganisationUnit.Scope.SCOPE_DATA_CAPTURE);
         organisationUnitHandler.handleMany(organisationUnits, pathTransformer);
 
-        verify(organisationUnitGroupLinkHandler).handleMany(anyString(), anyListOf(OrganisationUnitGroup.class),
-                any());
+        verify(organisationUnitGroupLinkHandler).handleMany(anyMap(), any());
+    }
+
+    @Test
+    public void persist_links_once_per_collection() {
+        organisationUnitHandler.setData(user, OrganisationUnit.Scope.SCOPE_DATA_CAPTURE);
+        organisationUnitHandler.handleMany(Lists.newArrayList(organisationUnitWithGroups,
+                organisationUnitWithGroups.toBuilder().uid("other_organisation_unit_uid").build()), pathTransformer);
+
+        verify(userOrganisationUnitLinkHandler).handleMany(anyString(), anyListOf(OrganisationUnit.class), any());
+        verify(organisationUnitProgramLinkHandler).handleMany(anyMap(), any());
+        verify(organisationUnitGroupHandler).handleMany(anyListOf(OrganisationUnitGroup.class));
+        verify(organisationUnitGroupLinkHandler).handleMany(anyMap(), any());
+    }
+
+    @Test
+    public void replace_organisation_unit_ancestors_once_per_collection() {
+        organisationUnitHandler.setData(user, OrganisationUnit.Scope.SCOPE_DATA_CAPTURE);
+        organisationUnitHandler.handleMany(organisationUnits, pathTransformer);
+
+        verify(organisationUnitAncestorLinkHandler).handleMany(anyMap(), any());
+    }
+
+    @Test
+    public void replace_ancestors_of_the_handled_organisation_units_only() {
+        organisationUnitHandler.setData(user, OrganisationUnit.Scope.SCOPE_DATA_CAPTURE);
+        organisationUnitHandler.handleMany(Lists.newArrayList(organisationUnitWithGroups.toBuilder()
+                .path("/root_uid/parent_uid/test_organisation_unit_uid").build()), pathTransformer);
+
+        verify(organisationUnitAncestorLinkHandler).handleMany(
+                eq(Collections.singletonMap("test_organisation_unit_uid",
+                        new LinkedHashSet<>(Arrays.asList("root_uid", "parent_uid")))), any());
+        verify(organisationUnitAncestorLinkHandler, never()).resetAllLinks();
     }
 
     @Test
@@ -179,7 +219,6 @@ public class OrganisationUnitHandlerShould {
 
         organisationUnitHandler.handleMany(Lists.newArrayList(organisationUnitWithoutGroups), pathTransformer);
 
-        verify(organisationUnitGroupLinkHandler, never()).handleMany(anyString(),
-                anyListOf(OrganisationUnitGroup.class), any());
+        verify(organisationUnitGroupLinkHandler, never()).handleMany(anyMap(), any());
     }
 }
\ No newline at end of file
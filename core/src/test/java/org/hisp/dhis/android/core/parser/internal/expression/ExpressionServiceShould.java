@@ -124,6 +124,27 @@ public class ExpressionServiceShould {
         assertThat(result).isEqualTo(8.0);
     }
 
+    @Test
+    public void reuse_parse_tree_of_repeated_expressions() {
+        CommonParser.clearCache();
+        String expression = de(dataElementId1) + " + " + de(dataElementId2);
+
+        Map<DimensionalItemObject, Double> valueMap = new HashMap<>();
+        valueMap.put(DataElementOperandObject.create(dataElementId1, null), 5.0);
+        valueMap.put(DataElementOperandObject.create(dataElementId2, null), 3.0);
+
+        for (int i = 0; i < 3; i++) {
+            Double result = (Double) service.getExpressionValue(expression, valueMap, constantMap,
+                    Collections.emptyMap(), 10, MissingValueStrategy.NEVER_SKIP);
+            assertThat(result).isEqualTo(8.0);
+        }
+        service.getDimensionalItemIds(expression);
+
+        assertThat(CommonParser.getCacheMisses()).isEqualTo(1);
+        assertThat(CommonParser.getCacheHits()).isEqualTo(3);
+        assertThat(CommonParser.getCacheSize()).isEqualTo(1);
+    }
+
     @Test
     public void evaluate_constants() {
         String expression = de(dataElementId1) + " + " + constant(constantId);
@@ -29,6 +29,7 @@ package org.hisp.dhis.android.core.program.internal;
 
 import org.hisp.dhis.android.core.arch.call.factories.internal.ListCall;
 import org.hisp.dhis.android.core.arch.call.factories.internal.UidsCall;
+import org.hisp.dhis.android.core.arch.call.factories.internal.UidsStreamingCall;
 import org.hisp.dhis.android.core.common.BaseCallShould;
 import org.hisp.dhis.android.core.event.EventFilter;
 import org.hisp.dhis.android.core.option.Option;
@@ -52,6 +53,7 @@ import java.util.List;
 
 import javax.net.ssl.HttpsURLConnection;
 
+import io.reactivex.Completable;
 import io.reactivex.Single;
 import okhttp3.MediaType;
 import okhttp3.ResponseBody;
@@ -79,7 +81,7 @@ public class ProgramModuleDownloaderShould extends BaseCallShould {
     private UidsCall<ProgramStage> programStageCall;
 
     @Mock
-    private UidsCall<ProgramRule> programRuleCall;
+    private UidsStreamingCall<ProgramRule> programRuleCall;
 
     @Mock
     private UidsCall<TrackedEntityType> trackedEntityTypeCall;
@@ -100,7 +102,7 @@ public class ProgramModuleDownloaderShould extends BaseCallShould {
     private UidsCall<OptionSet> optionSetCall;
 
     @Mock
-    private UidsCall<Option> optionCall;
+    private UidsStreamingCall<Option> optionCall;
 
     @Mock
     private UidsCall<OptionGroup> optionGroupCall;
@@ -123,11 +125,11 @@ public class ProgramModuleDownloaderShould extends BaseCallShould {
         returnSingletonList(programCall, program);
         when(relationshipTypeCall.download()).thenReturn(Single.just(Collections.emptyList()));
         returnEmptyList(optionSetCall);
-        returnEmptyList(optionCall);
+        completeStreaming(optionCall);
         returnEmptyList(optionGroupCall);
         returnEmptyList(trackedEntityInstanceFilterCall);
         returnEmptyList(eventFilterCall);
-        returnEmptyList(programRuleCall);
+        completeStreaming(programRuleCall);
         returnEmptyList(programStageCall);
 
         programModuleDownloader = new ProgramModuleDownloader(
@@ -156,6 +158,14 @@ public class ProgramModuleDownloaderShould extends BaseCallShould {
         when(call.download(anySet())).thenReturn(Single.error(new RuntimeException()));
     }
 
+    private void completeStreaming(UidsStreamingCall<?> call) {
+        when(call.downloadStreaming(anySet())).thenReturn(Completable.complete());
+    }
+
+    private void returnError(UidsStreamingCall<?> call) {
+        when(call.downloadStreaming(anySet())).thenReturn(Completable.error(new RuntimeException()));
+    }
+
     @Test
     public void succeed_when_endpoint_calls_succeed() {
         programModuleDownloader.downloadMetadata(anySet()).blockingGet();
@@ -0,0 +1,292 @@
+/*
+ *  Copyright (c) 2004-2021, University of Oslo
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *  Redistributions of source code must retain the above copyright notice, this
+ *  list of conditions and the following disclaimer.
+ *
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ *  Neither the name of the HISP project nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ *  ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ *  WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ *  DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ *  ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ *  (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ *  LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ *  ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ *  (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.hisp.dhis.android.core.trackedentity.internal
+
+import com.google.common.truth.Truth.assertThat
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.anyOrNull
+import com.nhaarman.mockitokotlin2.eq
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import io.reactivex.Completable
+import io.reactivex.Single
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import org.hisp.dhis.android.core.D2Configuration
+import org.hisp.dhis.android.core.arch.api.executors.internal.RxAPICallExecutor
+import org.hisp.dhis.android.core.arch.api.payload.internal.StreamingPayload
+import org.hisp.dhis.android.core.arch.call.internal.D2ProgressManager
+import org.hisp.dhis.android.core.data.trackedentity.internal.TrackerQueryCommonParamsSamples
+import org.hisp.dhis.android.core.program.internal.ProgramDataDownloadParams
+import org.hisp.dhis.android.core.relationship.internal.RelationshipItemRelatives
+import org.hisp.dhis.android.core.trackedentity.TrackedEntityInstance
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+@RunWith(JUnit4::class)
+class TrackedEntityInstanceDownloadInternalCallShould {
+
+    private val queryFactory: TrackedEntityInstanceQueryFactory = mock()
+    private val persistenceCallFactory: TrackedEntityInstancePersistenceCallFactory = mock()
+    private val endpointCallFactory: TrackedEntityInstancesEndpointCallFactory = mock()
+    private val apiCallExecutor: RxAPICallExecutor = mock()
+    private val lastUpdatedManager: TrackedEntityInstanceLastUpdatedManager = mock()
+    private val d2Configuration: D2Configuration = mock()
+    private val params: ProgramDataDownloadParams = mock()
+
+    private val schedulers = TrackerDownloadSchedulers()
+    private val pageSize = 10
+    private val pageCount = 5
+    private val pagesInFlight = 2
+
+    private val persistedPages = Collections.synchronizedList(mutableListOf<Int>())
+    private val persistedTeis = AtomicInteger()
+    private val persistingThreads = Collections.synchronizedSet(mutableSetOf<String>())
+    private val requestedPages = AtomicInteger()
+    private val openReaders = AtomicInteger()
+    private val readBatches = AtomicInteger()
+
+    private lateinit var internalCall: TrackedEntityInstanceDownloadInternalCall
+
+    @Before
+    fun setUp() {
+        givenQuery(pageSize, pageSize * pageCount)
+        whenever(params.overwrite()).thenReturn(false)
+        whenever(d2Configuration.trackerDownloadPagesInFlight()).thenReturn(pagesInFlight)
+        whenever(apiCallExecutor.wrapCompletableTransactionally(any(), any())).thenAnswer { it.getArgument(0) }
+        whenever(apiCallExecutor.wrapSingle(any<Single<Any>>(), any())).thenAnswer { it.getArgument(0) }
+        whenever(persistenceCallFactory.persistTEIs(any(), any(), any(), anyOrNull())).thenAnswer {
+            val page = pageOf(it.getArgument(0))
+            val count = it.getArgument<List<TrackedEntityInstance>>(0).size
+            Completable.fromAction {
+                persistingThreads.add(Thread.currentThread().name)
+                page?.let { persistedPages.add(it) }
+                persistedTeis.addAndGet(count)
+            }
+        }
+        givenPages { request -> pageTeis(request) }
+
+        internalCall = TrackedEntityInstanceDownloadInternalCall(
+            queryFactory, persistenceCallFactory, endpointCallFactory, apiCallExecutor, lastUpdatedManager,
+            schedulers, d2Configuration
+        )
+    }
+
+    @Test
+    fun `Should persist pages in order on the writer thread, each in its own transaction`() {
+        // Later pages answer first
+        givenPages { request ->
+            Thread.sleep((pageCount - request.page) * 20L)
+            pageTeis(request)
+        }
+
+        download().test().awaitDone(5, TimeUnit.SECONDS).assertComplete()
+
+        assertThat(persistedPages).containsExactly(1, 2, 3, 4, 5).inOrder()
+        assertThat(persistingThreads).containsExactly("D2TrackerWriter")
+        assertThat(openReaders.get()).isEqualTo(0)
+        verify(apiCallExecutor, times(pageCount)).wrapCompletableTransactionally(any(), eq(true))
+        verify(lastUpdatedManager).update(any())
+    }
+
+    @Test
+    fun `Should store a failed page and keep persisting the next ones`() {
+        givenPages { request ->
+            if (request.page == 2) throw RuntimeException("network error") else pageTeis(request)
+        }
+
+        download().test().awaitDone(5, TimeUnit.SECONDS).assertComplete()
+
+        assertThat(persistedPages).containsExactly(1, 3, 4, 5).inOrder()
+        assertThat(openReaders.get()).isEqualTo(0)
+        verify(apiCallExecutor).wrapSingle(any<Single<Any>>(), eq(true))
+        verify(lastUpdatedManager, never()).update(any())
+    }
+
+    @Test
+    fun `Should propagate a persistence error and stop the download`() {
+        whenever(persistenceCallFactory.persistTEIs(any(), any(), any(), anyOrNull())).thenAnswer {
+            val page = pageOf(it.getArgument(0))
+            Completable.fromAction {
+                page?.let { persistedPages.add(it) }
+                if (page == 2) throw RuntimeException("persistence error")
+            }
+        }
+
+        download().test().awaitDone(5, TimeUnit.SECONDS).assertError(RuntimeException::class.java)
+
+        assertThat(persistedPages).containsExactly(1, 2).inOrder()
+        verify(lastUpdatedManager, never()).update(any())
+    }
+
+    @Test
+    fun `Should persist every batch of a page in its own transaction`() {
+        // Pages of 120 instances, read in batches of 50, 50 and 20
+        givenQuery(120, 240)
+
+        download().test().awaitDone(5, TimeUnit.SECONDS).assertComplete()
+
+        assertThat(persistedPages).containsExactly(1, 1, 1, 2, 2, 2).inOrder()
+        assertThat(persistedTeis.get()).isEqualTo(240)
+        verify(apiCallExecutor, times(6)).wrapCompletableTransactionally(any(), eq(true))
+    }
+
+    @Test
+    fun `Should persist only the requested instances of the last page`() {
+        // Three pages of 50 and page 6 of 30, where the last instance is over the limit
+        givenQuery(50, 179)
+
+        download().test().awaitDone(5, TimeUnit.SECONDS).assertComplete()
+
+        assertThat(persistedPages).containsExactly(1, 2, 3, 6).inOrder()
+        assertThat(persistedTeis.get()).isEqualTo(179)
+    }
+
+    @Test
+    fun `Should stop requesting and persisting pages when disposed`() {
+        val firstPagePersisted = CountDownLatch(1)
+        whenever(persistenceCallFactory.persistTEIs(any(), any(), any(), anyOrNull())).thenAnswer {
+            val page = pageOf(it.getArgument(0))
+            Completable.fromAction {
+                page?.let { persistedPages.add(it) }
+                firstPagePersisted.countDown()
+            }
+        }
+        givenPages { request ->
+            Thread.sleep(if (request.page == 1) 0L else 200L)
+            pageTeis(request)
+        }
+
+        val observer = download().test()
+        assertThat(firstPagePersisted.await(5, TimeUnit.SECONDS)).isTrue()
+        observer.dispose()
+        Thread.sleep(400)
+
+        assertThat(persistedPages).containsExactly(1)
+        assertThat(requestedPages.get()).isAtMost(1 + pagesInFlight)
+        assertThat(openReaders.get()).isEqualTo(0)
+        verify(lastUpdatedManager, never()).update(any())
+    }
+
+    @Test
+    fun `Should not read a page ahead of the batches waiting to be persisted`() {
+        // A single page of 1000 instances, read in batches of 50
+        givenQuery(1000, 1000)
+        val firstBatchPersisting = CountDownLatch(1)
+        val persistFirstBatch = CountDownLatch(1)
+        whenever(persistenceCallFactory.persistTEIs(any(), any(), any(), anyOrNull())).thenAnswer {
+            Completable.fromAction {
+                firstBatchPersisting.countDown()
+                persistFirstBatch.await(5, TimeUnit.SECONDS)
+            }
+        }
+
+        val observer = download().test()
+        assertThat(firstBatchPersisting.await(5, TimeUnit.SECONDS)).isTrue()
+        Thread.sleep(100)
+
+        assertThat(readBatches.get()).isLessThan(10)
+        persistFirstBatch.countDown()
+        observer.awaitDone(5, TimeUnit.SECONDS).assertComplete()
+        assertThat(readBatches.get()).isEqualTo(20)
+        assertThat(openReaders.get()).isEqualTo(0)
+    }
+
+    private fun download() = internalCall
+        .downloadTeis(D2ProgressManager(null), params, RelationshipItemRelatives())
+        .subscribeOn(schedulers.writer)
+
+    private fun givenQuery(pageSize: Int, limit: Int) {
+        val commonParams = TrackerQueryCommonParamsSamples.get().copy(limit = limit)
+        val query = TeiQuery.builder().commonParams(commonParams).pageSize(pageSize).build()
+        whenever(queryFactory.getQueries(params)).thenReturn(listOf(query))
+    }
+
+    private fun givenPages(pageAnswer: (PageRequest) -> List<TrackedEntityInstance>) {
+        whenever(endpointCallFactory.getPayload(any())).thenAnswer {
+            val query = it.getArgument<TeiQuery>(0)
+            requestedPages.incrementAndGet()
+            val teis = pageAnswer(PageRequest(query.page(), query.pageSize()))
+            val payload: StreamingPayload<TrackedEntityInstance> = mock()
+            whenever(payload.batches(any())).thenAnswer { batches ->
+                openReaders.incrementAndGet()
+                PageReader(teis.chunked(batches.getArgument(0)))
+            }
+            payload
+        }
+    }
+
+    private fun pageOf(teis: List<TrackedEntityInstance>): Int? {
+        return teis.firstOrNull()?.uid()?.toInt()
+    }
+
+    private fun pageTeis(request: PageRequest): List<TrackedEntityInstance> {
+        return List(request.pageSize) {
+            val tei: TrackedEntityInstance = mock()
+            whenever(tei.uid()).thenReturn(request.page.toString())
+            tei
+        }
+    }
+
+    private class PageRequest(val page: Int, val pageSize: Int)
+
+    private inner class PageReader(
+        private val batches: List<List<TrackedEntityInstance>>
+    ) : StreamingPayload.BatchReader<TrackedEntityInstance> {
+        private var index = 0
+        private var closed = false
+
+        override fun next(): List<TrackedEntityInstance>? {
+            if (index == batches.size) {
+                close()
+                return null
+            }
+            readBatches.incrementAndGet()
+            return batches[index++]
+        }
+
+        override fun count(): Int {
+            return batches.sumBy { it.size }
+        }
+
+        override fun close() {
+            if (!closed) {
+                closed = true
+                openReaders.decrementAndGet()
+            }
+        }
+    }
+}
@@ -49,6 +49,7 @@ import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import static com.google.common.truth.Truth.assertThat;
 
@@ -81,7 +82,7 @@ public class TrackedEntityInstanceLocalQueryHelperShould {
                 .query(RepositoryScopeFilterItem.builder().key("").operator(FilterItemOperator.LIKE).value("female").build())
                 .build();
 
-        String sqlQuery = localQueryHelper.getSqlQuery(scope, Collections.emptySet(), 50);
+        String sqlQuery = localQueryHelper.getSqlQuery(scope, null, 50);
         assertThat(sqlQuery).contains("program");
     }
 
@@ -99,7 +100,7 @@ public class TrackedEntityInstanceLocalQueryHelperShould {
                 .query(RepositoryScopeFilterItem.builder().key("").operator(FilterItemOperator.LIKE).value("female").build())
                 .build();
 
-        String sqlQuery = localQueryHelper.getSqlQuery(scope, Collections.emptySet(), 50);
+        String sqlQuery = localQueryHelper.getSqlQuery(scope, null, 50);
         assertThat(sqlQuery).contains("date(en.enrollmentDate) >= '2019-04-15'");
         assertThat(sqlQuery).contains("date(en.enrollmentDate) <= '2019-05-19'");
     }
@@ -112,7 +113,7 @@ public class TrackedEntityInstanceLocalQueryHelperShould {
                 .query(RepositoryScopeFilterItem.builder().key("").operator(FilterItemOperator.LIKE).value("female").build())
                 .build();
 
-        String sqlQuery = localQueryHelper.getSqlQuery(scope, Collections.emptySet(), 50);
+        String sqlQuery = localQueryHelper.getSqlQuery(scope, null, 50);
         assertThat(sqlQuery).contains("state IN ('SYNCED', 'TO_POST', 'TO_UPDATE')");
     }
 
@@ -122,7 +123,7 @@ public class TrackedEntityInstanceLocalQueryHelperShould {
                 .program(programUid)
                 .build();
 
-        String sqlQuery = localQueryHelper.getSqlQuery(scope, Collections.emptySet(), 50);
+        String sqlQuery = localQueryHelper.getSqlQuery(scope, null, 50);
         assertThat(sqlQuery).contains("state != 'RELATIONSHIP'");
     }
 
@@ -132,7 +133,7 @@ public class TrackedEntityInstanceLocalQueryHelperShould {
                 .includeDeleted(true)
                 .build();
 
-        String sqlQuery = localQueryHelper.getSqlQuery(scopeDeleted, Collections.emptySet(), 50);
+        String sqlQuery = localQueryHelper.getSqlQuery(scopeDeleted, null, 50);
         assertThat(sqlQuery).doesNotContain("deleted");
 
         TrackedEntityInstanceQueryRepositoryScope scope = queryBuilder
@@ -140,7 +141,7 @@ public class TrackedEntityInstanceLocalQueryHelperShould {
                 .includeDeleted(false)
                 .build();
 
-        String sqlQuery2 = localQueryHelper.getSqlQuery(scope, Collections.emptySet(), 50);
+        String sqlQuery2 = localQueryHelper.getSqlQuery(scope, null, 50);
         assertThat(sqlQuery2).contains("deleted != 1");
     }
 
@@ -151,7 +152,7 @@ public class TrackedEntityInstanceLocalQueryHelperShould {
                 .followUp(true)
                 .build();
 
-        String sqlQuery = localQueryHelper.getSqlQuery(scope, Collections.emptySet(), 50);
+        String sqlQuery = localQueryHelper.getSqlQuery(scope, null, 50);
         assertThat(sqlQuery).contains("followup = 1");
     }
 
@@ -164,7 +165,7 @@ public class TrackedEntityInstanceLocalQueryHelperShould {
                 .eventFilters(Collections.singletonList(eventFilter))
                 .build();
 
-        String sqlQuery = localQueryHelper.getSqlQuery(scope, Collections.emptySet(), 50);
+        String sqlQuery = localQueryHelper.getSqlQuery(scope, null, 50);
         assertThat(sqlQuery).contains("assignedUser IS NOT NULL");
     }
 
@@ -177,7 +178,7 @@ public class TrackedEntityInstanceLocalQueryHelperShould {
                 .eventFilters(Collections.singletonList(eventFilterWithoutDates))
                 .build();
 
-        String query1 = localQueryHelper.getSqlQuery(scopeWithoutDates, Collections.emptySet(), 50);
+        String query1 = localQueryHelper.getSqlQuery(scopeWithoutDates, null, 50);
         assertThat(query1).doesNotContain("ACTIVE");
 
         TrackedEntityInstanceQueryEventFilter eventFilterWithDates = TrackedEntityInstanceQueryEventFilter.builder()
@@ -192,7 +193,7 @@ public class TrackedEntityInstanceLocalQueryHelperShould {
                 .eventFilters(Collections.singletonList(eventFilterWithDates))
                 .build();
 
-        String query2 = localQueryHelper.getSqlQuery(scopeWithDates, Collections.emptySet(), 50);
+        String query2 = localQueryHelper.getSqlQuery(scopeWithDates, null, 50);
         assertThat(query2).contains("ACTIVE");
         assertThat(query2).contains("eventDate");
     }
@@ -207,9 +208,32 @@ public class TrackedEntityInstanceLocalQueryHelperShould {
                 .eventFilters(Collections.singletonList(eventFilter))
                 .build();
 
-        String query = localQueryHelper.getSqlQuery(overdueQuery, Collections.emptySet(), 50);
+        String query = localQueryHelper.getSqlQuery(overdueQuery, null, 50);
         assertThat(query).contains("dueDate");
         assertThat(query).contains("eventDate");
     }
 
+    @Test
+    public void build_sql_query_resuming_after_last_returned_key() {
+        TrackedEntityInstanceQueryRepositoryScope scope = queryBuilder
+                .program(programUid)
+                .build();
+
+        String firstPage = localQueryHelper.getSqlQuery(scope, null, 50);
+        assertThat(firstPage).contains("IFNULL(tei.lastUpdated, '') AS sortKey0, tei.uid AS sortKey1");
+        assertThat(firstPage).doesNotContain("?");
+        assertThat(firstPage).contains("ORDER BY IFNULL(tei.lastUpdated, '') DESC, tei.uid ASC");
+        assertThat(localQueryHelper.getSortKeyCount(scope)).isEqualTo(2);
+        assertThat(localQueryHelper.getSelectionArgs(null)).isEmpty();
+
+        List<String> lastKey = Arrays.asList("2021-01-01T00:00:00.000", "lastUid");
+        String nextPage = localQueryHelper.getSqlQuery(scope, lastKey, 50);
+        assertThat(nextPage).doesNotContain("NOT IN");
+        assertThat(nextPage).doesNotContain("SELECT IFNULL(tei.lastUpdated");
+        assertThat(nextPage).contains("IFNULL(tei.lastUpdated, '') < ?");
+        assertThat(nextPage).contains("IFNULL(tei.lastUpdated, '') = ?");
+        assertThat(nextPage).contains("tei.uid > ?");
+        assertThat(localQueryHelper.getSelectionArgs(lastKey)).asList()
+                .containsExactly("2021-01-01T00:00:00.000", "2021-01-01T00:00:00.000", "lastUid").inOrder();
+    }
 }
@@ -30,8 +30,8 @@ package org.hisp.dhis.android.core.trackedentity.search;
 
 import androidx.paging.ItemKeyedDataSource;
 
+import org.hisp.dhis.android.core.arch.cache.internal.BoundedExpirableCache;
 import org.hisp.dhis.android.core.arch.cache.internal.D2Cache;
-import org.hisp.dhis.android.core.arch.cache.internal.ExpirableCache;
 import org.hisp.dhis.android.core.arch.repositories.children.internal.ChildrenAppender;
 import org.hisp.dhis.android.core.common.AssignedUserMode;
 import org.hisp.dhis.android.core.common.DateFilterPeriodHelper;
@@ -56,11 +56,14 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import kotlin.Pair;
+
 import static com.google.common.truth.Truth.assertThat;
 import static org.hisp.dhis.android.core.arch.repositories.scope.internal.RepositoryMode.OFFLINE_FIRST;
 import static org.hisp.dhis.android.core.arch.repositories.scope.internal.RepositoryMode.OFFLINE_ONLY;
 import static org.hisp.dhis.android.core.arch.repositories.scope.internal.RepositoryMode.ONLINE_ONLY;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.verify;
@@ -100,7 +103,8 @@ public class TrackedEntityInstanceQueryDataSourceShould {
     private final TrackedEntityInstanceLocalQueryHelper localQueryHelper =
             new TrackedEntityInstanceLocalQueryHelper(periodHelper);
 
-    private final D2Cache<TrackedEntityInstanceQueryOnline, List<TrackedEntityInstance>> onlineCache = new ExpirableCache<>();
+    private final D2Cache<TrackedEntityInstanceQueryOnline, List<TrackedEntityInstance>> onlineCache =
+            new BoundedExpirableCache<>();
 
     private final int initialLoad = 30;
 
@@ -124,7 +128,8 @@ public class TrackedEntityInstanceQueryDataSourceShould {
                 TrackedEntityInstance.builder().uid("online5").build(),
                 TrackedEntityInstance.builder().uid("online6").build());
 
-        when(store.selectRawQuery(anyString())).thenReturn(offlineObjects);
+        when(store.selectRawQueryWithKeys(anyString(), any(), anyInt()))
+                .thenReturn(new Pair<>(offlineObjects, Arrays.asList("2021-01-01T00:00:00.000", "offline3")));
 
         singleEventFilterScope = emptyScopeWithModes(AssignedUserMode.ANY);
         multipleEventFilterScope = emptyScopeWithModes(AssignedUserMode.ANY, AssignedUserMode.CURRENT);
@@ -162,7 +167,7 @@ public class TrackedEntityInstanceQueryDataSourceShould {
 
         dataSource.loadInitial(new ItemKeyedDataSource.LoadInitialParams<>(null, initialLoad, false),
                 initialCallback);
-        verify(store).selectRawQuery(anyString());
+        verify(store).selectRawQueryWithKeys(anyString(), any(), anyInt());
         verify(initialCallback).onResult(offlineObjects);
         verifyNoMoreInteractions(store);
     }
@@ -176,7 +181,7 @@ public class TrackedEntityInstanceQueryDataSourceShould {
 
         dataSource.loadInitial(new ItemKeyedDataSource.LoadInitialParams<>(null, initialLoad, false),
                 initialCallback);
-        verify(store).selectRawQuery(anyString());
+        verify(store).selectRawQueryWithKeys(anyString(), any(), anyInt());
         verifyNoMoreInteractions(store);
         verify(onlineCallFactory).getCall(argThat(new QueryPageUserModeMatcher(1, initialLoad, AssignedUserMode.ANY)));
         verifyNoMoreInteractions(onlineCallFactory);
@@ -194,7 +199,7 @@ public class TrackedEntityInstanceQueryDataSourceShould {
 
         dataSource.loadInitial(new ItemKeyedDataSource.LoadInitialParams<>(null, 4, false),
                 initialCallback);
-        verify(store).selectRawQuery(anyString());
+        verify(store).selectRawQueryWithKeys(anyString(), any(), anyInt());
         verifyNoMoreInteractions(store);
         verify(onlineCallFactory).getCall(argThat(new QueryPageUserModeMatcher(1, 4, AssignedUserMode.ANY)));
 
@@ -235,7 +240,7 @@ public class TrackedEntityInstanceQueryDataSourceShould {
         dataSource.loadInitial(new ItemKeyedDataSource.LoadInitialParams<>(null, initialLoad, false),
                 initialCallback);
 
-        verify(store).selectRawQuery(anyString());
+        verify(store).selectRawQueryWithKeys(anyString(), any(), anyInt());
         verifyNoMoreInteractions(store);
         verify(onlineCallFactory).getCall(argThat(new QueryUserModeMatcher(AssignedUserMode.ANY)));
         verify(onlineCallFactory).getCall(argThat(new QueryUserModeMatcher(AssignedUserMode.CURRENT)));
@@ -263,7 +268,7 @@ public class TrackedEntityInstanceQueryDataSourceShould {
         dataSource.loadInitial(new ItemKeyedDataSource.LoadInitialParams<>(null, 5, false),
                 initialCallback);
 
-        verify(store).selectRawQuery(anyString());
+        verify(store).selectRawQueryWithKeys(anyString(), any(), anyInt());
         verifyNoMoreInteractions(store);
         verify(onlineCallFactory).getCall(argThat(new QueryPageUserModeMatcher(1, 5, AssignedUserMode.ANY)));
         verify(onlineCallFactory).getCall(argThat(new QueryPageUserModeMatcher(2, 5, AssignedUserMode.ANY)));